@@ -0,0 +1,65 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Dialect support for inserting many rows into a table more efficiently than via a batch of single row INSERT statements,
+ * i.e. via INSERT statements with a multi-row VALUES clause, or by natively loading a delimited file.
+ * <p>
+ * Files are encoded in UTF-8, and contain one line per row, whose fields are separated by commas.
+ * Null values are represented by an empty field.
+ * Character values are enclosed in double quotes, within which a double quote is escaped by another double quote.
+ * Binary values are written in hexadecimal, where an empty value is represented by an empty quoted field.
+ * All other values are written unquoted, using the string representation of their JDBC type, e.g. yyyy-mm-dd for dates, or true/false for booleans.
+ * </p>
+ * @author Paul Ferraro
+ */
+public interface BulkLoadSupport
+{
+	/**
+	 * Returns the maximum number of parameters permitted by a single statement.
+	 * @return a number of parameters
+	 */
+	int getMaxParameters();
+	
+	/**
+	 * Returns an INSERT statement for the specified columns of the specified table, whose VALUES clause contains parameters for the specified number of rows.
+	 * @param table a table
+	 * @param columns the columns to insert, in parameter order
+	 * @param rows the number of rows inserted per execution
+	 * @return a SQL statement
+	 * @throws SQLException
+	 */
+	String getMultiRowInsertSQL(TableProperties table, Collection<String> columns, int rows) throws SQLException;
+	
+	/**
+	 * Returns the SQL statements, to be executed in order, that load the specified delimited file into the specified columns of the specified table.
+	 * The file must be readable by the database itself, thus this is generally only applicable to embedded databases.
+	 * @param table a table
+	 * @param columns the columns to insert, in field order
+	 * @param file a delimited file, formatted as described above
+	 * @return a list of SQL statements, or null if this database cannot load delimited files
+	 * @throws SQLException
+	 */
+	List<String> getLoadFileSQL(TableProperties table, Collection<String> columns, File file) throws SQLException;
+}
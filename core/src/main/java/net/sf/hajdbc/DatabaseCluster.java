@@ -25,8 +25,14 @@ import net.sf.hajdbc.cache.DatabaseMetaDataCache;
 import net.sf.hajdbc.codec.Decoder;
 import net.sf.hajdbc.dialect.Dialect;
 import net.sf.hajdbc.durability.Durability;
+import net.sf.hajdbc.invocation.InvocationLatencies;
 import net.sf.hajdbc.io.InputSinkStrategy;
 import net.sf.hajdbc.lock.LockManager;
+import net.sf.hajdbc.metrics.MetricRegistry;
+import net.sf.hajdbc.replay.ReplayLog;
+import net.sf.hajdbc.sequence.IdentityColumnAllocator;
+import net.sf.hajdbc.sequence.SequenceAllocator;
+import net.sf.hajdbc.shadow.ShadowReader;
 import net.sf.hajdbc.state.StateManager;
 import net.sf.hajdbc.tx.TransactionIdentifierFactory;
 
@@ -75,6 +81,12 @@ public interface DatabaseCluster<Z, D extends Database<Z>> extends Lifecycle
 	
 	TransactionMode getTransactionMode();
 	
+	/**
+	 * Returns the databases against which a transactional write must complete before returning to the caller, if the transaction mode defers writes to backup databases.
+	 * @return a transaction completion rule
+	 */
+	TransactionCompletion getTransactionCompletion();
+	
 	ExecutorService getExecutor();
 	
 	/**
@@ -95,6 +107,42 @@ public interface DatabaseCluster<Z, D extends Database<Z>> extends Lifecycle
 	 */
 	StateManager getStateManager();
 	
+	/**
+	 * Returns the registry of performance metrics for this cluster.
+	 * @return a metric registry
+	 */
+	MetricRegistry getMetricRegistry();
+	
+	/**
+	 * Returns the reader used to verify a sample of single-database reads against another database.
+	 * @return a shadow reader
+	 */
+	ShadowReader<Z, D> getShadowReader();
+	
+	/**
+	 * Returns the log of recently committed write statements, used to catch up briefly inactive databases.
+	 * @return a replay log
+	 */
+	ReplayLog<Z, D> getReplayLog();
+	
+	/**
+	 * Returns the learned latencies of the methods invoked against the databases of this cluster.
+	 * @return invocation latencies
+	 */
+	InvocationLatencies getInvocationLatencies();
+	
+	/**
+	 * Returns the allocator of pre-allocated sequence values.
+	 * @return a sequence allocator
+	 */
+	SequenceAllocator<Z, D> getSequenceAllocator();
+	
+	/**
+	 * Returns the allocator of pre-allocated identity column values.
+	 * @return an identity column allocator
+	 */
+	IdentityColumnAllocator<Z, D> getIdentityColumnAllocator();
+	
 	/**
 	 * Returns a DatabaseMetaData cache.
 	 * @return a <code>DatabaseMetaDataCache</code> implementation
@@ -107,6 +155,12 @@ public interface DatabaseCluster<Z, D extends Database<Z>> extends Lifecycle
 	 */
 	boolean isSequenceDetectionEnabled();
 	
+	/**
+	 * Returns the maximum number of prepared statements cached per connection.
+	 * @return a number of statements, or 0 if prepared statements are not cached
+	 */
+	int getStatementCacheSize();
+	
 	/**
 	 * Indicates whether or not identity column detection is enabled for this cluster.
 	 * @return true, if identity column detection is enabled, false otherwise.
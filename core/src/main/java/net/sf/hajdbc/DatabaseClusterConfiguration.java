@@ -58,6 +58,13 @@ public interface DatabaseClusterConfiguration<Z, D extends Database<Z>>
 	BalancerFactory getBalancerFactory();
 
 	TransactionMode getTransactionMode();
+
+	/**
+	 * Returns the databases against which a transactional write must complete before returning to the caller.
+	 * Only consulted by transaction modes that defer writes to backup databases, e.g. {@link net.sf.hajdbc.sql.TransactionModeEnum#ORDERED}.
+	 * @return a transaction completion rule
+	 */
+	TransactionCompletion getTransactionCompletion();
 	
 	ExecutorServiceProvider getExecutorProvider();
 	
@@ -132,4 +139,93 @@ public interface DatabaseClusterConfiguration<Z, D extends Database<Z>>
 	boolean isEmptyClusterAllowed();
 
 	InputSinkProvider getInputSinkProvider();
+	
+	/**
+	 * Returns the initial ceiling on the number of rows per second read from the source database during synchronization.
+	 * @return a number of rows per second, or 0 if unlimited
+	 */
+	long getSynchronizationMaxRowsPerSecond();
+	
+	/**
+	 * Returns the initial ceiling on the number of bytes per second read from the source database during synchronization.
+	 * @return a number of bytes per second, or 0 if unlimited
+	 */
+	long getSynchronizationMaxBytesPerSecond();
+	
+	/**
+	 * Returns the number of target connections used to drop and restore constraints during synchronization.
+	 * @return a number of connections, where 1 executes constraint DDL serially
+	 */
+	int getSynchronizationConstraintThreads();
+	
+	/**
+	 * Returns the initial fraction of single-database reads that are verified against another database.
+	 * @return a ratio between 0 and 1, where 0 disables verification
+	 */
+	double getShadowReadRatio();
+	
+	/**
+	 * Returns the maximum number of concurrent shadow read verifications.
+	 * @return a number of threads
+	 */
+	int getShadowReadThreads();
+	
+	/**
+	 * Returns the maximum number of rows compared by a shadow read, beyond which verification is skipped.
+	 * @return a number of rows, or 0 if unlimited
+	 */
+	int getShadowReadMaxRows();
+	
+	/**
+	 * Indicates whether a database is deactivated if its results do not match those of the reference database.
+	 * @return true, if mismatches deactivate the database, false if they are only logged
+	 */
+	boolean isShadowReadDeactivationEnabled();
+	
+	/**
+	 * Returns the number of sequence values reserved at a time, such that statements consuming a single sequence value can be evaluated without locking the sequence.
+	 * Only applicable if sequence detection is enabled.
+	 * @return a number of sequence values, or 0 if sequence values are not pre-allocated
+	 */
+	int getSequenceBlockSize();
+	
+	/**
+	 * Returns the number of identity column values reserved at a time, such that single row inserts into tables with an identity column can be executed without locking the table.
+	 * Only applicable if identity column detection is enabled, and if the cluster is not distributed.
+	 * @return a number of identity column values, or 0 if identity column values are not pre-allocated
+	 */
+	int getIdentityBlockSize();
+	
+	/**
+	 * Returns the duration for which a member of a distributed cluster retains ownership of a released write lock, such that it can reacquire that lock without group communication.
+	 * Only applicable if the cluster is distributed.
+	 * @return a number of milliseconds, or 0 if write locks are released immediately
+	 */
+	long getLockLeaseTime();
+	
+	/**
+	 * Indicates whether each write lock of a distributed cluster is owned by the member chosen by consistent hashing of the lock identifier over the current group view, rather than by the group coordinator.
+	 * Only applicable if the cluster is distributed.
+	 * @return true, if lock ownership is distributed by consistent hashing, false otherwise
+	 */
+	boolean isLockHashingEnabled();
+	
+	/**
+	 * Returns the maximum number of committed write statements retained in memory, such that a database that was only briefly inactive can be reactivated by replaying them, rather than by synchronization.
+	 * Not applicable if the cluster is distributed.
+	 * @return a number of statements, or 0 if write statements are not retained
+	 */
+	int getReplayLogSize();
+	
+	/**
+	 * Returns the maximum number of prepared statements cached per connection, such that repeatedly preparing the same statement need not re-prepare it against every database.
+	 * @return a number of statements, or 0 if prepared statements are not cached
+	 */
+	int getStatementCacheSize();
+	
+	/**
+	 * Returns the average latency, per database, beyond which a method invoked against every database on which a given object already exists is executed against these databases concurrently, rather than one after another.
+	 * @return a number of microseconds
+	 */
+	int getParallelInvocationThreshold();
 }
@@ -85,13 +85,28 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 	
 	private volatile String defaultSynchronizationStrategy;
 	private volatile TransactionMode transactionMode = TransactionModeEnum.SERIAL;
+	private volatile TransactionCompletion transactionCompletion = TransactionCompletion.PRIMARY;
 	private volatile boolean evalCurrentDate = false;
 	private volatile boolean evalCurrentTime = false;
 	private volatile boolean evalCurrentTimestamp = false;
 	private volatile boolean evalRand = false;
 	private volatile boolean detectIdentityColumns = false;
+	private volatile int identityBlockSize = 0;
 	private volatile boolean detectSequences = false;
+	private volatile int sequenceBlockSize = 0;
 	private volatile boolean allowEmptyCluster = false;
+	private volatile long lockLeaseTime = 0;
+	private volatile boolean lockHashing = false;
+	private volatile long syncMaxRowsPerSecond = 0;
+	private volatile long syncMaxBytesPerSecond = 0;
+	private volatile int syncConstraintThreads = 1;
+	private volatile double shadowReadRatio = 0;
+	private volatile int shadowReadThreads = 1;
+	private volatile int shadowReadMaxRows = 1000;
+	private volatile boolean shadowReadDeactivate = false;
+	private volatile int replayLogSize = 0;
+	private volatile int statementCacheSize = 0;
+	private volatile int parallelInvocationThreshold = 100;
 	
 	protected DatabaseClusterConfigurationBuilder(DatabaseBuilderFactory<Z, D, B> factory)
 	{
@@ -316,6 +331,12 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 		this.transactionMode = transactionMode;
 		return this;
 	}
+	
+	public DatabaseClusterConfigurationBuilder<Z, D, B> transactionCompletion(TransactionCompletion transactionCompletion)
+	{
+		this.transactionCompletion = transactionCompletion;
+		return this;
+	}
 
 	public DatabaseClusterConfigurationBuilder<Z, D, B> autoActivateSchedule(String schedule)
 	{
@@ -371,6 +392,90 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 		return this;
 	}
 
+	public DatabaseClusterConfigurationBuilder<Z, D, B> syncMaxRowsPerSecond(long rows)
+	{
+		this.syncMaxRowsPerSecond = rows;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> syncMaxBytesPerSecond(long bytes)
+	{
+		this.syncMaxBytesPerSecond = bytes;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> syncConstraintThreads(int threads)
+	{
+		this.syncConstraintThreads = threads;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> shadowReadRatio(double ratio)
+	{
+		this.shadowReadRatio = ratio;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> lockLeaseTime(long time)
+	{
+		this.lockLeaseTime = time;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> lockHashing(boolean enabled)
+	{
+		this.lockHashing = enabled;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> identityBlockSize(int size)
+	{
+		this.identityBlockSize = size;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> sequenceBlockSize(int size)
+	{
+		this.sequenceBlockSize = size;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> shadowReadThreads(int threads)
+	{
+		this.shadowReadThreads = threads;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> shadowReadMaxRows(int rows)
+	{
+		this.shadowReadMaxRows = rows;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> shadowReadDeactivate(boolean enabled)
+	{
+		this.shadowReadDeactivate = enabled;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> replayLogSize(int size)
+	{
+		this.replayLogSize = size;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> statementCacheSize(int size)
+	{
+		this.statementCacheSize = size;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> parallelInvocationThreshold(int micros)
+	{
+		this.parallelInvocationThreshold = micros;
+		return this;
+	}
+
 	@Override
 	public DatabaseClusterConfigurationBuilder<Z, D, B> read(DatabaseClusterConfiguration<Z, D> configuration)
 	{
@@ -397,13 +502,28 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 		
 		final String defaultSynchronizationStrategy = this.defaultSynchronizationStrategy;
 		final TransactionMode transactionMode = this.transactionMode;
+		final TransactionCompletion transactionCompletion = this.transactionCompletion;
 		final boolean evalCurrentDate = this.evalCurrentDate;
 		final boolean evalCurrentTime = this.evalCurrentTime;
 		final boolean evalCurrentTimestamp = this.evalCurrentTimestamp;
 		final boolean evalRand = this.evalRand;
 		final boolean detectIdentityColumns = this.detectIdentityColumns;
+		final int identityBlockSize = this.identityBlockSize;
 		final boolean detectSequences = this.detectSequences;
+		final int sequenceBlockSize = this.sequenceBlockSize;
 		final boolean allowEmptyCluster = this.allowEmptyCluster;
+		final long lockLeaseTime = this.lockLeaseTime;
+		final boolean lockHashing = this.lockHashing;
+		final long syncMaxRowsPerSecond = this.syncMaxRowsPerSecond;
+		final long syncMaxBytesPerSecond = this.syncMaxBytesPerSecond;
+		final int syncConstraintThreads = this.syncConstraintThreads;
+		final double shadowReadRatio = this.shadowReadRatio;
+		final int shadowReadThreads = this.shadowReadThreads;
+		final int shadowReadMaxRows = this.shadowReadMaxRows;
+		final boolean shadowReadDeactivate = this.shadowReadDeactivate;
+		final int replayLogSize = this.replayLogSize;
+		final int statementCacheSize = this.statementCacheSize;
+		final int parallelInvocationThreshold = this.parallelInvocationThreshold;
 		
 		if (this.synchronizationStrategyBuilders.isEmpty())
 		{
@@ -472,6 +592,12 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 				return transactionMode;
 			}
 
+			@Override
+			public TransactionCompletion getTransactionCompletion()
+			{
+				return transactionCompletion;
+			}
+
 			@Override
 			public ExecutorServiceProvider getExecutorProvider()
 			{
@@ -585,6 +711,90 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 			{
 				return inputSinkProvider;
 			}
+
+			@Override
+			public long getSynchronizationMaxRowsPerSecond()
+			{
+				return syncMaxRowsPerSecond;
+			}
+
+			@Override
+			public long getSynchronizationMaxBytesPerSecond()
+			{
+				return syncMaxBytesPerSecond;
+			}
+
+			@Override
+			public int getSynchronizationConstraintThreads()
+			{
+				return syncConstraintThreads;
+			}
+
+			@Override
+			public double getShadowReadRatio()
+			{
+				return shadowReadRatio;
+			}
+
+			@Override
+			public int getShadowReadThreads()
+			{
+				return shadowReadThreads;
+			}
+
+			@Override
+			public int getShadowReadMaxRows()
+			{
+				return shadowReadMaxRows;
+			}
+
+			@Override
+			public boolean isShadowReadDeactivationEnabled()
+			{
+				return shadowReadDeactivate;
+			}
+
+			@Override
+			public int getSequenceBlockSize()
+			{
+				return sequenceBlockSize;
+			}
+
+			@Override
+			public int getIdentityBlockSize()
+			{
+				return identityBlockSize;
+			}
+
+			@Override
+			public long getLockLeaseTime()
+			{
+				return lockLeaseTime;
+			}
+
+			@Override
+			public boolean isLockHashingEnabled()
+			{
+				return lockHashing;
+			}
+
+			@Override
+			public int getReplayLogSize()
+			{
+				return replayLogSize;
+			}
+
+			@Override
+			public int getStatementCacheSize()
+			{
+				return statementCacheSize;
+			}
+
+			@Override
+			public int getParallelInvocationThreshold()
+			{
+				return parallelInvocationThreshold;
+			}
 		};
 	}
 }
@@ -18,6 +18,7 @@
 package net.sf.hajdbc;
 
 import java.sql.SQLException;
+import java.util.List;
 
 
 /**
@@ -44,4 +45,22 @@ public interface IdentityColumnSupport
 	 * @since 2.0.2
 	 */
 	String getAlterIdentityColumnSQL(TableProperties table, ColumnProperties column, long value) throws SQLException;
+	
+	/**
+	 * Parses the target columns of a single row INSERT ... VALUES statement with an explicit column list.
+	 * @param sql a SQL statement
+	 * @return a list of column names, or null if this SQL statement is not such a statement
+	 * @throws SQLException
+	 */
+	List<String> parseInsertColumns(String sql) throws SQLException;
+	
+	/**
+	 * Adds the specified column, with the specified value, to a statement for which {@link #parseInsertColumns(String)} returned a list of columns.
+	 * @param sql a single row INSERT statement
+	 * @param column an identity column
+	 * @param value an identity value
+	 * @return a SQL statement
+	 * @throws SQLException
+	 */
+	String evaluateIdentityColumn(String sql, String column, long value) throws SQLException;
 }
@@ -62,5 +62,22 @@ public interface SequenceSupport
 	 */
 	String getAlterSequenceSQL(SequenceProperties sequence, long value) throws SQLException;
 
+	/**
+	 * Indicates whether the sequence expression of the specified SQL statement is evaluated exactly once, such that it can be replaced by a literal value via {@link #evaluateNextSequenceValue(String, long)}.
+	 * @param sql a SQL statement
+	 * @return true, if the sequence expression of this statement can be evaluated locally, false otherwise
+	 * @throws SQLException
+	 */
+	boolean isNextSequenceValueEvaluable(String sql) throws SQLException;
+	
+	/**
+	 * Replaces the sequence expression of the specified SQL statement with the specified value.
+	 * @param sql a SQL statement whose sequence expression is evaluable
+	 * @param value a sequence value
+	 * @return a SQL statement
+	 * @throws SQLException
+	 */
+	String evaluateNextSequenceValue(String sql, long value) throws SQLException;
+	
 	SequencePropertiesFactory createSequencePropertiesFactory(QualifiedNameFactory factory);
 }
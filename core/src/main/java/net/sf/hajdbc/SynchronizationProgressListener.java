@@ -0,0 +1,33 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc;
+
+import net.sf.hajdbc.sync.SynchronizationProgressEvent;
+
+/**
+ * Synchronization listener that is additionally notified of the progress of a synchronization.
+ * @author Paul Ferraro
+ */
+public interface SynchronizationProgressListener extends SynchronizationListener
+{
+	/**
+	 * Triggered periodically while synchronization is in progress, and upon completion of each table.
+	 * @param event a snapshot of the progress of the synchronization
+	 */
+	void synchronizationProgress(SynchronizationProgressEvent event);
+}
@@ -0,0 +1,46 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc;
+
+import java.util.Locale;
+
+/**
+ * Determines which databases a transactional write must complete against before control returns to the caller.
+ * Only consulted by transaction modes that defer execution against backup databases, e.g. {@link net.sf.hajdbc.sql.TransactionModeEnum#ORDERED}.
+ * @author Paul Ferraro
+ */
+public enum TransactionCompletion
+{
+	/**
+	 * Waits for the write to complete against every database.
+	 */
+	ALL,
+	/**
+	 * Waits for the write to complete against the primary database only.
+	 * Backup databases complete in the background, and must catch up before the transaction ends.
+	 * Auto-committed writes, and writes that acquire locks of their own, still wait for every database.
+	 */
+	PRIMARY,
+	;
+
+	@Override
+	public String toString()
+	{
+		return this.name().toLowerCase(Locale.US);
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * The ordered lanes of a transaction, per partition (e.g. per database), via which a {@link TransactionMode} may leave writes pending.
+ * @author Paul Ferraro
+ */
+public interface TransactionLanes
+{
+	/**
+	 * Appends the specified task to the lane of the specified partition.
+	 * @param partition a partition key
+	 * @param task a task
+	 * @param executor the executor via which the lane executes its tasks
+	 * @return the future result of the task
+	 */
+	<T> Future<T> submit(Object partition, Callable<T> task, Executor executor);
+
+	/**
+	 * Discards all lanes, without waiting for their pending tasks.
+	 */
+	void clear();
+}
@@ -26,4 +26,18 @@ import java.util.concurrent.ExecutorService;
 public interface TransactionMode
 {
 	ExecutorService getTransactionExecutor(ExecutorService executor, boolean end);
+
+	/**
+	 * Returns the executor with which to invoke a transactional write against each database.
+	 * By default, writes are never left pending, i.e. the lanes and completion are ignored.
+	 * @param executor the cluster executor
+	 * @param lanes the lanes via which the current transaction orders any writes left pending
+	 * @param completion indicates which databases the write must complete against before the executor returns
+	 * @param end indicates whether the write ends the current transaction
+	 * @return an executor service
+	 */
+	default ExecutorService getTransactionExecutor(ExecutorService executor, TransactionLanes lanes, TransactionCompletion completion, boolean end)
+	{
+		return this.getTransactionExecutor(executor, end);
+	}
 }
@@ -18,18 +18,15 @@
 package net.sf.hajdbc.balancer;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 import net.sf.hajdbc.Database;
 
 /**
  * Thread-safe abstract balancer implementation that implements most of the Balancer interface, except {@link Balancer#next()}.
  * Uses A copy-on-write algorithm for {@link #add(Object)}, {@link #remove(Object)}, and {@link #clear()}.
- * Calls to {@link #iterator()} are non-blocking.
+ * Calls to {@link #iterator()}, {@link #backups()}, and {@link #topology()} are non-blocking.
  * 
  * @author Paul Ferraro
  * @param <Z>
@@ -37,8 +34,30 @@ import net.sf.hajdbc.Database;
  */
 public abstract class AbstractBalancer<Z, D extends Database<Z>> implements Balancer<Z, D>
 {
+	private volatile Topology<Z, D> topology = Topology.empty();
+
 	protected abstract Set<D> getDatabases();
 
+	/**
+	 * Publishes a new topology snapshot for the specified databases.
+	 * Subclasses must call this, while holding their write lock, whenever their set of databases changes.
+	 * @param databases the new set of databases
+	 */
+	protected void updateTopology(Set<D> databases)
+	{
+		this.topology = databases.isEmpty() ? Topology.<Z, D>empty() : new Topology<Z, D>(databases);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.Balancer#topology()
+	 */
+	@Override
+	public Topology<Z, D> topology()
+	{
+		return this.topology;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.balancer.Balancer#backups()
@@ -46,25 +65,7 @@ public abstract class AbstractBalancer<Z, D extends Database<Z>> implements Bala
 	@Override
 	public Iterable<D> backups()
 	{
-		Iterator<D> databases = this.getDatabases().iterator();
-		
-		if (!databases.hasNext() || ((databases.next() != null) && !databases.hasNext())) return Collections.emptySet();
-		
-		D database = databases.next();
-		
-		if (!databases.hasNext()) return Collections.singleton(database);
-		
-		SortedSet<D> backups = new TreeSet<>();
-		
-		backups.add(database);
-		
-		do
-		{
-			backups.add(databases.next());
-		}
-		while (databases.hasNext());
-
-		return backups;
+		return this.topology.backups();
 	}
 	
 	/**
@@ -43,11 +43,11 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 	{
 		if (databases.isEmpty())
 		{
-			this.databaseSet = Collections.emptySortedSet();
+			this.setDatabaseSet(Collections.emptySortedSet());
 		}
 		else if (databases.size() == 1)
 		{
-			this.databaseSet = Collections.singletonSortedSet(databases.iterator().next());
+			this.setDatabaseSet(Collections.singletonSortedSet(databases.iterator().next()));
 		}
 		else
 		{
@@ -58,10 +58,16 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 				set.add(database);
 			}
 			
-			this.databaseSet = set;
+			this.setDatabaseSet(set);
 		}
 	}
 
+	private void setDatabaseSet(SortedSet<D> set)
+	{
+		this.databaseSet = set;
+		this.updateTopology(set);
+	}
+
 	protected Lock getLock()
 	{
 		return this.lock;
@@ -122,7 +128,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 			{
 				if (this.databaseSet.size() == 1)
 				{
-					this.databaseSet = Collections.emptySortedSet();
+					this.setDatabaseSet(Collections.emptySortedSet());
 				}
 				else
 				{
@@ -130,7 +136,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 					
 					set.remove(database);
 					
-					this.databaseSet = set;
+					this.setDatabaseSet(set);
 				}
 				
 				this.removed((D) database);
@@ -167,7 +173,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 			{
 				if (this.databaseSet.isEmpty())
 				{
-					this.databaseSet = Collections.singletonSortedSet(database);
+					this.setDatabaseSet(Collections.singletonSortedSet(database));
 				}
 				else
 				{
@@ -175,7 +181,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 					
 					set.add(database);
 					
-					this.databaseSet = set;
+					this.setDatabaseSet(set);
 				}
 				
 				this.added(database);
@@ -216,7 +222,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 				
 				removeSet.removeAll(this.databaseSet);
 				
-				this.databaseSet = addSet;
+				this.setDatabaseSet(addSet);
 				
 				for (D database: removeSet)
 				{
@@ -253,7 +259,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 				
 				retainSet.retainAll(databases);
 				
-				this.databaseSet = removeSet;
+				this.setDatabaseSet(removeSet);
 				
 				for (D database: retainSet)
 				{
@@ -290,7 +296,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 				
 				removeSet.removeAll(databases);
 				
-				this.databaseSet = retainSet;
+				this.setDatabaseSet(retainSet);
 				
 				for (D database: removeSet)
 				{
@@ -319,7 +325,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 		{
 			if (!this.databaseSet.isEmpty())
 			{
-				this.databaseSet = Collections.emptySortedSet();
+				this.setDatabaseSet(Collections.emptySortedSet());
 				
 				this.cleared();
 			}
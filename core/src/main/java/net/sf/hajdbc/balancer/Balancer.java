@@ -45,6 +45,12 @@ public interface Balancer<Z, D extends Database<Z>> extends Set<D>
 	 */
 	Iterable<D> backups();
 	
+	/**
+	 * Returns an immutable snapshot of the active databases, whose slot indexes are stable for the lifetime of the snapshot.
+	 * @return a topology snapshot
+	 */
+	Topology<Z, D> topology();
+	
 	/**
 	 * Returns the next database from this balancer
 	 * @return the next database from this balancer
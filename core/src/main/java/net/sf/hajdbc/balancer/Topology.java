@@ -0,0 +1,154 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.balancer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.hajdbc.Database;
+
+/**
+ * Immutable snapshot of the active databases of a cluster.
+ * Each active database is assigned a dense slot index, in database order, such that the primary database always occupies slot 0.
+ * This allows the invocation path to address per-database state via plain arrays, rather than via sorted maps.
+ * A new snapshot is published by the {@link Balancer} whenever its set of databases changes; slot indexes are only meaningful within a single snapshot.
+ * @author Paul Ferraro
+ * @param <Z>
+ * @param <D>
+ */
+public class Topology<Z, D extends Database<Z>>
+{
+	private static final Topology<?, ?> EMPTY = new Topology<>(Collections.<Database<Object>>emptySet());
+
+	@SuppressWarnings("unchecked")
+	public static <Z, D extends Database<Z>> Topology<Z, D> empty()
+	{
+		return (Topology<Z, D>) EMPTY;
+	}
+
+	private final Database<?>[] databases;
+	private final List<D> backups;
+
+	/**
+	 * Creates a snapshot of the specified databases.
+	 * @param databases a collection of databases
+	 */
+	public Topology(Collection<D> databases)
+	{
+		this.databases = databases.toArray(new Database<?>[databases.size()]);
+		Arrays.sort(this.databases);
+		this.backups = (this.databases.length > 1) ? new BackupList() : Collections.<D>emptyList();
+	}
+
+	/**
+	 * Returns the number of databases in this snapshot.
+	 * @return a number of slots
+	 */
+	public int size()
+	{
+		return this.databases.length;
+	}
+
+	/**
+	 * Indicates whether this snapshot contains no databases.
+	 * @return true, if there are no active databases, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return this.databases.length == 0;
+	}
+
+	/**
+	 * Returns the database occupying the specified slot.
+	 * @param slot a slot index
+	 * @return a database
+	 */
+	@SuppressWarnings("unchecked")
+	public D get(int slot)
+	{
+		return (D) this.databases[slot];
+	}
+
+	/**
+	 * Returns the slot of the specified database.
+	 * @param database a database
+	 * @return a slot index, or -1 if the specified database is not contained in this snapshot
+	 */
+	public int indexOf(D database)
+	{
+		int index = Arrays.binarySearch(this.databases, database);
+		return (index >= 0) ? index : -1;
+	}
+
+	/**
+	 * Indicates whether the specified database is contained in this snapshot.
+	 * @param database a database
+	 * @return true, if the specified database was active at the time of this snapshot, false otherwise
+	 */
+	public boolean contains(D database)
+	{
+		return this.indexOf(database) >= 0;
+	}
+
+	/**
+	 * Returns the primary database, i.e. the database in slot 0.
+	 * @return the primary database, or null if this snapshot is empty
+	 */
+	public D primary()
+	{
+		return (this.databases.length > 0) ? this.get(0) : null;
+	}
+
+	/**
+	 * Returns the backup databases, i.e. the databases in slots 1 to n-1.
+	 * @return an unmodifiable list of databases
+	 */
+	public List<D> backups()
+	{
+		return this.backups;
+	}
+
+	@Override
+	public String toString()
+	{
+		return Arrays.toString(this.databases);
+	}
+
+	private class BackupList extends AbstractList<D>
+	{
+		BackupList()
+		{
+		}
+
+		@Override
+		public D get(int index)
+		{
+			if ((index < 0) || (index >= this.size())) throw new IndexOutOfBoundsException(Integer.toString(index));
+			return Topology.this.get(index + 1);
+		}
+
+		@Override
+		public int size()
+		{
+			return Topology.this.databases.length - 1;
+		}
+	}
+}
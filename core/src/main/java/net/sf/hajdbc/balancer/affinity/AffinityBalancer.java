@@ -0,0 +1,145 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.balancer.affinity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.balancer.AbstractSetBalancer;
+import net.sf.hajdbc.util.Objects;
+
+/**
+ * Balancer implementation that routes reads by a routing key, e.g. the table being queried, using consistent hashing.
+ * Each database is assigned a number of points on a hash ring proportional to its weight; a key is routed to the database owning the first point at or after the hash of that key.
+ * Thus each database serves a stable, disjoint subset of keys, so that the working sets cached by each database do not overlap.
+ * When a database is removed, only the keys it served are redistributed among the remaining databases.
+ * Reads without a routing key are distributed randomly, in proportion to database weight.
+ * 
+ * @author Paul Ferraro
+ * @param <D> either java.sql.Driver or javax.sql.DataSource
+ */
+public class AffinityBalancer<Z, D extends Database<Z>> extends AbstractSetBalancer<Z, D>
+{
+	// Number of points per unit of weight - a larger number distributes keys more evenly
+	private static final int POINTS = 64;
+	
+	private final NavigableMap<Long, D> ring = new ConcurrentSkipListMap<>();
+	// Number of points assigned to each database, since its weight may change while it is active - guarded by the balancer lock
+	private final Map<D, Integer> points = new HashMap<>();
+	
+	/**
+	 * Constructs a new AffinityBalancer
+	 * @param databases
+	 */
+	public AffinityBalancer(Set<D> databases)
+	{
+		super(databases);
+		
+		for (D database: databases)
+		{
+			this.added(database);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#added(net.sf.hajdbc.Database)
+	 */
+	@Override
+	protected void added(D database)
+	{
+		int points = database.getWeight() * POINTS;
+		long hash = database.getId().hashCode();
+		
+		this.points.put(database, points);
+		
+		for (int i = 0; i < points; ++i)
+		{
+			this.ring.put(Objects.mix((hash << Integer.SIZE) | i), database);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#removed(net.sf.hajdbc.Database)
+	 */
+	@Override
+	protected void removed(D database)
+	{
+		Integer points = this.points.remove(database);
+		
+		if (points == null) return;
+		
+		long hash = database.getId().hashCode();
+		
+		for (int i = 0; i < points; ++i)
+		{
+			// Only remove the point if it was not claimed by a colliding database
+			this.ring.remove(Objects.mix((hash << Integer.SIZE) | i), database);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#cleared()
+	 */
+	@Override
+	protected void cleared()
+	{
+		this.ring.clear();
+		this.points.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.Balancer#next()
+	 */
+	@Override
+	public D next()
+	{
+		return this.next(ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Returns the database to which the specified routing key is routed.
+	 * @param key a routing key
+	 * @return a database, or the primary database if no database has a positive weight, or null if this balancer is empty
+	 */
+	public D next(Object key)
+	{
+		return this.next(Objects.mix(key.hashCode()));
+	}
+	
+	private D next(long hash)
+	{
+		Map.Entry<Long, D> entry = this.ring.ceilingEntry(hash);
+		
+		if (entry == null)
+		{
+			entry = this.ring.firstEntry();
+		}
+		
+		// Ring is concurrently modified without locking, so verify that the database is still active
+		return ((entry != null) && this.contains(entry.getValue())) ? entry.getValue() : this.primary();
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.balancer.affinity;
+
+/**
+ * Associates a caller-supplied routing key with reads executed by the current thread, for use by an {@link AffinityBalancer}.
+ * A routing key takes precedence over the table parsed from the query.
+ * e.g.
+ * <pre>
+ * RoutingKey.set(customerId);
+ * try
+ * {
+ *     // execute queries
+ * }
+ * finally
+ * {
+ *     RoutingKey.clear();
+ * }
+ * </pre>
+ * @author Paul Ferraro
+ */
+public final class RoutingKey
+{
+	private static final ThreadLocal<Object> key = new ThreadLocal<>();
+	
+	/**
+	 * Sets the routing key of the current thread.
+	 * @param value a routing key
+	 */
+	public static void set(Object value)
+	{
+		key.set(value);
+	}
+	
+	/**
+	 * Returns the routing key of the current thread.
+	 * @return a routing key, or null if none was set
+	 */
+	public static Object get()
+	{
+		return key.get();
+	}
+	
+	/**
+	 * Clears the routing key of the current thread.
+	 */
+	public static void clear()
+	{
+		key.remove();
+	}
+	
+	private RoutingKey()
+	{
+		// Hide
+	}
+}
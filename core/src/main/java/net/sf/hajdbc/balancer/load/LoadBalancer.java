@@ -80,11 +80,11 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 	{
 		if (databases.isEmpty())
 		{
-			this.databaseMap = Collections.emptySortedMap();
+			this.setDatabaseMap(Collections.emptySortedMap());
 		}
 		else if (databases.size() == 1)
 		{
-			this.databaseMap = Collections.singletonSortedMap(databases.iterator().next(), new AtomicInteger(1));
+			this.setDatabaseMap(Collections.singletonSortedMap(databases.iterator().next(), new AtomicInteger(1)));
 		}
 		else
 		{
@@ -95,10 +95,16 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 				map.put(database, new AtomicInteger(1));
 			}
 			
-			this.databaseMap = map;
+			this.setDatabaseMap(map);
 		}
 	}
 	
+	private void setDatabaseMap(SortedMap<D, AtomicInteger> map)
+	{
+		this.databaseMap = map;
+		this.updateTopology(map.keySet());
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.balancer.Balancer#primary()
@@ -148,7 +154,7 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 			
 			if (added)
 			{
-				this.databaseMap = addMap;
+				this.setDatabaseMap(addMap);
 			}
 			
 			return added;
@@ -176,7 +182,7 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 
 			if (removed)
 			{
-				this.databaseMap = map;
+				this.setDatabaseMap(map);
 			}
 			
 			return removed;
@@ -204,7 +210,7 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 
 			if (retained)
 			{
-				this.databaseMap = map;
+				this.setDatabaseMap(map);
 			}
 			
 			return retained;
@@ -228,7 +234,7 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 		{
 			if (!this.databaseMap.isEmpty())
 			{
-				this.databaseMap = new TreeMap<>();
+				this.setDatabaseMap(new TreeMap<>());
 			}
 		}
 		finally
@@ -254,7 +260,7 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 			{
 				if (this.databaseMap.size() == 1)
 				{
-					this.databaseMap = Collections.emptySortedMap();
+					this.setDatabaseMap(Collections.emptySortedMap());
 				}
 				else
 				{
@@ -262,7 +268,7 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 
 					map.remove(database);
 					
-					this.databaseMap = map;
+					this.setDatabaseMap(map);
 				}
 			}
 			
@@ -305,7 +311,7 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 				
 				if (this.databaseMap.isEmpty())
 				{
-					this.databaseMap = Collections.singletonSortedMap(database, load);
+					this.setDatabaseMap(Collections.singletonSortedMap(database, load));
 				}
 				else
 				{
@@ -313,7 +319,7 @@ public class LoadBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z,
 					
 					map.put(database, load);
 					
-					this.databaseMap = map;
+					this.setDatabaseMap(map);
 				}
 			}
 			
@@ -26,6 +26,7 @@ import java.util.Map;
 
 import javax.transaction.xa.XAException;
 
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.ColumnProperties;
 import net.sf.hajdbc.ColumnPropertiesFactory;
 import net.sf.hajdbc.Database;
@@ -100,6 +101,13 @@ public interface Dialect
 	 */
 	boolean isSelectForUpdate(String sql) throws SQLException;
 	
+	/**
+	 * Parses the name of the (first) table read by the specified SELECT statement.
+	 * @param sql a SQL statement
+	 * @return the name of a table, or null if this SQL statement is not a SELECT statement
+	 */
+	String parseSelectTable(String sql);
+	
 	/**
 	 * Returns the data type of the specified column of the specified schema and table.
 	 * This method is intended to correct JDBC driver type mapping quirks.
@@ -179,6 +187,8 @@ public interface Dialect
 	
 	TriggerSupport getTriggerSupport();
 	
+	BulkLoadSupport getBulkLoadSupport();
+	
 	String getCreateSchemaSQL(String schema);
 	
 	String getDropSchemaSQL(String schema);
@@ -17,6 +17,7 @@
  */
 package net.sf.hajdbc.dialect;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Driver;
@@ -44,6 +45,7 @@ import java.util.regex.Pattern;
 
 import javax.transaction.xa.XAException;
 
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.ColumnProperties;
 import net.sf.hajdbc.ColumnPropertiesFactory;
 import net.sf.hajdbc.Database;
@@ -70,7 +72,7 @@ import net.sf.hajdbc.util.Strings;
  * @author  Paul Ferraro
  * @since   1.1
  */
-public class StandardDialect implements Dialect, SequenceSupport, IdentityColumnSupport, TriggerSupport
+public class StandardDialect implements Dialect, SequenceSupport, IdentityColumnSupport, TriggerSupport, BulkLoadSupport
 {
 	// Taken from SQL:2003 column of: http://www.postgresql.org/docs/9.1/static/sql-keywords-appendix.html
 	// Only includes reserved keywords, since we only care about those keywords that require quoting to be used as an identifier
@@ -102,7 +104,13 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 	
 	private final Pattern selectForUpdatePattern = compile(this.selectForUpdatePattern());
 	private final Pattern insertIntoTablePattern = compile(this.insertIntoTablePattern());
+	private final Pattern selectFromTablePattern = compile(this.selectFromTablePattern());
 	private final Pattern sequencePattern = compile(this.sequencePattern());
+	private final Pattern nextSequenceValuePattern = compile(this.nextSequenceValuePattern());
+	private final Pattern insertValuesPattern = compile(this.insertValuesPattern());
+	private final Pattern selectPattern = compile(this.selectPattern());
+	private final Pattern insertColumnsPattern = compile(this.insertColumnsPattern());
+	private final Pattern valuesPattern = compile(this.valuesPattern());
 	private final Pattern currentTimestampPattern = compile(this.currentTimestampPattern());
 	private final Pattern currentDatePattern = compile(this.currentDatePattern());
 	private final Pattern currentTimePattern = compile(this.currentTimePattern());
@@ -134,11 +142,44 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return "INSERT\\s+(?:INTO\\s+)?'?([^'\\s\\(]+)";
 	}
 
+	protected String selectFromTablePattern()
+	{
+		return "(?s)^\\s*SELECT\\s.+?\\sFROM\\s+'?([^'\\s,;\\(\\)]+)";
+	}
+
 	protected String sequencePattern()
 	{
 		return "NEXT\\s+VALUE\\s+FOR\\s+'?([^',\\s\\(\\)]+)";
 	}
 	
+	/**
+	 * The subset of {@link #sequencePattern()} that advances the sequence.
+	 */
+	protected String nextSequenceValuePattern()
+	{
+		return this.sequencePattern();
+	}
+	
+	protected String insertValuesPattern()
+	{
+		return "(?s)^\\s*INSERT\\s.+?\\sVALUES\\s*\\(";
+	}
+	
+	protected String selectPattern()
+	{
+		return "\\bSELECT\\b";
+	}
+	
+	protected String insertColumnsPattern()
+	{
+		return "^\\s*INSERT\\s+(?:INTO\\s+)?[^\\s\\(]+\\s*\\(";
+	}
+	
+	protected String valuesPattern()
+	{
+		return "\\s*VALUES\\s*\\(";
+	}
+	
 	protected String currentDatePattern()
 	{
 		return "(?<=\\W)CURRENT_DATE(?=\\W)";
@@ -273,6 +314,15 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return this.selectForUpdatePattern.matcher(sql).find();
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.Dialect#parseSelectTable(java.lang.String)
+	 */
+	@Override
+	public String parseSelectTable(String sql)
+	{
+		return this.parse(this.selectFromTablePattern, sql);
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.Dialect#getDefaultSchemas(java.sql.DatabaseMetaData)
 	 */
@@ -394,6 +444,96 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return "ALTER SEQUENCE {0} RESTART WITH {1}";
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * A statement is evaluable if it references a single sequence expression that advances its sequence, and either inserts a single row of values, or only selects the next sequence value.
+	 * @see net.sf.hajdbc.SequenceSupport#isNextSequenceValueEvaluable(java.lang.String)
+	 */
+	@Override
+	public boolean isNextSequenceValueEvaluable(String sql)
+	{
+		Matcher matcher = this.sequencePattern.matcher(sql);
+		
+		if (!matcher.find()) return false;
+		
+		int start = matcher.start();
+		int end = matcher.end();
+		String expression = matcher.group();
+		
+		// Each additional reference would need its own value
+		if (matcher.find()) return false;
+		
+		// Ensure the match is not part of a qualified name
+		if ((start > 0) && (sql.charAt(start - 1) == '.')) return false;
+		
+		if (!this.nextSequenceValuePattern.matcher(expression).matches()) return false;
+		
+		Matcher insertMatcher = this.insertValuesPattern.matcher(sql);
+		
+		if (insertMatcher.lookingAt())
+		{
+			if (this.selectPattern.matcher(sql).find()) return false;
+			
+			int valuesEnd = findClosingParenthesis(sql, insertMatcher.end());
+			
+			return (valuesEnd > end) && (start >= insertMatcher.end()) && sql.substring(valuesEnd + 1).trim().replace(";", "").isEmpty();
+		}
+		
+		return normalize(sql).equalsIgnoreCase(normalize(this.executeFunctionSQL(expression)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.SequenceSupport#evaluateNextSequenceValue(java.lang.String, long)
+	 */
+	@Override
+	public String evaluateNextSequenceValue(String sql, long value)
+	{
+		return this.sequencePattern.matcher(sql).replaceFirst(String.valueOf(value));
+	}
+	
+	/**
+	 * Returns the index of the parenthesis that closes the parenthesis preceding the specified index, ignoring any within quoted literals or identifiers.
+	 * @return an index, or -1 if the parenthesis is not closed
+	 */
+	private static int findClosingParenthesis(String sql, int index)
+	{
+		int depth = 1;
+		char quote = 0;
+		
+		for (int i = index; i < sql.length(); ++i)
+		{
+			char c = sql.charAt(i);
+			
+			if (quote != 0)
+			{
+				if (c == quote)
+				{
+					quote = 0;
+				}
+			}
+			else if ((c == '\'') || (c == '"'))
+			{
+				quote = c;
+			}
+			else if (c == '(')
+			{
+				depth += 1;
+			}
+			else if ((c == ')') && (--depth == 0))
+			{
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private static String normalize(String sql)
+	{
+		return sql.trim().replaceAll("\\s+", " ");
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.Dialect#getIdentityColumnSupport()
@@ -410,6 +550,83 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return this.parse(this.insertIntoTablePattern, sql);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.IdentityColumnSupport#parseInsertColumns(java.lang.String)
+	 */
+	@Override
+	public List<String> parseInsertColumns(String sql)
+	{
+		int[] insert = this.parseSingleRowInsert(sql);
+		
+		if (insert == null) return null;
+		
+		List<String> columns = new LinkedList<>();
+		
+		for (String column: sql.substring(insert[0], insert[1]).split(Strings.COMMA))
+		{
+			String name = column.trim();
+			
+			if ((name.length() > 1) && ("\"`[".indexOf(name.charAt(0)) >= 0))
+			{
+				name = name.substring(1, name.length() - 1);
+			}
+			
+			if (name.isEmpty()) return null;
+			
+			columns.add(name);
+		}
+		
+		return columns;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.IdentityColumnSupport#evaluateIdentityColumn(java.lang.String, java.lang.String, long)
+	 */
+	@Override
+	public String evaluateIdentityColumn(String sql, String column, long value)
+	{
+		int[] insert = this.parseSingleRowInsert(sql);
+		
+		if (insert == null) return sql;
+		
+		StringBuilder builder = new StringBuilder(sql.length() + column.length() + 24);
+		builder.append(sql, 0, insert[0]).append(column).append(Strings.PADDED_COMMA);
+		builder.append(sql, insert[0], insert[2]).append(value).append(Strings.PADDED_COMMA);
+		builder.append(sql, insert[2], sql.length());
+		
+		return builder.toString();
+	}
+	
+	/**
+	 * Locates the column list and value list of a single row INSERT statement with an explicit column list.
+	 * @return the start and end indexes of the column list, followed by those of the value list, or null if this is not such a statement
+	 */
+	private int[] parseSingleRowInsert(String sql)
+	{
+		Matcher matcher = this.insertColumnsPattern.matcher(sql);
+		
+		if (!matcher.lookingAt() || this.selectPattern.matcher(sql).find()) return null;
+		
+		int columnsStart = matcher.end();
+		int columnsEnd = findClosingParenthesis(sql, columnsStart);
+		
+		if (columnsEnd < 0) return null;
+		
+		Matcher valuesMatcher = this.valuesPattern.matcher(sql);
+		valuesMatcher.region(columnsEnd + 1, sql.length());
+		
+		if (!valuesMatcher.lookingAt()) return null;
+		
+		int valuesStart = valuesMatcher.end();
+		int valuesEnd = findClosingParenthesis(sql, valuesStart);
+		
+		if ((valuesEnd < 0) || sql.substring(valuesStart, valuesEnd).trim().isEmpty() || !sql.substring(valuesEnd + 1).trim().replace(";", "").isEmpty()) return null;
+		
+		return new int[] { columnsStart, columnsEnd, valuesStart, valuesEnd };
+	}
+
 	@Override
 	public String getAlterIdentityColumnSQL(TableProperties table, ColumnProperties column, long value)
 	{
@@ -613,6 +830,62 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return time.getAlias();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.Dialect#getBulkLoadSupport()
+	 */
+	@Override
+	public BulkLoadSupport getBulkLoadSupport()
+	{
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.BulkLoadSupport#getMaxParameters()
+	 */
+	@Override
+	public int getMaxParameters()
+	{
+		return Short.MAX_VALUE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.BulkLoadSupport#getMultiRowInsertSQL(net.sf.hajdbc.TableProperties, java.util.Collection, int)
+	 */
+	@Override
+	public String getMultiRowInsertSQL(TableProperties table, Collection<String> columns, int rows)
+	{
+		String row = new StringBuilder("(").append(Strings.join(Collections.nCopies(columns.size(), Strings.QUESTION), Strings.PADDED_COMMA)).append(")").toString();
+		return MessageFormat.format(this.multiRowInsertFormat(), table.getName().getDMLName(), Strings.join(columns, Strings.PADDED_COMMA), Strings.join(Collections.nCopies(rows, row), Strings.PADDED_COMMA));
+	}
+
+	protected String multiRowInsertFormat()
+	{
+		return "INSERT INTO {0} ({1}) VALUES {2}";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.BulkLoadSupport#getLoadFileSQL(net.sf.hajdbc.TableProperties, java.util.Collection, java.io.File)
+	 */
+	@Override
+	public List<String> getLoadFileSQL(TableProperties table, Collection<String> columns, File file) throws SQLException
+	{
+		return null;
+	}
+
+	/**
+	 * Escapes the specified value for use within a quoted string literal.
+	 * @param value a string
+	 * @return an escaped string
+	 */
+	protected String escapeLiteral(String value)
+	{
+		return value.replace("'", "''");
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.Dialect#getCreateSchemaSQL(java.lang.String)
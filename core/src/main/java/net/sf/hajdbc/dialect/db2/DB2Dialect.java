@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.IdentityColumnSupport;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
@@ -78,6 +79,16 @@ public class DB2Dialect extends StandardDialect
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getBulkLoadSupport()
+	 */
+	@Override
+	public BulkLoadSupport getBulkLoadSupport()
+	{
+		return this;
+	}
+
 	@Override
 	public Collection<SequenceProperties> getSequences(DatabaseMetaData metaData, SequencePropertiesFactory factory) throws SQLException
 	{
@@ -106,6 +117,15 @@ public class DB2Dialect extends StandardDialect
 		return "(?:NEXT|PREV)VAL\\s+FOR\\s+'?([^',\\s\\(\\)]+)";
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValuePattern()
+	 */
+	@Override
+	protected String nextSequenceValuePattern()
+	{
+		return "NEXTVAL\\s+FOR\\s+'?([^',\\s\\(\\)]+)";
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValueFormat()
 	 */
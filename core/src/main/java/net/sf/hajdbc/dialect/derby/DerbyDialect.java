@@ -17,9 +17,19 @@
  */
 package net.sf.hajdbc.dialect.derby;
 
+import java.io.File;
+import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.IdentityColumnSupport;
+import net.sf.hajdbc.QualifiedName;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.TableProperties;
 import net.sf.hajdbc.dialect.StandardDialect;
+import net.sf.hajdbc.util.Strings;
 
 /**
  * Dialect for <a href="http://db.apache.org/derby">Apache Derby</a>.
@@ -53,6 +63,41 @@ public class DerbyDialect extends StandardDialect
 		return this.meetsRequirement(10, 6) ? this : null;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getBulkLoadSupport()
+	 */
+	@Override
+	public BulkLoadSupport getBulkLoadSupport()
+	{
+		return this;
+	}
+
+	/**
+	 * Loads the file via the SYSCS_IMPORT_DATA system procedure, which commits the current transaction upon completion.
+	 * 
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getLoadFileSQL(net.sf.hajdbc.TableProperties, java.util.Collection, java.io.File)
+	 */
+	@Override
+	public List<String> getLoadFileSQL(TableProperties table, Collection<String> columns, File file)
+	{
+		QualifiedName name = table.getName();
+		// Schema and table arguments are case-sensitive, and must not be quoted
+		String schema = (name.getSchema() != null) ? "'" + this.escapeLiteral(unquote(name.getSchema())) + "'" : "NULL";
+		return Collections.singletonList(MessageFormat.format(this.loadFileFormat(), schema, this.escapeLiteral(unquote(name.getName())), this.escapeLiteral(Strings.join(columns, Strings.COMMA)), this.escapeLiteral(file.getAbsolutePath())));
+	}
+
+	protected String loadFileFormat()
+	{
+		return "CALL SYSCS_UTIL.SYSCS_IMPORT_DATA({0}, ''{1}'', ''{2}'', NULL, ''{3}'', NULL, NULL, ''UTF-8'', 0)";
+	}
+
+	private static String unquote(String identifier)
+	{
+		return ((identifier.length() > 1) && identifier.startsWith("\"") && identifier.endsWith("\"")) ? identifier.substring(1, identifier.length() - 1).replace("\"\"", "\"") : identifier;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -105,6 +105,15 @@ public class FirebirdDialect extends StandardDialect
 		return "GEN_ID\\s*\\(\\s*([^\\s,]+)\\s*,\\s*\\d+\\s*\\)";
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValuePattern()
+	 */
+	@Override
+	protected String nextSequenceValuePattern()
+	{
+		return "GEN_ID\\s*\\(\\s*([^\\s,]+)\\s*,\\s*1\\s*\\)";
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#selectForUpdatePattern()
 	 */
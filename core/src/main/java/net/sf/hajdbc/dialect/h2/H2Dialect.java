@@ -17,10 +17,13 @@
  */
 package net.sf.hajdbc.dialect.h2;
 
+import java.io.File;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -29,10 +32,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.TableProperties;
 import net.sf.hajdbc.dialect.StandardDialect;
+import net.sf.hajdbc.util.Strings;
 
 /**
  * Dialect for <a href="http://www.h2database.com">H2 Database Engine</a>.
@@ -71,6 +77,37 @@ public class H2Dialect extends StandardDialect
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getBulkLoadSupport()
+	 */
+	@Override
+	public BulkLoadSupport getBulkLoadSupport()
+	{
+		return this;
+	}
+
+	/**
+	 * Loads the file via the CSVREAD table function.
+	 * Fields are mapped to columns by position, thus synthetic column names are used within the file.
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getLoadFileSQL(net.sf.hajdbc.TableProperties, java.util.Collection, java.io.File)
+	 */
+	@Override
+	public List<String> getLoadFileSQL(TableProperties table, Collection<String> columns, File file)
+	{
+		List<String> fields = new ArrayList<>(columns.size());
+		for (int i = 1; i <= columns.size(); ++i)
+		{
+			fields.add("C" + i);
+		}
+		return Collections.singletonList(MessageFormat.format(this.loadFileFormat(), table.getName().getDMLName(), Strings.join(columns, Strings.PADDED_COMMA), this.escapeLiteral(file.getAbsolutePath()), Strings.join(fields, Strings.COMMA)));
+	}
+
+	protected String loadFileFormat()
+	{
+		return "INSERT INTO {0} ({1}) SELECT * FROM CSVREAD(''{2}'', ''{3}'', ''charset=UTF-8'')";
+	}
+
 	@Override
 	public Collection<SequenceProperties> getSequences(DatabaseMetaData metaData, SequencePropertiesFactory factory) throws SQLException
 	{
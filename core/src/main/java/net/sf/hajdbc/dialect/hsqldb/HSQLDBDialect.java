@@ -17,10 +17,12 @@
  */
 package net.sf.hajdbc.dialect.hsqldb;
 
+import java.io.File;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -29,10 +31,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.TableProperties;
 import net.sf.hajdbc.dialect.StandardDialect;
+import net.sf.hajdbc.util.Strings;
 
 /**
  * Dialect for <a href="http://www.hsqldb.org">HSQLDB</a>.
@@ -73,6 +78,41 @@ public class HSQLDBDialect extends StandardDialect
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getBulkLoadSupport()
+	 */
+	@Override
+	public BulkLoadSupport getBulkLoadSupport()
+	{
+		return this;
+	}
+
+	/**
+	 * Attaches the file as the source of a transient text table, from which rows are then inserted into the target table.
+	 * Requires the <code>textdb.allow_full_path</code> system property, since the file does not reside within the database directory.
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getLoadFileSQL(net.sf.hajdbc.TableProperties, java.util.Collection, java.io.File)
+	 */
+	@Override
+	public List<String> getLoadFileSQL(TableProperties table, Collection<String> columns, File file)
+	{
+		String tableName = table.getName().getDMLName();
+		String columnList = Strings.join(columns, Strings.PADDED_COMMA);
+		String textTable = this.loadTable();
+		return Arrays.asList(
+			MessageFormat.format("DROP TABLE {0} IF EXISTS", textTable),
+			MessageFormat.format("CREATE TEXT TABLE {0} AS (SELECT {1} FROM {2}) WITH NO DATA", textTable, columnList, tableName),
+			MessageFormat.format("SET TABLE {0} SOURCE ''{1};encoding=UTF-8''", textTable, this.escapeLiteral(file.getAbsolutePath())),
+			MessageFormat.format("INSERT INTO {0} ({1}) SELECT {1} FROM {2}", tableName, columnList, textTable),
+			MessageFormat.format("DROP TABLE {0}", textTable)
+		);
+	}
+
+	protected String loadTable()
+	{
+		return "HAJDBC_LOAD";
+	}
+
 	@Override
 	public List<String> getDefaultSchemas(DatabaseMetaData metaData)
 	{
@@ -99,6 +99,15 @@ public class IngresDialect extends StandardDialect
 		return "(?:NEXT|CURRENT)\\s+VALUE\\s+FOR\\s+'?([^',\\s\\(\\)]+)";
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValuePattern()
+	 */
+	@Override
+	protected String nextSequenceValuePattern()
+	{
+		return "NEXT\\s+VALUE\\s+FOR\\s+'?([^',\\s\\(\\)]+)";
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDatePattern()
 	 */
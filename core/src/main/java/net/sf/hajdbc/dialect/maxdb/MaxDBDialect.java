@@ -113,6 +113,15 @@ public class MaxDBDialect extends StandardDialect
 		return "'?(\\w+)'?\\.(?:CURR|NEXT)VAL";
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValuePattern()
+	 */
+	@Override
+	protected String nextSequenceValuePattern()
+	{
+		return "'?(\\w+)'?\\.NEXTVAL";
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValueFormat()
 	 */
@@ -57,6 +57,15 @@ public class MckoiDialect extends StandardDialect
 		return "(?:CURR|NEXT)VAL\\s*\\(\\s*'([^']+)'\\s*\\)";
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValuePattern()
+	 */
+	@Override
+	protected String nextSequenceValuePattern()
+	{
+		return "NEXTVAL\\s*\\(\\s*'([^']+)'\\s*\\)";
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
 	 */
@@ -20,12 +20,15 @@ package net.sf.hajdbc.dialect.mysql;
 import java.io.File;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import net.sf.hajdbc.BulkLoadSupport;
+import net.sf.hajdbc.ColumnProperties;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DumpRestoreSupport;
 import net.sf.hajdbc.codec.Decoder;
@@ -96,6 +99,19 @@ public class MySQLDialect extends StandardDialect implements DumpRestoreSupport
 		return Collections.singletonList(this.executeFunction(metaData.getConnection(), "DATABASE()"));
 	}
 
+	/**
+	 * MySQL reports BIGINT UNSIGNED columns as BIGINT, whose values may exceed the range of a long.
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getColumnType(net.sf.hajdbc.ColumnProperties)
+	 */
+	@Override
+	public int getColumnType(ColumnProperties properties)
+	{
+		int type = properties.getType();
+		String nativeType = properties.getNativeType();
+		
+		return ((type == Types.BIGINT) && (nativeType != null) && nativeType.toUpperCase().contains("UNSIGNED")) ? Types.DECIMAL : type;
+	}
+
 	/**
 	 * Deferrability clause is not supported.
 	 * @see net.sf.hajdbc.dialect.StandardDialect#createForeignKeyConstraintFormat()
@@ -206,6 +222,16 @@ public class MySQLDialect extends StandardDialect implements DumpRestoreSupport
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getBulkLoadSupport()
+	 */
+	@Override
+	public BulkLoadSupport getBulkLoadSupport()
+	{
+		return this;
+	}
+
 	@Override
 	public <Z, D extends Database<Z>> void dump(D database, Decoder decoder, File file, boolean dataOnly) throws Exception
 	{
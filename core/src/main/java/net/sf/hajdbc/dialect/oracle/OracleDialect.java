@@ -119,6 +119,15 @@ public class OracleDialect extends StandardDialect
 		return "'?(\\w+)'?\\.(?:CURR|NEXT)VAL";
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValuePattern()
+	 */
+	@Override
+	protected String nextSequenceValuePattern()
+	{
+		return "'?(\\w+)'?\\.NEXTVAL";
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValueFormat()
 	 */
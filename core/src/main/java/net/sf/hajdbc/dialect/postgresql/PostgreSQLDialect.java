@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.ColumnProperties;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DumpRestoreSupport;
@@ -162,6 +163,16 @@ public class PostgreSQLDialect extends StandardDialect implements DumpRestoreSup
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialect#getBulkLoadSupport()
+	 */
+	@Override
+	public BulkLoadSupport getBulkLoadSupport()
+	{
+		return this;
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#truncateTableFormat()
 	 */
@@ -180,6 +191,15 @@ public class PostgreSQLDialect extends StandardDialect implements DumpRestoreSup
 		return "(?:CURR|NEXT)VAL\\s*\\(\\s*'([^']+)'\\s*\\)";
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValuePattern()
+	 */
+	@Override
+	protected String nextSequenceValuePattern()
+	{
+		return "NEXTVAL\\s*\\(\\s*'([^']+)'\\s*\\)";
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#nextSequenceValueFormat()
 	 */
@@ -0,0 +1,42 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.invocation;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.balancer.Balancer;
+import net.sf.hajdbc.balancer.affinity.AffinityBalancer;
+
+/**
+ * Selects the database to which a given routing key is routed, if the balancer supports affinity.
+ * @author Paul Ferraro
+ */
+public class AffinityDatabaseSelector implements InvokeOnOneInvocationStrategy.DatabaseSelector
+{
+	private final Object key;
+	
+	public AffinityDatabaseSelector(Object key)
+	{
+		this.key = key;
+	}
+	
+	@Override
+	public <Z, D extends Database<Z>> D selectDatabase(Balancer<Z, D> balancer)
+	{
+		return (balancer instanceof AffinityBalancer) ? ((AffinityBalancer<Z, D>) balancer).next(this.key) : balancer.next();
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.invocation;
+
+import java.util.SortedMap;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.sql.ProxyFactory;
+
+/**
+ * Invokes a read on the database to which a given routing key is routed, if the balancer supports affinity.
+ * Invocations are otherwise treated as {@link InvocationStrategies#INVOKE_ON_AFFINITY}.
+ * @author Paul Ferraro
+ */
+public class AffinityInvocationStrategy implements InvocationStrategy
+{
+	private final InvocationStrategy strategy;
+	
+	public AffinityInvocationStrategy(Object key)
+	{
+		this.strategy = new InvokeOnOneInvocationStrategy(new AffinityDatabaseSelector(key));
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.invocation.InvocationStrategy#invoke(net.sf.hajdbc.sql.ProxyFactory, net.sf.hajdbc.invocation.Invoker)
+	 */
+	@Override
+	public <Z, D extends Database<Z>, T, R, E extends Exception> SortedMap<D, R> invoke(ProxyFactory<Z, D, T, E> map, Invoker<Z, D, T, R, E> invoker) throws E
+	{
+		return InvocationStrategies.INVOKE_ON_AFFINITY.invoke(map, invoker, this.strategy);
+	}
+}
@@ -20,7 +20,6 @@ package net.sf.hajdbc.invocation;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.AbstractMap;
@@ -32,11 +31,18 @@ import java.util.concurrent.Future;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
 import net.sf.hajdbc.ExceptionFactory;
+import net.sf.hajdbc.balancer.Balancer;
+import net.sf.hajdbc.balancer.Topology;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
 import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.util.Collections;
+import net.sf.hajdbc.util.concurrent.PartitionedTask;
 
 /**
+ * Invokes against every active database concurrently.
+ * Invocations are addressed by the slot of each database within the current {@link Topology} snapshot,
+ * so results and exceptions are collected into plain arrays, and only copied into sorted maps once all invocations have completed.
  * @author Paul Ferraro
  */
 public class AllResultsCollector implements InvokeOnManyInvocationStrategy.ResultsCollector
@@ -45,7 +51,7 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 
 	public static interface ExecutorProvider
 	{
-		<Z, D extends Database<Z>> ExecutorService getExecutor(DatabaseCluster<Z, D> cluster);
+		<Z, D extends Database<Z>> ExecutorService getExecutor(ProxyFactory<Z, D, ?, ?> factory);
 	}
 	
 	private final ExecutorProvider provider;
@@ -63,50 +69,95 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 	{
 		DatabaseCluster<Z, D> cluster = factory.getDatabaseCluster();
 		ExceptionFactory<E> exceptionFactory = factory.getExceptionFactory();
-		Set<D> databaseSet = cluster.getBalancer();
+		Balancer<Z, D> balancer = cluster.getBalancer();
+		Topology<Z, D> topology = balancer.topology();
 		
-		if (databaseSet.isEmpty())
+		if (topology.isEmpty())
 		{
 			exceptionFactory.createException(messages.noActiveDatabases(cluster));
 		}
 
-		int size = databaseSet.size();
+		int size = topology.size();
 		
 		List<Invocation<Z, D, T, R, E>> invocationList = new ArrayList<>(size);
 		
-		for (D database: databaseSet)
+		for (int slot = 0; slot < size; ++slot)
 		{
+			D database = topology.get(slot);
+			
 			invocationList.add(new Invocation<>(invoker, database, factory.get(database)));
 		}
 		
 		try
 		{
-			List<Future<R>> futureList = this.provider.getExecutor(cluster).invokeAll(invocationList);
+			List<Future<R>> futureList = this.provider.getExecutor(factory).invokeAll(invocationList);
 			
-			final SortedMap<D, R> resultMap = new TreeMap<>();
-			final SortedMap<D, E> exceptionMap = new TreeMap<>();
+			Object[] results = new Object[size];
+			Object[] exceptions = null;
+			boolean[] completed = new boolean[size];
 			
-			for (int i = 0; i < invocationList.size(); ++i)
+			for (int slot = 0; slot < size; ++slot)
 			{
-				D database = invocationList.get(i).getDatabase();
+				Future<R> future = futureList.get(slot);
+				
+				// Skip invocations left pending by the transaction mode
+				if (!future.isDone()) continue;
 				
 				try
 				{
-					resultMap.put(database, futureList.get(i).get());
+					results[slot] = future.get();
+					completed[slot] = true;
 				}
 				catch (ExecutionException e)
 				{
 					// If this database was concurrently deactivated, just ignore the failure
-					if (databaseSet.contains(database))
+					if (balancer.topology().contains(topology.get(slot)))
 					{
-						exceptionMap.put(database, exceptionFactory.createException(e.getCause()));
+						if (exceptions == null)
+						{
+							exceptions = new Object[size];
+						}
+						exceptions[slot] = exceptionFactory.createException(e.getCause());
 					}
 				}
 				catch (InterruptedException e)
 				{
 					Thread.currentThread().interrupt();
 					
-					exceptionMap.put(database, exceptionFactory.createException(e));
+					if (exceptions == null)
+					{
+						exceptions = new Object[size];
+					}
+					exceptions[slot] = exceptionFactory.createException(e);
+				}
+			}
+			
+			SortedMap<D, R> resultMap = new TreeMap<>();
+			
+			for (int slot = 0; slot < size; ++slot)
+			{
+				if (completed[slot])
+				{
+					@SuppressWarnings("unchecked")
+					R result = (R) results[slot];
+					resultMap.put(topology.get(slot), result);
+				}
+			}
+			
+			SortedMap<D, E> exceptionMap = Collections.emptySortedMap();
+			
+			if (exceptions != null)
+			{
+				exceptionMap = new TreeMap<>();
+				
+				for (int slot = 0; slot < size; ++slot)
+				{
+					if (exceptions[slot] != null)
+					{
+						@SuppressWarnings("unchecked")
+						E exception = (E) exceptions[slot];
+						exceptionMap.put(topology.get(slot), exception);
+					}
 				}
 			}
 		
@@ -118,7 +169,7 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 		}
 	}
 	
-	private static class Invocation<Z, D extends Database<Z>, T, R, E extends Exception> implements Callable<R>
+	private static class Invocation<Z, D extends Database<Z>, T, R, E extends Exception> implements Callable<R>, PartitionedTask
 	{
 		private final Invoker<Z, D, T, R, E> invoker;
 		private final D database;
@@ -131,7 +182,12 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 			this.object = object;
 		}
 		
-		D getDatabase()
+		/**
+		 * {@inheritDoc}
+		 * @see net.sf.hajdbc.util.concurrent.PartitionedTask#getPartition()
+		 */
+		@Override
+		public Object getPartition()
 		{
 			return this.database;
 		}
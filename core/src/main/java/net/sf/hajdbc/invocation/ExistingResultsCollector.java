@@ -17,30 +17,53 @@
  */
 package net.sf.hajdbc.invocation;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.AbstractMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.ExceptionFactory;
+import net.sf.hajdbc.invocation.InvocationLatencies.Latency;
 import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.util.concurrent.PartitionedTask;
 
 /**
+ * Invokes against the databases for which the proxy factory already holds an object.
+ * The latency of each method is learned, per cluster, from observed invocations.
+ * Cheap invocations (e.g. parameter setters) execute in the caller thread, one database after another,
+ * while expensive invocations (e.g. close, or cursor navigation, which require a round-trip to the database) execute against every database concurrently, via the cluster executor.
  * @author Paul Ferraro
- *
+ * @see InvocationLatencies
  */
 public class ExistingResultsCollector implements InvokeOnManyInvocationStrategy.ResultsCollector
 {
 	@Override
 	public <Z, D extends Database<Z>, T, R, E extends Exception> Entry<SortedMap<D, R>, SortedMap<D, E>> collectResults(ProxyFactory<Z, D, T, E> factory, Invoker<Z, D, T, R, E> invoker)
 	{
+		Set<Map.Entry<D, T>> entries = factory.entries();
+		Latency latency = factory.getDatabaseCluster().getInvocationLatencies().getLatency(invoker);
+		
+		if ((entries.size() > 1) && latency.isExpensive())
+		{
+			return collectResultsConcurrently(factory, invoker, entries, latency);
+		}
+		
 		SortedMap<D, R> resultMap = new TreeMap<>();
 		SortedMap<D, E> exceptionMap = new TreeMap<>();
 
-		for (Map.Entry<D, T> entry: factory.entries())
+		for (Map.Entry<D, T> entry: entries)
 		{
 			D database = entry.getKey();
+			long start = System.nanoTime();
 			
 			try
 			{
@@ -54,8 +77,109 @@ public class ExistingResultsCollector implements InvokeOnManyInvocationStrategy.
 					exceptionMap.put(database, factory.getExceptionFactory().createException(e));
 				}
 			}
+			finally
+			{
+				latency.record(System.nanoTime() - start);
+			}
 		}
 		
 		return new AbstractMap.SimpleImmutableEntry<>(resultMap, exceptionMap);
 	}
+	
+	private static <Z, D extends Database<Z>, T, R, E extends Exception> Entry<SortedMap<D, R>, SortedMap<D, E>> collectResultsConcurrently(ProxyFactory<Z, D, T, E> factory, Invoker<Z, D, T, R, E> invoker, Set<Map.Entry<D, T>> entries, Latency latency)
+	{
+		DatabaseCluster<Z, D> cluster = factory.getDatabaseCluster();
+		ExceptionFactory<E> exceptionFactory = factory.getExceptionFactory();
+		List<Invocation<Z, D, T, R, E>> invocations = new ArrayList<>(entries.size());
+		
+		for (Map.Entry<D, T> entry: entries)
+		{
+			invocations.add(new Invocation<>(invoker, entry.getKey(), entry.getValue(), latency));
+		}
+		
+		SortedMap<D, R> resultMap = new TreeMap<>();
+		SortedMap<D, E> exceptionMap = new TreeMap<>();
+		
+		try
+		{
+			List<Future<R>> futures = cluster.getExecutor().invokeAll(invocations);
+			
+			for (int i = 0; i < invocations.size(); ++i)
+			{
+				D database = invocations.get(i).database;
+				
+				try
+				{
+					resultMap.put(database, futures.get(i).get());
+				}
+				catch (ExecutionException e)
+				{
+					// If this database was concurrently deactivated, just ignore the failure
+					if (cluster.getBalancer().contains(database))
+					{
+						exceptionMap.put(database, exceptionFactory.createException(e.getCause()));
+					}
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			
+			for (Invocation<Z, D, T, R, E> invocation: invocations)
+			{
+				if (!resultMap.containsKey(invocation.database))
+				{
+					exceptionMap.put(invocation.database, exceptionFactory.createException(e));
+				}
+			}
+		}
+		
+		return new AbstractMap.SimpleImmutableEntry<>(resultMap, exceptionMap);
+	}
+	
+	private static class Invocation<Z, D extends Database<Z>, T, R, E extends Exception> implements Callable<R>, PartitionedTask
+	{
+		private final Invoker<Z, D, T, R, E> invoker;
+		final D database;
+		private final T object;
+		private final Latency latency;
+		
+		Invocation(Invoker<Z, D, T, R, E> invoker, D database, T object, Latency latency)
+		{
+			this.invoker = invoker;
+			this.database = database;
+			this.object = object;
+			this.latency = latency;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 * @see net.sf.hajdbc.util.concurrent.PartitionedTask#getPartition()
+		 */
+		@Override
+		public Object getPartition()
+		{
+			return this.database;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public R call() throws E
+		{
+			long start = System.nanoTime();
+			
+			try
+			{
+				return this.invoker.invoke(this.database, this.object);
+			}
+			finally
+			{
+				this.latency.record(System.nanoTime() - start);
+			}
+		}
+	}
 }
@@ -0,0 +1,114 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.invocation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.hajdbc.metrics.InstrumentedInvoker;
+
+/**
+ * Learns the latency of each invoked method of a database cluster, as an exponentially weighted moving average of observed invocations,
+ * so as to distinguish cheap invocations (e.g. parameter setters) from expensive invocations (e.g. those requiring a round-trip to the database).
+ * @author Paul Ferraro
+ */
+public class InvocationLatencies
+{
+	private final long threshold;
+	private final ConcurrentMap<Object, Latency> latencies = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param threshold the latency, per database, beyond which an invocation is considered expensive
+	 * @param unit the unit of the threshold
+	 */
+	public InvocationLatencies(long threshold, TimeUnit unit)
+	{
+		this.threshold = unit.toNanos(threshold);
+	}
+	
+	/**
+	 * Returns the latency of the method invoked by the specified invoker.
+	 * @param invoker an invoker
+	 * @return the learned latency of the invoked method
+	 */
+	public Latency getLatency(Invoker<?, ?, ?, ?, ?> invoker)
+	{
+		Invoker<?, ?, ?, ?, ?> target = (invoker instanceof InstrumentedInvoker) ? ((InstrumentedInvoker<?, ?, ?, ?, ?>) invoker).getInvoker() : invoker;
+		// Anonymous invokers are distinguished by class
+		Object key = (target instanceof SimpleInvoker) ? ((SimpleInvoker<?, ?, ?, ?, ?>) target).getMethod() : target.getClass();
+		
+		Latency latency = this.latencies.get(key);
+		
+		if (latency == null)
+		{
+			Latency newLatency = new Latency(this.threshold);
+			latency = this.latencies.putIfAbsent(key, newLatency);
+			
+			if (latency == null)
+			{
+				latency = newLatency;
+			}
+		}
+		
+		return latency;
+	}
+	
+	/**
+	 * The learned latency of a given method.
+	 */
+	public static class Latency
+	{
+		private final long threshold;
+		private final AtomicLong average = new AtomicLong();
+		
+		Latency(long threshold)
+		{
+			this.threshold = threshold;
+		}
+		
+		/**
+		 * Indicates whether invocations of this method are, on average, slower than the threshold, and thus worth executing against multiple databases concurrently.
+		 * @return true, if this method is expensive, false otherwise
+		 */
+		public boolean isExpensive()
+		{
+			return this.average.get() > this.threshold;
+		}
+		
+		/**
+		 * Records the latency of a single invocation of this method.
+		 * @param nanos the duration of an invocation, in nanoseconds
+		 */
+		public void record(long nanos)
+		{
+			// Exponentially weighted moving average, with a weight of 1/8 per sample - racy updates merely lose a sample
+			long current = this.average.get();
+			this.average.set((current == 0) ? nanos : current + ((nanos - current) >> 3));
+		}
+		
+		/**
+		 * @return the average latency of this method, in nanoseconds, or 0 if never invoked
+		 */
+		public long getAverage()
+		{
+			return this.average.get();
+		}
+	}
+}
@@ -6,7 +6,9 @@ import net.sf.hajdbc.Database;
 import net.sf.hajdbc.logging.Level;
 import net.sf.hajdbc.logging.Logger;
 import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.metrics.MetricRegistry;
 import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.sql.TransactionalProxyFactory;
 
 public enum InvocationStrategies implements InvocationStrategy
 {
@@ -15,23 +17,58 @@ public enum InvocationStrategies implements InvocationStrategy
 	INVOKE_ON_EXISTING(new InvokeOnManyInvocationStrategy(new ExistingResultsCollector())),
 	INVOKE_ON_NEXT(new InvokeOnOneInvocationStrategy(new NextDatabaseSelector())),
 	INVOKE_ON_PRIMARY(new InvokeOnOneInvocationStrategy(new PrimaryDatabaseSelector())),
-	TRANSACTION_INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new TransactionalExecutorProvider(false)))),
-	END_TRANSACTION_INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new TransactionalExecutorProvider(true)))),
+	// Routed reads are invoked via an AffinityInvocationStrategy, which supplies the routing key
+	INVOKE_ON_AFFINITY(new InvokeOnOneInvocationStrategy(new NextDatabaseSelector())),
+	TRANSACTION_INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new TransactionalExecutorProvider(false))), true),
+	END_TRANSACTION_INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new TransactionalExecutorProvider(true))), true),
 	;
 	
 	private static final Logger logger = LoggerFactory.getLogger(SimpleInvoker.class);
 	
 	private final InvocationStrategy strategy;
+	private final String metric;
+	private final boolean transactional;
 	
 	private InvocationStrategies(InvocationStrategy strategy)
+	{
+		this(strategy, false);
+	}
+	
+	private InvocationStrategies(InvocationStrategy strategy, boolean transactional)
 	{
 		this.strategy = strategy;
+		this.metric = MetricRegistry.INVOCATION + "." + this.name();
+		this.transactional = transactional;
 	}
 	
 	@Override
 	public <Z, D extends Database<Z>, T, R, E extends Exception> SortedMap<D, R> invoke(ProxyFactory<Z, D, T, E> map, Invoker<Z, D, T, R, E> invoker) throws E
+	{
+		return this.invoke(map, invoker, this.strategy);
+	}
+	
+	/**
+	 * Invokes the specified strategy on behalf of this strategy, i.e. recording its latency, and awaiting pending writes, as this strategy.
+	 */
+	<Z, D extends Database<Z>, T, R, E extends Exception> SortedMap<D, R> invoke(ProxyFactory<Z, D, T, E> map, Invoker<Z, D, T, R, E> invoker, InvocationStrategy strategy) throws E
 	{
 		logger.log(Level.TRACE, "Invoking {0} using {1} strategy.", invoker, this);
-		return this.strategy.invoke(map, invoker);
+		
+		if (!this.transactional && (map instanceof TransactionalProxyFactory))
+		{
+			// Transactional invocations are ordered by the transaction mode, all others must wait for any writes it left pending
+			((TransactionalProxyFactory<?, ?, ?, ?>) map).getTransactionContext().await();
+		}
+		
+		long start = System.nanoTime();
+		
+		try
+		{
+			return strategy.invoke(map, invoker);
+		}
+		finally
+		{
+			map.getDatabaseCluster().getMetricRegistry().getHistogram(this.metric).record(System.nanoTime() - start);
+		}
 	}
 }
\ No newline at end of file
@@ -117,6 +117,7 @@ public class InvokeOnManyInvocationStrategy implements InvocationStrategy
 							
 							if (cluster.deactivate(database, stateManager))
 							{
+								cluster.getReplayLog().invalidate(database);
 								logger.log(Level.ERROR, exception, messages.inconsistent(cluster, database, primaryException, exception));
 							}
 						}
@@ -129,6 +130,7 @@ public class InvokeOnManyInvocationStrategy implements InvocationStrategy
 						
 						if (cluster.deactivate(database, stateManager))
 						{
+							cluster.getReplayLog().invalidate(database);
 							logger.log(Level.ERROR, messages.inconsistent(cluster, database, primaryException, entry.getValue()));
 						}
 					}
@@ -22,10 +22,12 @@ import java.util.SortedMap;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
+import net.sf.hajdbc.lock.CompositeLock;
 import net.sf.hajdbc.sql.ProxyFactory;
 
 /**
  * An invocation strategy decorator that acquires a list of locks before invocation, and releases them afterward.
+ * Multiple locks are best obtained as a single lock via {@link net.sf.hajdbc.lock.MultiLockManager}, so that they can be acquired in one step.
  * @author Paul Ferraro
  */
 public class LockingInvocationStrategy implements InvocationStrategy
@@ -43,16 +45,25 @@ public class LockingInvocationStrategy implements InvocationStrategy
 		this.lockList = lockList;
 	}
 
+	/**
+	 * Indicates whether this strategy acquires any locks.
+	 * @return true, if the list of locks is non-empty, false otherwise
+	 */
+	public boolean isLocking()
+	{
+		return !this.lockList.isEmpty();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public <Z, D extends Database<Z>, T, R, E extends Exception> SortedMap<D, R> invoke(ProxyFactory<Z, D, T, E> proxy, Invoker<Z, D, T, R, E> invoker) throws E
 	{
-		for (Lock lock: this.lockList)
-		{
-			lock.lock();
-		}
+		// Locks are acquired all-or-nothing, so that none are leaked if acquisition fails
+		Lock lock = (this.lockList.size() == 1) ? this.lockList.get(0) : new CompositeLock(this.lockList);
+		
+		lock.lock();
 		
 		try
 		{
@@ -60,10 +71,7 @@ public class LockingInvocationStrategy implements InvocationStrategy
 		}
 		finally
 		{
-			for (Lock lock: this.lockList)
-			{
-				lock.unlock();
-			}
+			lock.unlock();
 		}
 	}
 }
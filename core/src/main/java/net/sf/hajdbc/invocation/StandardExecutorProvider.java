@@ -3,14 +3,14 @@ package net.sf.hajdbc.invocation;
 import java.util.concurrent.ExecutorService;
 
 import net.sf.hajdbc.Database;
-import net.sf.hajdbc.DatabaseCluster;
 import net.sf.hajdbc.invocation.AllResultsCollector.ExecutorProvider;
+import net.sf.hajdbc.sql.ProxyFactory;
 
 public class StandardExecutorProvider implements ExecutorProvider
 {
 	@Override
-	public <Z, D extends Database<Z>> ExecutorService getExecutor(DatabaseCluster<Z, D> cluster)
+	public <Z, D extends Database<Z>> ExecutorService getExecutor(ProxyFactory<Z, D, ?, ?> factory)
 	{
-		return cluster.getExecutor();
+		return factory.getDatabaseCluster().getExecutor();
 	}
 }
\ No newline at end of file
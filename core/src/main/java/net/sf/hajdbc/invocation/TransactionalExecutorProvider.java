@@ -5,6 +5,8 @@ import java.util.concurrent.ExecutorService;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
 import net.sf.hajdbc.invocation.AllResultsCollector.ExecutorProvider;
+import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.sql.TransactionalProxyFactory;
 
 public class TransactionalExecutorProvider implements ExecutorProvider
 {
@@ -16,8 +18,16 @@ public class TransactionalExecutorProvider implements ExecutorProvider
 	}
 	
 	@Override
-	public <Z, D extends Database<Z>> ExecutorService getExecutor(DatabaseCluster<Z, D> cluster)
+	public <Z, D extends Database<Z>> ExecutorService getExecutor(ProxyFactory<Z, D, ?, ?> factory)
 	{
+		if (factory instanceof TransactionalProxyFactory)
+		{
+			return ((TransactionalProxyFactory<?, ?, ?, ?>) factory).getTransactionContext().getTransactionExecutor(this.end);
+		}
+		
+		// Outside of a transaction context, writes cannot be left pending
+		DatabaseCluster<Z, D> cluster = factory.getDatabaseCluster();
+		
 		return cluster.getTransactionMode().getTransactionExecutor(cluster.getExecutor(), this.end);
 	}
 }
\ No newline at end of file
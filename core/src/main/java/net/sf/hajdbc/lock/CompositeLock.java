@@ -0,0 +1,182 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A lock composed of a list of locks, which are acquired in list order and released in reverse order.
+ * Acquisition is all-or-nothing, i.e. if any lock cannot be acquired, those locks already acquired are released.
+ * Conditions are not supported.
+ * @author Paul Ferraro
+ */
+public class CompositeLock implements Lock
+{
+	private final List<Lock> locks;
+	
+	public CompositeLock(List<Lock> locks)
+	{
+		this.locks = locks;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.locks.Lock#lock()
+	 */
+	@Override
+	public void lock()
+	{
+		int count = 0;
+		
+		try
+		{
+			for (Lock lock: this.locks)
+			{
+				lock.lock();
+				count += 1;
+			}
+		}
+		finally
+		{
+			if (count < this.locks.size())
+			{
+				this.unlock(count);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.locks.Lock#lockInterruptibly()
+	 */
+	@Override
+	public void lockInterruptibly() throws InterruptedException
+	{
+		int count = 0;
+		
+		try
+		{
+			for (Lock lock: this.locks)
+			{
+				lock.lockInterruptibly();
+				count += 1;
+			}
+		}
+		finally
+		{
+			if (count < this.locks.size())
+			{
+				this.unlock(count);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.locks.Lock#tryLock()
+	 */
+	@Override
+	public boolean tryLock()
+	{
+		int count = 0;
+		
+		try
+		{
+			for (Lock lock: this.locks)
+			{
+				if (!lock.tryLock()) break;
+				count += 1;
+			}
+		}
+		finally
+		{
+			if (count < this.locks.size())
+			{
+				this.unlock(count);
+			}
+		}
+		
+		return count == this.locks.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.locks.Lock#tryLock(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+	{
+		long stop = System.nanoTime() + unit.toNanos(time);
+		int count = 0;
+		
+		try
+		{
+			for (Lock lock: this.locks)
+			{
+				if (!lock.tryLock(Math.max(stop - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) break;
+				count += 1;
+			}
+		}
+		finally
+		{
+			if (count < this.locks.size())
+			{
+				this.unlock(count);
+			}
+		}
+		
+		return count == this.locks.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.locks.Lock#unlock()
+	 */
+	@Override
+	public void unlock()
+	{
+		this.unlock(this.locks.size());
+	}
+	
+	/**
+	 * Releases the first specified number of locks, in reverse order.
+	 */
+	private void unlock(int count)
+	{
+		ListIterator<Lock> locks = this.locks.listIterator(count);
+		
+		while (locks.hasPrevious())
+		{
+			locks.previous().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.locks.Lock#newCondition()
+	 */
+	@Override
+	public Condition newCondition()
+	{
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock;
+
+import java.util.SortedSet;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A lock manager that can obtain a set of named write locks as a single lock.
+ * Implementations should acquire all of the named locks with as little coordination as possible, e.g. in a single round-trip per group member.
+ * @author Paul Ferraro
+ */
+public interface MultiLockManager extends LockManager
+{
+	/**
+	 * Obtains a single write lock for a set of named objects.
+	 * Acquisition of the returned lock is all-or-nothing, i.e. if any named lock cannot be acquired, any named locks already acquired are released.
+	 * Named locks are acquired in the order of the specified set, to prevent deadlock.
+	 * @param objects a sorted set of objects to lock
+	 * @return a write lock
+	 */
+	Lock writeLock(SortedSet<String> objects);
+}
@@ -33,11 +33,23 @@ public class AcquireLockCommand implements Command<Boolean, LockCommandContext>
 
 	private final RemoteLockDescriptor descriptor;
 	private final long timeout;
+	private final boolean transfer;
 
 	public AcquireLockCommand(RemoteLockDescriptor descriptor, long timeout)
+	{
+		this(descriptor, timeout, false);
+	}
+	
+	/**
+	 * @param descriptor a lock descriptor
+	 * @param timeout the number of milliseconds to wait for the lock
+	 * @param transfer indicates whether the requesting member already holds this lock, and is handing it off to a new owner
+	 */
+	public AcquireLockCommand(RemoteLockDescriptor descriptor, long timeout, boolean transfer)
 	{
 		this.descriptor = descriptor;
 		this.timeout = timeout;
+		this.transfer = transfer;
 	}
 
 	/**
@@ -47,6 +59,8 @@ public class AcquireLockCommand implements Command<Boolean, LockCommandContext>
 	@Override
 	public Boolean execute(LockCommandContext context)
 	{
+		if (!context.isGrantable(this.descriptor, this.transfer)) return false;
+		
 		Lock lock = context.getLock(this.descriptor);
 		
 		try
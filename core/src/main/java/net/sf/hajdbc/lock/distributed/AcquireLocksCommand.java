@@ -0,0 +1,110 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock.distributed;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import net.sf.hajdbc.distributed.Command;
+
+/**
+ * Command that acquires a list of locks, in list order, on behalf of a remote member.
+ * Acquisition is all-or-nothing, i.e. if any lock cannot be acquired within the timeout, any locks already acquired are released.
+ * @author Paul Ferraro
+ */
+public class AcquireLocksCommand implements Command<Boolean, LockCommandContext>
+{
+	private static final long serialVersionUID = -2693476536211632158L;
+
+	private final List<RemoteLockDescriptor> descriptors;
+	private final long timeout;
+
+	public AcquireLocksCommand(List<RemoteLockDescriptor> descriptors, long timeout)
+	{
+		this.descriptors = descriptors;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.distributed.Command#execute(java.lang.Object)
+	 */
+	@Override
+	public Boolean execute(LockCommandContext context)
+	{
+		long stop = System.currentTimeMillis() + this.timeout;
+		Lock[] locks = new Lock[this.descriptors.size()];
+		int count = 0;
+		
+		try
+		{
+			for (RemoteLockDescriptor descriptor: this.descriptors)
+			{
+				Lock lock = context.getLock(descriptor);
+				
+				// Guard against overflow of the stop time
+				long timeout = (stop >= 0) ? Math.max(stop - System.currentTimeMillis(), 0) : this.timeout;
+				
+				if (!lock.tryLock(timeout, TimeUnit.MILLISECONDS)) break;
+				
+				locks[count++] = lock;
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		
+		boolean locked = (count == locks.length);
+		
+		if (locked)
+		{
+			for (int i = 0; i < locks.length; ++i)
+			{
+				RemoteLockDescriptor descriptor = this.descriptors.get(i);
+				Map<LockDescriptor, Lock> lockMap = context.getRemoteLocks(descriptor);
+				
+				synchronized (lockMap)
+				{
+					lockMap.put(descriptor, locks[i]);
+				}
+			}
+		}
+		else
+		{
+			while (count > 0)
+			{
+				locks[--count].unlock();
+			}
+		}
+		
+		return locked;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("%s(%s)", this.getClass().getSimpleName(), this.descriptors);
+	}
+}
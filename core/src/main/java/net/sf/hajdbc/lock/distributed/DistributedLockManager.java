@@ -24,13 +24,26 @@ import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 
@@ -44,7 +57,10 @@ import net.sf.hajdbc.distributed.Member;
 import net.sf.hajdbc.distributed.MembershipListener;
 import net.sf.hajdbc.distributed.Remote;
 import net.sf.hajdbc.distributed.Stateful;
+import net.sf.hajdbc.lock.CompositeLock;
 import net.sf.hajdbc.lock.LockManager;
+import net.sf.hajdbc.lock.MultiLockManager;
+import net.sf.hajdbc.lock.semaphore.SemaphoreLock;
 import net.sf.hajdbc.logging.Level;
 import net.sf.hajdbc.logging.Logger;
 import net.sf.hajdbc.logging.LoggerFactory;
@@ -53,21 +69,66 @@ import net.sf.hajdbc.messages.MessagesFactory;
 import net.sf.hajdbc.util.Objects;
 
 /**
+ * Lock manager that coordinates write locks across all members of a group.
+ * If a lease time is specified, a member retains group-wide ownership of a named write lock after releasing it, such that subsequent acquisitions by the same member require no network traffic.
+ * Ownership is relinquished when the lease expires, or when another member requests the lock.
+ * If lock hashing is enabled, each named write lock is acquired only from the member chosen by consistent hashing of its identifier over the current group view, rather than from the coordinator and then every member.
+ * This is sufficient, since named locks are only ever contended by other named write locks, and by the global write lock, which is still acquired from every member.
+ * When the view changes, each member transfers the named locks it holds to their new owners, and then notifies every member that its handoff is complete.
+ * Until every member has completed its handoff, an owner refuses to grant any named lock whose owner was changed by the view change, since it may still be held via its previous owner.
  * @author Paul Ferraro
  */
-public class DistributedLockManager implements LockManager, LockCommandContext, Stateful, MembershipListener
+public class DistributedLockManager implements MultiLockManager, LockCommandContext, Stateful, MembershipListener
 {
 	static final Logger logger = LoggerFactory.getLogger(DistributedLockManager.class);
 	static final Messages messages = MessagesFactory.getMessages();
+	// Number of points per member on the hash ring - a larger number distributes locks more evenly
+	private static final int POINTS = 64;
+	// Milliseconds between attempts to complete a failed handoff
+	private static final long HANDOFF_RETRY_INTERVAL = 1000;
 
 	final CommandDispatcher<LockCommandContext> dispatcher;
 	
 	private final LockManager lockManager;
 	private final ConcurrentMap<Member, Map<LockDescriptor, Lock>> remoteLockDescriptorMap = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
+	private final long leaseTime;
+	private final boolean hashing;
+	private final NavigableMap<Long, Member> ring = new ConcurrentSkipListMap<>();
+	private final Set<HashedLock> hashedLocks = Collections.newSetFromMap(new ConcurrentHashMap<HashedLock, Boolean>());
+	// Guards the following handoff state, and modifications of the ring
+	private final Object handoffLock = new Object();
+	// The ring preceding an incomplete handoff, or null if no handoff is pending
+	private NavigableMap<Long, Member> previousRing = null;
+	// Members that have yet to complete their handoff per the current view
+	private final Set<Member> pendingHandoffs = new HashSet<>();
+	// The view per which each member last completed its handoff
+	private final Map<Member, SortedSet<Member>> completedHandoffs = new HashMap<>();
+	// Identifies the most recently scheduled handoff, superseding any other
+	private final AtomicLong handoffs = new AtomicLong();
+	private final ThreadFactory threadFactory;
+	
+	private volatile ScheduledExecutorService executor;
 	
 	public <Z, D extends Database<Z>> DistributedLockManager(DatabaseCluster<Z, D> cluster, CommandDispatcherFactory dispatcherFactory) throws Exception
+	{
+		this(cluster, dispatcherFactory, 0, false);
+	}
+	
+	/**
+	 * Constructs a distributed lock manager
+	 * @param cluster a database cluster
+	 * @param dispatcherFactory a factory for creating a command dispatcher
+	 * @param leaseTime the duration, in milliseconds, for which a member retains ownership of a released write lock, or 0 to release write locks immediately
+	 * @param hashing indicates whether named write locks are owned by the member chosen by consistent hashing, rather than by the coordinator
+	 * @throws Exception if the command dispatcher could not be created
+	 */
+	public <Z, D extends Database<Z>> DistributedLockManager(DatabaseCluster<Z, D> cluster, CommandDispatcherFactory dispatcherFactory, long leaseTime, boolean hashing) throws Exception
 	{
 		this.lockManager = cluster.getLockManager();
+		this.leaseTime = Math.max(leaseTime, 0);
+		this.hashing = hashing;
+		this.threadFactory = cluster.getThreadFactory();
 		LockCommandContext context = this;
 		this.dispatcher = dispatcherFactory.createCommandDispatcher(cluster.getId() + ".lock", context, this, this);
 	}
@@ -88,9 +149,165 @@ public class DistributedLockManager implements LockManager, LockCommandContext,
 	 */
 	@Override
 	public Lock writeLock(String id)
+	{
+		if (this.leaseTime > 0)
+		{
+			if (id == null)
+			{
+				// The global write lock would otherwise wait for all outstanding leases to expire
+				return new RevokingLock(this.createWriteLock(id));
+			}
+			
+			Lease lease = this.leases.get(id);
+			
+			if (lease == null)
+			{
+				Lease newLease = new Lease(id, this.createWriteLock(id));
+				lease = this.leases.putIfAbsent(id, newLease);
+				
+				if (lease == null)
+				{
+					lease = newLease;
+				}
+			}
+			
+			return lease;
+		}
+		
+		return this.createWriteLock(id);
+	}
+	
+	private Lock createWriteLock(String id)
 	{
 		RemoteLockDescriptor descriptor = new RemoteLockDescriptorImpl(id, LockType.WRITE, this.dispatcher.getLocal());
-		return new DistributedLock(descriptor, this.getLock(descriptor), this.dispatcher);
+		Lock lock = this.getLock(descriptor);
+		return (this.hashing && (id != null)) ? new HashedLock(descriptor, lock) : new DistributedLock(Collections.singletonList(descriptor), lock, this.dispatcher);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Unless leases or lock hashing are enabled, the named locks are acquired from the coordinator, and then from every other member, via a single command per member.
+	 * @see net.sf.hajdbc.lock.MultiLockManager#writeLock(java.util.SortedSet)
+	 */
+	@Override
+	public Lock writeLock(SortedSet<String> ids)
+	{
+		List<Lock> locks = new ArrayList<>(ids.size());
+		
+		if ((this.leaseTime > 0) || this.hashing)
+		{
+			// Leased and hashed locks are acquired individually, since each is owned independently
+			for (String id: ids)
+			{
+				locks.add(this.writeLock(id));
+			}
+			
+			return new CompositeLock(locks);
+		}
+		
+		List<RemoteLockDescriptor> descriptors = new ArrayList<>(ids.size());
+		Member local = this.dispatcher.getLocal();
+		
+		for (String id: ids)
+		{
+			RemoteLockDescriptor descriptor = new RemoteLockDescriptorImpl(id, LockType.WRITE, local);
+			descriptors.add(descriptor);
+			locks.add(this.getLock(descriptor));
+		}
+		
+		return new DistributedLock(descriptors, new CompositeLock(locks), this.dispatcher);
+	}
+	
+	/**
+	 * Returns the member that owns the specified named lock, i.e. the member owning the first point on the hash ring at or after the hash of the lock identifier.
+	 * @param id a lock identifier
+	 * @return a group member, or the local member if the group view is not yet known
+	 */
+	Member getOwner(String id)
+	{
+		Member owner = getOwner(this.ring, id);
+		
+		return (owner != null) ? owner : this.dispatcher.getLocal();
+	}
+	
+	private static Member getOwner(NavigableMap<Long, Member> ring, String id)
+	{
+		Map.Entry<Long, Member> entry = ring.ceilingEntry(Objects.mix(id.hashCode()));
+		
+		if (entry == null)
+		{
+			entry = ring.firstEntry();
+		}
+		
+		return (entry != null) ? entry.getValue() : null;
+	}
+	
+	/**
+	 * Returns the members of the current group view.
+	 */
+	private SortedSet<Member> getView()
+	{
+		return new TreeSet<>(this.ring.values());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.lock.distributed.LockCommandContext#isGrantable(net.sf.hajdbc.lock.distributed.LockDescriptor, boolean)
+	 */
+	@Override
+	public boolean isGrantable(LockDescriptor descriptor, boolean transfer)
+	{
+		String id = descriptor.getId();
+		
+		if (!this.hashing || (id == null) || (descriptor.getType() != LockType.WRITE)) return true;
+		
+		synchronized (this.handoffLock)
+		{
+			// A requesting member may not yet be aware of a view change
+			if (!this.dispatcher.getLocal().equals(this.getOwner(id))) return false;
+			
+			return transfer || !this.isMoved(id);
+		}
+	}
+	
+	/**
+	 * Indicates whether the owner of the specified hashed lock was changed by a view change whose handoff is still pending.
+	 * Must be called while holding the handoff lock.
+	 */
+	private boolean isMoved(String id)
+	{
+		NavigableMap<Long, Member> previousRing = this.previousRing;
+		
+		if (previousRing == null) return false;
+		
+		Member previousOwner = getOwner(previousRing, id);
+		
+		// A joining member has no previous view
+		return (previousOwner == null) || !previousOwner.equals(this.getOwner(id));
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.lock.distributed.LockCommandContext#handoffCompleted(net.sf.hajdbc.distributed.Member, java.util.SortedSet)
+	 */
+	@Override
+	public void handoffCompleted(Member member, SortedSet<Member> view)
+	{
+		synchronized (this.handoffLock)
+		{
+			// Retain handoffs per a view not yet installed by this member
+			this.completedHandoffs.put(member, view);
+			
+			if (view.equals(this.getView()))
+			{
+				this.pendingHandoffs.remove(member);
+				
+				if (this.pendingHandoffs.isEmpty())
+				{
+					this.previousRing = null;
+				}
+			}
+		}
 	}
 
 	/**
@@ -108,156 +325,1078 @@ public class DistributedLockManager implements LockManager, LockCommandContext,
 			{
 				return this.lockManager.readLock(id);
 			}
-			case WRITE:
+			case WRITE:
+			{
+				return this.lockManager.writeLock(id);
+			}
+			default:
+			{
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#start()
+	 */
+	@Override
+	public void start() throws SQLException
+	{
+		this.lockManager.start();
+		
+		if ((this.leaseTime > 0) || this.hashing)
+		{
+			// Must precede the initial view, which schedules the handoff of hashed locks
+			this.executor = Executors.newSingleThreadScheduledExecutor(this.threadFactory);
+		}
+		
+		this.dispatcher.start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#stop()
+	 */
+	@Override
+	public void stop()
+	{
+		ScheduledExecutorService executor = this.executor;
+		
+		if (executor != null)
+		{
+			this.executor = null;
+			executor.shutdownNow();
+		}
+		
+		for (Lease lease: this.leases.values())
+		{
+			lease.revoke();
+		}
+		this.leases.clear();
+		
+		this.dispatcher.stop();
+		this.lockManager.stop();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.lock.distributed.LockCommandContext#getRemoteLocks(net.sf.hajdbc.distributed.Remote)
+	 */
+	@Override
+	public Map<LockDescriptor, Lock> getRemoteLocks(Remote remote)
+	{
+		return this.remoteLockDescriptorMap.get(remote.getMember());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.lock.distributed.LockCommandContext#revokeLeases(java.lang.String)
+	 */
+	@Override
+	public void revokeLeases(final String id)
+	{
+		ScheduledExecutorService executor = this.executor;
+		
+		if (executor != null)
+		{
+			Runnable task = new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					DistributedLockManager.this.revokeLocalLeases(id);
+					
+					// The owner of a hashed lock is the only member that knows which member holds it, so it forwards the request
+					if (DistributedLockManager.this.hashing && (id != null) && DistributedLockManager.this.dispatcher.getLocal().equals(DistributedLockManager.this.getOwner(id)))
+					{
+						DistributedLockManager.this.requestRevocation(id);
+					}
+				}
+			};
+			
+			// Revocation requires group communication, which must not be performed by the thread executing this command
+			executor.execute(task);
+		}
+	}
+	
+	/**
+	 * Relinquishes ownership of the lease for the specified lock, or of all leases if the specified identifier is null.
+	 */
+	void revokeLocalLeases(String id)
+	{
+		if (id != null)
+		{
+			Lease lease = this.leases.get(id);
+			
+			if (lease != null)
+			{
+				lease.revoke();
+			}
+		}
+		else
+		{
+			for (Lease lease: this.leases.values())
+			{
+				lease.revoke();
+			}
+		}
+	}
+	
+	/**
+	 * Asks any other member that holds the specified lock (or any lock, if the identifier is null) to relinquish its lease.
+	 * Revocation is asynchronous; the caller is expected to wait for the lock as usual.
+	 */
+	void requestRevocation(String id)
+	{
+		ScheduledExecutorService executor = this.executor;
+		
+		if (executor == null) return;
+		
+		Member local = this.dispatcher.getLocal();
+		
+		if (this.hashing)
+		{
+			if (id != null)
+			{
+				// Only the owner of a hashed lock knows which member holds it
+				Member owner = this.getOwner(id);
+				
+				if (!owner.equals(local))
+				{
+					this.requestRevocation(executor, id, owner);
+					return;
+				}
+			}
+			else
+			{
+				// Hashed locks held by a member are only known to their owners
+				for (Member member: new TreeSet<>(this.ring.values()))
+				{
+					if (!member.equals(local))
+					{
+						this.requestRevocation(executor, id, member);
+					}
+				}
+				return;
+			}
+		}
+		
+		for (Map.Entry<Member, Map<LockDescriptor, Lock>> entry: this.remoteLockDescriptorMap.entrySet())
+		{
+			Member member = entry.getKey();
+			
+			if (!member.equals(local) && holds(entry.getValue(), id))
+			{
+				this.requestRevocation(executor, id, member);
+			}
+		}
+	}
+	
+	private void requestRevocation(ScheduledExecutorService executor, String id, final Member member)
+	{
+		final Command<Void, LockCommandContext> command = new RevokeLeaseCommand(id);
+		
+		Runnable task = new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					DistributedLockManager.this.dispatcher.execute(command, member).get();
+				}
+				catch (Exception e)
+				{
+					logger.log(Level.WARN, e, messages.sendCommandToMemberFailed(command, member));
+				}
+			}
+		};
+		
+		executor.execute(task);
+	}
+	
+	private static boolean holds(Map<LockDescriptor, Lock> locks, String id)
+	{
+		synchronized (locks)
+		{
+			if (id == null) return !locks.isEmpty();
+			
+			for (LockDescriptor descriptor: locks.keySet())
+			{
+				if (id.equals(descriptor.getId())) return true;
+			}
+			
+			return false;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.distributed.Stateful#writeState(java.io.ObjectOutput)
+	 */
+	@Override
+	public void writeState(ObjectOutput output) throws IOException
+	{
+		output.writeInt(this.remoteLockDescriptorMap.size());
+		
+		for (Map.Entry<Member, Map<LockDescriptor, Lock>> entry: this.remoteLockDescriptorMap.entrySet())
+		{
+			output.writeObject(entry.getKey());
+			
+			Map<LockDescriptor, Lock> locks = entry.getValue();
+			synchronized (locks)
+			{
+				List<LockDescriptor> descriptors = new ArrayList<>(locks.size());
+				
+				for (LockDescriptor descriptor: locks.keySet())
+				{
+					// Hashed locks are only held by their owner, and are handed off by their holder when the view changes, during which their new owner refuses to grant them
+					if (!this.hashing || (descriptor.getId() == null))
+					{
+						descriptors.add(descriptor);
+					}
+				}
+				
+				output.writeInt(descriptors.size());
+				
+				for (LockDescriptor descriptor: descriptors)
+				{
+					String id = descriptor.getId();
+					
+					// Global lock has no identifier
+					output.writeBoolean(id != null);
+					if (id != null)
+					{
+						output.writeUTF(id);
+					}
+					output.writeByte(descriptor.getType().ordinal());
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.distributed.Stateful#readState(java.io.ObjectInput)
+	 */
+	@Override
+	public void readState(ObjectInput input) throws IOException
+	{
+		// Discard any previous state
+		this.remoteLockDescriptorMap.clear();
+		
+		int size = input.readInt();
+		
+		LockType[] types = LockType.values();
+		
+		for (int i = 0; i < size; ++i)
+		{
+			Member member = Objects.readObject(input, Member.class);
+			
+			Map<LockDescriptor, Lock> map = new HashMap<>();
+			
+			int locks = input.readInt();
+			
+			for (int j = 0; j < locks; ++j)
+			{
+				String id = input.readBoolean() ? input.readUTF() : null;
+				LockType type = types[input.readByte()];
+				
+				LockDescriptor descriptor = new RemoteLockDescriptorImpl(id, type, member);
+				
+				Lock lock = this.getLock(descriptor);
+				
+				lock.lock();
+				
+				map.put(descriptor, lock);
+			}
+			
+			this.remoteLockDescriptorMap.put(member, map);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.distributed.MembershipListener#added(net.sf.hajdbc.distributed.Member)
+	 */
+	@Override
+	public void added(Member member)
+	{
+		this.remoteLockDescriptorMap.putIfAbsent(member, new HashMap<LockDescriptor, Lock>());
+		
+		if (this.hashing)
+		{
+			this.changeView(member, true);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.distributed.MembershipListener#removed(net.sf.hajdbc.distributed.Member)
+	 */
+	@Override
+	public void removed(Member member)
+	{
+		Map<LockDescriptor, Lock> locks = this.remoteLockDescriptorMap.remove(member);
+		
+		if (locks != null)
+		{
+			for (Lock lock: locks.values())
+			{
+				lock.unlock();
+			}
+		}
+		
+		if (this.hashing)
+		{
+			this.changeView(member, false);
+		}
+	}
+	
+	/**
+	 * Adds the specified member to, or removes it from, the hash ring, and begins a new handoff.
+	 */
+	private void changeView(Member member, boolean added)
+	{
+		synchronized (this.handoffLock)
+		{
+			// Named locks moved by a pending handoff remain moved until every member has completed its handoff
+			if (this.previousRing == null)
+			{
+				this.previousRing = new TreeMap<>(this.ring);
+			}
+			
+			// Member hash codes are derived from their address, and are therefore consistent across the group
+			long hash = member.hashCode();
+			
+			for (int i = 0; i < POINTS; ++i)
+			{
+				long point = Objects.mix((hash << Integer.SIZE) | i);
+				
+				if (added)
+				{
+					this.ring.put(point, member);
+				}
+				else
+				{
+					// Only remove the point if it was not claimed by a colliding member
+					this.ring.remove(point, member);
+				}
+			}
+			
+			SortedSet<Member> view = this.getView();
+			
+			// Every member, including this member, must complete its handoff per the new view
+			this.pendingHandoffs.clear();
+			
+			Iterator<Map.Entry<Member, SortedSet<Member>>> entries = this.completedHandoffs.entrySet().iterator();
+			while (entries.hasNext())
+			{
+				if (!entries.next().getValue().equals(view))
+				{
+					entries.remove();
+				}
+			}
+			
+			for (Member viewMember: view)
+			{
+				if (!this.completedHandoffs.containsKey(viewMember))
+				{
+					this.pendingHandoffs.add(viewMember);
+				}
+			}
+			
+			if (this.pendingHandoffs.isEmpty())
+			{
+				this.previousRing = null;
+			}
+		}
+		
+		this.handoff(this.handoffs.incrementAndGet());
+	}
+	
+	/**
+	 * Schedules the transfer of any hashed locks held by this member whose owner has changed, followed by the notification of every member that this member completed its handoff.
+	 * A handoff that fails is retried, unless superseded by the handoff of a subsequent view.
+	 */
+	private void handoff(final long handoff)
+	{
+		final ScheduledExecutorService executor = this.executor;
+		
+		if (executor != null)
+		{
+			Runnable task = new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					if (DistributedLockManager.this.handoffs.get() != handoff) return;
+					
+					if (!DistributedLockManager.this.completeHandoff())
+					{
+						executor.schedule(this, HANDOFF_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+					}
+				}
+			};
+			
+			// Transfer requires group communication, which must not be performed by the thread notifying us of a view change
+			executor.execute(task);
+		}
+	}
+	
+	/**
+	 * Transfers the hashed locks held by this member to their owners, and notifies every member if successful.
+	 * @return true, if the handoff completed, false if it must be retried
+	 */
+	boolean completeHandoff()
+	{
+		SortedSet<Member> view = this.getView();
+		
+		for (HashedLock lock: this.hashedLocks)
+		{
+			if (!lock.transfer()) return false;
+		}
+		
+		Member local = this.dispatcher.getLocal();
+		
+		this.handoffCompleted(local, view);
+		
+		Command<Void, LockCommandContext> command = new HandoffCompleteCommand(local, view);
+		
+		try
+		{
+			Map<Member, CommandResponse<Void>> responses = this.dispatcher.executeAll(command, local);
+			
+			for (Map.Entry<Member, CommandResponse<Void>> entry: responses.entrySet())
+			{
+				Member member = entry.getKey();
+				
+				try
+				{
+					entry.getValue().get();
+				}
+				catch (Exception e)
+				{
+					// Any departed member does not need to be notified
+					if (this.getView().contains(member))
+					{
+						logger.log(Level.WARN, e, messages.executeCommandFailed(command, member));
+						return false;
+					}
+				}
+			}
+			
+			return true;
+		}
+		catch (Exception e)
+		{
+			logger.log(Level.WARN, e, messages.sendCommandToClusterFailed(command));
+			return false;
+		}
+	}
+	
+	/**
+	 * A named write lock whose group-wide ownership outlives its local use.
+	 * Local threads are serialized via a local gate, which is released without any group communication.
+	 * Ownership is relinquished at the expiration of the lease, or by the holder releasing the gate thereafter.
+	 * A lease is deregistered once relinquished, or if its acquisition fails, and is registered again if subsequently granted.
+	 * All lease state is guarded by the gate.
+	 */
+	private class Lease implements Lock
+	{
+		private final String id;
+		private final Lock lock;
+		private final Lock gate = new SemaphoreLock(new Semaphore(1));
+		private boolean owned = false;
+		private long expiration = 0;
+		
+		Lease(String id, Lock lock)
+		{
+			this.id = id;
+			this.lock = lock;
+		}
+		
+		/**
+		 * Indicates whether this member still owns the group-wide lock, releasing it if the lease has expired.
+		 */
+		private boolean isOwned()
+		{
+			if (this.owned && (System.currentTimeMillis() >= this.expiration))
+			{
+				this.release();
+			}
+			
+			return this.owned;
+		}
+		
+		private void grant()
+		{
+			this.owned = true;
+			
+			Lease lease = DistributedLockManager.this.leases.putIfAbsent(this.id, this);
+			
+			if ((lease == null) || (lease == this))
+			{
+				this.expiration = System.currentTimeMillis() + DistributedLockManager.this.leaseTime;
+				this.scheduleExpiration(DistributedLockManager.this.leaseTime);
+			}
+			else
+			{
+				// This lease was superseded after it was relinquished, so it cannot be revoked - release it as soon as it is unlocked
+				this.expiration = 0;
+			}
+		}
+		
+		private void release()
+		{
+			this.owned = false;
+			this.lock.unlock();
+			
+			DistributedLockManager.this.leases.remove(this.id, this);
+		}
+		
+		/**
+		 * Releases the gate following a failed acquisition, deregistering this lease if not owned.
+		 */
+		private void abandon()
+		{
+			if (!this.owned)
+			{
+				DistributedLockManager.this.leases.remove(this.id, this);
+			}
+			
+			this.gate.unlock();
+		}
+		
+		private void scheduleExpiration(long delay)
+		{
+			ScheduledExecutorService executor = DistributedLockManager.this.executor;
+			
+			if (executor != null)
+			{
+				Runnable task = new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						Lease.this.expire();
+					}
+				};
+				
+				executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+			}
+		}
+		
+		@Override
+		public void lock()
+		{
+			this.gate.lock();
+			
+			boolean locked = false;
+			
+			try
+			{
+				if (!this.isOwned())
+				{
+					DistributedLockManager.this.requestRevocation(this.id);
+					this.lock.lock();
+					this.grant();
+				}
+				
+				locked = true;
+			}
+			finally
+			{
+				if (!locked)
+				{
+					this.abandon();
+				}
+			}
+		}
+
+		@Override
+		public void lockInterruptibly() throws InterruptedException
+		{
+			this.gate.lockInterruptibly();
+			
+			boolean locked = false;
+			
+			try
+			{
+				if (!this.isOwned())
+				{
+					DistributedLockManager.this.requestRevocation(this.id);
+					this.lock.lockInterruptibly();
+					this.grant();
+				}
+				
+				locked = true;
+			}
+			finally
+			{
+				if (!locked)
+				{
+					this.abandon();
+				}
+			}
+		}
+
+		@Override
+		public boolean tryLock()
+		{
+			if (!this.gate.tryLock()) return false;
+			
+			boolean locked = false;
+			
+			try
+			{
+				if (this.isOwned())
+				{
+					locked = true;
+				}
+				else
+				{
+					DistributedLockManager.this.requestRevocation(this.id);
+					
+					if (this.lock.tryLock())
+					{
+						this.grant();
+						locked = true;
+					}
+				}
+			}
+			finally
+			{
+				if (!locked)
+				{
+					this.abandon();
+				}
+			}
+			
+			return locked;
+		}
+
+		@Override
+		public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+		{
+			long stop = System.nanoTime() + unit.toNanos(time);
+			
+			if (!this.gate.tryLock(time, unit)) return false;
+			
+			boolean locked = false;
+			
+			try
+			{
+				if (this.isOwned())
+				{
+					locked = true;
+				}
+				else
+				{
+					DistributedLockManager.this.requestRevocation(this.id);
+					
+					if (this.lock.tryLock(Math.max(stop - System.nanoTime(), 0), TimeUnit.NANOSECONDS))
+					{
+						this.grant();
+						locked = true;
+					}
+				}
+			}
+			finally
+			{
+				if (!locked)
+				{
+					this.abandon();
+				}
+			}
+			
+			return locked;
+		}
+
+		@Override
+		public void unlock()
+		{
+			try
+			{
+				// Retain group-wide ownership, unless the lease expired while locally held
+				this.isOwned();
+			}
+			finally
+			{
+				this.gate.unlock();
+			}
+		}
+		
+		/**
+		 * Relinquishes group-wide ownership of this lock, waiting for any local holder to release it.
+		 */
+		void revoke()
+		{
+			this.gate.lock();
+			
+			try
+			{
+				if (this.owned)
+				{
+					this.release();
+				}
+			}
+			finally
+			{
+				this.gate.unlock();
+			}
+		}
+		
+		/**
+		 * Relinquishes group-wide ownership of this lock if its lease has expired and it is not locally held.
+		 * A lease that expires while locally held is relinquished when unlocked.
+		 */
+		void expire()
+		{
+			if (this.gate.tryLock())
+			{
+				try
+				{
+					if (this.isOwned())
+					{
+						// Expiration was scheduled for a previous grant, or fired early
+						this.scheduleExpiration(Math.max(this.expiration - System.currentTimeMillis(), 1));
+					}
+				}
+				finally
+				{
+					this.gate.unlock();
+				}
+			}
+		}
+
+		@Override
+		public Condition newCondition()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+	
+	/**
+	 * Global write lock that first relinquishes any leases, local or remote.
+	 * Since leases may be granted while waiting for the global lock, revocation is repeated at every lease interval until the lock is acquired.
+	 */
+	private class RevokingLock implements Lock
+	{
+		private final Lock lock;
+		
+		RevokingLock(Lock lock)
+		{
+			this.lock = lock;
+		}
+		
+		private void revoke()
+		{
+			DistributedLockManager.this.revokeLocalLeases(null);
+			DistributedLockManager.this.requestRevocation(null);
+		}
+		
+		@Override
+		public void lock()
+		{
+			boolean interrupted = false;
+			
+			try
+			{
+				while (true)
+				{
+					try
+					{
+						this.lockInterruptibly();
+						return;
+					}
+					catch (InterruptedException e)
+					{
+						interrupted = true;
+					}
+				}
+			}
+			finally
 			{
-				return this.lockManager.writeLock(id);
+				if (interrupted)
+				{
+					Thread.currentThread().interrupt();
+				}
 			}
-			default:
+		}
+
+		@Override
+		public void lockInterruptibly() throws InterruptedException
+		{
+			do
 			{
-				throw new IllegalStateException();
+				this.revoke();
 			}
+			while (!this.lock.tryLock(DistributedLockManager.this.leaseTime, TimeUnit.MILLISECONDS));
 		}
-	}
 
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.Lifecycle#start()
-	 */
-	@Override
-	public void start() throws SQLException
-	{
-		this.lockManager.start();
-		this.dispatcher.start();
-	}
+		@Override
+		public boolean tryLock()
+		{
+			this.revoke();
+			return this.lock.tryLock();
+		}
 
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.Lifecycle#stop()
-	 */
-	@Override
-	public void stop()
-	{
-		this.dispatcher.stop();
-		this.lockManager.stop();
-	}
+		@Override
+		public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+		{
+			long stop = System.nanoTime() + unit.toNanos(time);
+			long interval = TimeUnit.MILLISECONDS.toNanos(DistributedLockManager.this.leaseTime);
+			
+			while (true)
+			{
+				this.revoke();
+				
+				long remaining = Math.max(stop - System.nanoTime(), 0);
+				
+				if (this.lock.tryLock(Math.min(remaining, interval), TimeUnit.NANOSECONDS)) return true;
+				
+				if (remaining <= interval) return false;
+			}
+		}
 
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.lock.distributed.LockCommandContext#getRemoteLocks(net.sf.hajdbc.distributed.Remote)
-	 */
-	@Override
-	public Map<LockDescriptor, Lock> getRemoteLocks(Remote remote)
-	{
-		return this.remoteLockDescriptorMap.get(remote.getMember());
-	}
+		@Override
+		public void unlock()
+		{
+			this.lock.unlock();
+		}
 
+		@Override
+		public Condition newCondition()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+	
 	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.distributed.Stateful#writeState(java.io.ObjectOutput)
+	 * Named write lock that is acquired only from the member that owns it, per the hash ring.
+	 * Tracks the members from which it was acquired, so that it can be transferred to a new owner following a view change, and later released from all of them.
 	 */
-	@Override
-	public void writeState(ObjectOutput output) throws IOException
+	private class HashedLock implements Lock
 	{
-		output.writeInt(this.remoteLockDescriptorMap.size());
+		private final RemoteLockDescriptor descriptor;
+		private final Lock lock;
+		// Members from which this lock was acquired, guarded by this
+		private final List<Member> owners = new ArrayList<>(2);
 		
-		for (Map.Entry<Member, Map<LockDescriptor, Lock>> entry: this.remoteLockDescriptorMap.entrySet())
+		HashedLock(RemoteLockDescriptor descriptor, Lock lock)
 		{
-			output.writeObject(entry.getKey());
+			this.descriptor = descriptor;
+			this.lock = lock;
+		}
+		
+		@Override
+		public void lock()
+		{
+			boolean interrupted = false;
 			
-			Map<LockDescriptor, Lock> locks = entry.getValue();
-			synchronized (locks)
+			try
+			{
+				while (true)
+				{
+					try
+					{
+						this.lockInterruptibly();
+						return;
+					}
+					catch (InterruptedException e)
+					{
+						interrupted = true;
+					}
+				}
+			}
+			finally
+			{
+				if (interrupted)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		@Override
+		public void lockInterruptibly() throws InterruptedException
+		{
+			for (int retry = 0; ; ++retry)
 			{
-				Set<LockDescriptor> descriptors = locks.keySet();
+				DistributedLock.sleep(retry);
 				
-				output.writeInt(descriptors.size());
+				if (this.acquire(Long.MAX_VALUE)) return;
 				
-				for (LockDescriptor descriptor: descriptors)
+				if (Thread.interrupted())
 				{
-					output.writeUTF(descriptor.getId());
-					output.writeByte(descriptor.getType().ordinal());
+					throw new InterruptedException();
 				}
 			}
 		}
-	}
 
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.distributed.Stateful#readState(java.io.ObjectInput)
-	 */
-	@Override
-	public void readState(ObjectInput input) throws IOException
-	{
-		// Discard any previous state
-		this.remoteLockDescriptorMap.clear();
-		
-		int size = input.readInt();
-		
-		LockType[] types = LockType.values();
-		
-		for (int i = 0; i < size; ++i)
+		@Override
+		public boolean tryLock()
 		{
-			Member member = Objects.readObject(input, Member.class);
-			
-			Map<LockDescriptor, Lock> map = new HashMap<>();
+			try
+			{
+				for (int retry = 0; retry <= DistributedLock.BACKOFF_INTERVALS.length; ++retry)
+				{
+					DistributedLock.sleep(retry);
+					
+					if (this.acquire(0)) return true;
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
 			
-			int locks = input.readInt();
+			return false;
+		}
+
+		@Override
+		public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+		{
+			long stop = System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(time, unit);
+			long now = System.currentTimeMillis();
 			
-			for (int j = 0; j < locks; ++j)
+			for (int retry = 0; now <= stop; ++retry)
 			{
-				String id = input.readUTF();
-				LockType type = types[input.readByte()];
+				DistributedLock.sleep(retry);
 				
-				LockDescriptor descriptor = new RemoteLockDescriptorImpl(id, type, member);
+				if (this.acquire(Math.max(stop - System.currentTimeMillis(), 0))) return true;
 				
-				Lock lock = this.getLock(descriptor);
+				now = System.currentTimeMillis();
+			}
+			
+			return false;
+		}
+		
+		private boolean acquire(long timeout) throws InterruptedException
+		{
+			Member owner = DistributedLockManager.this.getOwner(this.descriptor.getId());
+			
+			boolean locked = this.isLocal(owner) ? (DistributedLockManager.this.isGrantable(this.descriptor, false) && this.lock.tryLock(timeout, TimeUnit.MILLISECONDS)) : this.lock(owner, timeout, false);
+			
+			if (locked)
+			{
+				synchronized (this)
+				{
+					this.owners.add(owner);
+				}
 				
-				lock.lock();
+				DistributedLockManager.this.hashedLocks.add(this);
 				
-				map.put(descriptor, lock);
+				// The view may have changed while we were acquiring the lock
+				this.transfer();
 			}
 			
-			this.remoteLockDescriptorMap.put(member, map);
+			return locked;
+		}
+		
+		/**
+		 * Acquires this lock from its current owner, if it is held, but not yet from that owner.
+		 * @return true, if this lock is not held, or is held from its current owner, false if the transfer failed and must be retried
+		 */
+		synchronized boolean transfer()
+		{
+			if (this.owners.isEmpty()) return true;
+			
+			// Any locks held by departed members were already released
+			this.owners.retainAll(DistributedLockManager.this.ring.values());
+			
+			Member owner = DistributedLockManager.this.getOwner(this.descriptor.getId());
+			
+			if (this.owners.contains(owner)) return true;
+			
+			// Don't wait, since the new owner may be unaware of the view change
+			if (this.isLocal(owner) ? (DistributedLockManager.this.isGrantable(this.descriptor, true) && this.lock.tryLock()) : this.lock(owner, 0, true))
+			{
+				this.owners.add(owner);
+				return true;
+			}
+			
+			logger.log(Level.WARN, messages.lockTransferFailed(this.descriptor, owner));
+			return false;
+		}
+		
+		private boolean isLocal(Member member)
+		{
+			return DistributedLockManager.this.dispatcher.getLocal().equals(member);
+		}
+		
+		private boolean lock(Member member, long timeout, boolean transfer)
+		{
+			Command<Boolean, LockCommandContext> command = new AcquireLockCommand(this.descriptor, timeout, transfer);
+			try
+			{
+				return DistributedLock.readAcquireResponse(command, member, DistributedLockManager.this.dispatcher.execute(command, member));
+			}
+			catch (Exception e)
+			{
+				logger.log(Level.WARN, e, messages.sendCommandToMemberFailed(command, member));
+				return false;
+			}
 		}
-	}
-
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.distributed.MembershipListener#added(net.sf.hajdbc.distributed.Member)
-	 */
-	@Override
-	public void added(Member member)
-	{
-		this.remoteLockDescriptorMap.putIfAbsent(member, new HashMap<LockDescriptor, Lock>());
-	}
 
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.distributed.MembershipListener#removed(net.sf.hajdbc.distributed.Member)
-	 */
-	@Override
-	public void removed(Member member)
-	{
-		Map<LockDescriptor, Lock> locks = this.remoteLockDescriptorMap.remove(member);
+		@Override
+		public void unlock()
+		{
+			List<Member> owners = null;
+			
+			synchronized (this)
+			{
+				owners = new ArrayList<>(this.owners);
+				this.owners.clear();
+			}
+			
+			DistributedLockManager.this.hashedLocks.remove(this);
+			
+			for (Member owner: owners)
+			{
+				if (this.isLocal(owner))
+				{
+					this.lock.unlock();
+				}
+				else
+				{
+					this.unlock(owner);
+				}
+			}
+		}
 		
-		if (locks != null)
+		private void unlock(Member member)
 		{
-			for (Lock lock: locks.values())
+			Command<Void, LockCommandContext> command = new ReleaseLockCommand(this.descriptor);
+			try
 			{
-				lock.unlock();
+				DistributedLock.readReleaseResponse(command, member, DistributedLockManager.this.dispatcher.execute(command, member));
+			}
+			catch (Exception e)
+			{
+				logger.log(Level.WARN, e, messages.sendCommandToMemberFailed(command, member));
 			}
 		}
+
+		@Override
+		public Condition newCondition()
+		{
+			throw new UnsupportedOperationException();
+		}
 	}
 	
 	private static class DistributedLock implements Lock
 	{
 		private static final int[] BACKOFF_INTERVALS = new int[] { 1, 10, 100 };
-		private final RemoteLockDescriptor descriptor;
+		private final List<RemoteLockDescriptor> descriptors;
 		private final Lock lock;
 		private final CommandDispatcher<LockCommandContext> dispatcher;
 		
-		DistributedLock(RemoteLockDescriptor descriptor, Lock lock, CommandDispatcher<LockCommandContext> dispatcher)
+		DistributedLock(List<RemoteLockDescriptor> descriptors, Lock lock, CommandDispatcher<LockCommandContext> dispatcher)
 		{
-			this.descriptor = descriptor;
+			this.descriptors = descriptors;
 			this.lock = lock;
 			this.dispatcher = dispatcher;
 		}
@@ -475,7 +1614,7 @@ public class DistributedLockManager implements LockManager, LockCommandContext,
 		
 		private boolean lockMembers(Member coordinator)
 		{
-			Command<Boolean, LockCommandContext> command = new AcquireLockCommand(this.descriptor, 0);
+			Command<Boolean, LockCommandContext> command = this.createAcquireCommand(0);
 			try
 			{
 				Map<Member, CommandResponse<Boolean>> results = this.dispatcher.executeAll(command, coordinator);
@@ -511,10 +1650,10 @@ public class DistributedLockManager implements LockManager, LockCommandContext,
 		
 		private boolean lockCoordinator(Member coordinator, long timeout)
 		{
-			Command<Boolean, LockCommandContext> command = new AcquireLockCommand(this.descriptor, timeout);
+			Command<Boolean, LockCommandContext> command = this.createAcquireCommand(timeout);
 			try
 			{
-				CommandResponse<Boolean> response = this.dispatcher.execute(new AcquireLockCommand(this.descriptor, timeout), coordinator);
+				CommandResponse<Boolean> response = this.dispatcher.execute(command, coordinator);
 				return readAcquireResponse(command, coordinator, response);
 			}
 			catch (Exception e)
@@ -524,6 +1663,16 @@ public class DistributedLockManager implements LockManager, LockCommandContext,
 			}
 		}
 		
+		private Command<Boolean, LockCommandContext> createAcquireCommand(long timeout)
+		{
+			return (this.descriptors.size() == 1) ? new AcquireLockCommand(this.descriptors.get(0), timeout) : new AcquireLocksCommand(this.descriptors, timeout);
+		}
+		
+		private Command<Void, LockCommandContext> createReleaseCommand()
+		{
+			return (this.descriptors.size() == 1) ? new ReleaseLockCommand(this.descriptors.get(0)) : new ReleaseLocksCommand(this.descriptors);
+		}
+		
 		private static boolean readAcquireResponse(Command<Boolean, LockCommandContext> command, Member member, CommandResponse<Boolean> response)
 		{
 			return readResponse(command, member, response, Boolean.FALSE).booleanValue();
@@ -548,7 +1697,7 @@ public class DistributedLockManager implements LockManager, LockCommandContext,
 		
 		private void unlockMembers(Member... excluded)
 		{
-			Command<Void, LockCommandContext> command = new ReleaseLockCommand(this.descriptor);
+			Command<Void, LockCommandContext> command = this.createReleaseCommand();
 			try
 			{
 				Map<Member, CommandResponse<Void>> responses = this.dispatcher.executeAll(command, excluded);
@@ -565,7 +1714,7 @@ public class DistributedLockManager implements LockManager, LockCommandContext,
 
 		private void unlock(Member member)
 		{
-			Command<Void, LockCommandContext> command = new ReleaseLockCommand(this.descriptor);
+			Command<Void, LockCommandContext> command = this.createReleaseCommand();
 			try
 			{
 				CommandResponse<Void> response = this.dispatcher.execute(command, member);
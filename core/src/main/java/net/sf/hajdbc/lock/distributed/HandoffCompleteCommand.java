@@ -0,0 +1,67 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock.distributed;
+
+import java.util.SortedSet;
+
+import net.sf.hajdbc.distributed.Command;
+import net.sf.hajdbc.distributed.Member;
+
+/**
+ * Notifies a group member that the sending member has transferred all of its hashed locks to their owners per the specified group view.
+ * @author Paul Ferraro
+ */
+public class HandoffCompleteCommand implements Command<Void, LockCommandContext>
+{
+	private static final long serialVersionUID = 4326127791546396021L;
+
+	private final Member member;
+	private final SortedSet<Member> view;
+	
+	/**
+	 * @param member the member that completed its handoff
+	 * @param view the members of the group view per which locks were transferred
+	 */
+	public HandoffCompleteCommand(Member member, SortedSet<Member> view)
+	{
+		this.member = member;
+		this.view = view;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.distributed.Command#execute(java.lang.Object)
+	 */
+	@Override
+	public Void execute(LockCommandContext context)
+	{
+		context.handoffCompleted(this.member, this.view);
+		
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("%s(%s, %s)", this.getClass().getSimpleName(), this.member, this.view);
+	}
+}
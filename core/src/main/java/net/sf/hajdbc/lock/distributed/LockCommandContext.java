@@ -18,8 +18,10 @@
 package net.sf.hajdbc.lock.distributed;
 
 import java.util.Map;
+import java.util.SortedSet;
 import java.util.concurrent.locks.Lock;
 
+import net.sf.hajdbc.distributed.Member;
 import net.sf.hajdbc.distributed.Remote;
 
 /**
@@ -31,4 +33,26 @@ public interface LockCommandContext
 	Lock getLock(LockDescriptor descriptor);
 	
 	Map<LockDescriptor, Lock> getRemoteLocks(Remote remote);
+	
+	/**
+	 * Relinquishes, asynchronously, this member's lease on the specified lock.
+	 * @param id a lock identifier, or null to relinquish all leases
+	 */
+	void revokeLeases(String id);
+	
+	/**
+	 * Indicates whether this member may grant the specified lock to a remote member.
+	 * A hashed lock may only be granted by its owner, and, following a view change that moved it, only once every member has handed off the hashed locks it holds.
+	 * @param descriptor a lock descriptor
+	 * @param transfer indicates whether the requesting member already holds this lock, and is handing it off to this member
+	 * @return true, if the lock may be granted, false otherwise
+	 */
+	boolean isGrantable(LockDescriptor descriptor, boolean transfer);
+	
+	/**
+	 * Records that the specified member has transferred all of its hashed locks to their owners per the specified group view.
+	 * @param member a group member
+	 * @param view the members of a group view
+	 */
+	void handoffCompleted(Member member, SortedSet<Member> view);
 }
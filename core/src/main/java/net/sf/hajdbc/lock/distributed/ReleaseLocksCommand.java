@@ -0,0 +1,84 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock.distributed;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import net.sf.hajdbc.distributed.Command;
+
+/**
+ * Command that releases a list of locks, in reverse order, previously acquired on behalf of a remote member via {@link AcquireLocksCommand}.
+ * @author Paul Ferraro
+ */
+public class ReleaseLocksCommand implements Command<Void, LockCommandContext>
+{
+	private static final long serialVersionUID = 5170340817934427645L;
+
+	private final List<RemoteLockDescriptor> descriptors;
+	
+	public ReleaseLocksCommand(List<RemoteLockDescriptor> descriptors)
+	{
+		this.descriptors = descriptors;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.distributed.Command#execute(java.lang.Object)
+	 */
+	@Override
+	public Void execute(LockCommandContext context)
+	{
+		ListIterator<RemoteLockDescriptor> descriptors = this.descriptors.listIterator(this.descriptors.size());
+		
+		while (descriptors.hasPrevious())
+		{
+			RemoteLockDescriptor descriptor = descriptors.previous();
+			Map<LockDescriptor, Lock> locks = context.getRemoteLocks(descriptor);
+			
+			if (locks != null)
+			{
+				Lock lock = null;
+				
+				synchronized (locks)
+				{
+					lock = locks.remove(descriptor);
+				}
+				
+				if (lock != null)
+				{
+					lock.unlock();
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("%s(%s)", this.getClass().getSimpleName(), this.descriptors);
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock.distributed;
+
+import net.sf.hajdbc.distributed.Command;
+
+/**
+ * Asks a group member to relinquish its lease on a lock requested by another member.
+ * @author Paul Ferraro
+ */
+public class RevokeLeaseCommand implements Command<Void, LockCommandContext>
+{
+	private static final long serialVersionUID = -2335128497364170521L;
+
+	private final String id;
+	
+	/**
+	 * @param id a lock identifier, or null to revoke all leases
+	 */
+	public RevokeLeaseCommand(String id)
+	{
+		this.id = id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.distributed.Command#execute(java.lang.Object)
+	 */
+	@Override
+	public Void execute(LockCommandContext context)
+	{
+		context.revokeLeases(this.id);
+		
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("%s(%s)", this.getClass().getSimpleName(), (this.id != null) ? this.id : "");
+	}
+}
@@ -17,6 +17,9 @@
  */
 package net.sf.hajdbc.lock.semaphore;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
@@ -25,12 +28,13 @@ import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 
-import net.sf.hajdbc.lock.LockManager;
+import net.sf.hajdbc.lock.CompositeLock;
+import net.sf.hajdbc.lock.MultiLockManager;
 
 /**
  * @author Paul Ferraro
  */
-public class SemaphoreLockManager implements LockManager
+public class SemaphoreLockManager implements MultiLockManager
 {
 	private final ConcurrentMap<String, ReadWriteLock> lockMap = new ConcurrentHashMap<>();
 
@@ -63,6 +67,25 @@ public class SemaphoreLockManager implements LockManager
 		return (object == null) ? readWriteLock.writeLock() : new GlobalLock(readWriteLock.readLock(), this.getReadWriteLock(object).writeLock());
 	}
 	
+	/**
+	 * @see net.sf.hajdbc.lock.MultiLockManager#writeLock(java.util.SortedSet)
+	 */
+	@Override
+	public Lock writeLock(SortedSet<String> objects)
+	{
+		List<Lock> locks = new ArrayList<>(objects.size() + 1);
+		
+		// Obtain the global read lock once, rather than per object
+		locks.add(this.getReadWriteLock(null).readLock());
+		
+		for (String object: objects)
+		{
+			locks.add(this.getReadWriteLock(object).writeLock());
+		}
+		
+		return new CompositeLock(locks);
+	}
+	
 	private synchronized ReadWriteLock getReadWriteLock(String object)
 	{
 		// CHM cannot use a null key
@@ -72,7 +95,8 @@ public class SemaphoreLockManager implements LockManager
 		
 		if (lock == null)
 		{
-			lock = new SemaphoreReadWriteLock(new Semaphore(Integer.MAX_VALUE, this.fair));
+			// The global lock is read-locked by every transaction, but only write-locked during activation
+			lock = (object != null) ? new SemaphoreReadWriteLock(new Semaphore(Integer.MAX_VALUE, this.fair)) : new StripedReadWriteLock(this.fair);
 
 			ReadWriteLock existing = this.lockMap.putIfAbsent(key, lock);
 			
@@ -0,0 +1,307 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock.semaphore;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Reader-biased {@link java.util.concurrent.locks.ReadWriteLock} implementation, suited to locks that are read-locked frequently, but only rarely write-locked.
+ * Readers are counted in one of several stripes, chosen per thread, each on its own cache line, so that concurrent readers do not contend on shared state.
+ * A writer first excludes other writers, then announces itself to subsequent readers, and waits for the stripes to drain.
+ * Readers that observe a pending writer back off and wait for the writer to finish, thus writers are not starved.
+ * Like {@link SemaphoreReadWriteLock}, a lock can be unlocked by a thread other than the one that locked it.
+ * Lock upgrading and downgrading is not supported; nor are conditions.
+ * @author Paul Ferraro
+ */
+public class StripedReadWriteLock implements ReadWriteLock
+{
+	// Number of longs per cache line (assuming 64 byte lines), plus some headroom for adjacent line prefetching
+	private static final int PADDING = 16;
+	private static final long MAX_WRITER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	
+	final AtomicLongArray counts;
+	final int mask;
+	final Semaphore writers;
+	volatile boolean writing = false;
+	
+	private final Lock readLock = new ReadLock();
+	private final Lock writeLock = new WriteLock();
+	
+	/**
+	 * Creates a new lock, using a number of stripes proportional to the number of available processors.
+	 * @param fair indicates whether writers acquire the lock in the order requested
+	 */
+	public StripedReadWriteLock(boolean fair)
+	{
+		this(Runtime.getRuntime().availableProcessors() * 2, fair);
+	}
+	
+	/**
+	 * Creates a new lock
+	 * @param stripes the minimum number of reader stripes, rounded up to a power of 2
+	 * @param fair indicates whether writers acquire the lock in the order requested
+	 */
+	public StripedReadWriteLock(int stripes, boolean fair)
+	{
+		int size = Integer.highestOneBit(Math.max(stripes, 1) - 1) << 1;
+		this.mask = Math.max(size, 1) - 1;
+		this.counts = new AtomicLongArray((this.mask + 1) * PADDING);
+		this.writers = new Semaphore(1, fair);
+	}
+
+	/**
+	 * @see java.util.concurrent.locks.ReadWriteLock#readLock()
+	 */
+	@Override
+	public Lock readLock()
+	{
+		return this.readLock;
+	}
+
+	/**
+	 * @see java.util.concurrent.locks.ReadWriteLock#writeLock()
+	 */
+	@Override
+	public Lock writeLock()
+	{
+		return this.writeLock;
+	}
+	
+	/**
+	 * Returns the index of the reader count of the stripe assigned to the current thread.
+	 */
+	int index()
+	{
+		return ((int) Thread.currentThread().getId() & this.mask) * PADDING;
+	}
+	
+	/**
+	 * Indicates whether any reader holds this lock.
+	 * Readers may release the lock from a different thread, and thus a different stripe, than the one that acquired it, so only the sum of all stripes is meaningful.
+	 */
+	boolean isReadLocked()
+	{
+		long count = 0;
+		
+		for (int i = 0; i < this.counts.length(); i += PADDING)
+		{
+			count += this.counts.get(i);
+		}
+		
+		return count > 0;
+	}
+	
+	/**
+	 * Attempts to register a reader without blocking.
+	 * The increment of the stripe, followed by the read of the writer flag, pairs with a writer's write of the flag, followed by its read of the stripes, such that either the reader observes the writer, or the writer observes the reader.
+	 */
+	boolean tryAcquireShared()
+	{
+		int index = this.index();
+		
+		this.counts.incrementAndGet(index);
+		
+		if (!this.writing) return true;
+		
+		this.counts.decrementAndGet(index);
+		
+		return false;
+	}
+	
+	private class ReadLock implements Lock
+	{
+		ReadLock()
+		{
+			// Avoid synthetic accessor
+		}
+		
+		@Override
+		public void lock()
+		{
+			while (!StripedReadWriteLock.this.tryAcquireShared())
+			{
+				// Wait for the pending writer to finish
+				StripedReadWriteLock.this.writers.acquireUninterruptibly();
+				StripedReadWriteLock.this.writers.release();
+			}
+		}
+
+		@Override
+		public void lockInterruptibly() throws InterruptedException
+		{
+			while (!StripedReadWriteLock.this.tryAcquireShared())
+			{
+				StripedReadWriteLock.this.writers.acquire();
+				StripedReadWriteLock.this.writers.release();
+			}
+		}
+
+		@Override
+		public boolean tryLock()
+		{
+			return StripedReadWriteLock.this.tryAcquireShared();
+		}
+
+		@Override
+		public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+		{
+			long stop = System.nanoTime() + unit.toNanos(time);
+			
+			while (!StripedReadWriteLock.this.tryAcquireShared())
+			{
+				if (!StripedReadWriteLock.this.writers.tryAcquire(Math.max(stop - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) return false;
+				
+				StripedReadWriteLock.this.writers.release();
+			}
+			
+			return true;
+		}
+
+		@Override
+		public void unlock()
+		{
+			StripedReadWriteLock.this.counts.decrementAndGet(StripedReadWriteLock.this.index());
+		}
+
+		@Override
+		public Condition newCondition()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+	
+	private class WriteLock implements Lock
+	{
+		WriteLock()
+		{
+			// Avoid synthetic accessor
+		}
+		
+		@Override
+		public void lock()
+		{
+			StripedReadWriteLock.this.writers.acquireUninterruptibly();
+			StripedReadWriteLock.this.writing = true;
+			
+			boolean interrupted = false;
+			long parkNanos = 1;
+			
+			while (StripedReadWriteLock.this.isReadLocked())
+			{
+				LockSupport.parkNanos(parkNanos);
+				parkNanos = Math.min(parkNanos << 1, MAX_WRITER_PARK_NANOS);
+				
+				if (Thread.interrupted())
+				{
+					interrupted = true;
+				}
+			}
+			
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public void lockInterruptibly() throws InterruptedException
+		{
+			if (!this.tryLock(Long.MAX_VALUE, TimeUnit.NANOSECONDS))
+			{
+				// Only possible if interrupted
+				throw new InterruptedException();
+			}
+		}
+
+		@Override
+		public boolean tryLock()
+		{
+			if (!StripedReadWriteLock.this.writers.tryAcquire()) return false;
+			
+			StripedReadWriteLock.this.writing = true;
+			
+			if (!StripedReadWriteLock.this.isReadLocked()) return true;
+			
+			this.unlock();
+			
+			return false;
+		}
+
+		@Override
+		public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+		{
+			long stop = System.nanoTime() + unit.toNanos(time);
+			
+			if (!StripedReadWriteLock.this.writers.tryAcquire(time, unit)) return false;
+			
+			StripedReadWriteLock.this.writing = true;
+			
+			boolean locked = false;
+			
+			try
+			{
+				long parkNanos = 1;
+				
+				while (StripedReadWriteLock.this.isReadLocked())
+				{
+					long remaining = stop - System.nanoTime();
+					
+					if (remaining <= 0) return false;
+					
+					LockSupport.parkNanos(Math.min(parkNanos, remaining));
+					parkNanos = Math.min(parkNanos << 1, MAX_WRITER_PARK_NANOS);
+					
+					if (Thread.interrupted())
+					{
+						throw new InterruptedException();
+					}
+				}
+				
+				locked = true;
+				
+				return true;
+			}
+			finally
+			{
+				if (!locked)
+				{
+					this.unlock();
+				}
+			}
+		}
+
+		@Override
+		public void unlock()
+		{
+			StripedReadWriteLock.this.writing = false;
+			StripedReadWriteLock.this.writers.release();
+		}
+
+		@Override
+		public Condition newCondition()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -75,6 +75,10 @@ public interface Messages
 	String insertCount(TableProperties table, int count);
 	String updateCount(TableProperties table, int count);
 	String deleteCount(TableProperties table, int count);
+	String rowNotFound(String table, String key);
+	String tablePlan(TableProperties table, String strategy, long sourceRows, long targetRows, long cost);
+	String synchronizationPlan(int fullTables, int differentialTables, int skippedTables, long cost);
+	<Z, D extends Database<Z>> String constraintPhase(D database, String phase, int statements, int connections, long millis);
 
 	String dumpRestoreNotSupported(Dialect dialect);
 
@@ -86,10 +90,16 @@ public interface Messages
 	<Z, D extends Database<Z>> String stop(DatabaseCluster<Z, D> cluster);
 	<Z, D extends Database<Z>> String invalidDatabase(DatabaseCluster<Z, D> cluster, String id);
 	<Z, D extends Database<Z>> String notActive(DatabaseCluster<Z, D> cluster);
+	String statementClosed();
 	<Z, D extends Database<Z>> String noActiveDatabases(DatabaseCluster<Z, D> cluster);
 	<Z, D extends Database<Z>> String activated(DatabaseCluster<Z, D> cluster, D database);
 	<Z, D extends Database<Z>> String deactivated(DatabaseCluster<Z, D> cluster, D database);
 	<Z, D extends Database<Z>> String inconsistent(DatabaseCluster<Z, D> cluster, D database, Object actual, Object expected);
+	<Z, D extends Database<Z>> String shadowReadMismatch(DatabaseCluster<Z, D> cluster, D database, D reference, Object query, Object expected, Object actual);
+	<Z, D extends Database<Z>> String identityBlockSizeIgnored(DatabaseCluster<Z, D> cluster);
+	<Z, D extends Database<Z>> String replayLogIgnored(DatabaseCluster<Z, D> cluster);
+	<Z, D extends Database<Z>> String replayed(DatabaseCluster<Z, D> cluster, D database, long statements);
+	<Z, D extends Database<Z>> String replayFailed(DatabaseCluster<Z, D> cluster, D database);
 
 	<Z, D extends Database<Z>> String stillActive(DatabaseCluster<Z, D> cluster, D database);
 	<Z, D extends Database<Z>> String activationFailed(DatabaseCluster<Z, D> cluster, D database);
@@ -112,4 +122,5 @@ public interface Messages
 	String sendCommandToClusterFailed(Command<?, ?> command);
 	String sendCommandToMemberFailed(Command<?, ?> command, Member member);
 	String executeCommandFailed(Command<?, ?> command, Member member);
+	String lockTransferFailed(Object lock, Member member);
 }
@@ -180,6 +180,12 @@ public class SimpleMessages implements Messages
 		return this.tr("Database cluster {0} is not active", cluster);
 	}
 
+	@Override
+	public String statementClosed()
+	{
+		return this.tr("Statement is closed");
+	}
+
 	@Override
 	public <Z, D extends Database<Z>> String noActiveDatabases(DatabaseCluster<Z, D> cluster)
 	{
@@ -204,6 +210,36 @@ public class SimpleMessages implements Messages
 		return this.tr("Deactivated database {1} from cluster {0} due to inconsistent operations results: expected [{2}], actual [{3}]", cluster, database, expected, actual);
 	}
 
+	@Override
+	public <Z, D extends Database<Z>> String shadowReadMismatch(DatabaseCluster<Z, D> cluster, D database, D reference, Object query, Object expected, Object actual)
+	{
+		return this.tr("Results of query [{3}] from database {1} of cluster {0} do not match results from database {2}: expected [{4}], actual [{5}]", cluster, database, reference, query, expected, actual);
+	}
+
+	@Override
+	public <Z, D extends Database<Z>> String identityBlockSizeIgnored(DatabaseCluster<Z, D> cluster)
+	{
+		return this.tr("Identity column values will not be pre-allocated, since database cluster {0} is distributed", cluster);
+	}
+
+	@Override
+	public <Z, D extends Database<Z>> String replayLogIgnored(DatabaseCluster<Z, D> cluster)
+	{
+		return this.tr("Write statements will not be logged for replay, since database cluster {0} is distributed", cluster);
+	}
+
+	@Override
+	public <Z, D extends Database<Z>> String replayed(DatabaseCluster<Z, D> cluster, D database, long statements)
+	{
+		return this.tr("Replayed {2} statements against database {1} of cluster {0}", cluster, database, statements);
+	}
+
+	@Override
+	public <Z, D extends Database<Z>> String replayFailed(DatabaseCluster<Z, D> cluster, D database)
+	{
+		return this.tr("Failed to replay logged statements against database {1} of cluster {0} - falling back to synchronization", cluster, database);
+	}
+
 	@Override
 	public <Z, D extends Database<Z>> String stillActive(DatabaseCluster<Z, D> cluster, D database)
 	{
@@ -306,6 +342,30 @@ public class SimpleMessages implements Messages
 		return this.tr("Deleted {1} rows from {0}", table.getName(), count);
 	}
 
+	@Override
+	public String rowNotFound(String table, String key)
+	{
+		return this.tr("Row with primary key ({1}) of table {0} was not found in the source database", table, key);
+	}
+
+	@Override
+	public String tablePlan(TableProperties table, String strategy, long sourceRows, long targetRows, long cost)
+	{
+		return this.tr("Table {0} will be synchronized using the {1} strategy ({2} source rows, {3} target rows, estimated cost {4})", table.getName(), strategy, sourceRows, targetRows, cost);
+	}
+
+	@Override
+	public String synchronizationPlan(int fullTables, int differentialTables, int skippedTables, long cost)
+	{
+		return this.tr("Synchronization plan: {0} tables copied in full, {1} tables compared, {2} tables skipped, estimated cost {3}", fullTables, differentialTables, skippedTables, cost);
+	}
+
+	@Override
+	public <Z, D extends Database<Z>> String constraintPhase(D database, String phase, int statements, int connections, long millis)
+	{
+		return this.tr("Executed {2} {1} statements against database {0} via {3} connection(s) in {4} ms", database, phase, statements, connections, millis);
+	}
+
 	@Override
 	public String dumpRestoreNotSupported(Dialect dialect)
 	{
@@ -348,6 +408,12 @@ public class SimpleMessages implements Messages
 		return this.tr("Failed to execute {0} on {1}", command, member);
 	}
 
+	@Override
+	public String lockTransferFailed(Object lock, Member member)
+	{
+		return this.tr("Failed to transfer {0} to its new owner {1}", lock, member);
+	}
+
 	// The awkward method name is intentional so that the strings in this class will be parsed by the gettext-maven-plugin
 	protected String tr(String message)
 	{
@@ -0,0 +1,147 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values, e.g. latencies in nanoseconds.
+ * Values are recorded into log-linear buckets (in the style of an HDR histogram), i.e. each power of 2 is divided into 8 linear sub-buckets,
+ * bounding the relative error of any reported percentile to 12.5%, while using a fixed amount of memory.
+ * Recording a value is wait-free; reads are not atomic with respect to concurrent writes, and so may be marginally inconsistent.
+ * @author Paul Ferraro
+ */
+public class Histogram
+{
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records the specified value.  Negative values are recorded as 0.
+	 * @param value a value
+	 */
+	public void record(long value)
+	{
+		long normalizedValue = Math.max(value, 0L);
+
+		this.counts.incrementAndGet(index(normalizedValue));
+		this.count.incrementAndGet();
+		this.total.addAndGet(normalizedValue);
+
+		long current = this.max.get();
+		while ((normalizedValue > current) && !this.max.compareAndSet(current, normalizedValue))
+		{
+			current = this.max.get();
+		}
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 * @return a count
+	 */
+	public long getCount()
+	{
+		return this.count.get();
+	}
+
+	/**
+	 * Returns the sum of all recorded values.
+	 * @return a sum
+	 */
+	public long getTotal()
+	{
+		return this.total.get();
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 * @return the maximum value, or 0 if no values were recorded.
+	 */
+	public long getMax()
+	{
+		return this.max.get();
+	}
+
+	/**
+	 * Returns the mean of all recorded values.
+	 * @return the mean value, or 0 if no values were recorded.
+	 */
+	public double getMean()
+	{
+		long count = this.count.get();
+		return (count > 0) ? (double) this.total.get() / count : 0d;
+	}
+
+	/**
+	 * Returns the (upper bound of the) value below which the specified percentage of recorded values fall.
+	 * @param percentile a percentile between 0 and 100
+	 * @return a value, or 0 if no values were recorded.
+	 */
+	public long getValueAtPercentile(double percentile)
+	{
+		long count = this.count.get();
+		if (count == 0) return 0L;
+
+		long threshold = Math.max((long) Math.ceil(Math.min(Math.max(percentile, 0d), 100d) * count / 100d), 1L);
+		long cumulativeCount = 0;
+
+		for (int i = 0; i < BUCKETS; ++i)
+		{
+			cumulativeCount += this.counts.get(i);
+
+			if (cumulativeCount >= threshold)
+			{
+				return Math.min(upperBound(i), this.max.get());
+			}
+		}
+
+		return this.max.get();
+	}
+
+	static int index(long value)
+	{
+		if (value < SUB_BUCKETS) return (int) value;
+
+		int magnitude = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+		return ((magnitude - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	static long lowerBound(int index)
+	{
+		if (index < SUB_BUCKETS) return index;
+
+		int magnitude = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+		long subBucket = index & (SUB_BUCKETS - 1);
+
+		return (SUB_BUCKETS + subBucket) << (magnitude - SUB_BUCKET_BITS);
+	}
+
+	static long upperBound(int index)
+	{
+		return (index < (BUCKETS - 1)) ? lowerBound(index + 1) - 1 : Long.MAX_VALUE;
+	}
+}
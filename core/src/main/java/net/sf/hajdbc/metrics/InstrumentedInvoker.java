@@ -0,0 +1,75 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.metrics;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.Invoker;
+
+/**
+ * Invoker decorator that records the latency of each invocation against a given database.
+ * @author Paul Ferraro
+ */
+public class InstrumentedInvoker<Z, D extends Database<Z>, T, R, E extends Exception> implements Invoker<Z, D, T, R, E>
+{
+	private final Invoker<Z, D, T, R, E> invoker;
+	private final MetricRegistry registry;
+	
+	public InstrumentedInvoker(Invoker<Z, D, T, R, E> invoker, MetricRegistry registry)
+	{
+		this.invoker = invoker;
+		this.registry = registry;
+	}
+
+	/**
+	 * Returns the decorated invoker.
+	 * @return an invoker
+	 */
+	public Invoker<Z, D, T, R, E> getInvoker()
+	{
+		return this.invoker;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.invocation.Invoker#invoke(net.sf.hajdbc.Database, java.lang.Object)
+	 */
+	@Override
+	public R invoke(D database, T object) throws E
+	{
+		long start = System.nanoTime();
+		
+		try
+		{
+			return this.invoker.invoke(database, object);
+		}
+		finally
+		{
+			this.registry.getHistogram(database.getId(), MetricRegistry.INVOCATION).record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return this.invoker.toString();
+	}
+}
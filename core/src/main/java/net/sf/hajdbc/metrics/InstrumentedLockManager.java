@@ -0,0 +1,173 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.metrics;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+import net.sf.hajdbc.lock.CompositeLock;
+import net.sf.hajdbc.lock.LockManager;
+import net.sf.hajdbc.lock.MultiLockManager;
+
+/**
+ * Lock manager decorator that records the time spent waiting to acquire read and write locks.
+ * @author Paul Ferraro
+ */
+public class InstrumentedLockManager implements MultiLockManager
+{
+	static final String READ_LOCK = MetricRegistry.LOCK + ".read";
+	static final String WRITE_LOCK = MetricRegistry.LOCK + ".write";
+	
+	private final LockManager manager;
+	private final MetricRegistry registry;
+	
+	public InstrumentedLockManager(LockManager manager, MetricRegistry registry)
+	{
+		this.manager = manager;
+		this.registry = registry;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.lock.LockManager#readLock(java.lang.String)
+	 */
+	@Override
+	public Lock readLock(String object)
+	{
+		return new InstrumentedLock(this.manager.readLock(object), this.registry, READ_LOCK);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.lock.LockManager#writeLock(java.lang.String)
+	 */
+	@Override
+	public Lock writeLock(String object)
+	{
+		return new InstrumentedLock(this.manager.writeLock(object), this.registry, WRITE_LOCK);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.lock.MultiLockManager#writeLock(java.util.SortedSet)
+	 */
+	@Override
+	public Lock writeLock(SortedSet<String> objects)
+	{
+		if (this.manager instanceof MultiLockManager)
+		{
+			return new InstrumentedLock(((MultiLockManager) this.manager).writeLock(objects), this.registry, WRITE_LOCK);
+		}
+		
+		List<Lock> locks = new ArrayList<>(objects.size());
+		
+		for (String object: objects)
+		{
+			locks.add(this.manager.writeLock(object));
+		}
+		
+		return new InstrumentedLock(new CompositeLock(locks), this.registry, WRITE_LOCK);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#start()
+	 */
+	@Override
+	public void start() throws SQLException
+	{
+		this.manager.start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#stop()
+	 */
+	@Override
+	public void stop()
+	{
+		this.manager.stop();
+	}
+	
+	private static class InstrumentedLock implements Lock
+	{
+		private final Lock lock;
+		private final MetricRegistry registry;
+		private final String name;
+		
+		InstrumentedLock(Lock lock, MetricRegistry registry, String name)
+		{
+			this.lock = lock;
+			this.registry = registry;
+			this.name = name;
+		}
+		
+		@Override
+		public void lock()
+		{
+			long start = System.nanoTime();
+			this.lock.lock();
+			this.record(start);
+		}
+
+		@Override
+		public void lockInterruptibly() throws InterruptedException
+		{
+			long start = System.nanoTime();
+			this.lock.lockInterruptibly();
+			this.record(start);
+		}
+
+		@Override
+		public boolean tryLock()
+		{
+			return this.lock.tryLock();
+		}
+
+		@Override
+		public boolean tryLock(long time, TimeUnit unit) throws InterruptedException
+		{
+			long start = System.nanoTime();
+			boolean locked = this.lock.tryLock(time, unit);
+			this.record(start);
+			return locked;
+		}
+
+		@Override
+		public void unlock()
+		{
+			this.lock.unlock();
+		}
+
+		@Override
+		public Condition newCondition()
+		{
+			return this.lock.newCondition();
+		}
+		
+		private void record(long start)
+		{
+			this.registry.getHistogram(this.name).record(System.nanoTime() - start);
+		}
+	}
+}
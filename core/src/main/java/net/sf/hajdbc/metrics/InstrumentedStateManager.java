@@ -0,0 +1,187 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.metrics;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.hajdbc.durability.InvocationEvent;
+import net.sf.hajdbc.durability.InvokerEvent;
+import net.sf.hajdbc.state.DatabaseEvent;
+import net.sf.hajdbc.state.StateManager;
+
+/**
+ * State manager decorator that records the time spent persisting cluster state and durability events.
+ * @author Paul Ferraro
+ */
+public class InstrumentedStateManager implements StateManager
+{
+	static final String ACTIVATED = MetricRegistry.STATE + ".activated";
+	static final String DEACTIVATED = MetricRegistry.STATE + ".deactivated";
+	static final String BEFORE_INVOCATION = MetricRegistry.STATE + ".before-invocation";
+	static final String AFTER_INVOCATION = MetricRegistry.STATE + ".after-invocation";
+	static final String BEFORE_INVOKER = MetricRegistry.STATE + ".before-invoker";
+	static final String AFTER_INVOKER = MetricRegistry.STATE + ".after-invoker";
+	
+	private final StateManager manager;
+	private final MetricRegistry registry;
+	
+	public InstrumentedStateManager(StateManager manager, MetricRegistry registry)
+	{
+		this.manager = manager;
+		this.registry = registry;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseClusterListener#activated(net.sf.hajdbc.state.DatabaseEvent)
+	 */
+	@Override
+	public void activated(DatabaseEvent event)
+	{
+		long start = System.nanoTime();
+		this.manager.activated(event);
+		this.record(ACTIVATED, start);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseClusterListener#deactivated(net.sf.hajdbc.state.DatabaseEvent)
+	 */
+	@Override
+	public void deactivated(DatabaseEvent event)
+	{
+		long start = System.nanoTime();
+		this.manager.deactivated(event);
+		this.record(DEACTIVATED, start);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.durability.DurabilityListener#beforeInvocation(net.sf.hajdbc.durability.InvocationEvent)
+	 */
+	@Override
+	public void beforeInvocation(InvocationEvent event)
+	{
+		long start = System.nanoTime();
+		this.manager.beforeInvocation(event);
+		this.record(BEFORE_INVOCATION, start);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.durability.DurabilityListener#afterInvocation(net.sf.hajdbc.durability.InvocationEvent)
+	 */
+	@Override
+	public void afterInvocation(InvocationEvent event)
+	{
+		long start = System.nanoTime();
+		this.manager.afterInvocation(event);
+		this.record(AFTER_INVOCATION, start);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.durability.DurabilityListener#beforeInvoker(net.sf.hajdbc.durability.InvokerEvent)
+	 */
+	@Override
+	public void beforeInvoker(InvokerEvent event)
+	{
+		long start = System.nanoTime();
+		this.manager.beforeInvoker(event);
+		this.record(BEFORE_INVOKER, start);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.durability.DurabilityListener#afterInvoker(net.sf.hajdbc.durability.InvokerEvent)
+	 */
+	@Override
+	public void afterInvoker(InvokerEvent event)
+	{
+		long start = System.nanoTime();
+		this.manager.afterInvoker(event);
+		this.record(AFTER_INVOKER, start);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.state.StateManager#getActiveDatabases()
+	 */
+	@Override
+	public Set<String> getActiveDatabases()
+	{
+		return this.manager.getActiveDatabases();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.state.StateManager#setActiveDatabases(java.util.Set)
+	 */
+	@Override
+	public void setActiveDatabases(Set<String> databases)
+	{
+		this.manager.setActiveDatabases(databases);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.state.StateManager#recover()
+	 */
+	@Override
+	public Map<InvocationEvent, Map<String, InvokerEvent>> recover()
+	{
+		return this.manager.recover();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.state.StateManager#isEnabled()
+	 */
+	@Override
+	public boolean isEnabled()
+	{
+		return this.manager.isEnabled();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#start()
+	 */
+	@Override
+	public void start() throws SQLException
+	{
+		this.manager.start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#stop()
+	 */
+	@Override
+	public void stop()
+	{
+		this.manager.stop();
+	}
+	
+	private void record(String name, long start)
+	{
+		this.registry.getHistogram(name).record(System.nanoTime() - start);
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.metrics;
+
+import java.util.SortedMap;
+
+/**
+ * Registry of the named histograms of a database cluster.
+ * Names are dot-delimited, e.g. <code>invocation.INVOKE_ON_ALL</code> or <code>database.db1.invocation</code>.
+ * @author Paul Ferraro
+ */
+public interface MetricRegistry
+{
+	String INVOCATION = "invocation";
+	String DATABASE = "database";
+	String LOCK = "lock";
+	String STATE = "state";
+	String FAILURE_DETECTION = "failure-detection";
+
+	/**
+	 * Returns the histogram with the specified name, creating it if necessary.
+	 * @param name a metric name
+	 * @return a histogram
+	 */
+	Histogram getHistogram(String name);
+
+	/**
+	 * Returns the histogram for the specified metric of the specified database, creating it if necessary.
+	 * @param databaseId a database identifier
+	 * @param name a metric name
+	 * @return a histogram
+	 */
+	Histogram getHistogram(String databaseId, String name);
+
+	/**
+	 * Returns a snapshot of all histograms in this registry, sorted by name.
+	 * @return a map of histograms per name
+	 */
+	SortedMap<String, Histogram> getHistograms();
+
+	/**
+	 * Discards all recorded values.
+	 */
+	void clear();
+}
@@ -0,0 +1,114 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Metric registry backed by a concurrent map.
+ * @author Paul Ferraro
+ */
+public class MetricRegistryImpl implements MetricRegistry
+{
+	private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, ConcurrentMap<String, Histogram>> databaseHistograms = new ConcurrentHashMap<>();
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.metrics.MetricRegistry#getHistogram(java.lang.String)
+	 */
+	@Override
+	public Histogram getHistogram(String name)
+	{
+		return getHistogram(this.histograms, name);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.metrics.MetricRegistry#getHistogram(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public Histogram getHistogram(String databaseId, String name)
+	{
+		ConcurrentMap<String, Histogram> histograms = this.databaseHistograms.get(databaseId);
+		
+		if (histograms == null)
+		{
+			histograms = new ConcurrentHashMap<>();
+			ConcurrentMap<String, Histogram> existing = this.databaseHistograms.putIfAbsent(databaseId, histograms);
+			if (existing != null)
+			{
+				histograms = existing;
+			}
+		}
+		
+		return getHistogram(histograms, name);
+	}
+
+	private static Histogram getHistogram(ConcurrentMap<String, Histogram> histograms, String name)
+	{
+		Histogram histogram = histograms.get(name);
+		
+		if (histogram == null)
+		{
+			histogram = new Histogram();
+			Histogram existing = histograms.putIfAbsent(name, histogram);
+			if (existing != null)
+			{
+				histogram = existing;
+			}
+		}
+		
+		return histogram;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.metrics.MetricRegistry#getHistograms()
+	 */
+	@Override
+	public SortedMap<String, Histogram> getHistograms()
+	{
+		SortedMap<String, Histogram> result = new TreeMap<>(this.histograms);
+		
+		for (Map.Entry<String, ConcurrentMap<String, Histogram>> entry: this.databaseHistograms.entrySet())
+		{
+			for (Map.Entry<String, Histogram> histogram: entry.getValue().entrySet())
+			{
+				result.put(String.format("%s.%s.%s", DATABASE, entry.getKey(), histogram.getKey()), histogram.getValue());
+			}
+		}
+		
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.metrics.MetricRegistry#clear()
+	 */
+	@Override
+	public void clear()
+	{
+		this.histograms.clear();
+		this.databaseHistograms.clear();
+	}
+}
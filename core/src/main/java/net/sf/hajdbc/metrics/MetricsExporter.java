@@ -0,0 +1,41 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.metrics;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+
+/**
+ * Service provider interface for publishing the metrics of a database cluster to an external monitoring system.
+ * Implementations are discovered via {@link java.util.ServiceLoader}, and a new instance is started for each database cluster.
+ * Implementations are expected to poll {@link DatabaseCluster#getMetricRegistry()} on their own schedule.
+ * @author Paul Ferraro
+ */
+public interface MetricsExporter
+{
+	/**
+	 * Starts exporting the metrics of the specified cluster.
+	 * @param cluster a database cluster
+	 */
+	<Z, D extends Database<Z>> void start(DatabaseCluster<Z, D> cluster);
+
+	/**
+	 * Stops exporting metrics.
+	 */
+	void stop();
+}
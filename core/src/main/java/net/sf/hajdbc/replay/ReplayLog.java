@@ -0,0 +1,308 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.replay;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseClusterListener;
+import net.sf.hajdbc.invocation.InvocationStrategy;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.state.DatabaseEvent;
+
+/**
+ * Bounded, in-memory log of committed write statements, in commit order.
+ * A sequence number is reserved for each transaction before it commits, and its statements are appended to the log once the commit succeeds,
+ * such that conflicting transactions, which commit in the order in which they acquire database locks, are logged in that same order.
+ * When a database is deactivated, the sequence number of the oldest transaction that was committing at that time is remembered.
+ * When that database is reactivated, if the log still contains every transaction committed since then, these are replayed against it instead of synchronizing it.
+ * Transactions containing writes that cannot be replayed (e.g. updatable result sets) are logged as opaque entries, which prevent the replay of any window containing them.
+ * Replay must only be performed while holding the global write lock, i.e. while no transactions are committing.
+ * @author Paul Ferraro
+ */
+public class ReplayLog<Z, D extends Database<Z>> implements DatabaseClusterListener
+{
+	private static final Window INVALID = new Window(Long.MAX_VALUE, Collections.<Long>emptySet());
+
+	private final List<ReplayStatement<Z, D>> opaque = Collections.emptyList();
+	private final int capacity;
+	private final AtomicLong sequence = new AtomicLong();
+	// Transactions that are committing, and the threads committing them
+	private final ConcurrentMap<Long, Thread> commits = new ConcurrentHashMap<>();
+	private final ConcurrentNavigableMap<Long, List<ReplayStatement<Z, D>>> entries = new ConcurrentSkipListMap<>();
+	private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+	// Guarded by this
+	private long size = 0;
+	private volatile long evicted = -1;
+
+	/**
+	 * Constructs a new replay log
+	 * @param capacity the maximum number of statements to retain, or 0 to disable this log
+	 */
+	public ReplayLog(int capacity)
+	{
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the maximum number of statements retained by this log.
+	 * @return a number of statements
+	 */
+	public int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * Indicates whether this log retains any statements.
+	 * @return true, if this log is enabled, false otherwise
+	 */
+	public boolean isEnabled()
+	{
+		return this.capacity > 0;
+	}
+
+	/**
+	 * Reserves the position of a transaction that is about to commit.
+	 * The reservation must subsequently be either appended or cancelled.
+	 * @return a sequence number
+	 */
+	public long reserve()
+	{
+		long sequence = this.sequence.getAndIncrement();
+		this.commits.put(sequence, Thread.currentThread());
+		return sequence;
+	}
+
+	/**
+	 * Appends the statements of a transaction that was successfully committed.
+	 * @param sequence the sequence number reserved for the transaction
+	 * @param statements the statements of the transaction, or null if the transaction cannot be replayed
+	 */
+	public void append(long sequence, List<ReplayStatement<Z, D>> statements)
+	{
+		synchronized (this)
+		{
+			List<ReplayStatement<Z, D>> entry = (statements != null) ? statements : this.opaque;
+			this.entries.put(sequence, entry);
+			this.size += weight(entry);
+			
+			while (this.size > this.capacity)
+			{
+				Map.Entry<Long, List<ReplayStatement<Z, D>>> eldest = this.entries.pollFirstEntry();
+				this.size -= weight(eldest.getValue());
+				this.evicted = eldest.getKey();
+			}
+		}
+		
+		// Remove only once appended, so that a concurrent deactivation observes the transaction as either committing or logged
+		this.commits.remove(sequence);
+	}
+
+	private static int weight(List<?> statements)
+	{
+		return Math.max(statements.size(), 1);
+	}
+
+	/**
+	 * Cancels the reservation of a transaction that failed to commit.
+	 * @param sequence the sequence number reserved for the transaction
+	 */
+	public void cancel(long sequence)
+	{
+		this.commits.remove(sequence);
+	}
+
+	/**
+	 * Records an opaque entry, i.e. a write that was committed outside of any logged transaction.
+	 */
+	public void invalidate()
+	{
+		if (this.isEnabled())
+		{
+			this.append(this.reserve(), null);
+		}
+	}
+
+	/**
+	 * Decorates the specified commit invocation strategy, such that a successful commit is recorded as an opaque entry, e.g. for a global transaction.
+	 * @param strategy a commit invocation strategy
+	 * @return the decorated invocation strategy
+	 */
+	public InvocationStrategy invalidate(final InvocationStrategy strategy)
+	{
+		if (!this.isEnabled()) return strategy;
+		
+		return new InvocationStrategy()
+		{
+			@Override
+			public <ZZ, DD extends Database<ZZ>, T, R, E extends Exception> SortedMap<DD, R> invoke(ProxyFactory<ZZ, DD, T, E> proxy, Invoker<ZZ, DD, T, R, E> invoker) throws E
+			{
+				ReplayLog<Z, D> log = ReplayLog.this;
+				long sequence = log.reserve();
+				boolean committed = false;
+				
+				try
+				{
+					SortedMap<DD, R> results = strategy.invoke(proxy, invoker);
+					
+					log.append(sequence, null);
+					committed = true;
+					
+					return results;
+				}
+				finally
+				{
+					if (!committed)
+					{
+						log.cancel(sequence);
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Prevents the replay of the specified inactive database, e.g. if it was deactivated because it was found to be inconsistent.
+	 * @param database an inactive database
+	 */
+	public void invalidate(D database)
+	{
+		if (this.isEnabled())
+		{
+			this.windows.put(database.getId(), INVALID);
+		}
+	}
+
+	/**
+	 * Indicates whether every transaction committed since the specified database was deactivated can be replayed against it.
+	 * @param database an inactive database
+	 * @return true, if the specified database can be reactivated via {@link #replay(Database, Connection)}, false otherwise
+	 */
+	public boolean isReplayable(D database)
+	{
+		Window window = this.windows.get(database.getId());
+		
+		if ((window == null) || (window == INVALID) || (window.from <= this.evicted) || !this.commits.isEmpty()) return false;
+		
+		for (Long sequence: window.doubtful)
+		{
+			// A transaction committed by another thread during deactivation may or may not have been committed by the deactivated database
+			if (this.entries.containsKey(sequence)) return false;
+		}
+		
+		for (List<ReplayStatement<Z, D>> statements: this.entries.tailMap(window.from).values())
+		{
+			if (statements == this.opaque) return false;
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Executes every transaction committed since the specified database was deactivated, in commit order, against the specified connection.
+	 * The caller is responsible for committing or rolling back the connection.
+	 * @param database an inactive database, for which {@link #isReplayable(Database)} returned true
+	 * @param connection a connection to the specified database
+	 * @return the number of statements executed
+	 * @throws SQLException if a statement could not be executed
+	 */
+	public long replay(D database, Connection connection) throws SQLException
+	{
+		Window window = this.windows.get(database.getId());
+		long count = 0;
+		
+		for (List<ReplayStatement<Z, D>> statements: this.entries.tailMap(window.from).values())
+		{
+			for (ReplayStatement<Z, D> statement: statements)
+			{
+				statement.execute(database, connection);
+				count += 1;
+			}
+		}
+		
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseClusterListener#activated(net.sf.hajdbc.state.DatabaseEvent)
+	 */
+	@Override
+	public void activated(DatabaseEvent event)
+	{
+		this.windows.remove(event.getSource());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseClusterListener#deactivated(net.sf.hajdbc.state.DatabaseEvent)
+	 */
+	@Override
+	public void deactivated(DatabaseEvent event)
+	{
+		if (!this.isEnabled()) return;
+		
+		Thread thread = Thread.currentThread();
+		long from = this.sequence.get();
+		Set<Long> doubtful = new HashSet<>();
+		
+		for (Map.Entry<Long, Thread> entry: this.commits.entrySet())
+		{
+			Long sequence = entry.getKey();
+			from = Math.min(from, sequence);
+			
+			// A commit by this thread is the failed invocation that triggered this deactivation
+			if (entry.getValue() != thread)
+			{
+				doubtful.add(sequence);
+			}
+		}
+		
+		// Retain the window of a database that was never successfully reactivated
+		this.windows.putIfAbsent(event.getSource(), new Window(from, doubtful));
+	}
+
+	/**
+	 * The range of the log that must be replayed to reactivate a given database.
+	 */
+	private static class Window
+	{
+		final long from;
+		final Set<Long> doubtful;
+		
+		Window(long from, Set<Long> doubtful)
+		{
+			this.from = from;
+			this.doubtful = doubtful;
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.replay;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import net.sf.hajdbc.Database;
+
+/**
+ * A committed write statement that can be re-executed against an arbitrary database connection.
+ * @author Paul Ferraro
+ */
+public interface ReplayStatement<Z, D extends Database<Z>>
+{
+	/**
+	 * Executes this statement against the specified database using the specified connection.
+	 * @param database a database
+	 * @param connection a connection to the specified database, owned by the caller
+	 * @throws SQLException if the statement could not be executed
+	 */
+	void execute(D database, Connection connection) throws SQLException;
+}
@@ -0,0 +1,36 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.replay;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.Invoker;
+
+/**
+ * Implemented by proxy factories whose write invocations can be recorded for replay.
+ * @author Paul Ferraro
+ */
+public interface ReplayStatementFactory<Z, D extends Database<Z>, T, E extends Exception>
+{
+	/**
+	 * Creates a statement that re-executes the specified write invocation, including any state of the proxied object upon which it depends.
+	 * Must be called before the invocation, since the state of the proxied object may be reset by it.
+	 * @param invoker a write invoker
+	 * @return a replayable statement, or null if the invocation cannot be replayed
+	 */
+	ReplayStatement<Z, D> createReplayStatement(Invoker<Z, D, T, ?, E> invoker);
+}
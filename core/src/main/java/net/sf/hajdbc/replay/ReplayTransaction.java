@@ -0,0 +1,177 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.replay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.InvocationStrategy;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.sql.ProxyFactory;
+
+/**
+ * Collects the write statements of the current transaction of a connection, and appends them to the replay log when the transaction commits.
+ * Not thread-safe, i.e. owned by a single connection.
+ * @author Paul Ferraro
+ */
+public class ReplayTransaction<Z, D extends Database<Z>>
+{
+	private final ReplayLog<Z, D> log;
+	private final List<ReplayStatement<Z, D>> statements = new ArrayList<>();
+	private boolean replayable = true;
+
+	/**
+	 * Constructs a new replay transaction
+	 * @param log the replay log of the cluster
+	 */
+	public ReplayTransaction(ReplayLog<Z, D> log)
+	{
+		this.log = log;
+	}
+
+	/**
+	 * Decorates the specified write invocation strategy, such that a successful invocation is recorded as part of the current transaction.
+	 * @param strategy a write invocation strategy
+	 * @return the decorated invocation strategy
+	 */
+	public InvocationStrategy record(final InvocationStrategy strategy)
+	{
+		if (!this.log.isEnabled()) return strategy;
+		
+		return new InvocationStrategy()
+		{
+			@Override
+			public <ZZ, DD extends Database<ZZ>, T, R, E extends Exception> SortedMap<DD, R> invoke(ProxyFactory<ZZ, DD, T, E> proxy, Invoker<ZZ, DD, T, R, E> invoker) throws E
+			{
+				@SuppressWarnings("unchecked")
+				ReplayStatement<ZZ, DD> statement = (proxy instanceof ReplayStatementFactory) ? ((ReplayStatementFactory<ZZ, DD, T, E>) proxy).createReplayStatement(invoker) : null;
+				
+				SortedMap<DD, R> results = strategy.invoke(proxy, invoker);
+				
+				ReplayTransaction.this.add(statement);
+				
+				return results;
+			}
+		};
+	}
+
+	/**
+	 * Decorates the specified commit invocation strategy, such that the statements of the current transaction are appended to the replay log if the commit succeeds.
+	 * @param strategy a commit invocation strategy
+	 * @return the decorated invocation strategy
+	 */
+	public InvocationStrategy commit(final InvocationStrategy strategy)
+	{
+		if (!this.log.isEnabled()) return strategy;
+		
+		return new InvocationStrategy()
+		{
+			@Override
+			public <ZZ, DD extends Database<ZZ>, T, R, E extends Exception> SortedMap<DD, R> invoke(ProxyFactory<ZZ, DD, T, E> proxy, Invoker<ZZ, DD, T, R, E> invoker) throws E
+			{
+				ReplayTransaction<Z, D> transaction = ReplayTransaction.this;
+				long sequence = transaction.log.reserve();
+				boolean committed = false;
+				
+				try
+				{
+					SortedMap<DD, R> results = strategy.invoke(proxy, invoker);
+					
+					// Transactions without writes need not be logged
+					if (!transaction.replayable || !transaction.statements.isEmpty())
+					{
+						transaction.log.append(sequence, transaction.replayable ? new ArrayList<>(transaction.statements) : null);
+						committed = true;
+					}
+					
+					return results;
+				}
+				finally
+				{
+					if (!committed)
+					{
+						transaction.log.cancel(sequence);
+					}
+					transaction.clear();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Decorates the specified rollback invocation strategy, such that the statements of the current transaction are discarded.
+	 * @param strategy a rollback invocation strategy
+	 * @return the decorated invocation strategy
+	 */
+	public InvocationStrategy rollback(final InvocationStrategy strategy)
+	{
+		if (!this.log.isEnabled()) return strategy;
+		
+		return new InvocationStrategy()
+		{
+			@Override
+			public <ZZ, DD extends Database<ZZ>, T, R, E extends Exception> SortedMap<DD, R> invoke(ProxyFactory<ZZ, DD, T, E> proxy, Invoker<ZZ, DD, T, R, E> invoker) throws E
+			{
+				try
+				{
+					return strategy.invoke(proxy, invoker);
+				}
+				finally
+				{
+					ReplayTransaction.this.clear();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Indicates that the current transaction performed a write that cannot be replayed.
+	 */
+	public void invalidate()
+	{
+		this.replayable = false;
+		this.statements.clear();
+	}
+
+	/**
+	 * Discards the statements of the current transaction.
+	 */
+	public void clear()
+	{
+		this.replayable = true;
+		this.statements.clear();
+	}
+
+	@SuppressWarnings("unchecked")
+	void add(ReplayStatement<?, ?> statement)
+	{
+		if (!this.replayable) return;
+		
+		// Transactions too large to be retained by the log are never replayed
+		if ((statement == null) || (this.statements.size() >= this.log.getCapacity()))
+		{
+			this.invalidate();
+		}
+		else
+		{
+			this.statements.add((ReplayStatement<Z, D>) statement);
+		}
+	}
+}
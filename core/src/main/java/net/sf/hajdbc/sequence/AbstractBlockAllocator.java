@@ -0,0 +1,371 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sequence;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.DatabaseProperties;
+import net.sf.hajdbc.Lifecycle;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+
+/**
+ * Allocates values from blocks that are reserved on every active database, so that statements can be executed with literal values instead of locking the source of those values.
+ * Reservations use dedicated connections; a database on which a reservation fails is deactivated, unless the reservation failed on every database.
+ * @author Paul Ferraro
+ */
+public abstract class AbstractBlockAllocator<Z, D extends Database<Z>> implements Lifecycle
+{
+	protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+	protected final Messages messages = MessagesFactory.getMessages();
+	
+	private final DatabaseCluster<Z, D> cluster;
+	private final int blockSize;
+	private final ConcurrentMap<String, Allocation> allocations = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param cluster a database cluster
+	 * @param blockSize the number of values to reserve at a time, or 0 to disable pre-allocation
+	 */
+	protected AbstractBlockAllocator(DatabaseCluster<Z, D> cluster, int blockSize)
+	{
+		this.cluster = cluster;
+		this.blockSize = Math.max(blockSize, 0);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#start()
+	 */
+	@Override
+	public void start()
+	{
+		this.allocations.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#stop()
+	 */
+	@Override
+	public void stop()
+	{
+		this.allocations.clear();
+	}
+	
+	/**
+	 * Indicates whether values are pre-allocated.
+	 * @return true, if the block size is positive, false otherwise
+	 */
+	public boolean isEnabled()
+	{
+		return this.blockSize > 0;
+	}
+	
+	/**
+	 * Returns the number of values reserved at a time.
+	 * @return a block size
+	 */
+	public int getBlockSize()
+	{
+		return this.blockSize;
+	}
+	
+	protected DatabaseCluster<Z, D> getDatabaseCluster()
+	{
+		return this.cluster;
+	}
+	
+	/**
+	 * Returns the next value identified by the specified key from the local block, reserving a new block if the current block is exhausted.
+	 * @param key identifies the source of values, e.g. a sequence name
+	 * @return the next value, or null if values cannot be pre-allocated for this key
+	 * @throws SQLException if a new block could not be reserved
+	 */
+	public Long next(String key) throws SQLException
+	{
+		if (!this.isEnabled()) return null;
+		
+		Allocation allocation = this.allocations.get(key);
+		
+		if (allocation == null)
+		{
+			Allocation newAllocation = new Allocation(key);
+			allocation = this.allocations.putIfAbsent(key, newAllocation);
+			
+			if (allocation == null)
+			{
+				allocation = newAllocation;
+			}
+		}
+		
+		return allocation.next();
+	}
+	
+	/**
+	 * Reserves a block of values on every active database.
+	 * @param key identifies the source of values, e.g. a sequence name
+	 * @return a block of values, or null if values cannot be pre-allocated for this key
+	 * @throws SQLException if the block could not be reserved on any database
+	 */
+	private Block reserve(String key) throws SQLException
+	{
+		// Database properties may be loaded lazily, and so are only accessible while this connection is open
+		try (Connection connection = this.connect())
+		{
+			return this.reserve(key, this.getDatabaseProperties(connection));
+		}
+	}
+	
+	/**
+	 * Reserves a block of values on every active database.
+	 * @param key identifies the source of values, e.g. a sequence name
+	 * @param properties the properties of the primary database, which are only accessible for the duration of this method
+	 * @return a block of values, or null if values cannot be pre-allocated for this key
+	 * @throws SQLException if the block could not be reserved on any database
+	 */
+	protected abstract Block reserve(String key, DatabaseProperties properties) throws SQLException;
+	
+	/**
+	 * Opens a connection to the primary database.
+	 * @return a database connection
+	 * @throws SQLException if a connection could not be established
+	 */
+	protected Connection connect() throws SQLException
+	{
+		return this.cluster.getBalancer().primary().connect(this.cluster.getDecoder());
+	}
+	
+	/**
+	 * Returns the properties of the primary database.
+	 * @param connection a connection to the primary database
+	 * @return database properties
+	 * @throws SQLException
+	 */
+	protected DatabaseProperties getDatabaseProperties(Connection connection) throws SQLException
+	{
+		return this.cluster.getDatabaseMetaDataCache().getDatabaseProperties(this.cluster.getBalancer().primary(), connection);
+	}
+	
+	/**
+	 * Returns a snapshot of the active databases.
+	 * @return a set of databases
+	 */
+	protected Set<D> getDatabases()
+	{
+		return new TreeSet<>(this.cluster.getBalancer());
+	}
+	
+	/**
+	 * Executes the specified query, which returns a single number, against each of the specified databases.
+	 * @param databases a set of databases
+	 * @param sql a query
+	 * @param exceptions collects the exception of each database on which the query failed
+	 * @return the result of each database on which the query succeeded
+	 */
+	protected Map<D, Long> executeQuery(Set<D> databases, String sql, Map<D, SQLException> exceptions)
+	{
+		Map<D, Long> results = new TreeMap<>();
+		
+		this.logger.log(Level.DEBUG, sql);
+		
+		for (D database: databases)
+		{
+			try (Connection connection = database.connect(this.cluster.getDecoder()))
+			{
+				connection.setAutoCommit(true);
+				
+				try (Statement statement = connection.createStatement())
+				{
+					try (ResultSet resultSet = statement.executeQuery(sql))
+					{
+						resultSet.next();
+						
+						results.put(database, resultSet.getLong(1));
+					}
+				}
+			}
+			catch (SQLException e)
+			{
+				exceptions.put(database, e);
+			}
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Executes the specified statement against each of the specified databases, skipping any database on which a previous statement failed.
+	 * @param databases a set of databases
+	 * @param sql a SQL statement
+	 * @param exceptions collects the exception of each database on which the statement failed
+	 */
+	protected void execute(Set<D> databases, String sql, Map<D, SQLException> exceptions)
+	{
+		this.logger.log(Level.DEBUG, sql);
+		
+		for (D database: databases)
+		{
+			if (!exceptions.containsKey(database))
+			{
+				try (Connection connection = database.connect(this.cluster.getDecoder()))
+				{
+					connection.setAutoCommit(true);
+					
+					try (Statement statement = connection.createStatement())
+					{
+						statement.execute(sql);
+					}
+				}
+				catch (SQLException e)
+				{
+					exceptions.put(database, e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Deactivates the databases on which a reservation failed.
+	 * @param databases the set of databases on which a block was reserved
+	 * @param exceptions the exception of each database on which the reservation failed
+	 * @throws SQLException if the reservation failed on every database, or if there were no active databases
+	 */
+	protected void handleFailures(Set<D> databases, Map<D, SQLException> exceptions) throws SQLException
+	{
+		if (databases.isEmpty())
+		{
+			throw new SQLException(this.messages.noActiveDatabases(this.cluster));
+		}
+		
+		if (exceptions.size() == databases.size())
+		{
+			throw exceptions.values().iterator().next();
+		}
+		
+		for (Map.Entry<D, SQLException> entry: exceptions.entrySet())
+		{
+			D database = entry.getKey();
+			
+			if (this.cluster.deactivate(database, this.cluster.getStateManager()))
+			{
+				this.logger.log(Level.ERROR, entry.getValue(), this.messages.deactivated(this.cluster, database));
+			}
+		}
+	}
+	
+	/**
+	 * A block of reserved values.
+	 */
+	protected static class Block
+	{
+		private final long first;
+		private final long increment;
+		private final int size;
+		private final AtomicInteger index = new AtomicInteger();
+		
+		/**
+		 * @param first the first value of this block
+		 * @param increment the difference between consecutive values
+		 * @param size the number of values in this block
+		 */
+		public Block(long first, long increment, int size)
+		{
+			this.first = first;
+			this.increment = increment;
+			this.size = size;
+		}
+		
+		/**
+		 * Returns the next unallocated value of this block.
+		 * @return a value, or null if this block is exhausted
+		 */
+		Long next()
+		{
+			// Avoid overflowing the index once exhausted
+			if (this.index.get() >= this.size) return null;
+			
+			int index = this.index.getAndIncrement();
+			
+			return (index < this.size) ? Long.valueOf(this.first + (index * this.increment)) : null;
+		}
+	}
+	
+	/**
+	 * Tracks the current block of a given key.
+	 */
+	private class Allocation
+	{
+		private final String key;
+		private volatile Block block;
+		// Indicates that values cannot be pre-allocated for this key, so its statements must be locked instead
+		private volatile boolean unavailable = false;
+		
+		Allocation(String key)
+		{
+			this.key = key;
+		}
+		
+		Long next() throws SQLException
+		{
+			Block block = this.block;
+			Long value = (block != null) ? block.next() : null;
+			
+			if ((value != null) || this.unavailable) return value;
+			
+			synchronized (this)
+			{
+				// Another thread may have already reserved a new block
+				block = this.block;
+				value = (block != null) ? block.next() : null;
+				
+				while ((value == null) && !this.unavailable)
+				{
+					block = AbstractBlockAllocator.this.reserve(this.key);
+					
+					if (block == null)
+					{
+						this.unavailable = true;
+					}
+					else
+					{
+						this.block = block;
+						value = block.next();
+					}
+				}
+				
+				return value;
+			}
+		}
+	}
+}
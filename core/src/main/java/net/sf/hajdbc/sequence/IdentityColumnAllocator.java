@@ -0,0 +1,117 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sequence;
+
+import java.sql.SQLException;
+import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+import net.sf.hajdbc.ColumnProperties;
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.DatabaseProperties;
+import net.sf.hajdbc.IdentityColumnSupport;
+import net.sf.hajdbc.TableProperties;
+
+/**
+ * Pre-allocates blocks of identity column values, so that single row inserts into a table with an identity column can specify the identity value explicitly, without locking the table.
+ * A block begins beyond the largest existing identity value on any active database, and beyond any block previously reserved by this allocator.
+ * Each identity column is then restarted beyond the reserved block, so that inserts that still rely on the database to generate identity values never generate a reserved value.
+ * Since reserved but unused values are not visible to other cluster members, blocks can only be safely reserved by a single cluster member, i.e. this allocator is disabled for distributed clusters.
+ * @author Paul Ferraro
+ */
+public class IdentityColumnAllocator<Z, D extends Database<Z>> extends AbstractBlockAllocator<Z, D>
+{
+	private final Map<String, Long> reserved = new ConcurrentHashMap<>();
+	
+	/**
+	 * Constructs a new identity column allocator
+	 * @param cluster a database cluster
+	 * @param blockSize the number of values to reserve at a time, or 0 to disable pre-allocation
+	 */
+	public IdentityColumnAllocator(DatabaseCluster<Z, D> cluster, int blockSize)
+	{
+		super(cluster, blockSize);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @param table the qualified name of a table with a single identity column, as used to lock inserts into that table
+	 * @see net.sf.hajdbc.sequence.AbstractBlockAllocator#reserve(java.lang.String, net.sf.hajdbc.DatabaseProperties)
+	 */
+	@Override
+	protected Block reserve(String table, DatabaseProperties databaseProperties) throws SQLException
+	{
+		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
+		IdentityColumnSupport support = cluster.getDialect().getIdentityColumnSupport();
+		
+		if (support == null) return null;
+		
+		TableProperties properties = databaseProperties.findTable(table);
+		
+		if (properties == null) return null;
+		
+		Collection<String> columns = properties.getIdentityColumns();
+		
+		if (columns.size() != 1) return null;
+		
+		ColumnProperties column = properties.getColumnProperties(columns.iterator().next());
+		
+		Lock lock = cluster.getLockManager().writeLock(table);
+		
+		lock.lock();
+		
+		try
+		{
+			Set<D> databases = this.getDatabases();
+			Map<D, SQLException> exceptions = new TreeMap<>();
+			Long reserved = this.reserved.get(table);
+			long first = (reserved != null) ? reserved : 1L;
+			
+			for (Long value: this.executeQuery(databases, MessageFormat.format("SELECT max({0}) FROM {1}", column.getName(), properties.getName().getDMLName()), exceptions).values())
+			{
+				first = Math.max(first, value + 1);
+			}
+			
+			this.handleFailures(databases, exceptions);
+			
+			long next = first + this.getBlockSize();
+			String alterSQL = support.getAlterIdentityColumnSQL(properties, column, next);
+			
+			// If the identity column cannot be restarted, generated values could collide with reserved values
+			if (alterSQL == null) return null;
+			
+			this.execute(databases, alterSQL, exceptions);
+			
+			this.handleFailures(databases, exceptions);
+			
+			this.reserved.put(table, next);
+			
+			return new Block(first, 1, this.getBlockSize());
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sequence;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.DatabaseProperties;
+import net.sf.hajdbc.SequenceProperties;
+import net.sf.hajdbc.SequenceSupport;
+
+/**
+ * Pre-allocates blocks of sequence values, so that statements that consume a single sequence value can be evaluated locally, without locking the sequence.
+ * A block is reserved by advancing the sequence on every active database, while holding the same lock used to protect non-evaluated statements that reference the sequence.
+ * Consequently, the values of a block are never returned by any database, nor reserved by any other cluster member.
+ * Values are allocated in order within a block, but not across blocks reserved by different cluster members.
+ * @author Paul Ferraro
+ */
+public class SequenceAllocator<Z, D extends Database<Z>> extends AbstractBlockAllocator<Z, D>
+{
+	/**
+	 * Constructs a new sequence allocator
+	 * @param cluster a database cluster
+	 * @param blockSize the number of values to reserve at a time, or 0 to disable pre-allocation
+	 */
+	public SequenceAllocator(DatabaseCluster<Z, D> cluster, int blockSize)
+	{
+		super(cluster, blockSize);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @param sequence a sequence name, as parsed from a SQL statement
+	 * @see net.sf.hajdbc.sequence.AbstractBlockAllocator#reserve(java.lang.String, net.sf.hajdbc.DatabaseProperties)
+	 */
+	@Override
+	protected Block reserve(String sequence, DatabaseProperties databaseProperties) throws SQLException
+	{
+		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
+		SequenceSupport support = cluster.getDialect().getSequenceSupport();
+		
+		if (support == null) return null;
+		
+		SequenceProperties properties = databaseProperties.findSequence(sequence);
+		
+		if (properties == null) return null;
+		
+		Lock lock = cluster.getLockManager().writeLock(sequence);
+		
+		lock.lock();
+		
+		try
+		{
+			Set<D> databases = this.getDatabases();
+			Map<D, SQLException> exceptions = new TreeMap<>();
+			long next = Long.MIN_VALUE;
+			
+			for (Long value: this.executeQuery(databases, support.getNextSequenceValueSQL(properties), exceptions).values())
+			{
+				next = Math.max(next, value);
+			}
+			
+			this.handleFailures(databases, exceptions);
+			
+			long increment = properties.getIncrement();
+			
+			// Restart each sequence just beyond the reserved block
+			this.execute(databases, support.getAlterSequenceSQL(properties, next + (this.getBlockSize() * increment)), exceptions);
+			
+			this.handleFailures(databases, exceptions);
+			
+			return new Block(next, increment, this.getBlockSize());
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+}
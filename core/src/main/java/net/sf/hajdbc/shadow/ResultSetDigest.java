@@ -0,0 +1,138 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.shadow;
+
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * An order-independent digest of the rows of a result set.
+ * Each row is hashed in column order; row hashes are then summed, so that databases returning the same rows in a different order produce the same digest.
+ * @author Paul Ferraro
+ */
+public class ResultSetDigest
+{
+	private final long rows;
+	private final long hash;
+	
+	/**
+	 * Computes the digest of the remaining rows of the specified result set.
+	 * @param resultSet a result set
+	 * @param maxRows the maximum number of rows to digest, or 0 if unlimited
+	 * @return a digest, or null if the result set contains more than the maximum number of rows
+	 * @throws SQLException if the result set could not be read
+	 */
+	public static ResultSetDigest digest(ResultSet resultSet, int maxRows) throws SQLException
+	{
+		int columns = resultSet.getMetaData().getColumnCount();
+		long rows = 0;
+		long hash = 0;
+		
+		while (resultSet.next())
+		{
+			if ((maxRows > 0) && (rows >= maxRows)) return null;
+			
+			long rowHash = 1;
+			
+			for (int i = 1; i <= columns; ++i)
+			{
+				rowHash = 31 * rowHash + hash(resultSet.getObject(i));
+			}
+			
+			hash += mix(rowHash);
+			rows += 1;
+		}
+		
+		return new ResultSetDigest(rows, hash);
+	}
+	
+	private static long hash(Object object) throws SQLException
+	{
+		if (object == null) return 0;
+		
+		// Normalize numeric types, since drivers may map the same column type to different classes
+		if (object instanceof BigDecimal)
+		{
+			BigDecimal decimal = ((BigDecimal) object).stripTrailingZeros();
+			return (decimal.scale() <= 0) && (decimal.precision() - decimal.scale() < 19) ? Long.hashCode(decimal.longValue()) : decimal.hashCode();
+		}
+		if ((object instanceof Long) || (object instanceof Integer) || (object instanceof Short) || (object instanceof Byte))
+		{
+			return Long.hashCode(((Number) object).longValue());
+		}
+		if ((object instanceof Double) || (object instanceof Float))
+		{
+			return Double.hashCode(((Number) object).doubleValue());
+		}
+		if (object instanceof byte[]) return Arrays.hashCode((byte[]) object);
+		if (object instanceof Blob) return Long.hashCode(((Blob) object).length());
+		if (object instanceof Clob) return Long.hashCode(((Clob) object).length());
+		
+		return object.hashCode();
+	}
+	
+	// Finalization mix of MurmurHash3
+	private static long mix(long value)
+	{
+		long hash = value;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+	
+	private ResultSetDigest(long rows, long hash)
+	{
+		this.rows = rows;
+		this.hash = hash;
+	}
+
+	/**
+	 * @return the number of rows digested
+	 */
+	public long getRows()
+	{
+		return this.rows;
+	}
+
+	@Override
+	public boolean equals(Object object)
+	{
+		if (!(object instanceof ResultSetDigest)) return false;
+		ResultSetDigest digest = (ResultSetDigest) object;
+		return (this.rows == digest.rows) && (this.hash == digest.hash);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Long.hashCode(this.hash);
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%d rows, hash %016x", this.rows, this.hash);
+	}
+}
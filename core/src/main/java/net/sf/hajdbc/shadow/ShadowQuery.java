@@ -0,0 +1,40 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.shadow;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import net.sf.hajdbc.Database;
+
+/**
+ * A read-only query that can be re-executed against an arbitrary database connection.
+ * @author Paul Ferraro
+ */
+public interface ShadowQuery<Z, D extends Database<Z>>
+{
+	/**
+	 * Executes this query against the specified database using the specified connection.
+	 * @param database a database
+	 * @param connection a connection to the specified database, owned by the caller
+	 * @return a result set
+	 * @throws SQLException if the query could not be executed
+	 */
+	ResultSet execute(D database, Connection connection) throws SQLException;
+}
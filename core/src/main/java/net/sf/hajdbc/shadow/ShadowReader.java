@@ -0,0 +1,317 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.shadow;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.Lifecycle;
+import net.sf.hajdbc.balancer.Balancer;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+
+/**
+ * Verifies a sample of the read-only queries that were executed against a single database, by re-executing them asynchronously against both that database and a reference database, and comparing digests of their results.
+ * The database that serves the read is compared against the primary database, or, if it is the primary database, against the next backup database.
+ * Queries are re-executed using dedicated connections, so verification never interferes with application connections.
+ * Verification uses a bounded number of threads, and hence at most twice that many connections; queries sampled while all threads are busy are skipped rather than queued.
+ * Since the databases are queried at slightly different times, a mismatch is only reported if it is confirmed by a second comparison.
+ * @author Paul Ferraro
+ */
+public class ShadowReader<Z, D extends Database<Z>> implements Lifecycle
+{
+	static final Logger logger = LoggerFactory.getLogger(ShadowReader.class);
+	static final Messages messages = MessagesFactory.getMessages();
+	
+	private final DatabaseCluster<Z, D> cluster;
+	private final int threads;
+	private final AtomicLong verified = new AtomicLong();
+	private final AtomicLong mismatched = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	
+	private volatile double ratio;
+	private volatile int maxRows;
+	private volatile boolean deactivationEnabled;
+	private volatile ThreadPoolExecutor executor;
+	
+	/**
+	 * Constructs a new shadow reader
+	 * @param cluster a database cluster
+	 * @param ratio the fraction of eligible reads to verify, between 0 and 1
+	 * @param threads the maximum number of concurrent verifications
+	 * @param maxRows the maximum number of rows to compare, beyond which verification is skipped, or 0 if unlimited
+	 * @param deactivationEnabled indicates whether the non-reference database should be deactivated on a confirmed mismatch
+	 */
+	public ShadowReader(DatabaseCluster<Z, D> cluster, double ratio, int threads, int maxRows, boolean deactivationEnabled)
+	{
+		this.cluster = cluster;
+		this.threads = Math.max(threads, 1);
+		this.setRatio(ratio);
+		this.setMaxRows(maxRows);
+		this.deactivationEnabled = deactivationEnabled;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#start()
+	 */
+	@Override
+	public void start()
+	{
+		// A synchronous queue hands off each verification to an idle thread, such that a verification is rejected, i.e. skipped, if all threads are busy
+		this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(), this.cluster.getThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Lifecycle#stop()
+	 */
+	@Override
+	public void stop()
+	{
+		ThreadPoolExecutor executor = this.executor;
+		if (executor != null)
+		{
+			this.executor = null;
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Indicates whether the current read should be verified.
+	 * This is cheap enough to be called on every eligible read.
+	 * @return true, if the current read was sampled, false otherwise
+	 */
+	public boolean sample()
+	{
+		double ratio = this.ratio;
+		return (ratio > 0) && (this.executor != null) && ((ratio >= 1) || (ThreadLocalRandom.current().nextDouble() < ratio));
+	}
+	
+	/**
+	 * Schedules verification of a query that was executed against the specified database.
+	 * @param database the database that served the read
+	 * @param query the query to verify
+	 */
+	public void submit(D database, ShadowQuery<Z, D> query)
+	{
+		ThreadPoolExecutor executor = this.executor;
+		Balancer<Z, D> balancer = this.cluster.getBalancer();
+		D primary = balancer.primary();
+		D reference = primary;
+		
+		if ((primary == null) || primary.equals(database))
+		{
+			reference = null;
+			for (D backup: balancer.backups())
+			{
+				if (!backup.equals(database))
+				{
+					reference = backup;
+					break;
+				}
+			}
+		}
+		
+		if ((executor == null) || (reference == null))
+		{
+			this.skipped.incrementAndGet();
+			return;
+		}
+		
+		// A backup is always verified against the primary, so the primary is never the one deactivated
+		D suspect = reference.equals(primary) ? database : reference;
+		D authority = reference.equals(primary) ? reference : database;
+		
+		try
+		{
+			executor.execute(new ShadowReadTask(authority, suspect, query));
+		}
+		catch (RejectedExecutionException e)
+		{
+			this.skipped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return the fraction of eligible reads to verify
+	 */
+	public double getRatio()
+	{
+		return this.ratio;
+	}
+
+	/**
+	 * @param ratio the fraction of eligible reads to verify, between 0 and 1
+	 */
+	public void setRatio(double ratio)
+	{
+		if ((ratio < 0) || (ratio > 1))
+		{
+			throw new IllegalArgumentException(Double.toString(ratio));
+		}
+		this.ratio = ratio;
+	}
+
+	/**
+	 * @return the maximum number of rows to compare, or 0 if unlimited
+	 */
+	public int getMaxRows()
+	{
+		return this.maxRows;
+	}
+
+	/**
+	 * @param maxRows the maximum number of rows to compare, or 0 if unlimited
+	 */
+	public void setMaxRows(int maxRows)
+	{
+		if (maxRows < 0)
+		{
+			throw new IllegalArgumentException(Integer.toString(maxRows));
+		}
+		this.maxRows = maxRows;
+	}
+
+	/**
+	 * @return true, if databases are deactivated on a confirmed mismatch, false if mismatches are only logged
+	 */
+	public boolean isDeactivationEnabled()
+	{
+		return this.deactivationEnabled;
+	}
+
+	/**
+	 * @param enabled indicates whether databases should be deactivated on a confirmed mismatch
+	 */
+	public void setDeactivationEnabled(boolean enabled)
+	{
+		this.deactivationEnabled = enabled;
+	}
+
+	/**
+	 * @return the number of reads whose results matched
+	 */
+	public long getVerifiedCount()
+	{
+		return this.verified.get();
+	}
+
+	/**
+	 * @return the number of reads whose results did not match
+	 */
+	public long getMismatchCount()
+	{
+		return this.mismatched.get();
+	}
+
+	/**
+	 * @return the number of sampled reads that could not be verified, e.g. due to capacity, size, or failure
+	 */
+	public long getSkippedCount()
+	{
+		return this.skipped.get();
+	}
+
+	ResultSetDigest digest(D database, ShadowQuery<Z, D> query) throws SQLException
+	{
+		try (Connection connection = database.connect(this.cluster.getDecoder()))
+		{
+			connection.setReadOnly(true);
+			
+			try (ResultSet resultSet = query.execute(database, connection))
+			{
+				return ResultSetDigest.digest(resultSet, this.maxRows);
+			}
+		}
+	}
+	
+	private class ShadowReadTask implements Runnable
+	{
+		private final D authority;
+		private final D suspect;
+		private final ShadowQuery<Z, D> query;
+		
+		ShadowReadTask(D authority, D suspect, ShadowQuery<Z, D> query)
+		{
+			this.authority = authority;
+			this.suspect = suspect;
+			this.query = query;
+		}
+		
+		@Override
+		public void run()
+		{
+			ShadowReader<Z, D> reader = ShadowReader.this;
+			try
+			{
+				ResultSetDigest expected = reader.digest(this.authority, this.query);
+				ResultSetDigest actual = (expected != null) ? reader.digest(this.suspect, this.query) : null;
+				
+				if ((expected != null) && (actual != null) && !expected.equals(actual))
+				{
+					// Confirm, to rule out writes committed between the first pair of reads
+					expected = reader.digest(this.authority, this.query);
+					actual = (expected != null) ? reader.digest(this.suspect, this.query) : null;
+					
+					if ((expected != null) && (actual != null) && !expected.equals(actual))
+					{
+						reader.mismatched.incrementAndGet();
+						
+						if (reader.deactivationEnabled && reader.cluster.deactivate(this.suspect, reader.cluster.getStateManager()))
+						{
+							reader.cluster.getReplayLog().invalidate(this.suspect);
+							logger.log(Level.ERROR, messages.inconsistent(reader.cluster, this.suspect, expected, actual));
+						}
+						else
+						{
+							logger.log(Level.WARN, messages.shadowReadMismatch(reader.cluster, this.suspect, this.authority, this.query, expected, actual));
+						}
+						return;
+					}
+				}
+				
+				if ((expected != null) && (actual != null))
+				{
+					reader.verified.incrementAndGet();
+				}
+				else
+				{
+					reader.skipped.incrementAndGet();
+				}
+			}
+			catch (SQLException e)
+			{
+				logger.log(Level.DEBUG, e);
+				reader.skipped.incrementAndGet();
+			}
+		}
+	}
+}
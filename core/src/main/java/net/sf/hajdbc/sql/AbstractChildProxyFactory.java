@@ -48,6 +48,19 @@ public abstract class AbstractChildProxyFactory<Z, D extends Database<Z>, P, PE
 		return this.invoker.invoke(database, this.parent.get(database));
 	}
 
+	/**
+	 * Creates a new object for the specified database from the specified parent object, rather than from the parent object managed by the parent factory.
+	 * The returned object is not managed by this factory.
+	 * @param database a database
+	 * @param parent a parent object for the specified database
+	 * @return a new object
+	 * @throws PE if the object could not be created
+	 */
+	protected T create(D database, P parent) throws PE
+	{
+		return this.invoker.invoke(database, parent);
+	}
+
 	@Override
 	public P getParentProxy()
 	{
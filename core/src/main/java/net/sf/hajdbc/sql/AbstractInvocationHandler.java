@@ -42,6 +42,7 @@ import net.sf.hajdbc.logging.Logger;
 import net.sf.hajdbc.logging.LoggerFactory;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.metrics.InstrumentedInvoker;
 import net.sf.hajdbc.sql.serial.SerialLocatorFactories;
 import net.sf.hajdbc.sql.serial.SerialLocatorFactory;
 import net.sf.hajdbc.util.reflect.Methods;
@@ -95,9 +96,10 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 		Invoker<Z, D, T, R, E> invoker = this.getInvoker(proxy, method, parameters);
 
 		this.logger.log(Level.TRACE, "Invoking {0} using {1}", method, strategy);
-		SortedMap<D, R> results = strategy.invoke(this.proxyFactory, invoker);
+		SortedMap<D, R> results = strategy.invoke(this.proxyFactory, new InstrumentedInvoker<>(invoker, this.proxyFactory.getDatabaseCluster().getMetricRegistry()));
 
 		this.postInvoke(invoker, proxy, method, parameters);
+		this.verify(invoker, results, proxy, method, parameters);
 		
 		@SuppressWarnings("unchecked")
 		ProxyFactoryFactory<Z, D, T, E, R, ? extends Exception> factory = (ProxyFactoryFactory<Z, D, T, E, R, ? extends Exception>) this.getProxyFactoryFactory(proxy, method, parameters);
@@ -228,6 +230,7 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 				
 				if (cluster.deactivate(database, cluster.getStateManager()))
 				{
+					cluster.getReplayLog().invalidate(database);
 					this.logger.log(Level.ERROR, this.messages.inconsistent(cluster, database, primaryResult, result));
 				}
 			}
@@ -240,4 +243,17 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 	{
 		// Do nothing
 	}
+
+	/**
+	 * Hook for verifying the results of a successful invocation.  Must not block the caller.
+	 * @param invoker the invoker of the invocation
+	 * @param results the results of the invocation, per database
+	 * @param proxy the proxy upon which the method was invoked
+	 * @param method the invoked method
+	 * @param parameters the method parameters
+	 */
+	protected <R> void verify(Invoker<Z, D, T, R, E> invoker, SortedMap<D, R> results, T proxy, Method method, Object... parameters)
+	{
+		// Do nothing
+	}
 }
@@ -17,7 +17,10 @@
  */
 package net.sf.hajdbc.sql;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -97,7 +100,7 @@ public abstract class AbstractPreparedStatementInvocationHandler<Z, D extends Da
 			{
 				boolean repeatableReadSelect = (statement.getConnection().getTransactionIsolation() >= Connection.TRANSACTION_REPEATABLE_READ);
 				
-				return repeatableReadSelect ? InvocationStrategies.INVOKE_ON_PRIMARY : InvocationStrategies.INVOKE_ON_NEXT;
+				return repeatableReadSelect ? InvocationStrategies.INVOKE_ON_PRIMARY : this.getProxyFactory().getReadInvocationStrategy(this.getProxyFactory().getAffinityTable());
 			}
 			
 			InvocationStrategy strategy = InvocationStrategies.TRANSACTION_INVOKE_ON_ALL;
@@ -123,6 +126,35 @@ public abstract class AbstractPreparedStatementInvocationHandler<Z, D extends Da
 		return super.getInvoker(statement, method, parameters);
 	}
 	
+	@Override
+	protected <R> void postInvoke(Invoker<Z, D, S, R, SQLException> invoker, S proxy, Method method, Object... parameters)
+	{
+		super.postInvoke(invoker, proxy, method, parameters);
+		
+		if (this.isSetParameterMethod(method))
+		{
+			Object value = (parameters.length > 1) ? parameters[1] : null;
+			// Streams and proxied locators cannot be reused once this statement is closed
+			boolean replayable = !(value instanceof InputStream) && !(value instanceof Reader) && ((value == null) || !Proxy.isProxyClass(value.getClass()));
+			
+			this.getProxyFactory().setParameterInvoker(parameters[0], invoker, replayable);
+		}
+		else if (method.equals(clearParametersMethod))
+		{
+			this.getProxyFactory().clearParameterInvokers();
+		}
+		else if (method.equals(addBatchMethod))
+		{
+			this.getProxyFactory().addReplayBatchInvoker(invoker);
+		}
+	}
+	
+	@Override
+	protected boolean isQueryMethod(Method method)
+	{
+		return method.equals(executeQueryMethod) || super.isQueryMethod(method);
+	}
+
 	@Override
 	protected boolean isBatchMethod(Method method)
 	{
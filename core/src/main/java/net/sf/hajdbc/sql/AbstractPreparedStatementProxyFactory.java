@@ -35,12 +35,15 @@ public abstract class AbstractPreparedStatementProxyFactory<Z, D extends Databas
 {
 	private final List<Lock> locks;
 	private final boolean selectForUpdate;
+	private final String affinityTable;
 	
-	protected AbstractPreparedStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, S, SQLException> invoker, Map<D, S> map, TransactionContext<Z, D> context, List<Lock> locks, boolean selectForUpdate)
+	protected AbstractPreparedStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, S, SQLException> invoker, Map<D, S> map, TransactionContext<Z, D> context, List<Lock> locks, boolean selectForUpdate, String affinityTable, boolean replayable)
 	{
 		super(parent, parentFactory, invoker, map, context);
 		this.locks = locks;
 		this.selectForUpdate = selectForUpdate;
+		this.affinityTable = affinityTable;
+		this.setReplayableSQL(replayable);
 	}
 
 	public List<Lock> getLocks()
@@ -52,4 +55,9 @@ public abstract class AbstractPreparedStatementProxyFactory<Z, D extends Databas
 	{
 		return this.selectForUpdate;
 	}
+	
+	public String getAffinityTable()
+	{
+		return this.affinityTable;
+	}
 }
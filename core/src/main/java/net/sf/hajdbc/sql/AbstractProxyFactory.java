@@ -17,11 +17,16 @@
  */
 package net.sf.hajdbc.sql;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.WeakHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
@@ -44,9 +49,11 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 	protected Logger logger = LoggerFactory.getLogger(this.getClass());
 	
 	private final DatabaseCluster<Z, D> cluster;
-	private final Map<D, T> map;
+	private final Lock lock = new ReentrantLock();
+	// Copy-on-write, since objects are only created or removed when the set of active databases changes
+	private volatile Map<D, T> map;
 	private final Set<ChildProxyFactory<Z, D, T, E, ?, ? extends Exception>> children = Collections.newSetFromMap(new WeakHashMap<ChildProxyFactory<Z, D, T, E, ?, ? extends Exception>, Boolean>());
-	private final Set<Invoker<Z, D, T, ?, E>> invokers = new HashSet<>();
+	private final Set<Invoker<Z, D, T, ?, E>> invokers = new LinkedHashSet<>();
 	private final ExceptionFactory<E> exceptionFactory;
 	
 	/**
@@ -57,7 +64,7 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 	protected AbstractProxyFactory(DatabaseCluster<Z, D> cluster, Map<D, T> map, Class<E> exceptionClass)
 	{
 		this.cluster = cluster;
-		this.map = map;
+		this.map = new TreeMap<>(map);
 		this.exceptionFactory = ExceptionType.valueOf(exceptionClass).getExceptionFactory();
 	}
 
@@ -69,7 +76,24 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 
 	protected T remove(D database)
 	{
-		return this.map.remove(database);
+		this.lock.lock();
+		
+		try
+		{
+			if (!this.map.containsKey(database)) return null;
+			
+			Map<D, T> map = new TreeMap<>(this.map);
+			
+			T object = map.remove(database);
+			
+			this.map = map;
+			
+			return object;
+		}
+		finally
+		{
+			this.lock.unlock();
+		}
 	}
 
 	/**
@@ -108,15 +132,22 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 	 * Returns the underlying SQL object for the specified database.
 	 * If the sql object does not exist (this might be the case if the database was newly activated), it will be created from the stored operation.
 	 * Any recorded operations are also executed. If the object could not be created, or if any of the executed operations failed, then the specified database is deactivated.
+	 * Existing objects are returned without locking.
 	 * @param database a database descriptor.
 	 * @return an underlying SQL object
 	 */
 	@Override
 	public T get(D database)
 	{
-		synchronized (this.map)
+		T object = this.map.get(database);
+		
+		if (object != null) return object;
+		
+		this.lock.lock();
+		
+		try
 		{
-			T object = this.map.get(database);
+			object = this.map.get(database);
 			
 			if (object == null)
 			{
@@ -126,7 +157,11 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 					
 					this.replay(database, object);
 					
-					this.map.put(database, object);
+					Map<D, T> map = new TreeMap<>(this.map);
+					
+					map.put(database, object);
+					
+					this.map = map;
 				}
 				catch (Throwable e)
 				{
@@ -139,6 +174,10 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 			
 			return object;
 		}
+		finally
+		{
+			this.lock.unlock();
+		}
 	}
 	
 	protected abstract T create(D database) throws TE;
@@ -154,6 +193,18 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 		}
 	}
 	
+	/**
+	 * Returns a snapshot of the recorded invocations.
+	 * @return a list of invokers, in recording order
+	 */
+	protected List<Invoker<Z, D, T, ?, E>> getRecordedInvokers()
+	{
+		synchronized (this.invokers)
+		{
+			return new ArrayList<Invoker<Z, D, T, ?, E>>(this.invokers);
+		}
+	}
+	
 	/**
 	 * @throws E  
 	 */
@@ -23,7 +23,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.locks.Lock;
 
@@ -33,9 +33,17 @@ import net.sf.hajdbc.DatabaseProperties;
 import net.sf.hajdbc.IdentityColumnSupport;
 import net.sf.hajdbc.SequenceSupport;
 import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.balancer.affinity.AffinityBalancer;
+import net.sf.hajdbc.balancer.affinity.RoutingKey;
 import net.sf.hajdbc.dialect.Dialect;
+import net.sf.hajdbc.invocation.AffinityInvocationStrategy;
+import net.sf.hajdbc.invocation.InvocationStrategies;
+import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.lock.LockManager;
+import net.sf.hajdbc.lock.MultiLockManager;
+import net.sf.hajdbc.sequence.IdentityColumnAllocator;
+import net.sf.hajdbc.sequence.SequenceAllocator;
 
 /**
  * 
@@ -81,6 +89,80 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 		return sql;
 	}
 	
+	@Override
+	public String evaluateSequence(String sql) throws SQLException
+	{
+		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
+		SequenceAllocator<Z, D> allocator = cluster.getSequenceAllocator();
+		
+		if (cluster.isSequenceDetectionEnabled() && allocator.isEnabled())
+		{
+			SequenceSupport support = cluster.getDialect().getSequenceSupport();
+			
+			if (support != null)
+			{
+				String sequence = support.parseSequence(sql);
+				
+				if ((sequence != null) && support.isNextSequenceValueEvaluable(sql))
+				{
+					Long value = allocator.next(sequence);
+					
+					if (value != null)
+					{
+						return support.evaluateNextSequenceValue(sql, value);
+					}
+				}
+			}
+		}
+		
+		return sql;
+	}
+	
+	@Override
+	public String evaluateIdentityColumn(String sql) throws SQLException
+	{
+		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
+		IdentityColumnAllocator<Z, D> allocator = cluster.getIdentityColumnAllocator();
+		
+		if (cluster.isIdentityColumnDetectionEnabled() && allocator.isEnabled())
+		{
+			IdentityColumnSupport support = cluster.getDialect().getIdentityColumnSupport();
+			
+			if (support != null)
+			{
+				String table = support.parseInsertTable(sql);
+				
+				if (table != null)
+				{
+					TableProperties tableProperties = this.getDatabaseProperties().findTable(table);
+					
+					if (tableProperties != null)
+					{
+						Collection<String> identityColumns = tableProperties.getIdentityColumns();
+						List<String> columns = support.parseInsertColumns(sql);
+						
+						if ((identityColumns.size() == 1) && (columns != null))
+						{
+							String identityColumn = identityColumns.iterator().next();
+							
+							if (!containsIgnoreCase(columns, identityColumn))
+							{
+								Long value = allocator.next(tableProperties.getName().getDMLName());
+								
+								if (value != null)
+								{
+									return support.evaluateIdentityColumn(sql, identityColumn, value);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		
+		return sql;
+	}
+	
 	@Override
 	public List<Lock> extractLocks(String sql) throws SQLException
 	{
@@ -89,7 +171,7 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 	
 	protected List<Lock> extractLocks(Collection<String> statements) throws SQLException
 	{
-		Set<String> identifierSet = new TreeSet<>();
+		SortedSet<String> identifierSet = new TreeSet<>();
 		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
 		
 		for (String sql: statements)
@@ -126,7 +208,9 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 							throw new SQLException(this.messages.schemaLookupFailed(cluster, table));
 						}
 						
-						if (!tableProperties.getIdentityColumns().isEmpty())
+						Collection<String> identityColumns = tableProperties.getIdentityColumns();
+						
+						if (!identityColumns.isEmpty() && !this.isIdentityColumnEvaluated(support, sql, identityColumns))
 						{
 							identifierSet.add(tableProperties.getName().getDMLName());
 						}
@@ -135,19 +219,84 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 			}
 		}
 		
+		LockManager lockManager = cluster.getLockManager();
+		
+		// Acquire multiple locks as one, e.g. in a single round-trip to each group member
+		if ((identifierSet.size() > 1) && (lockManager instanceof MultiLockManager))
+		{
+			return Collections.singletonList(((MultiLockManager) lockManager).writeLock(identifierSet));
+		}
+		
 		List<Lock> lockList = new ArrayList<>(identifierSet.size());
 		
-		if (!identifierSet.isEmpty())
+		for (String identifier: identifierSet)
+		{
+			lockList.add(lockManager.writeLock(identifier));
+		}
+		
+		return lockList;
+	}
+
+	@Override
+	public boolean isReplayable(String sql) throws SQLException
+	{
+		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
+		
+		if (!cluster.getReplayLog().isEnabled()) return true;
+		
+		SequenceSupport sequenceSupport = cluster.getDialect().getSequenceSupport();
+		
+		if ((sequenceSupport != null) && (sequenceSupport.parseSequence(sql) != null)) return false;
+		
+		IdentityColumnSupport identityColumnSupport = cluster.getDialect().getIdentityColumnSupport();
+		
+		if (identityColumnSupport != null)
 		{
-			LockManager lockManager = cluster.getLockManager();
+			String table = identityColumnSupport.parseInsertTable(sql);
 			
-			for (String identifier: identifierSet)
+			if (table != null)
 			{
-				lockList.add(lockManager.writeLock(identifier));
+				TableProperties tableProperties = this.getDatabaseProperties().findTable(table);
+				
+				if (tableProperties == null)
+				{
+					throw new SQLException(this.messages.schemaLookupFailed(cluster, table));
+				}
+				
+				Collection<String> identityColumns = tableProperties.getIdentityColumns();
+				
+				if (!identityColumns.isEmpty())
+				{
+					// Only an explicitly specified, e.g. pre-allocated, identity value is reproducible
+					List<String> columns = identityColumnSupport.parseInsertColumns(sql);
+					
+					return (identityColumns.size() == 1) && (columns != null) && containsIgnoreCase(columns, identityColumns.iterator().next());
+				}
 			}
 		}
 		
-		return lockList;
+		return true;
+	}
+
+	/**
+	 * Indicates whether the specified statement explicitly specifies the pre-allocated value of the identity column of its table, and therefore need not lock the table.
+	 */
+	private boolean isIdentityColumnEvaluated(IdentityColumnSupport support, String sql, Collection<String> identityColumns) throws SQLException
+	{
+		if (!this.getDatabaseCluster().getIdentityColumnAllocator().isEnabled() || (identityColumns.size() != 1)) return false;
+		
+		List<String> columns = support.parseInsertColumns(sql);
+		
+		return (columns != null) && containsIgnoreCase(columns, identityColumns.iterator().next());
+	}
+	
+	private static boolean containsIgnoreCase(Collection<String> columns, String column)
+	{
+		for (String candidate: columns)
+		{
+			if (candidate.equalsIgnoreCase(column)) return true;
+		}
+		return false;
 	}
 
 	private DatabaseProperties getDatabaseProperties() throws SQLException
@@ -163,6 +312,35 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 		return this.getDatabaseProperties().supportsSelectForUpdate() ? this.getDatabaseCluster().getDialect().isSelectForUpdate(sql) : false;
 	}
 
+	@Override
+	public String parseAffinityTable(String sql)
+	{
+		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
+		
+		return (cluster.getBalancer() instanceof AffinityBalancer) ? cluster.getDialect().parseSelectTable(sql) : null;
+	}
+
+	@Override
+	public InvocationStrategy getReadInvocationStrategy(String table)
+	{
+		if (this.getDatabaseCluster().getBalancer() instanceof AffinityBalancer)
+		{
+			Object key = RoutingKey.get();
+			
+			if (key == null)
+			{
+				key = table;
+			}
+			
+			if (key != null)
+			{
+				return new AffinityInvocationStrategy(key);
+			}
+		}
+		
+		return InvocationStrategies.INVOKE_ON_NEXT;
+	}
+
 	@Override
 	public boolean locatorsUpdateCopy() throws SQLException
 	{
@@ -25,6 +25,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
@@ -33,6 +34,7 @@ import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.invocation.LockingInvocationStrategy;
 import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.shadow.ShadowReader;
 import net.sf.hajdbc.util.reflect.Methods;
 
 /**
@@ -85,6 +87,32 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 			return InvocationStrategies.INVOKE_ON_EXISTING;
 		}
 		
+		if (method.equals(addBatchMethod) || method.equals(executeQueryMethod) || executeMethodSet.contains(method))
+		{
+			// Evaluate pre-allocated sequence values before extracting locks, so that evaluated statements need not lock the sequence
+			parameters[0] = this.getProxyFactory().evaluateSequence((String) parameters[0]);
+			
+			// Generated keys cannot be returned for explicitly specified identity values
+			if (parameters.length == 1)
+			{
+				parameters[0] = this.getProxyFactory().evaluateIdentityColumn((String) parameters[0]);
+			}
+			
+			boolean replayable = this.getProxyFactory().isReplayable((String) parameters[0]);
+			
+			if (method.equals(addBatchMethod))
+			{
+				if (!replayable)
+				{
+					this.getProxyFactory().invalidateReplayBatch();
+				}
+			}
+			else
+			{
+				this.getProxyFactory().setReplayableSQL(replayable);
+			}
+		}
+		
 		if (executeMethodSet.contains(method))
 		{
 			List<Lock> locks = this.getProxyFactory().extractLocks((String) parameters[0]);
@@ -104,7 +132,7 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 			{
 				boolean repeatableReadSelect = (statement.getConnection().getTransactionIsolation() >= Connection.TRANSACTION_REPEATABLE_READ);
 				
-				return repeatableReadSelect ? InvocationStrategies.INVOKE_ON_PRIMARY : InvocationStrategies.INVOKE_ON_NEXT;
+				return repeatableReadSelect ? InvocationStrategies.INVOKE_ON_PRIMARY : this.getProxyFactory().getReadInvocationStrategy(this.getProxyFactory().parseAffinityTable(sql));
 			}
 			
 			InvocationStrategy strategy = InvocationStrategies.TRANSACTION_INVOKE_ON_ALL;
@@ -159,6 +187,7 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 		if (method.equals(addBatchMethod))
 		{
 			this.getProxyFactory().addBatchSQL((String) parameters[0]);
+			this.getProxyFactory().addReplayBatchInvoker(invoker);
 		}
 		else if (method.equals(clearBatchMethod) || method.equals(executeBatchMethod))
 		{
@@ -194,4 +223,42 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 	{
 		return method.equals(addBatchMethod);
 	}
+
+	/**
+	 * Verifies a sample of the read-only queries that were executed against a single database.
+	 * @see net.sf.hajdbc.sql.AbstractInvocationHandler#verify(net.sf.hajdbc.invocation.Invoker, java.util.SortedMap, java.lang.Object, java.lang.reflect.Method, java.lang.Object[])
+	 */
+	@Override
+	protected <R> void verify(Invoker<Z, D, S, R, SQLException> invoker, SortedMap<D, R> results, S proxy, Method method, Object... parameters)
+	{
+		if (this.isQueryMethod(method) && (results.size() == 1))
+		{
+			F factory = this.getProxyFactory();
+			ShadowReader<Z, D> reader = factory.getDatabaseCluster().getShadowReader();
+			
+			if ((reader != null) && reader.sample())
+			{
+				try
+				{
+					// Reads within a transaction may see uncommitted writes
+					if (factory.getParentProxy().getAutoCommit())
+					{
+						@SuppressWarnings("unchecked")
+						Invoker<Z, D, S, ResultSet, SQLException> queryInvoker = (Invoker<Z, D, S, ResultSet, SQLException>) invoker;
+						
+						reader.submit(results.firstKey(), factory.createShadowQuery(queryInvoker, (parameters.length > 0) ? parameters[0] : method));
+					}
+				}
+				catch (SQLException e)
+				{
+					this.logger.log(Level.DEBUG, e);
+				}
+			}
+		}
+	}
+
+	protected boolean isQueryMethod(Method method)
+	{
+		return method.equals(executeQueryMethod);
+	}
 }
@@ -18,11 +18,16 @@
 package net.sf.hajdbc.sql;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
@@ -30,20 +35,31 @@ import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.io.InputSinkRegistryImpl;
 import net.sf.hajdbc.io.InputSinkStrategy;
 import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.replay.ReplayStatement;
+import net.sf.hajdbc.replay.ReplayStatementFactory;
+import net.sf.hajdbc.shadow.ShadowQuery;
 
 /**
  * 
  * @author Paul Ferraro
  */
-public abstract class AbstractStatementProxyFactory<Z, D extends Database<Z>, S extends Statement> extends AbstractInputSinkRegistryProxyFactory<Z, D, Connection, S>
+public abstract class AbstractStatementProxyFactory<Z, D extends Database<Z>, S extends Statement> extends AbstractInputSinkRegistryProxyFactory<Z, D, Connection, S> implements ReplayStatementFactory<Z, D, S, SQLException>
 {
 	private final List<Invoker<Z, D, S, ?, SQLException>> batchInvokers = new LinkedList<>();
 	private final List<String> batch = new LinkedList<>();
+	private final boolean replayEnabled;
+	// Only the last invocation per parameter is needed to reproduce the current parameters
+	private final Map<Object, Invoker<Z, D, S, ?, SQLException>> parameterInvokers = new LinkedHashMap<>();
+	private final Set<Object> unreplayableParameters = new HashSet<>();
+	private final List<Invoker<Z, D, S, ?, SQLException>> replayBatchInvokers = new ArrayList<>();
+	private boolean replayableBatch = true;
+	private boolean replayableSQL = true;
 	
 	@SuppressWarnings("unchecked")
 	protected AbstractStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, S, SQLException> invoker, Map<D, S> map, TransactionContext<Z, D> context)
 	{
 		super(parent, parentFactory, invoker, map, context, new InputSinkRegistryImpl<>((InputSinkStrategy<Object>) parentFactory.getDatabaseCluster().getInputSinkStrategy()));
+		this.replayEnabled = parentFactory.getDatabaseCluster().getReplayLog().isEnabled();
 	}
 
 	@Override
@@ -80,6 +96,73 @@ public abstract class AbstractStatementProxyFactory<Z, D extends Database<Z>, S
 	public void clearBatchInvokers()
 	{
 		this.batchInvokers.clear();
+		this.replayBatchInvokers.clear();
+		this.replayableBatch = true;
+	}
+	
+	/**
+	 * Indicates that the SQL most recently added to the batch cannot be replayed.
+	 * @see SQLProxyFactory#isReplayable(String)
+	 */
+	public void invalidateReplayBatch()
+	{
+		this.replayableBatch = false;
+	}
+	
+	/**
+	 * Indicates whether the SQL executed by this statement, i.e. of a prepared statement, or of the current execution, can be replayed.
+	 * @param replayable indicates whether the SQL can be replayed
+	 * @see SQLProxyFactory#isReplayable(String)
+	 */
+	public void setReplayableSQL(boolean replayable)
+	{
+		this.replayableSQL = replayable;
+	}
+	
+	/**
+	 * Records the invocation that set the specified parameter, for use by replay statements.
+	 * @param key identifies the parameter
+	 * @param invoker a parameter invoker
+	 * @param replayable indicates whether the parameter value can be reused after this statement is closed
+	 */
+	public void setParameterInvoker(Object key, Invoker<Z, D, S, ?, SQLException> invoker, boolean replayable)
+	{
+		if (!this.replayEnabled) return;
+		
+		this.parameterInvokers.remove(key);
+		this.parameterInvokers.put(key, invoker);
+		
+		if (replayable)
+		{
+			this.unreplayableParameters.remove(key);
+		}
+		else
+		{
+			this.unreplayableParameters.add(key);
+		}
+	}
+	
+	public void clearParameterInvokers()
+	{
+		this.parameterInvokers.clear();
+		this.unreplayableParameters.clear();
+	}
+	
+	/**
+	 * Records the invocation that added the current parameters or the specified SQL to the batch, for use by replay statements.
+	 * @param invoker an addBatch invoker
+	 */
+	public void addReplayBatchInvoker(Invoker<Z, D, S, ?, SQLException> invoker)
+	{
+		if (!this.replayEnabled) return;
+		
+		this.replayBatchInvokers.addAll(this.parameterInvokers.values());
+		this.replayBatchInvokers.add(invoker);
+		
+		if (!this.unreplayableParameters.isEmpty())
+		{
+			this.replayableBatch = false;
+		}
 	}
 	
 	@Override
@@ -102,6 +185,77 @@ public abstract class AbstractStatementProxyFactory<Z, D extends Database<Z>, S
 		}
 	}
 
+	/**
+	 * Creates a query that re-executes the specified query invocation, including any recorded statement properties and parameters, using a new statement created from an arbitrary connection.
+	 * @param invoker a query invoker
+	 * @param description a description of the query, used for logging
+	 * @return a shadow query
+	 */
+	public ShadowQuery<Z, D> createShadowQuery(final Invoker<Z, D, S, ResultSet, SQLException> invoker, final Object description)
+	{
+		final List<Invoker<Z, D, S, ?, SQLException>> invokers = new ArrayList<>(this.getRecordedInvokers());
+		invokers.addAll(this.batchInvokers);
+		
+		return new ShadowQuery<Z, D>()
+		{
+			@Override
+			public ResultSet execute(D database, Connection connection) throws SQLException
+			{
+				S statement = AbstractStatementProxyFactory.this.create(database, connection);
+				
+				for (Invoker<Z, D, S, ?, SQLException> setup: invokers)
+				{
+					setup.invoke(database, statement);
+				}
+				
+				return invoker.invoke(database, statement);
+			}
+
+			@Override
+			public String toString()
+			{
+				return String.valueOf(description);
+			}
+		};
+	}
+
+	/**
+	 * Creates a statement that re-executes the specified write invocation, including any recorded statement properties, parameters, and batch, using a new statement created from an arbitrary connection.
+	 * @see net.sf.hajdbc.replay.ReplayStatementFactory#createReplayStatement(net.sf.hajdbc.invocation.Invoker)
+	 */
+	@Override
+	public ReplayStatement<Z, D> createReplayStatement(final Invoker<Z, D, S, ?, SQLException> invoker)
+	{
+		if (!this.replayableSQL || !this.unreplayableParameters.isEmpty() || !this.replayableBatch) return null;
+		
+		final List<Invoker<Z, D, S, ?, SQLException>> invokers = new ArrayList<>(this.getRecordedInvokers());
+		invokers.addAll(this.parameterInvokers.values());
+		invokers.addAll(this.replayBatchInvokers);
+		
+		return new ReplayStatement<Z, D>()
+		{
+			@Override
+			public void execute(D database, Connection connection) throws SQLException
+			{
+				try (S statement = AbstractStatementProxyFactory.this.create(database, connection))
+				{
+					for (Invoker<Z, D, S, ?, SQLException> setup: invokers)
+					{
+						setup.invoke(database, statement);
+					}
+					
+					invoker.invoke(database, statement);
+				}
+			}
+
+			@Override
+			public String toString()
+			{
+				return invoker.toString();
+			}
+		};
+	}
+
 	@Override
 	public void close(D database, S statement) throws SQLException
 	{
@@ -21,11 +21,13 @@ import java.lang.reflect.Method;
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Set;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.InvocationStrategies;
 import net.sf.hajdbc.invocation.InvocationStrategy;
+import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.util.reflect.Methods;
 
 /**
@@ -66,6 +68,17 @@ public class CallableStatementInvocationHandler<Z, D extends Database<Z>> extend
 		return super.getInvocationStrategy(statement, method, parameters);
 	}
 
+	@Override
+	protected <R> void postInvoke(Invoker<Z, D, CallableStatement, R, SQLException> invoker, CallableStatement proxy, Method method, Object... parameters)
+	{
+		super.postInvoke(invoker, proxy, method, parameters);
+		
+		if (registerOutParameterMethods.contains(method))
+		{
+			this.getProxyFactory().setParameterInvoker(Arrays.asList(method.getName(), parameters[0]), invoker, true);
+		}
+	}
+
 	/**
 	 * @see net.sf.hajdbc.sql.AbstractPreparedStatementInvocationHandler#isBatchMethod(java.lang.reflect.Method)
 	 */
@@ -34,9 +34,9 @@ import net.sf.hajdbc.util.reflect.Proxies;
  */
 public class CallableStatementProxyFactory<Z, D extends Database<Z>> extends AbstractPreparedStatementProxyFactory<Z, D, CallableStatement>
 {
-	public CallableStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, CallableStatement, SQLException> invoker, Map<D, CallableStatement> map, TransactionContext<Z, D> context, List<Lock> locks)
+	public CallableStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, CallableStatement, SQLException> invoker, Map<D, CallableStatement> map, TransactionContext<Z, D> context, List<Lock> locks, String affinityTable, boolean replayable)
 	{
-		super(parent, parentFactory, invoker, map, context, locks, false);
+		super(parent, parentFactory, invoker, map, context, locks, false, affinityTable, replayable);
 	}
 
 	@Override
@@ -26,6 +26,7 @@ import java.sql.SQLException;
 import java.sql.Savepoint;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import net.sf.hajdbc.Database;
@@ -34,6 +35,7 @@ import net.sf.hajdbc.durability.DurabilityPhaseRegistryBuilder;
 import net.sf.hajdbc.invocation.InvocationStrategies;
 import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.logging.Level;
 import net.sf.hajdbc.util.StaticRegistry;
 import net.sf.hajdbc.util.reflect.Methods;
 
@@ -77,6 +79,40 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 	{
 		super(Connection.class, proxyFactory, null);
 	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+	{
+		PreparedStatementCache<Z, D> cache = this.getProxyFactory().getStatementCache();
+		
+		if ((cache != null) && prepareStatementMethodSet.contains(method) && this.getProxyFactory().getDatabaseCluster().isActive())
+		{
+			String sql = (String) args[0];
+			
+			// Statements containing evaluated non-deterministic functions are never reusable
+			if (this.getProxyFactory().evaluate(sql).equals(sql))
+			{
+				List<Object> key = PreparedStatementCache.key(method, args);
+				PreparedStatementProxyFactory<Z, D> factory = cache.take(key);
+				
+				if (factory != null)
+				{
+					this.logger.log(Level.TRACE, "Reusing cached statement: {0}", sql);
+					return factory.createProxy();
+				}
+				
+				Object statement = super.invoke(proxy, method, args);
+				
+				@SuppressWarnings("unchecked")
+				PreparedStatementInvocationHandler<Z, D> handler = (PreparedStatementInvocationHandler<Z, D>) Proxy.getInvocationHandler(statement);
+				handler.getProxyFactory().setCache(cache, key);
+				
+				return statement;
+			}
+		}
+		
+		return super.invoke(proxy, method, args);
+	}
 	
 	@Override
 	protected ProxyFactoryFactory<Z, D, Connection, SQLException, ?, ? extends Exception> getProxyFactoryFactory(Connection connection, Method method, Object... parameters) throws SQLException
@@ -88,12 +124,12 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 		if (prepareStatementMethodSet.contains(method))
 		{
 			String sql = (String) parameters[0];
-			return new PreparedStatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().extractLocks(sql), this.getProxyFactory().isSelectForUpdate(sql));
+			return new PreparedStatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().extractLocks(sql), this.getProxyFactory().isSelectForUpdate(sql), this.getProxyFactory().parseAffinityTable(sql), this.getProxyFactory().isReplayable(sql));
 		}
 		if (prepareCallMethodSet.contains(method))
 		{
 			String sql = (String) parameters[0];
-			return new CallableStatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().extractLocks(sql));
+			return new CallableStatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().extractLocks(sql), this.getProxyFactory().parseAffinityTable(sql), this.getProxyFactory().isReplayable(sql));
 		}
 		
 		if (setSavepointMethodSet.contains(method))
@@ -212,6 +248,11 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 		}
 		else if (method.equals(closeMethod))
 		{
+			PreparedStatementCache<Z, D> cache = this.getProxyFactory().getStatementCache();
+			if (cache != null)
+			{
+				cache.close();
+			}
 			this.getProxyFactory().getTransactionContext().close();
 			this.getProxyFactory().remove();
 		}
@@ -220,5 +261,10 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 			SavepointInvocationHandler<Z, D> handler = (SavepointInvocationHandler<Z, D>) Proxy.getInvocationHandler(parameters[0]);
 			this.getProxyFactory().removeChild(handler.getProxyFactory());
 		}
+		else if (method.equals(rollbackSavepointMethod))
+		{
+			// The statements of the current transaction that were rolled back are no longer known
+			this.getProxyFactory().getTransactionContext().invalidate();
+		}
 	}
 }
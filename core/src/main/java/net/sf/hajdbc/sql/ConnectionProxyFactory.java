@@ -32,9 +32,22 @@ import net.sf.hajdbc.util.reflect.Proxies;
  */
 public class ConnectionProxyFactory<Z, D extends Database<Z>, P> extends AbstractSQLProxyFactory<Z, D, P, Connection>
 {
+	private final PreparedStatementCache<Z, D> statementCache;
+	
 	public ConnectionProxyFactory(P parentProxy, ProxyFactory<Z, D, P, SQLException> parent, Invoker<Z, D, P, Connection, SQLException> invoker, Map<D, Connection> map, TransactionContext<Z, D> context)
 	{
 		super(parentProxy, parent, invoker, map, context);
+		int statementCacheSize = parent.getDatabaseCluster().getStatementCacheSize();
+		this.statementCache = (statementCacheSize > 0) ? new PreparedStatementCache<>(parent.getDatabaseCluster(), statementCacheSize) : null;
+	}
+
+	/**
+	 * Returns the prepared statement cache of this connection.
+	 * @return a prepared statement cache, or null if statement caching is disabled
+	 */
+	public PreparedStatementCache<Z, D> getStatementCache()
+	{
+		return this.statementCache;
 	}
 
 	@Override
@@ -20,6 +20,9 @@ package net.sf.hajdbc.sql;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,6 +30,7 @@ import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 import javax.management.JMException;
@@ -39,6 +43,7 @@ import net.sf.hajdbc.DatabaseClusterListener;
 import net.sf.hajdbc.Locality;
 import net.sf.hajdbc.SynchronizationListener;
 import net.sf.hajdbc.SynchronizationStrategy;
+import net.sf.hajdbc.TransactionCompletion;
 import net.sf.hajdbc.TransactionMode;
 import net.sf.hajdbc.Version;
 import net.sf.hajdbc.balancer.Balancer;
@@ -49,6 +54,7 @@ import net.sf.hajdbc.distributed.CommandDispatcherFactory;
 import net.sf.hajdbc.durability.Durability;
 import net.sf.hajdbc.durability.InvocationEvent;
 import net.sf.hajdbc.durability.InvokerEvent;
+import net.sf.hajdbc.invocation.InvocationLatencies;
 import net.sf.hajdbc.io.InputSinkStrategy;
 import net.sf.hajdbc.lock.LockManager;
 import net.sf.hajdbc.lock.distributed.DistributedLockManager;
@@ -60,16 +66,32 @@ import net.sf.hajdbc.management.MBean;
 import net.sf.hajdbc.management.MBeanRegistrar;
 import net.sf.hajdbc.management.ManagedAttribute;
 import net.sf.hajdbc.management.ManagedOperation;
+import net.sf.hajdbc.metrics.Histogram;
+import net.sf.hajdbc.metrics.InstrumentedLockManager;
+import net.sf.hajdbc.metrics.InstrumentedStateManager;
+import net.sf.hajdbc.metrics.MetricRegistry;
+import net.sf.hajdbc.metrics.MetricRegistryImpl;
+import net.sf.hajdbc.metrics.MetricsExporter;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.replay.ReplayLog;
+import net.sf.hajdbc.sequence.IdentityColumnAllocator;
+import net.sf.hajdbc.sequence.SequenceAllocator;
+import net.sf.hajdbc.shadow.ShadowReader;
 import net.sf.hajdbc.state.DatabaseEvent;
 import net.sf.hajdbc.state.StateManager;
 import net.sf.hajdbc.state.distributed.DistributedStateManager;
+import net.sf.hajdbc.sync.MultiTargetSynchronizationStrategy;
+import net.sf.hajdbc.sync.SynchronizationSupport;
 import net.sf.hajdbc.sync.SynchronizationContext;
 import net.sf.hajdbc.sync.SynchronizationContextImpl;
+import net.sf.hajdbc.sync.SynchronizationProgress;
+import net.sf.hajdbc.sync.SynchronizationProgressEvent;
+import net.sf.hajdbc.sync.SynchronizationThrottle;
 import net.sf.hajdbc.tx.SimpleTransactionIdentifierFactory;
 import net.sf.hajdbc.tx.TransactionIdentifierFactory;
 import net.sf.hajdbc.tx.UUIDTransactionIdentifierFactory;
+import net.sf.hajdbc.util.ServiceLoaders;
 import net.sf.hajdbc.util.concurrent.cron.CronExpression;
 import net.sf.hajdbc.util.concurrent.cron.CronThreadPoolExecutor;
 
@@ -98,6 +120,15 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 	private InputSinkStrategy<? extends Object> sinkSourceFactory;
 	private TransactionIdentifierFactory<? extends Object> txIdentifierFactory;
 	private MBeanRegistrar<Z, D> registrar;
+	private final MetricRegistry metricRegistry = new MetricRegistryImpl();
+	private final List<MetricsExporter> metricsExporters = new CopyOnWriteArrayList<>();
+	private final SynchronizationThrottle synchronizationThrottle;
+	private volatile List<SynchronizationProgress> synchronizationProgress = Collections.emptyList();
+	private final ShadowReader<Z, D> shadowReader;
+	private final InvocationLatencies invocationLatencies;
+	private final SequenceAllocator<Z, D> sequenceAllocator;
+	private final IdentityColumnAllocator<Z, D> identityColumnAllocator;
+	private final ReplayLog<Z, D> replayLog;
 	
 	private boolean active = false;
 	
@@ -114,6 +145,14 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 	{
 		this.id = id;
 		this.configuration = configuration;
+		this.synchronizationThrottle = new SynchronizationThrottle(configuration.getSynchronizationMaxRowsPerSecond(), configuration.getSynchronizationMaxBytesPerSecond());
+		this.shadowReader = new ShadowReader<>(this, configuration.getShadowReadRatio(), configuration.getShadowReadThreads(), configuration.getShadowReadMaxRows(), configuration.isShadowReadDeactivationEnabled());
+		this.invocationLatencies = new InvocationLatencies(configuration.getParallelInvocationThreshold(), TimeUnit.MICROSECONDS);
+		this.sequenceAllocator = new SequenceAllocator<>(this, configuration.getSequenceBlockSize());
+		// Reserved identity values are only known to the reserving member
+		this.identityColumnAllocator = new IdentityColumnAllocator<>(this, (configuration.getDispatcherFactory() == null) ? configuration.getIdentityBlockSize() : 0);
+		// Statements committed via other members are not visible to this member
+		this.replayLog = new ReplayLog<>((configuration.getDispatcherFactory() == null) ? configuration.getReplayLogSize() : 0);
 		
 		if (listener != null)
 		{
@@ -192,6 +231,77 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		}
 	}
 	
+	/**
+	 * Synchronizes, using the default strategy, and reactivates the specified databases.
+	 * If supported by the strategy, all databases are synchronized from a single pass over the source database.
+	 * @param databaseIds a set of database identifiers
+	 * @throws IllegalArgumentException if no database exists with any of the specified identifiers.
+	 * @throws IllegalStateException if synchronization fails.
+	 */
+	@ManagedOperation
+	public void activate(String[] databaseIds)
+	{
+		this.activate(databaseIds, this.configuration.getDefaultSynchronizationStrategy());
+	}
+
+	/**
+	 * Synchronizes, using the specified strategy, and reactivates the specified databases.
+	 * If supported by the strategy, all databases are synchronized from a single pass over the source database.
+	 * @param databaseIds a set of database identifiers
+	 * @param strategyId the identifer of a synchronization strategy
+	 * @throws IllegalArgumentException if no database exists with any of the specified identifiers, or no synchronization strategy exists with the specified identifier.
+	 * @throws IllegalStateException if synchronization fails.
+	 */
+	@ManagedOperation
+	public void activate(String[] databaseIds, String strategyId)
+	{
+		SynchronizationStrategy strategy = this.configuration.getSynchronizationStrategyMap().get(strategyId);
+		
+		if (strategy == null)
+		{
+			throw new IllegalArgumentException(messages.invalidSyncStrategy(strategyId, this.configuration.getSynchronizationStrategyMap().keySet()));
+		}
+		
+		List<D> databases = new ArrayList<>(databaseIds.length);
+		
+		for (String databaseId: databaseIds)
+		{
+			databases.add(this.getDatabase(databaseId));
+		}
+		
+		try
+		{
+			for (D database: this.activate(databases, strategy))
+			{
+				logger.log(Level.INFO, messages.activated(this, database));
+			}
+		}
+		catch (SQLException e)
+		{
+			for (D database: databases)
+			{
+				logger.log(Level.WARN, e, messages.activationFailed(this, database));
+			}
+			
+			SQLException exception = e.getNextException();
+			
+			while (exception != null)
+			{
+				logger.log(Level.ERROR, exception);
+				
+				exception = exception.getNextException();
+			}
+
+			throw new IllegalStateException(e.toString());
+		}
+		catch (InterruptedException e)
+		{
+			logger.log(Level.WARN, e);
+			
+			Thread.currentThread().interrupt();
+		}
+	}
+	
 	/**
 	 * Determines whether or not the specified database is responsive
 	 * @param databaseId a database identifier
@@ -345,6 +455,104 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		return this.configuration.getDefaultSynchronizationStrategy();
 	}
 
+	/**
+	 * Returns the maximum number of rows per second read from the source database during synchronization.
+	 * @return a number of rows, or 0 if unlimited
+	 */
+	@ManagedAttribute
+	@Description("The maximum number of rows per second read from the source database during synchronization, or 0 if unlimited")
+	public long getSynchronizationMaxRowsPerSecond()
+	{
+		return this.synchronizationThrottle.getMaxRowsPerSecond();
+	}
+
+	/**
+	 * Limits the number of rows per second read from the source database during synchronization.
+	 * Applies to any synchronization already in progress.
+	 * @param rows a number of rows, or 0 if unlimited
+	 */
+	@ManagedAttribute
+	public void setSynchronizationMaxRowsPerSecond(long rows)
+	{
+		this.synchronizationThrottle.setMaxRowsPerSecond(rows);
+	}
+
+	/**
+	 * Returns the maximum number of bytes per second read from the source database during synchronization.
+	 * @return a number of bytes, or 0 if unlimited
+	 */
+	@ManagedAttribute
+	@Description("The maximum number of bytes per second read from the source database during synchronization, or 0 if unlimited")
+	public long getSynchronizationMaxBytesPerSecond()
+	{
+		return this.synchronizationThrottle.getMaxBytesPerSecond();
+	}
+
+	/**
+	 * Limits the number of bytes per second read from the source database during synchronization.
+	 * Applies to any synchronization already in progress.
+	 * @param bytes a number of bytes, or 0 if unlimited
+	 */
+	@ManagedAttribute
+	public void setSynchronizationMaxBytesPerSecond(long bytes)
+	{
+		this.synchronizationThrottle.setMaxBytesPerSecond(bytes);
+	}
+
+	/**
+	 * Returns the progress of the synchronization currently in progress, if any.
+	 * If several databases are synchronized together, returns the progress of the first of these.
+	 * @return a map of statistic name to value, or an empty map if no synchronization is in progress
+	 */
+	@ManagedAttribute
+	@Description("Returns the tables, rows, bytes, queue depth, throughput, and estimated time remaining of the synchronization in progress")
+	public Map<String, Object> getSynchronizationProgress()
+	{
+		List<SynchronizationProgress> progressList = this.synchronizationProgress;
+		
+		return progressList.isEmpty() ? new LinkedHashMap<String, Object>() : getStatistics(progressList.get(0));
+	}
+
+	/**
+	 * Returns the progress of the synchronization of the specified database, if in progress.
+	 * @param databaseId a database identifier
+	 * @return a map of statistic name to value, or an empty map if the specified database is not being synchronized
+	 * @throws IllegalArgumentException if no database exists with the specified identifier.
+	 */
+	@ManagedOperation
+	@Description("Returns the tables, rows, bytes, queue depth, throughput, and estimated time remaining of the synchronization of the specified database, if in progress")
+	public Map<String, Object> getSynchronizationProgress(String databaseId)
+	{
+		D database = this.getDatabase(databaseId);
+		
+		for (SynchronizationProgress progress: this.synchronizationProgress)
+		{
+			if (progress.getDatabase().equals(database))
+			{
+				return getStatistics(progress);
+			}
+		}
+		
+		return new LinkedHashMap<>();
+	}
+
+	private static Map<String, Object> getStatistics(SynchronizationProgress progress)
+	{
+		SynchronizationProgressEvent event = new SynchronizationProgressEvent(progress.getDatabase(), progress);
+		Map<String, Object> statistics = new LinkedHashMap<>();
+		statistics.put("database", event.getSource());
+		statistics.put("table", event.getTable());
+		statistics.put("tables", event.getTables());
+		statistics.put("completedTables", event.getCompletedTables());
+		statistics.put("rows", event.getRows());
+		statistics.put("bytes", event.getBytes());
+		statistics.put("queueDepth", event.getQueueDepth());
+		statistics.put("rowsPerSecond", event.getRowsPerSecond());
+		statistics.put("bytesPerSecond", event.getBytesPerSecond());
+		statistics.put("estimatedTimeRemaining", event.getEstimatedTimeRemaining());
+		return statistics;
+	}
+
 	/**
 	 * Flushes this cluster's cache of DatabaseMetaData.
 	 */
@@ -573,6 +781,16 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		return this.configuration.getTransactionMode();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getTransactionCompletion()
+	 */
+	@Override
+	public TransactionCompletion getTransactionCompletion()
+	{
+		return this.configuration.getTransactionCompletion();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.DatabaseCluster#getStateManager()
@@ -583,6 +801,172 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		return this.stateManager;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getMetricRegistry()
+	 */
+	@Override
+	public MetricRegistry getMetricRegistry()
+	{
+		return this.metricRegistry;
+	}
+
+	/**
+	 * Returns the names of the metrics recorded by this cluster.
+	 * @return a set of metric names
+	 */
+	@ManagedAttribute
+	@Description("Returns the names of the metrics recorded by this cluster")
+	public Set<String> getMetrics()
+	{
+		return new TreeSet<>(this.metricRegistry.getHistograms().keySet());
+	}
+
+	/**
+	 * Returns the statistics of the specified metric.
+	 * @param name a metric name
+	 * @return a map of statistic name to value, in nanoseconds for latency metrics.
+	 * @throws IllegalArgumentException if no metric exists with the specified name
+	 */
+	@ManagedOperation
+	@Description("Returns the count, mean, max, and percentiles of the specified metric")
+	public Map<String, Number> getMetric(String name)
+	{
+		Histogram histogram = this.metricRegistry.getHistograms().get(name);
+		
+		if (histogram == null)
+		{
+			throw new IllegalArgumentException(name);
+		}
+		
+		Map<String, Number> statistics = new LinkedHashMap<>();
+		statistics.put("count", histogram.getCount());
+		statistics.put("mean", histogram.getMean());
+		statistics.put("max", histogram.getMax());
+		statistics.put("p50", histogram.getValueAtPercentile(50));
+		statistics.put("p90", histogram.getValueAtPercentile(90));
+		statistics.put("p99", histogram.getValueAtPercentile(99));
+		statistics.put("p999", histogram.getValueAtPercentile(99.9));
+		return statistics;
+	}
+
+	/**
+	 * Discards all recorded metrics.
+	 */
+	@ManagedOperation
+	@Description("Discards all recorded metrics")
+	public void resetMetrics()
+	{
+		this.metricRegistry.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getShadowReader()
+	 */
+	@Override
+	public ShadowReader<Z, D> getShadowReader()
+	{
+		return this.shadowReader;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getReplayLog()
+	 */
+	@Override
+	public ReplayLog<Z, D> getReplayLog()
+	{
+		return this.replayLog;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getInvocationLatencies()
+	 */
+	@Override
+	public InvocationLatencies getInvocationLatencies()
+	{
+		return this.invocationLatencies;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getSequenceAllocator()
+	 */
+	@Override
+	public SequenceAllocator<Z, D> getSequenceAllocator()
+	{
+		return this.sequenceAllocator;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getIdentityColumnAllocator()
+	 */
+	@Override
+	public IdentityColumnAllocator<Z, D> getIdentityColumnAllocator()
+	{
+		return this.identityColumnAllocator;
+	}
+
+	/**
+	 * Returns the fraction of single-database reads that are verified against another database.
+	 * @return a ratio between 0 and 1
+	 */
+	@ManagedAttribute
+	@Description("The fraction of single-database reads that are verified against another database")
+	public double getShadowReadRatio()
+	{
+		return this.shadowReader.getRatio();
+	}
+
+	/**
+	 * Sets the fraction of single-database reads that are verified against another database.
+	 * @param ratio a ratio between 0 and 1, where 0 disables verification
+	 */
+	@ManagedAttribute
+	public void setShadowReadRatio(double ratio)
+	{
+		this.shadowReader.setRatio(ratio);
+	}
+
+	/**
+	 * Indicates whether a database is deactivated when its results do not match those of the reference database.
+	 * @return true, if mismatches deactivate the database, false if they are only logged
+	 */
+	@ManagedAttribute
+	@Description("Indicates whether a database is deactivated when its results do not match those of the reference database")
+	public boolean isShadowReadDeactivationEnabled()
+	{
+		return this.shadowReader.isDeactivationEnabled();
+	}
+
+	/**
+	 * Enables or disables deactivation of databases whose results do not match those of the reference database.
+	 * @param enabled true, to deactivate mismatching databases, false to only log mismatches
+	 */
+	@ManagedAttribute
+	public void setShadowReadDeactivationEnabled(boolean enabled)
+	{
+		this.shadowReader.setDeactivationEnabled(enabled);
+	}
+
+	/**
+	 * Returns the counts of verified, mismatched, and skipped shadow reads.
+	 * @return a map of statistic name to value
+	 */
+	@ManagedAttribute
+	@Description("Returns the number of verified, mismatched, and skipped shadow reads")
+	public Map<String, Long> getShadowReadStatistics()
+	{
+		Map<String, Long> statistics = new LinkedHashMap<>();
+		statistics.put("verified", this.shadowReader.getVerifiedCount());
+		statistics.put("mismatched", this.shadowReader.getMismatchCount());
+		statistics.put("skipped", this.shadowReader.getSkippedCount());
+		return statistics;
+	}
+
 	@Override
 	public ThreadFactory getThreadFactory()
 	{
@@ -671,6 +1055,16 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		return this.configuration.isSequenceDetectionEnabled();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getStatementCacheSize()
+	 */
+	@Override
+	public int getStatementCacheSize()
+	{
+		return this.configuration.getStatementCacheSize();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.Lifecycle#start()
@@ -688,9 +1082,19 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		
 		if (dispatcherFactory != null)
 		{
+			if (this.configuration.getIdentityBlockSize() > 0)
+			{
+				logger.log(Level.WARN, messages.identityBlockSizeIgnored(this));
+			}
+			
+			if (this.configuration.getReplayLogSize() > 0)
+			{
+				logger.log(Level.WARN, messages.replayLogIgnored(this));
+			}
+			
 			try
 			{
-				this.lockManager = new DistributedLockManager(this, dispatcherFactory);
+				this.lockManager = new DistributedLockManager(this, dispatcherFactory, this.configuration.getLockLeaseTime(), this.configuration.isLockHashingEnabled());
 				this.stateManager = new DistributedStateManager<>(this, dispatcherFactory);
 			}
 			catch (Exception e)
@@ -699,6 +1103,9 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 			}
 		}
 		
+		this.lockManager = new InstrumentedLockManager(this.lockManager, this.metricRegistry);
+		this.stateManager = new InstrumentedStateManager(this.stateManager, this.metricRegistry);
+		
 		this.balancer = this.configuration.getBalancerFactory().createBalancer(new TreeSet<D>());
 		this.dialect = this.configuration.getDialectFactory().createDialect();
 		this.durability = this.configuration.getDurabilityFactory().createDurability(this);
@@ -753,6 +1160,11 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 			// Ignore - cache will initialize lazily.
 		}
 		
+		for (SynchronizationStrategy strategy: this.configuration.getSynchronizationStrategyMap().values())
+		{
+			strategy.init(this);
+		}
+		
 		CronExpression failureDetectionExpression = this.configuration.getFailureDetectionExpression();
 		CronExpression autoActivationExpression = this.configuration.getAutoActivationExpression();
 		int threads = requiredThreads(failureDetectionExpression) + requiredThreads(autoActivationExpression);
@@ -788,6 +1200,17 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 			throw new SQLException(e);
 		}
 
+		this.sequenceAllocator.start();
+		this.identityColumnAllocator.start();
+		this.shadowReader.start();
+		this.clusterListeners.add(this.replayLog);
+		
+		for (MetricsExporter exporter: ServiceLoaders.findServices(MetricsExporter.class))
+		{
+			exporter.start(this);
+			this.metricsExporters.add(exporter);
+		}
+		
 		this.active = true;
 		
 		logger.log(Level.INFO, messages.start(this));
@@ -809,6 +1232,11 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		
 		this.active = false;
 		
+		for (SynchronizationStrategy strategy: this.configuration.getSynchronizationStrategyMap().values())
+		{
+			strategy.destroy(this);
+		}
+		
 		if (this.balancer != null)
 		{
 			// Proactively deactivate any embedded databases
@@ -831,6 +1259,17 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 			}
 		}
 		
+		for (MetricsExporter exporter: this.metricsExporters)
+		{
+			exporter.stop();
+		}
+		this.metricsExporters.clear();
+		
+		this.clusterListeners.remove(this.replayLog);
+		this.shadowReader.stop();
+		this.sequenceAllocator.stop();
+		this.identityColumnAllocator.stop();
+		
 		if (this.cronExecutor != null)
 		{
 			this.cronExecutor.shutdownNow();
@@ -872,7 +1311,82 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 
 	boolean activate(D database, SynchronizationStrategy strategy) throws SQLException, InterruptedException
 	{
-		if (!this.isAlive(database, Level.DEBUG)) return false;
+		return !this.activate(Collections.singletonList(database), strategy).isEmpty();
+	}
+
+	/**
+	 * Catches up the specified inactive database by replaying the statements committed since its deactivation, if possible.
+	 * Must be called while holding the global write lock.
+	 * @return true, if the database was caught up, false if it must be synchronized instead
+	 */
+	private boolean replay(D database)
+	{
+		if (!this.replayLog.isReplayable(database)) return false;
+		
+		try (SynchronizationContext<Z, D> context = new SynchronizationContextImpl<>(this, database))
+		{
+			SynchronizationSupport support = context.getSynchronizationSupport();
+			Connection connection = context.getConnection(database);
+			
+			connection.setAutoCommit(false);
+			
+			try
+			{
+				long statements = this.replayLog.replay(database, connection);
+				
+				connection.commit();
+				
+				logger.log(Level.INFO, messages.replayed(this, database, statements));
+			}
+			catch (SQLException e)
+			{
+				support.rollback(connection);
+				throw e;
+			}
+			
+			support.synchronizeIdentityColumns();
+			support.synchronizeSequences();
+			
+			return true;
+		}
+		catch (SQLException e)
+		{
+			logger.log(Level.WARN, e, messages.replayFailed(this, database));
+			return false;
+		}
+	}
+
+	/**
+	 * Synchronizes and activates the specified databases.
+	 * If the specified strategy supports multiple targets, all databases are synchronized from a single pass over the source database, and activated together.
+	 * Otherwise, each database is synchronized and activated in turn.
+	 * If the cluster has no active databases, the first database is activated as is, and the remaining databases are synchronized from it.
+	 * @return the databases that were activated
+	 */
+	List<D> activate(List<D> databases, SynchronizationStrategy strategy) throws SQLException, InterruptedException
+	{
+		List<D> activated = new ArrayList<>(databases.size());
+		
+		if (!(strategy instanceof MultiTargetSynchronizationStrategy) && (databases.size() > 1))
+		{
+			for (D database: databases)
+			{
+				activated.addAll(this.activate(Collections.singletonList(database), strategy));
+			}
+			return activated;
+		}
+		
+		List<D> targets = new ArrayList<>(databases.size());
+		
+		for (D database: databases)
+		{
+			if (this.isAlive(database, Level.DEBUG))
+			{
+				targets.add(database);
+			}
+		}
+		
+		if (targets.isEmpty()) return activated;
 		
 		Lock lock = this.lockManager.writeLock(null);
 		
@@ -880,33 +1394,51 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		
 		try
 		{
-			if (this.balancer.contains(database)) return false;
-			
-			if (!this.balancer.isEmpty())
+			Iterator<D> iterator = targets.iterator();
+			while (iterator.hasNext())
 			{
-				try (SynchronizationContext<Z, D> context = new SynchronizationContextImpl<>(this, database))
+				D database = iterator.next();
+				
+				if (this.balancer.contains(database))
 				{
-					DatabaseEvent event = new DatabaseEvent(database);
-					
-					logger.log(Level.INFO, messages.synchronizationBegin(this, database, strategy));
-					
-					for (SynchronizationListener listener: this.synchronizationListeners)
-					{
-						listener.beforeSynchronization(event);
-					}
-					
-					strategy.synchronize(context);
-	
-					logger.log(Level.INFO, messages.synchronizationEnd(this, database, strategy));
-					
-					for (SynchronizationListener listener: this.synchronizationListeners)
+					iterator.remove();
+				}
+				else if (!this.balancer.isEmpty() && this.replay(database))
+				{
+					if (this.activate(database, this.stateManager))
 					{
-						listener.afterSynchronization(event);
+						activated.add(database);
 					}
+					iterator.remove();
+				}
+			}
+			
+			if (!targets.isEmpty() && this.balancer.isEmpty())
+			{
+				// An empty cluster adopts the first database as is, from which the remaining databases are synchronized
+				D database = targets.remove(0);
+				
+				if (!this.activate(database, this.stateManager))
+				{
+					return activated;
 				}
+				activated.add(database);
+			}
+			
+			if (!targets.isEmpty())
+			{
+				this.synchronize(targets, strategy);
 			}
 			
-			return this.activate(database, this.stateManager);
+			for (D database: targets)
+			{
+				if (this.activate(database, this.stateManager))
+				{
+					activated.add(database);
+				}
+			}
+			
+			return activated;
 		}
 		finally
 		{
@@ -914,6 +1446,78 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		}
 	}
 
+	/**
+	 * Synchronizes the specified inactive databases from a single active database, tracking the progress of each database separately.
+	 * Must be called while holding the global write lock.
+	 * @param databases a list of inactive databases, containing more than one database only if the specified strategy supports multiple targets
+	 */
+	private void synchronize(List<D> databases, SynchronizationStrategy strategy) throws SQLException
+	{
+		D source = this.balancer.next();
+		List<SynchronizationProgress> progressList = new ArrayList<>(databases.size());
+		List<SynchronizationContext<Z, D>> contexts = new ArrayList<>(databases.size());
+		
+		for (D database: databases)
+		{
+			// Targets are written in lock step, so throttling a single target throttles them all
+			SynchronizationThrottle throttle = progressList.isEmpty() ? this.synchronizationThrottle : new SynchronizationThrottle(0, 0);
+			
+			progressList.add(new SynchronizationProgress(database, throttle, this.synchronizationListeners));
+		}
+		
+		this.synchronizationProgress = progressList;
+		
+		try
+		{
+			for (int i = 0; i < databases.size(); ++i)
+			{
+				contexts.add(new SynchronizationContextImpl<>(this, source, databases.get(i), progressList.get(i), this.configuration.getSynchronizationConstraintThreads()));
+			}
+			
+			for (D database: databases)
+			{
+				DatabaseEvent event = new DatabaseEvent(database);
+				
+				logger.log(Level.INFO, messages.synchronizationBegin(this, database, strategy));
+				
+				for (SynchronizationListener listener: this.synchronizationListeners)
+				{
+					listener.beforeSynchronization(event);
+				}
+			}
+			
+			if (contexts.size() == 1)
+			{
+				strategy.synchronize(contexts.get(0));
+			}
+			else
+			{
+				((MultiTargetSynchronizationStrategy) strategy).synchronize(contexts);
+			}
+			
+			for (D database: databases)
+			{
+				DatabaseEvent event = new DatabaseEvent(database);
+				
+				logger.log(Level.INFO, messages.synchronizationEnd(this, database, strategy));
+				
+				for (SynchronizationListener listener: this.synchronizationListeners)
+				{
+					listener.afterSynchronization(event);
+				}
+			}
+		}
+		finally
+		{
+			for (SynchronizationContext<Z, D> context: contexts)
+			{
+				context.close();
+			}
+			
+			this.synchronizationProgress = Collections.emptyList();
+		}
+	}
+
 	class FailureDetectionTask implements Runnable
 	{
 		@Override
@@ -931,7 +1535,11 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 				
 				for (D database: databases)
 				{
-					if (!DatabaseClusterImpl.this.isAlive(database, Level.WARN))
+					long start = System.nanoTime();
+					boolean alive = DatabaseClusterImpl.this.isAlive(database, Level.WARN);
+					DatabaseClusterImpl.this.metricRegistry.getHistogram(database.getId(), MetricRegistry.FAILURE_DETECTION).record(System.nanoTime() - start);
+					
+					if (!alive)
 					{
 						deadList.add(database);
 					}
@@ -964,22 +1572,48 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 				
 				if (!activeDatabases.isEmpty())
 				{
+					SynchronizationStrategy strategy = DatabaseClusterImpl.this.configuration.getSynchronizationStrategyMap().get(DatabaseClusterImpl.this.configuration.getDefaultSynchronizationStrategy());
+					List<D> inactiveDatabases = new ArrayList<>();
+					
 					for (D database: DatabaseClusterImpl.this.configuration.getDatabaseMap().values())
 					{
 						if (!activeDatabases.contains(database))
 						{
-							try
+							inactiveDatabases.add(database);
+						}
+					}
+					
+					if ((strategy instanceof MultiTargetSynchronizationStrategy) && (inactiveDatabases.size() > 1))
+					{
+						// Try to activate all inactive databases from a single pass over the source database
+						try
+						{
+							for (D database: DatabaseClusterImpl.this.activate(inactiveDatabases, strategy))
 							{
-								if (DatabaseClusterImpl.this.activate(database, DatabaseClusterImpl.this.configuration.getSynchronizationStrategyMap().get(DatabaseClusterImpl.this.configuration.getDefaultSynchronizationStrategy())))
-								{
-									logger.log(Level.INFO, messages.activated(DatabaseClusterImpl.this, database));
-								}
+								logger.log(Level.INFO, messages.activated(DatabaseClusterImpl.this, database));
 							}
-							catch (SQLException e)
+							return;
+						}
+						catch (SQLException e)
+						{
+							logger.log(Level.DEBUG, e);
+						}
+					}
+					
+					// Otherwise, activate each database individually
+					for (D database: inactiveDatabases)
+					{
+						try
+						{
+							if (DatabaseClusterImpl.this.activate(database, strategy))
 							{
-								logger.log(Level.DEBUG, e);
+								logger.log(Level.INFO, messages.activated(DatabaseClusterImpl.this, database));
 							}
 						}
+						catch (SQLException e)
+						{
+							logger.log(Level.DEBUG, e);
+						}
 					}
 				}
 			}
@@ -0,0 +1,137 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.hajdbc.ExecutorServiceProvider;
+import net.sf.hajdbc.util.concurrent.FanOutExecutorService;
+
+/**
+ * Provides an executor that runs the invocation against the primary database in the caller thread, and dispatches invocations against backup databases via a bounded number of threads, bounding the number of outstanding invocations per database.
+ * Optionally, invocations can be dispatched to virtual threads, if supported by the runtime.
+ * @author Paul Ferraro
+ */
+public class FanOutExecutorServiceProvider implements ExecutorServiceProvider, Serializable
+{
+	private static final long serialVersionUID = -1840385406569612727L;
+
+	private volatile int maxThreads = 64;
+	private volatile int maxPending = 64;
+	private volatile boolean virtualThreads = false;
+
+	/**
+	 * @return the maximum number of platform threads
+	 */
+	public int getMaxThreads()
+	{
+		return this.maxThreads;
+	}
+
+	/**
+	 * @param maxThreads the maximum number of platform threads
+	 */
+	public void setMaxThreads(int maxThreads)
+	{
+		this.maxThreads = maxThreads;
+	}
+
+	/**
+	 * @return the maximum number of outstanding invocations per database
+	 */
+	public int getMaxPending()
+	{
+		return this.maxPending;
+	}
+
+	/**
+	 * @param maxPending the maximum number of outstanding invocations per database, beyond which invocations are executed by the caller
+	 */
+	public void setMaxPending(int maxPending)
+	{
+		this.maxPending = maxPending;
+	}
+
+	/**
+	 * @return true, if invocations are dispatched to virtual threads, when supported by the runtime
+	 */
+	public boolean isVirtualThreads()
+	{
+		return this.virtualThreads;
+	}
+
+	/**
+	 * @param virtualThreads indicates whether invocations should be dispatched to virtual threads, when supported by the runtime
+	 */
+	public void setVirtualThreads(boolean virtualThreads)
+	{
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.ExecutorServiceProvider#getExecutor(java.util.concurrent.ThreadFactory)
+	 */
+	@Override
+	public ExecutorService getExecutor(ThreadFactory threadFactory)
+	{
+		ExecutorService executor = this.virtualThreads ? createVirtualThreadPerTaskExecutor() : null;
+		
+		if (executor == null)
+		{
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(this.maxThreads, this.maxThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		
+		return new FanOutExecutorService(executor, this.maxPending);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.ExecutorServiceProvider#release(java.util.concurrent.ExecutorService)
+	 */
+	@Override
+	public void release(ExecutorService executor)
+	{
+		executor.shutdown();
+	}
+	
+	/**
+	 * Creates an executor that runs each task in a new virtual thread.
+	 * Resolved reflectively, since virtual threads are only available on Java 21+.
+	 * @return an executor, or null if the runtime does not support virtual threads
+	 */
+	private static ExecutorService createVirtualThreadPerTaskExecutor()
+	{
+		try
+		{
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return null;
+		}
+	}
+}
@@ -19,16 +19,30 @@ package net.sf.hajdbc.sql;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
 import net.sf.hajdbc.ExceptionType;
+import net.sf.hajdbc.TransactionCompletion;
 import net.sf.hajdbc.durability.Durability;
 import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.invocation.LockingInvocationStrategy;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.replay.ReplayLog;
+import net.sf.hajdbc.replay.ReplayTransaction;
+import net.sf.hajdbc.state.StateManager;
 import net.sf.hajdbc.tx.TransactionIdentifierFactory;
+import net.sf.hajdbc.util.concurrent.Lanes;
 
 /**
  * @author Paul Ferraro
@@ -37,19 +51,30 @@ import net.sf.hajdbc.tx.TransactionIdentifierFactory;
  */
 public class LocalTransactionContext<Z, D extends Database<Z>> implements TransactionContext<Z, D>
 {
+	private static final Logger logger = LoggerFactory.getLogger(LocalTransactionContext.class);
+	private static final Messages messages = MessagesFactory.getMessages();
+	
+	private final DatabaseCluster<Z, D> cluster;
 	final Durability<Z, D> durability;
 	private final Lock lock;
 	private final TransactionIdentifierFactory<? extends Object> transactionIdFactory;
+	private final ReplayLog<Z, D> replayLog;
+	final ReplayTransaction<Z, D> replay;
+	private final Lanes lanes = new Lanes();
 	volatile Object transactionId;
+	volatile boolean deferrable = false;
 	
 	/**
 	 * @param cluster
 	 */
 	public LocalTransactionContext(DatabaseCluster<Z, D> cluster)
 	{
+		this.cluster = cluster;
 		this.lock = cluster.getLockManager().readLock(null);
 		this.durability = cluster.getDurability();
 		this.transactionIdFactory = cluster.getTransactionIdentifierFactory();
+		this.replayLog = cluster.getReplayLog();
+		this.replay = new ReplayTransaction<>(this.replayLog);
 	}
 	
 	/**
@@ -59,7 +84,7 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 	@Override
 	public InvocationStrategy start(final InvocationStrategy strategy, final Connection connection) throws SQLException
 	{
-		if (this.transactionId != null) return strategy;
+		if (this.transactionId != null) return this.replay.record(strategy);
 		
 		if (connection.getAutoCommit())
 		{
@@ -74,7 +99,7 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 					{
 						InvocationStrategy durabilityStrategy = LocalTransactionContext.this.durability.getInvocationStrategy(strategy, Durability.Phase.COMMIT, LocalTransactionContext.this.transactionId);
 						
-						return durabilityStrategy.invoke(proxy, invoker);
+						return LocalTransactionContext.this.replay.commit(LocalTransactionContext.this.replay.record(durabilityStrategy)).invoke(proxy, invoker);
 					}
 					finally
 					{
@@ -84,16 +109,20 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 			};
 		}
 		
+		// Writes that acquire locks of their own must complete against every database before releasing them
+		final boolean deferrable = !(strategy instanceof LockingInvocationStrategy) || !((LockingInvocationStrategy) strategy).isLocking();
+		
 		return new InvocationStrategy()
 		{
 			@Override
 			public <ZZ, DD extends Database<ZZ>, T, R, E extends Exception> SortedMap<DD, R> invoke(ProxyFactory<ZZ, DD, T, E> proxy, Invoker<ZZ, DD, T, R, E> invoker) throws E
 			{
 				LocalTransactionContext.this.lock();
+				LocalTransactionContext.this.deferrable = deferrable;
 				
 				try
 				{
-					return strategy.invoke(proxy, invoker);
+					return LocalTransactionContext.this.replay.record(strategy).invoke(proxy, invoker);
 				}
 				catch (Throwable e)
 				{
@@ -101,6 +130,7 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 				} 
 				finally 
 				{
+					LocalTransactionContext.this.deferrable = false;
 					LocalTransactionContext.this.unlock();
 				}
 			}
@@ -133,7 +163,8 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 	@Override
 	public InvocationStrategy end(final InvocationStrategy strategy, final Durability.Phase phase)
 	{
-		if (this.transactionId == null) return strategy;
+		// Writes within a transaction release the lock once executed, but their statements must still be logged when the transaction commits
+		if (this.transactionId == null) return (phase == Durability.Phase.COMMIT) ? this.replay.commit(strategy) : this.replay.rollback(strategy);
 
 		return new InvocationStrategy()
 		{
@@ -141,10 +172,11 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 			public <ZZ, DD extends Database<ZZ>, T, R, E extends Exception> SortedMap<DD, R> invoke(ProxyFactory<ZZ, DD, T, E> proxy, Invoker<ZZ, DD, T, R, E> invoker) throws E
 			{
 				InvocationStrategy durabilityStrategy = LocalTransactionContext.this.durability.getInvocationStrategy(strategy, phase, LocalTransactionContext.this.transactionId);
+				ReplayTransaction<Z, D> replay = LocalTransactionContext.this.replay;
 				
 				try
 				{
-					return durabilityStrategy.invoke(proxy, invoker);
+					return ((phase == Durability.Phase.COMMIT) ? replay.commit(durabilityStrategy) : replay.rollback(durabilityStrategy)).invoke(proxy, invoker);
 				}
 				finally
 				{
@@ -166,15 +198,74 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 		return this.durability.getInvoker(invoker, phase, this.transactionId, ExceptionType.SQL.<SQLException>getExceptionFactory());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.sql.TransactionContext#getTransactionExecutor(boolean)
+	 */
+	@Override
+	public ExecutorService getTransactionExecutor(boolean end)
+	{
+		// Only writes within a transaction may be left pending, since an auto-commit must complete against every database before the durability and replay logs record it
+		TransactionCompletion completion = this.deferrable ? this.cluster.getTransactionCompletion() : TransactionCompletion.ALL;
+		
+		return this.cluster.getTransactionMode().getTransactionExecutor(this.cluster.getExecutor(), this.lanes, completion, end);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.sql.TransactionContext#await()
+	 */
+	@Override
+	public void await()
+	{
+		Map<Object, Throwable> failures = this.lanes.await();
+		
+		if (failures.isEmpty()) return;
+		
+		// Writes are only left pending once they succeed against the primary database, so deactivate each database against which one failed
+		StateManager stateManager = this.cluster.getStateManager();
+		
+		for (D database: new ArrayList<>(this.cluster.getBalancer()))
+		{
+			Throwable failure = failures.get(database);
+			
+			if ((failure != null) && this.cluster.deactivate(database, stateManager))
+			{
+				logger.log(Level.ERROR, failure, messages.deactivated(this.cluster, database));
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.sql.TransactionContext#invalidate()
+	 */
+	@Override
+	public void invalidate()
+	{
+		if (this.transactionId != null)
+		{
+			this.replay.invalidate();
+		}
+		else
+		{
+			// Write was already committed
+			this.replayLog.invalidate();
+		}
+	}
+
 	/**
 	 * @see net.sf.hajdbc.sql.TransactionContext#close()
 	 */
 	@Override
 	public void close()
 	{
+		this.lanes.clear();
+		
 		// Tsk, tsk... User neglected to commit/rollback transaction
 		if (this.transactionId != null)
 		{
+			this.replay.clear();
 			this.unlock();
 		}
 	}
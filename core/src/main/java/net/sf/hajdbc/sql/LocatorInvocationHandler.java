@@ -77,5 +77,24 @@ public abstract class LocatorInvocationHandler<Z, D extends Database<Z>, P, T, F
 		{
 			this.getProxyFactory().remove();
 		}
+		else if (this.writeMethods.contains(method) && !this.getProxyFactory().locatorsUpdateCopy())
+		{
+			// Locator writes update the database directly, and so cannot be replayed
+			ProxyFactory<Z, D, ?, ?> factory = this.getProxyFactory().getParent();
+			
+			while ((factory instanceof ChildProxyFactory) && !(factory instanceof TransactionalProxyFactory))
+			{
+				factory = ((ChildProxyFactory<Z, D, ?, ?, ?, ?>) factory).getParent();
+			}
+			
+			if (factory instanceof TransactionalProxyFactory)
+			{
+				((TransactionalProxyFactory<?, ?, ?, ?>) factory).getTransactionContext().invalidate();
+			}
+			else
+			{
+				this.getProxyFactory().getDatabaseCluster().getReplayLog().invalidate();
+			}
+		}
 	}
 }
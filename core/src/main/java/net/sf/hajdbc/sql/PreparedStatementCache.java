@@ -0,0 +1,181 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.DatabaseClusterListener;
+import net.sf.hajdbc.state.DatabaseEvent;
+
+/**
+ * Least-recently-used cache of the prepared statements of a single logical connection.
+ * A cached statement retains its underlying statement for each active database across logical {@link java.sql.PreparedStatement#close()}.
+ * Statements are cached by the SQL and result set options passed to {@link java.sql.Connection#prepareStatement(String)}, and are removed from the cache while in use.
+ * Since cached statements do not reflect a change in the set of active databases, the cache is emptied whenever a database is activated or deactivated.
+ * @author Paul Ferraro
+ */
+public class PreparedStatementCache<Z, D extends Database<Z>> implements DatabaseClusterListener
+{
+	private final DatabaseCluster<Z, D> cluster;
+	private final int size;
+	private final Map<List<Object>, PreparedStatementProxyFactory<Z, D>> statements;
+	
+	/**
+	 * Creates a new prepared statement cache.
+	 * @param cluster the database cluster
+	 * @param size the maximum number of statements to retain
+	 */
+	public PreparedStatementCache(DatabaseCluster<Z, D> cluster, int size)
+	{
+		this.cluster = cluster;
+		this.size = size;
+		this.statements = new LinkedHashMap<>(size, 0.75f, true);
+		
+		cluster.addListener(this);
+	}
+
+	/**
+	 * Creates a cache key for the specified prepareStatement(...) invocation.
+	 * @param method a Connection.prepareStatement(...) method
+	 * @param parameters the method parameters
+	 * @return a cache key
+	 */
+	public static List<Object> key(Method method, Object... parameters)
+	{
+		List<Object> key = new ArrayList<>(parameters.length + 1);
+		
+		key.add(method);
+		
+		for (Object parameter: parameters)
+		{
+			if (parameter instanceof int[])
+			{
+				int[] values = (int[]) parameter;
+				List<Integer> list = new ArrayList<>(values.length);
+				for (int value: values)
+				{
+					list.add(value);
+				}
+				key.add(list);
+			}
+			else if (parameter instanceof Object[])
+			{
+				key.add(Arrays.asList((Object[]) parameter));
+			}
+			else
+			{
+				key.add(parameter);
+			}
+		}
+		
+		return key;
+	}
+
+	/**
+	 * Removes the cached statement for the specified key, for exclusive use by a new logical statement.
+	 * @param key a cache key
+	 * @return a statement factory, or null, if no statement was cached for the specified key
+	 */
+	public synchronized PreparedStatementProxyFactory<Z, D> take(List<Object> key)
+	{
+		return this.statements.remove(key);
+	}
+	
+	/**
+	 * Returns the specified statement to the cache, evicting the least recently used statement if the cache is full.
+	 * @param key a cache key
+	 * @param factory a statement factory
+	 */
+	public void offer(List<Object> key, PreparedStatementProxyFactory<Z, D> factory)
+	{
+		List<PreparedStatementProxyFactory<Z, D>> evicted = new ArrayList<>(1);
+		
+		synchronized (this)
+		{
+			PreparedStatementProxyFactory<Z, D> existing = this.statements.put(key, factory);
+			
+			if (existing != null)
+			{
+				evicted.add(existing);
+			}
+			
+			if (this.statements.size() > this.size)
+			{
+				Iterator<PreparedStatementProxyFactory<Z, D>> statements = this.statements.values().iterator();
+				
+				evicted.add(statements.next());
+				statements.remove();
+			}
+		}
+		
+		for (PreparedStatementProxyFactory<Z, D> statement: evicted)
+		{
+			statement.discard();
+		}
+	}
+	
+	/**
+	 * Closes all cached statements.
+	 */
+	public void clear()
+	{
+		List<PreparedStatementProxyFactory<Z, D>> evicted;
+		
+		synchronized (this)
+		{
+			evicted = new ArrayList<>(this.statements.values());
+			
+			this.statements.clear();
+		}
+		
+		for (PreparedStatementProxyFactory<Z, D> statement: evicted)
+		{
+			statement.discard();
+		}
+	}
+	
+	/**
+	 * Closes all cached statements, and stops listening for database activation and deactivation.
+	 */
+	public void close()
+	{
+		this.cluster.removeListener(this);
+		
+		this.clear();
+	}
+	
+	@Override
+	public void activated(DatabaseEvent event)
+	{
+		this.clear();
+	}
+
+	@Override
+	public void deactivated(DatabaseEvent event)
+	{
+		this.clear();
+	}
+}
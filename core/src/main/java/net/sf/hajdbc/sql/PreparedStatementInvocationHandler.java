@@ -19,6 +19,7 @@ package net.sf.hajdbc.sql;
 
 import java.lang.reflect.Method;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Set;
 
 import net.sf.hajdbc.Database;
@@ -31,9 +32,38 @@ import net.sf.hajdbc.util.reflect.Methods;
 public class PreparedStatementInvocationHandler<Z, D extends Database<Z>> extends AbstractPreparedStatementInvocationHandler<Z, D, PreparedStatement, PreparedStatementProxyFactory<Z, D>>
 {
 	private static final Set<Method> setMethods = Methods.findMethods(PreparedStatement.class, "set\\w+");
+	private static final Method closeMethod = Methods.getMethod(PreparedStatement.class, "close");
+	private static final Method isClosedMethod = Methods.getMethod(PreparedStatement.class, "isClosed");
+	
+	// Indicates whether this logical statement was closed, and its underlying statements returned to the statement cache
+	private volatile boolean released = false;
 	
 	public PreparedStatementInvocationHandler(PreparedStatementProxyFactory<Z, D> proxyFactory)
 	{
 		super(PreparedStatement.class, proxyFactory, setMethods);
 	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+	{
+		if (this.released && !method.getDeclaringClass().equals(Object.class))
+		{
+			if (method.equals(isClosedMethod)) return Boolean.TRUE;
+			if (method.equals(closeMethod)) return null;
+			
+			throw new SQLException(this.messages.statementClosed());
+		}
+		
+		if (method.equals(closeMethod))
+		{
+			// Since the underlying statements may be reused as soon as they are released, this logical statement must be closed beforehand
+			this.released = true;
+			
+			if (this.getProxyFactory().release()) return null;
+			
+			this.released = false;
+		}
+		
+		return super.invoke(proxy, method, args);
+	}
 }
@@ -17,6 +17,7 @@
  */
 package net.sf.hajdbc.sql;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -26,6 +27,7 @@ import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.logging.Level;
 import net.sf.hajdbc.util.reflect.Proxies;
 
 /**
@@ -34,9 +36,12 @@ import net.sf.hajdbc.util.reflect.Proxies;
  */
 public class PreparedStatementProxyFactory<Z, D extends Database<Z>> extends AbstractPreparedStatementProxyFactory<Z, D, PreparedStatement>
 {
-	protected PreparedStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, PreparedStatement, SQLException> invoker, Map<D, PreparedStatement> map, TransactionContext<Z, D> context, List<Lock> locks, boolean selectForUpdate)
+	private volatile PreparedStatementCache<Z, D> cache;
+	private volatile List<Object> cacheKey;
+	
+	protected PreparedStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, PreparedStatement, SQLException> invoker, Map<D, PreparedStatement> map, TransactionContext<Z, D> context, List<Lock> locks, boolean selectForUpdate, String affinityTable, boolean replayable)
 	{
-		super(parent, parentFactory, invoker, map, context, locks, selectForUpdate);
+		super(parent, parentFactory, invoker, map, context, locks, selectForUpdate, affinityTable, replayable);
 	}
 
 	@Override
@@ -44,4 +49,79 @@ public class PreparedStatementProxyFactory<Z, D extends Database<Z>> extends Abs
 	{
 		return Proxies.createProxy(PreparedStatement.class, new PreparedStatementInvocationHandler<>(this));
 	}
+
+	/**
+	 * Indicates that this statement should be returned to the specified cache, rather than closed, on logical close.
+	 * @param cache a prepared statement cache
+	 * @param key the cache key of this statement
+	 */
+	public void setCache(PreparedStatementCache<Z, D> cache, List<Object> key)
+	{
+		this.cache = cache;
+		this.cacheKey = key;
+	}
+
+	/**
+	 * Resets this statement and returns it to its cache, if any.
+	 * Open result sets are closed, and parameters and batches are cleared.
+	 * Statements whose properties were modified (e.g. via setMaxRows(...)) are not cached, since these properties would leak into subsequent uses.
+	 * @return true, if this statement was returned to its cache, false if it should be closed.
+	 */
+	public boolean release()
+	{
+		PreparedStatementCache<Z, D> cache = this.cache;
+		
+		if ((cache == null) || !this.getRecordedInvokers().isEmpty()) return false;
+		
+		// Statements are reset directly, so wait for any writes left pending by the transaction mode
+		this.getTransactionContext().await();
+		
+		for (ChildProxyFactory<Z, D, PreparedStatement, SQLException, ?, ? extends Exception> child: this.children())
+		{
+			for (Map.Entry<D, PreparedStatement> entry: this.entries())
+			{
+				child.close(entry.getKey());
+			}
+		}
+		this.removeChildren();
+		
+		try
+		{
+			for (Map.Entry<D, PreparedStatement> entry: this.entries())
+			{
+				PreparedStatement statement = entry.getValue();
+				
+				statement.clearParameters();
+				statement.clearBatch();
+				statement.clearWarnings();
+			}
+			
+			this.getInputSinkRegistry().close();
+		}
+		catch (SQLException | IOException e)
+		{
+			this.logger.log(Level.DEBUG, e);
+			return false;
+		}
+		
+		this.clearParameterInvokers();
+		this.clearBatch();
+		this.clearBatchInvokers();
+		
+		cache.offer(this.cacheKey, this);
+		
+		return true;
+	}
+
+	/**
+	 * Closes the underlying statements of a statement that was evicted from its cache.
+	 */
+	public void discard()
+	{
+		for (Map.Entry<D, PreparedStatement> entry: this.entries())
+		{
+			this.close(entry.getKey());
+		}
+		this.remove();
+	}
 }
@@ -38,17 +38,21 @@ public class PreparedStatementProxyFactoryFactory<Z, D extends Database<Z>> impl
 	private final TransactionContext<Z, D> context;
 	private final List<Lock> locks;
 	private final boolean selectForUpdate;
+	private final String affinityTable;
+	private final boolean replayable;
 	
-	public PreparedStatementProxyFactoryFactory(TransactionContext<Z, D> context, List<Lock> locks, boolean selectForUpdate)
+	public PreparedStatementProxyFactoryFactory(TransactionContext<Z, D> context, List<Lock> locks, boolean selectForUpdate, String affinityTable, boolean replayable)
 	{
 		this.context = context;
 		this.locks = locks;
 		this.selectForUpdate = selectForUpdate;
+		this.affinityTable = affinityTable;
+		this.replayable = replayable;
 	}
 	
 	@Override
 	public ProxyFactory<Z, D, PreparedStatement, SQLException> createProxyFactory(Connection connection, ProxyFactory<Z, D, Connection, SQLException> parent, Invoker<Z, D, Connection, PreparedStatement, SQLException> invoker, Map<D, PreparedStatement> statements)
 	{
-		return new PreparedStatementProxyFactory<>(connection, parent, invoker, statements, this.context, this.locks, this.selectForUpdate);
+		return new PreparedStatementProxyFactory<>(connection, parent, invoker, statements, this.context, this.locks, this.selectForUpdate, this.affinityTable, this.replayable);
 	}
 }
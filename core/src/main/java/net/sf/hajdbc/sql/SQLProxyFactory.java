@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.InvocationStrategy;
 
 /**
  * 
@@ -32,10 +33,49 @@ public interface SQLProxyFactory<Z, D extends Database<Z>, P, T> extends Transac
 {
 	String evaluate(final String sql);
 	
+	/**
+	 * Replaces the sequence expression of the specified SQL statement with a pre-allocated sequence value, if possible.
+	 * @param sql a SQL statement
+	 * @return a SQL statement that no longer references a sequence, or the original statement
+	 * @throws SQLException if a block of sequence values could not be reserved
+	 */
+	String evaluateSequence(String sql) throws SQLException;
+	
+	/**
+	 * Adds a pre-allocated identity value to the specified single row INSERT statement, if possible.
+	 * @param sql a SQL statement
+	 * @return a SQL statement that explicitly specifies its identity column, or the original statement
+	 * @throws SQLException if a block of identity values could not be reserved
+	 */
+	String evaluateIdentityColumn(String sql) throws SQLException;
+	
 	List<Lock> extractLocks(String sql) throws SQLException;
 	
+	/**
+	 * Indicates whether the specified SQL statement can be replayed against a database that was briefly inactive.
+	 * Statements that generate sequence or identity values cannot be replayed, since that database would generate its own values, unless these values were pre-allocated.
+	 * @param sql a SQL statement
+	 * @return true, if the specified statement can be replayed, false otherwise
+	 * @throws SQLException if the table of an INSERT statement could not be found
+	 */
+	boolean isReplayable(String sql) throws SQLException;
+	
 	boolean isSelectForUpdate(String sql) throws SQLException;
 	
+	/**
+	 * Parses the table by which reads of the specified SQL are routed.
+	 * @param sql a SQL statement
+	 * @return a table name, or null if the balancer of this cluster does not route reads by affinity, or if no table could be parsed
+	 */
+	String parseAffinityTable(String sql);
+	
+	/**
+	 * Returns the strategy used to execute a read against a single database.
+	 * @param table the table read by the statement, or null if unknown
+	 * @return an invocation strategy
+	 */
+	InvocationStrategy getReadInvocationStrategy(String table);
+	
 	Connection getConnection(D database) throws SQLException;
 
 	boolean locatorsUpdateCopy() throws SQLException;
@@ -19,6 +19,7 @@ package net.sf.hajdbc.sql;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.durability.Durability;
@@ -73,6 +74,23 @@ public interface TransactionContext<Z, D extends Database<Z>> extends AutoClosea
 	 */
 	<T, R> Invoker<Z, D, T, R, SQLException> end(Invoker<Z, D, T, R, SQLException> invoker, Durability.Phase phase) throws SQLException;
 	
+	/**
+	 * Returns the executor with which to invoke a transactional write against each database within this context.
+	 * @param end indicates whether the write ends the current transaction
+	 * @return an executor service
+	 */
+	ExecutorService getTransactionExecutor(boolean end);
+	
+	/**
+	 * Waits for any writes left pending by the transaction mode, deactivating each database against which a pending write failed.
+	 */
+	void await();
+	
+	/**
+	 * Indicates that a write was performed that cannot be replayed, e.g. a rollback to a savepoint.
+	 */
+	void invalidate();
+	
 	/**
 	 * Closes this transaction context.
 	 */
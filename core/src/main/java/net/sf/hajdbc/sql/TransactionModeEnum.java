@@ -20,7 +20,11 @@ package net.sf.hajdbc.sql;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 
+import net.sf.hajdbc.TransactionCompletion;
+import net.sf.hajdbc.TransactionLanes;
 import net.sf.hajdbc.TransactionMode;
+import net.sf.hajdbc.util.concurrent.Lanes;
+import net.sf.hajdbc.util.concurrent.OrderedExecutor;
 import net.sf.hajdbc.util.concurrent.SynchronousExecutor;
 
 /**
@@ -28,20 +32,45 @@ import net.sf.hajdbc.util.concurrent.SynchronousExecutor;
  */
 public enum TransactionModeEnum implements TransactionMode
 {
-	PARALLEL(false),
-	SERIAL(true),
-	;
-	private final boolean synchronous;
-	
-	private TransactionModeEnum(boolean synchronous)
+	PARALLEL()
 	{
-		this.synchronous = synchronous;
-	}
-	
+		@Override
+		public ExecutorService getTransactionExecutor(ExecutorService executor, TransactionLanes lanes, TransactionCompletion completion, boolean end)
+		{
+			return executor;
+		}
+	},
+	SERIAL()
+	{
+		@Override
+		public ExecutorService getTransactionExecutor(ExecutorService executor, TransactionLanes lanes, TransactionCompletion completion, boolean end)
+		{
+			return new SynchronousExecutor(executor, end);
+		}
+	},
+	/**
+	 * Executes against the primary database in the caller thread, and against each backup database via an ordered lane per database, per transaction.
+	 * Backup databases proceed concurrently, but never reorder the statements of a transaction; the caller waits according to the {@link TransactionCompletion}.
+	 */
+	ORDERED()
+	{
+		@Override
+		public ExecutorService getTransactionExecutor(ExecutorService executor, TransactionLanes lanes, TransactionCompletion completion, boolean end)
+		{
+			return new OrderedExecutor(executor, lanes, completion, end);
+		}
+	},
+	;
+
+	/**
+	 * Writes are executed via lanes of their own, and always complete against every database, i.e. are never left pending.
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.TransactionMode#getTransactionExecutor(java.util.concurrent.ExecutorService, boolean)
+	 */
 	@Override
 	public ExecutorService getTransactionExecutor(ExecutorService executor, boolean end)
 	{
-		return this.synchronous ? new SynchronousExecutor(executor, end) : executor;
+		return this.getTransactionExecutor(executor, new Lanes(), TransactionCompletion.ALL, end);
 	}
 
 	@Override
@@ -42,6 +42,7 @@ import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.sql.ChildInvocationHandler;
 import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.sql.TransactionalProxyFactory;
 import net.sf.hajdbc.util.StaticRegistry;
 import net.sf.hajdbc.util.reflect.Methods;
 
@@ -57,6 +58,7 @@ public class XAResourceInvocationHandler extends ChildInvocationHandler<XADataSo
 	private static final Set<Method> intraTransactionMethodSet = Methods.findMethods(XAResource.class, "prepare", "end", "recover");
 	private static final Method prepareMethod = Methods.getMethod(XAResource.class, "prepare", Xid.class);
 	private static final Method startMethod = Methods.getMethod(XAResource.class, "start", Xid.class, Integer.TYPE);
+	private static final Method endMethod = Methods.getMethod(XAResource.class, "end", Xid.class, Integer.TYPE);
 	private static final Method commitMethod = Methods.getMethod(XAResource.class, "commit", Xid.class, Boolean.TYPE);
 	private static final Method rollbackMethod = Methods.getMethod(XAResource.class, "rollback", Xid.class);
 	private static final Method forgetMethod = Methods.getMethod(XAResource.class, "forget", Xid.class);
@@ -131,7 +133,9 @@ public class XAResourceInvocationHandler extends ChildInvocationHandler<XADataSo
 			Durability.Phase phase = phaseRegistry.get(method);
 			if (phase != null)
 			{
-				final InvocationStrategy durabilityStrategy = cluster.getDurability().getInvocationStrategy(strategy, phase, xid);
+				InvocationStrategy phaseStrategy = cluster.getDurability().getInvocationStrategy(strategy, phase, xid);
+				// Global transactions are not logged for replay
+				final InvocationStrategy durabilityStrategy = method.equals(commitMethod) ? cluster.getReplayLog().invalidate(phaseStrategy) : phaseStrategy;
 				
 				if (endTransactionMethodSet.contains(method))
 				{
@@ -191,5 +195,15 @@ public class XAResourceInvocationHandler extends ChildInvocationHandler<XADataSo
 		{
 			this.getProxyFactory().record(invoker);
 		}
+		else if (method.equals(endMethod))
+		{
+			// Statements executed as part of a global transaction must not be replayed as part of a local transaction
+			ProxyFactory<XADataSource, XADataSourceDatabase, XAConnection, SQLException> parent = this.getProxyFactory().getParent();
+			
+			if (parent instanceof TransactionalProxyFactory)
+			{
+				((TransactionalProxyFactory<XADataSource, XADataSourceDatabase, ?, ?>) parent).getTransactionContext().invalidate();
+			}
+		}
 	}
 }
@@ -0,0 +1,493 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.SynchronizationStrategy;
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.UniqueConstraint;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.util.Objects;
+import net.sf.hajdbc.util.Strings;
+
+/**
+ * Synchronization strategy that chooses, per table, between a full copy, a differential comparison, or no synchronization at all,
+ * based on the estimated divergence between the active database and the inactive database.
+ * The following algorithm is used:
+ * <ol>
+ *  <li>For each database table, sample:
+ *   <ol>
+ *    <li>The row count, and the range of the leading primary key column, of both tables</li>
+ *    <li>The leading rows of both tables, in primary key order</li>
+ *   </ol>
+ *  </li>
+ *  <li>Estimate the cost, in rows read plus weighted rows written, of a full copy vs a differential comparison of each table</li>
+ *  <li>Log the resulting plan</li>
+ *  <li>Synchronize each table using the cheapest strategy</li>
+ * </ol>
+ * Tables without a primary key are always copied in full.
+ * By default, every table is synchronized, since a sample cannot detect differences beyond its leading rows.
+ * If {@link #setSkipUnchanged(boolean)} is enabled, tables whose samples are identical are skipped.
+ * @author Paul Ferraro
+ */
+public class AdaptiveSynchronizationStrategy implements SynchronizationStrategy
+{
+	private static final long serialVersionUID = -5186361962925591740L;
+	
+	// Relative cost of writing a row vs reading a row
+	static final int WRITE_COST = 4;
+
+	static Messages messages = MessagesFactory.getMessages();
+	static Logger logger = LoggerFactory.getLogger(AdaptiveSynchronizationStrategy.class);
+
+	private final FullSynchronizationStrategy full = new FullSynchronizationStrategy();
+	private final DifferentialSynchronizationStrategy diff = new DifferentialSynchronizationStrategy();
+	private final PassiveSynchronizationStrategy passive = new PassiveSynchronizationStrategy();
+	private int sampleSize = 100;
+	private boolean skipUnchanged = false;
+
+	@Override
+	public String getId()
+	{
+		return "adaptive";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.SynchronizationStrategy#init(net.sf.hajdbc.DatabaseCluster)
+	 */
+	@Override
+	public <Z, D extends Database<Z>> void init(DatabaseCluster<Z, D> cluster)
+	{
+		this.full.init(cluster);
+		this.diff.init(cluster);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.SynchronizationStrategy#destroy(net.sf.hajdbc.DatabaseCluster)
+	 */
+	@Override
+	public <Z, D extends Database<Z>> void destroy(DatabaseCluster<Z, D> cluster)
+	{
+		this.full.destroy(cluster);
+		this.diff.destroy(cluster);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.SynchronizationStrategy#synchronize(net.sf.hajdbc.sync.SynchronizationContext)
+	 */
+	@Override
+	public <Z, D extends Database<Z>> void synchronize(SynchronizationContext<Z, D> context) throws SQLException
+	{
+		Connection sourceConnection = context.getConnection(context.getSourceDatabase());
+		Connection targetConnection = context.getConnection(context.getTargetDatabase());
+		
+		SynchronizationSupport support = context.getSynchronizationSupport();
+		Collection<TableProperties> tables = context.getSourceDatabaseProperties().getTables();
+		
+		Map<TableProperties, TablePlan> plans = new LinkedHashMap<>();
+		int fullTables = 0;
+		int differentialTables = 0;
+		int skippedTables = 0;
+		long cost = 0;
+		
+		for (TableProperties table: tables)
+		{
+			TablePlan plan = this.plan(context, table);
+			
+			logger.log(Level.INFO, messages.tablePlan(table, plan.getStrategy().getId(), plan.getSourceRows(), plan.getTargetRows(), plan.getCost()));
+			
+			if (plan.getStrategy() == this.full)
+			{
+				fullTables += 1;
+			}
+			else if (plan.getStrategy() == this.diff)
+			{
+				differentialTables += 1;
+			}
+			else
+			{
+				skippedTables += 1;
+			}
+			cost += plan.getCost();
+			
+			plans.put(table, plan);
+		}
+		
+		logger.log(Level.INFO, messages.synchronizationPlan(fullTables, differentialTables, skippedTables, cost));
+		
+		// Differential synchronization additionally requires dropping unique constraints
+		TableSynchronizationStrategy constraintStrategy = (differentialTables > 0) ? this.diff : this.full;
+		
+		constraintStrategy.dropConstraints(context);
+		
+		sourceConnection.setAutoCommit(false);
+		targetConnection.setAutoCommit(false);
+		
+		SynchronizationProgress progress = context.getProgress();
+		
+		progress.start(tables.size());
+		
+		for (Map.Entry<TableProperties, TablePlan> entry: plans.entrySet())
+		{
+			TableProperties table = entry.getKey();
+			SynchronizationStrategy strategy = entry.getValue().getStrategy();
+			
+			progress.startTable(table);
+			
+			try
+			{
+				if (strategy instanceof TableSynchronizationStrategy)
+				{
+					((TableSynchronizationStrategy) strategy).synchronize(context, table);
+				}
+				
+				targetConnection.commit();
+				
+				progress.completeTable(table);
+			}
+			catch (SQLException e)
+			{
+				support.rollback(targetConnection);
+				throw e;
+			}
+		}
+		
+		constraintStrategy.restoreConstraints(context);
+		
+		support.synchronizeIdentityColumns();
+		support.synchronizeSequences();
+	}
+
+	/**
+	 * Estimates the divergence of the specified table between the source and target databases, and chooses the cheapest strategy with which to synchronize it.
+	 */
+	private <Z, D extends Database<Z>> TablePlan plan(SynchronizationContext<Z, D> context, TableProperties table) throws SQLException
+	{
+		Connection sourceConnection = context.getConnection(context.getSourceDatabase());
+		Connection targetConnection = context.getConnection(context.getTargetDatabase());
+		
+		String tableName = table.getName().getDMLName();
+		UniqueConstraint primaryKey = table.getPrimaryKey();
+		
+		if (primaryKey == null)
+		{
+			long sourceRows = count(sourceConnection, String.format("SELECT COUNT(*) FROM %s", tableName));
+			return new TablePlan(this.full, sourceRows, -1L, fullCost(sourceRows));
+		}
+		
+		List<String> primaryKeyColumns = primaryKey.getColumnList();
+		String keyColumn = primaryKeyColumns.get(0);
+		String statisticsSQL = String.format("SELECT COUNT(*), MIN(%s), MAX(%s) FROM %s", keyColumn, keyColumn, tableName);
+		
+		Object[] sourceStatistics = statistics(sourceConnection, statisticsSQL);
+		Object[] targetStatistics = statistics(targetConnection, statisticsSQL);
+		
+		long sourceRows = (Long) sourceStatistics[0];
+		long targetRows = (Long) targetStatistics[0];
+		long fullCost = fullCost(sourceRows);
+		
+		if (targetRows == 0)
+		{
+			return new TablePlan(this.full, sourceRows, targetRows, fullCost);
+		}
+		
+		List<String> columns = new ArrayList<>(table.getColumns().size());
+		columns.addAll(primaryKeyColumns);
+		for (String column: table.getColumns())
+		{
+			if (!primaryKeyColumns.contains(column))
+			{
+				columns.add(column);
+			}
+		}
+		
+		String sampleSQL = String.format("SELECT %s FROM %s ORDER BY %s", Strings.join(columns, Strings.PADDED_COMMA), tableName, Strings.join(primaryKeyColumns, Strings.PADDED_COMMA));
+		RowCodec codec = new RowCodec(context.getDialect(), table, columns);
+		
+		long[] sample = this.sample(sourceConnection, targetConnection, sampleSQL, codec, primaryKeyColumns.size());
+		long sampledRows = sample[0];
+		long mismatchedRows = sample[1];
+		
+		boolean unchanged = (sourceRows == targetRows) && (mismatchedRows == 0) && Objects.equals(sourceStatistics[1], targetStatistics[1]) && Objects.equals(sourceStatistics[2], targetStatistics[2]);
+		
+		if (unchanged && this.skipUnchanged)
+		{
+			return new TablePlan(this.passive, sourceRows, targetRows, 0L);
+		}
+		
+		long rows = Math.max(sourceRows, targetRows);
+		double divergence = Math.max((double) Math.abs(sourceRows - targetRows) / rows, (sampledRows > 0) ? (double) mismatchedRows / sampledRows : 0d);
+		long diffCost = sourceRows + targetRows + (long) Math.ceil(divergence * rows) * WRITE_COST;
+		
+		return (diffCost < fullCost) ? new TablePlan(this.diff, sourceRows, targetRows, diffCost) : new TablePlan(this.full, sourceRows, targetRows, fullCost);
+	}
+	
+	private static long fullCost(long sourceRows)
+	{
+		return sourceRows + (sourceRows * WRITE_COST);
+	}
+	
+	private static long count(Connection connection, String sql) throws SQLException
+	{
+		logger.log(Level.DEBUG, sql);
+		
+		try (Statement statement = connection.createStatement())
+		{
+			try (ResultSet resultSet = statement.executeQuery(sql))
+			{
+				return resultSet.next() ? resultSet.getLong(1) : 0L;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the row count, and the minimum and maximum values of the leading primary key column.
+	 */
+	private static Object[] statistics(Connection connection, String sql) throws SQLException
+	{
+		logger.log(Level.DEBUG, sql);
+		
+		try (Statement statement = connection.createStatement())
+		{
+			try (ResultSet resultSet = statement.executeQuery(sql))
+			{
+				if (!resultSet.next())
+				{
+					return new Object[] { 0L, null, null };
+				}
+				return new Object[] { resultSet.getLong(1), resultSet.getObject(2), resultSet.getObject(3) };
+			}
+		}
+	}
+	
+	/**
+	 * Merges the leading rows of the source and target tables, in primary key order.
+	 * Large object columns are not compared.
+	 * @return the number of distinct keys sampled, and the number of those rows that are missing from, or differ between, the source and target tables.
+	 */
+	private long[] sample(Connection sourceConnection, Connection targetConnection, String sql, RowCodec codec, int keyColumns) throws SQLException
+	{
+		logger.log(Level.DEBUG, sql);
+		
+		try (Statement sourceStatement = sourceConnection.createStatement(); Statement targetStatement = targetConnection.createStatement())
+		{
+			sourceStatement.setMaxRows(this.sampleSize);
+			targetStatement.setMaxRows(this.sampleSize);
+			
+			try (ResultSet sourceResultSet = sourceStatement.executeQuery(sql); ResultSet targetResultSet = targetStatement.executeQuery(sql))
+			{
+				Row sourceRow = codec.createRow();
+				Row targetRow = codec.createRow();
+				
+				boolean hasMoreSourceResults = next(sourceResultSet, codec, sourceRow);
+				boolean hasMoreTargetResults = next(targetResultSet, codec, targetRow);
+				
+				long rows = 0;
+				long mismatches = 0;
+				
+				// Rows beyond the end of either sample are indeterminate
+				while (hasMoreSourceResults && hasMoreTargetResults)
+				{
+					int compare = codec.compare(sourceRow, targetRow, keyColumns);
+					
+					rows += 1;
+					
+					if ((compare != 0) || !equals(codec, sourceRow, targetRow))
+					{
+						mismatches += 1;
+					}
+					
+					if (compare <= 0)
+					{
+						hasMoreSourceResults = next(sourceResultSet, codec, sourceRow);
+					}
+					if (compare >= 0)
+					{
+						hasMoreTargetResults = next(targetResultSet, codec, targetRow);
+					}
+				}
+				
+				return new long[] { rows, mismatches };
+			}
+		}
+	}
+	
+	private static boolean next(ResultSet resultSet, RowCodec codec, Row row) throws SQLException
+	{
+		boolean next = resultSet.next();
+		if (next)
+		{
+			codec.read(resultSet, row);
+		}
+		return next;
+	}
+	
+	private static boolean equals(RowCodec codec, Row sourceRow, Row targetRow)
+	{
+		for (int i = 0; i < codec.size(); ++i)
+		{
+			int type = codec.getType(i);
+			
+			if ((type != Types.BLOB) && (type != Types.CLOB) && !codec.equals(sourceRow, targetRow, i, i + 1))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * The strategy chosen to synchronize a given table, and its estimated cost.
+	 */
+	private static class TablePlan
+	{
+		private final SynchronizationStrategy strategy;
+		private final long sourceRows;
+		private final long targetRows;
+		private final long cost;
+		
+		TablePlan(SynchronizationStrategy strategy, long sourceRows, long targetRows, long cost)
+		{
+			this.strategy = strategy;
+			this.sourceRows = sourceRows;
+			this.targetRows = targetRows;
+			this.cost = cost;
+		}
+		
+		SynchronizationStrategy getStrategy()
+		{
+			return this.strategy;
+		}
+		
+		long getSourceRows()
+		{
+			return this.sourceRows;
+		}
+		
+		long getTargetRows()
+		{
+			return this.targetRows;
+		}
+		
+		long getCost()
+		{
+			return this.cost;
+		}
+	}
+
+	/**
+	 * @return the number of leading rows of each table to compare.
+	 */
+	public int getSampleSize()
+	{
+		return this.sampleSize;
+	}
+
+	/**
+	 * @param sampleSize the number of leading rows of each table to compare.
+	 */
+	public void setSampleSize(int sampleSize)
+	{
+		this.sampleSize = sampleSize;
+	}
+
+	/**
+	 * @return true, if tables whose samples are identical are not synchronized, false otherwise.
+	 */
+	public boolean isSkipUnchanged()
+	{
+		return this.skipUnchanged;
+	}
+
+	/**
+	 * @param skipUnchanged indicates whether tables whose samples are identical should not be synchronized.
+	 */
+	public void setSkipUnchanged(boolean skipUnchanged)
+	{
+		this.skipUnchanged = skipUnchanged;
+	}
+
+	/**
+	 * @return the fetchSize.
+	 */
+	public int getFetchSize()
+	{
+		return this.full.getFetchSize();
+	}
+
+	/**
+	 * @param fetchSize the fetchSize to set.
+	 */
+	public void setFetchSize(int fetchSize)
+	{
+		this.full.setFetchSize(fetchSize);
+		this.diff.setFetchSize(fetchSize);
+	}
+
+	/**
+	 * @return the maxBatchSize.
+	 */
+	public int getMaxBatchSize()
+	{
+		return this.full.getMaxBatchSize();
+	}
+
+	/**
+	 * @param maxBatchSize the maxBatchSize to set.
+	 */
+	public void setMaxBatchSize(int maxBatchSize)
+	{
+		this.full.setMaxBatchSize(maxBatchSize);
+		this.diff.setMaxBatchSize(maxBatchSize);
+	}
+
+	/**
+	 * @return the versionPattern
+	 */
+	public String getVersionPattern()
+	{
+		return this.diff.getVersionPattern();
+	}
+
+	/**
+	 * @param versionPattern the versionPattern to set
+	 */
+	public void setVersionPattern(String versionPattern)
+	{
+		this.diff.setVersionPattern(versionPattern);
+	}
+}
@@ -0,0 +1,729 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+
+import net.sf.hajdbc.util.Objects;
+
+/**
+ * Transfers the values of a column of a given JDBC type between result sets, rows, and prepared statements,
+ * using the getter and setter specific to that type, such that primitive values are never boxed.
+ * @author Paul Ferraro
+ */
+public abstract class ColumnCodec
+{
+	private final int type;
+
+	/**
+	 * Returns the codec for columns of the specified JDBC type.
+	 * @param type a JDBC type, as defined in {@link java.sql.Types}
+	 * @return a column codec
+	 */
+	public static ColumnCodec forType(int type)
+	{
+		switch (type)
+		{
+			case Types.BOOLEAN:
+			{
+				return new BooleanColumnCodec(type);
+			}
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+			{
+				return new LongColumnCodec(type);
+			}
+			case Types.REAL:
+			{
+				return new FloatColumnCodec(type);
+			}
+			case Types.FLOAT:
+			case Types.DOUBLE:
+			{
+				return new DoubleColumnCodec(type);
+			}
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+			{
+				return new BigDecimalColumnCodec(type);
+			}
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+			{
+				return new StringColumnCodec(type);
+			}
+			case Types.BINARY:
+			case Types.VARBINARY:
+			case Types.LONGVARBINARY:
+			{
+				return new BytesColumnCodec(type);
+			}
+			case Types.DATE:
+			{
+				return new DateColumnCodec(type);
+			}
+			case Types.TIME:
+			{
+				return new TimeColumnCodec(type);
+			}
+			case Types.TIMESTAMP:
+			{
+				return new TimestampColumnCodec(type);
+			}
+			case Types.BLOB:
+			{
+				return new BlobColumnCodec(type);
+			}
+			case Types.CLOB:
+			{
+				return new ClobColumnCodec(type);
+			}
+			default:
+			{
+				return new ObjectColumnCodec(type);
+			}
+		}
+	}
+
+	ColumnCodec(int type)
+	{
+		this.type = type;
+	}
+
+	/**
+	 * Returns the JDBC type of this column.
+	 * @return a JDBC type, as defined in {@link java.sql.Types}
+	 */
+	public int getType()
+	{
+		return this.type;
+	}
+
+	/**
+	 * Reads the value at the specified index of the specified result set into the specified column of the specified row.
+	 * @param resultSet a result set
+	 * @param index a 1-based result set column index
+	 * @param row a row
+	 * @param column a 0-based row column index
+	 * @throws SQLException if the value could not be read
+	 */
+	public void read(ResultSet resultSet, int index, Row row, int column) throws SQLException
+	{
+		this.get(resultSet, index, row, column);
+		row.nulls[column] = resultSet.wasNull();
+	}
+
+	/**
+	 * Writes the value of the specified column of the specified row to the specified parameter of the specified statement.
+	 * @param row a row
+	 * @param column a 0-based row column index
+	 * @param statement a prepared statement
+	 * @param index a 1-based parameter index
+	 * @return the approximate number of bytes written
+	 * @throws SQLException if the value could not be written
+	 */
+	public long write(Row row, int column, PreparedStatement statement, int index) throws SQLException
+	{
+		if (row.nulls[column])
+		{
+			statement.setNull(index, this.type);
+			return 0L;
+		}
+		this.set(row, column, statement, index);
+		return this.sizeOf(row, column);
+	}
+
+	/**
+	 * Compares the values of the specified column of the specified rows.  Null values are ordered first.
+	 * @param row1 a row
+	 * @param row2 another row
+	 * @param column a 0-based row column index
+	 * @return a negative integer, zero, or a positive integer if the value of the first row is less than, equal to, or greater than the value of the second row
+	 */
+	public int compare(Row row1, Row row2, int column)
+	{
+		boolean null1 = row1.nulls[column];
+		boolean null2 = row2.nulls[column];
+		if (null1 || null2)
+		{
+			return (null1 == null2) ? 0 : (null1 ? -1 : 1);
+		}
+		return this.compareValues(row1, row2, column);
+	}
+
+	/**
+	 * Indicates whether the values of the specified column of the specified rows are equal.
+	 * @param row1 a row
+	 * @param row2 another row
+	 * @param column a 0-based row column index
+	 * @return true, if the values are equal, false otherwise
+	 */
+	public boolean equals(Row row1, Row row2, int column)
+	{
+		boolean null1 = row1.nulls[column];
+		boolean null2 = row2.nulls[column];
+		if (null1 || null2)
+		{
+			return null1 == null2;
+		}
+		return this.equalValues(row1, row2, column);
+	}
+
+	/**
+	 * Indicates whether values of this column can be written to a delimited file.
+	 * @return true, if values of this column can be formatted, false otherwise
+	 */
+	public boolean isFormattable()
+	{
+		return true;
+	}
+
+	/**
+	 * Appends the value of the specified column of the specified row to the specified buffer, as a field of a delimited file.
+	 * @param row a row
+	 * @param column a 0-based row column index
+	 * @param builder a buffer
+	 * @return the approximate number of bytes written
+	 * @throws SQLException if the value could not be formatted
+	 * @see net.sf.hajdbc.BulkLoadSupport
+	 */
+	public long format(Row row, int column, StringBuilder builder) throws SQLException
+	{
+		if (row.nulls[column])
+		{
+			return 0L;
+		}
+		this.formatValue(row, column, builder);
+		return this.sizeOf(row, column);
+	}
+
+	abstract void get(ResultSet resultSet, int index, Row row, int column) throws SQLException;
+
+	abstract void set(Row row, int column, PreparedStatement statement, int index) throws SQLException;
+
+	abstract int compareValues(Row row1, Row row2, int column);
+
+	abstract void formatValue(Row row, int column, StringBuilder builder);
+
+	boolean equalValues(Row row1, Row row2, int column)
+	{
+		return row1.values[column] == row2.values[column];
+	}
+
+	long sizeOf(Row row, int column) throws SQLException
+	{
+		return Long.SIZE / Byte.SIZE;
+	}
+
+	static class BooleanColumnCodec extends ColumnCodec
+	{
+		BooleanColumnCodec(int type)
+		{
+			super(type);
+		}
+
+		@Override
+		void get(ResultSet resultSet, int index, Row row, int column) throws SQLException
+		{
+			row.values[column] = resultSet.getBoolean(index) ? 1L : 0L;
+		}
+
+		@Override
+		void set(Row row, int column, PreparedStatement statement, int index) throws SQLException
+		{
+			statement.setBoolean(index, row.values[column] != 0L);
+		}
+
+		@Override
+		int compareValues(Row row1, Row row2, int column)
+		{
+			return Long.compare(row1.values[column], row2.values[column]);
+		}
+
+		@Override
+		void formatValue(Row row, int column, StringBuilder builder)
+		{
+			builder.append(row.values[column] != 0L);
+		}
+	}
+
+	static class LongColumnCodec extends ColumnCodec
+	{
+		LongColumnCodec(int type)
+		{
+			super(type);
+		}
+
+		@Override
+		void get(ResultSet resultSet, int index, Row row, int column) throws SQLException
+		{
+			row.values[column] = resultSet.getLong(index);
+		}
+
+		@Override
+		void set(Row row, int column, PreparedStatement statement, int index) throws SQLException
+		{
+			statement.setLong(index, row.values[column]);
+		}
+
+		@Override
+		int compareValues(Row row1, Row row2, int column)
+		{
+			return Long.compare(row1.values[column], row2.values[column]);
+		}
+
+		@Override
+		void formatValue(Row row, int column, StringBuilder builder)
+		{
+			builder.append(row.values[column]);
+		}
+	}
+
+	static class FloatColumnCodec extends ColumnCodec
+	{
+		FloatColumnCodec(int type)
+		{
+			super(type);
+		}
+
+		@Override
+		void get(ResultSet resultSet, int index, Row row, int column) throws SQLException
+		{
+			row.values[column] = Float.floatToRawIntBits(resultSet.getFloat(index));
+		}
+
+		@Override
+		void set(Row row, int column, PreparedStatement statement, int index) throws SQLException
+		{
+			statement.setFloat(index, Float.intBitsToFloat((int) row.values[column]));
+		}
+
+		@Override
+		int compareValues(Row row1, Row row2, int column)
+		{
+			return Float.compare(Float.intBitsToFloat((int) row1.values[column]), Float.intBitsToFloat((int) row2.values[column]));
+		}
+
+		@Override
+		void formatValue(Row row, int column, StringBuilder builder)
+		{
+			builder.append(Float.intBitsToFloat((int) row.values[column]));
+		}
+	}
+
+	static class DoubleColumnCodec extends ColumnCodec
+	{
+		DoubleColumnCodec(int type)
+		{
+			super(type);
+		}
+
+		@Override
+		void get(ResultSet resultSet, int index, Row row, int column) throws SQLException
+		{
+			row.values[column] = Double.doubleToRawLongBits(resultSet.getDouble(index));
+		}
+
+		@Override
+		void set(Row row, int column, PreparedStatement statement, int index) throws SQLException
+		{
+			statement.setDouble(index, Double.longBitsToDouble(row.values[column]));
+		}
+
+		@Override
+		int compareValues(Row row1, Row row2, int column)
+		{
+			return Double.compare(Double.longBitsToDouble(row1.values[column]), Double.longBitsToDouble(row2.values[column]));
+		}
+
+		@Override
+		void formatValue(Row row, int column, StringBuilder builder)
+		{
+			builder.append(Double.longBitsToDouble(row.values[column]));
+		}
+	}
+
+	/**
+	 * Base codec for non-primitive column values.
+	 */
+	abstract static class ReferenceColumnCodec<T> extends ColumnCodec
+	{
+		private final Class<T> targetClass;
+
+		ReferenceColumnCodec(int type, Class<T> targetClass)
+		{
+			super(type);
+			this.targetClass = targetClass;
+		}
+
+		@Override
+		void get(ResultSet resultSet, int index, Row row, int column) throws SQLException
+		{
+			row.objects[column] = this.get(resultSet, index);
+		}
+
+		@Override
+		void set(Row row, int column, PreparedStatement statement, int index) throws SQLException
+		{
+			this.set(statement, index, this.value(row, column));
+		}
+
+		@Override
+		int compareValues(Row row1, Row row2, int column)
+		{
+			return this.compare(this.value(row1, column), this.value(row2, column));
+		}
+
+		@Override
+		boolean equalValues(Row row1, Row row2, int column)
+		{
+			return Objects.equals(row1.objects[column], row2.objects[column]);
+		}
+
+		@Override
+		long sizeOf(Row row, int column) throws SQLException
+		{
+			return SynchronizationProgress.sizeOf(row.objects[column]);
+		}
+
+		@Override
+		void formatValue(Row row, int column, StringBuilder builder)
+		{
+			builder.append(row.objects[column]);
+		}
+
+		T value(Row row, int column)
+		{
+			return this.targetClass.cast(row.objects[column]);
+		}
+
+		abstract T get(ResultSet resultSet, int index) throws SQLException;
+
+		abstract void set(PreparedStatement statement, int index, T value) throws SQLException;
+
+		abstract int compare(T value1, T value2);
+	}
+
+	/**
+	 * Base codec for non-primitive column values with a natural ordering.
+	 */
+	abstract static class ComparableColumnCodec<T extends Comparable<? super T>> extends ReferenceColumnCodec<T>
+	{
+		ComparableColumnCodec(int type, Class<T> targetClass)
+		{
+			super(type, targetClass);
+		}
+
+		@Override
+		int compare(T value1, T value2)
+		{
+			return value1.compareTo(value2);
+		}
+	}
+
+	static class BigDecimalColumnCodec extends ComparableColumnCodec<BigDecimal>
+	{
+		BigDecimalColumnCodec(int type)
+		{
+			super(type, BigDecimal.class);
+		}
+
+		@Override
+		BigDecimal get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getBigDecimal(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, BigDecimal value) throws SQLException
+		{
+			statement.setBigDecimal(index, value);
+		}
+
+		@Override
+		void formatValue(Row row, int column, StringBuilder builder)
+		{
+			// Avoid exponent notation
+			builder.append(this.value(row, column).toPlainString());
+		}
+	}
+
+	static class StringColumnCodec extends ComparableColumnCodec<String>
+	{
+		StringColumnCodec(int type)
+		{
+			super(type, String.class);
+		}
+
+		@Override
+		String get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getString(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, String value) throws SQLException
+		{
+			statement.setString(index, value);
+		}
+
+		@Override
+		void formatValue(Row row, int column, StringBuilder builder)
+		{
+			String value = this.value(row, column);
+			builder.append('"');
+			for (int i = 0; i < value.length(); ++i)
+			{
+				char c = value.charAt(i);
+				if (c == '"')
+				{
+					builder.append('"');
+				}
+				builder.append(c);
+			}
+			builder.append('"');
+		}
+	}
+
+	static class DateColumnCodec extends ComparableColumnCodec<java.util.Date>
+	{
+		DateColumnCodec(int type)
+		{
+			super(type, java.util.Date.class);
+		}
+
+		@Override
+		Date get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getDate(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, java.util.Date value) throws SQLException
+		{
+			statement.setDate(index, (Date) value);
+		}
+	}
+
+	static class TimeColumnCodec extends ComparableColumnCodec<java.util.Date>
+	{
+		TimeColumnCodec(int type)
+		{
+			super(type, java.util.Date.class);
+		}
+
+		@Override
+		Time get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getTime(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, java.util.Date value) throws SQLException
+		{
+			statement.setTime(index, (Time) value);
+		}
+	}
+
+	static class TimestampColumnCodec extends ComparableColumnCodec<java.util.Date>
+	{
+		TimestampColumnCodec(int type)
+		{
+			super(type, java.util.Date.class);
+		}
+
+		@Override
+		Timestamp get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getTimestamp(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, java.util.Date value) throws SQLException
+		{
+			statement.setTimestamp(index, (Timestamp) value);
+		}
+	}
+
+	static class BytesColumnCodec extends ReferenceColumnCodec<byte[]>
+	{
+		BytesColumnCodec(int type)
+		{
+			super(type, byte[].class);
+		}
+
+		@Override
+		byte[] get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getBytes(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, byte[] value) throws SQLException
+		{
+			statement.setBytes(index, value);
+		}
+
+		@Override
+		int compare(byte[] value1, byte[] value2)
+		{
+			// Lexicographical ordering of unsigned bytes
+			int length = Math.min(value1.length, value2.length);
+			for (int i = 0; i < length; ++i)
+			{
+				int result = Integer.compare(value1[i] & 0xFF, value2[i] & 0xFF);
+				if (result != 0) return result;
+			}
+			return Integer.compare(value1.length, value2.length);
+		}
+
+		@Override
+		boolean equalValues(Row row1, Row row2, int column)
+		{
+			return Arrays.equals(this.value(row1, column), this.value(row2, column));
+		}
+
+		@Override
+		void formatValue(Row row, int column, StringBuilder builder)
+		{
+			byte[] value = this.value(row, column);
+			if (value.length == 0)
+			{
+				// Distinguish from null
+				builder.append("\"\"");
+			}
+			for (byte b: value)
+			{
+				builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+		}
+	}
+
+	static class BlobColumnCodec extends ReferenceColumnCodec<Blob>
+	{
+		BlobColumnCodec(int type)
+		{
+			super(type, Blob.class);
+		}
+
+		@Override
+		Blob get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getBlob(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, Blob value) throws SQLException
+		{
+			statement.setBlob(index, value);
+		}
+
+		@Override
+		int compare(Blob value1, Blob value2)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isFormattable()
+		{
+			return false;
+		}
+	}
+
+	static class ClobColumnCodec extends ReferenceColumnCodec<Clob>
+	{
+		ClobColumnCodec(int type)
+		{
+			super(type, Clob.class);
+		}
+
+		@Override
+		Clob get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getClob(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, Clob value) throws SQLException
+		{
+			statement.setClob(index, value);
+		}
+
+		@Override
+		int compare(Clob value1, Clob value2)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isFormattable()
+		{
+			return false;
+		}
+	}
+
+	static class ObjectColumnCodec extends ReferenceColumnCodec<Object>
+	{
+		ObjectColumnCodec(int type)
+		{
+			super(type, Object.class);
+		}
+
+		@Override
+		Object get(ResultSet resultSet, int index) throws SQLException
+		{
+			return resultSet.getObject(index);
+		}
+
+		@Override
+		void set(PreparedStatement statement, int index, Object value) throws SQLException
+		{
+			statement.setObject(index, value, this.getType());
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		int compare(Object value1, Object value2)
+		{
+			return ((Comparable<Object>) value1).compareTo(value2);
+		}
+
+		@Override
+		public boolean isFormattable()
+		{
+			return false;
+		}
+	}
+}
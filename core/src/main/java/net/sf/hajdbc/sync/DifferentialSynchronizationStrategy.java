@@ -42,7 +42,6 @@ import net.sf.hajdbc.logging.Logger;
 import net.sf.hajdbc.logging.LoggerFactory;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
-import net.sf.hajdbc.util.Objects;
 import net.sf.hajdbc.util.Strings;
 
 /**
@@ -184,11 +183,18 @@ public class DifferentialSynchronizationStrategy implements SynchronizationStrat
 		// Retrieve table rows in primary key order
 		final String selectSQL = String.format("SELECT %s FROM %s ORDER BY %s", Strings.join(selectColumns, Strings.PADDED_COMMA), tableName, Strings.join(primaryKeyColumns, Strings.PADDED_COMMA)); //$NON-NLS-1$
 		String primaryKeyWhereClause = Strings.join(new StringBuilder(), primaryKeyColumns, " = ? AND ").append(" = ?").toString(); //$NON-NLS-1$
-		String selectAllSQL = !versionColumns.isEmpty() ? String.format("SELECT %s FROM %s WHERE %s", Strings.join(nonPrimaryKeyColumns, Strings.PADDED_COMMA), tableName, primaryKeyWhereClause) : null;
 		String deleteSQL = String.format("DELETE FROM %s WHERE %s", tableName, primaryKeyWhereClause);
 		String insertSQL = String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, Strings.join(allColumns, Strings.PADDED_COMMA), Strings.join(Collections.nCopies(allColumns.size(), Strings.QUESTION), Strings.PADDED_COMMA)); //$NON-NLS-1$
 		String updateSQL = !nonPrimaryKeyColumns.isEmpty() ? String.format("UPDATE %s SET %s = ? WHERE %s", tableName, Strings.join(nonPrimaryKeyColumns, " = ?, "), primaryKeyWhereClause) : null;
 		
+		// Resolve column types once per table
+		RowCodec selectCodec = new RowCodec(context.getDialect(), table, selectColumns);
+		final RowCodec allCodec = !versionColumns.isEmpty() ? new RowCodec(context.getDialect(), table, allColumns) : selectCodec;
+		
+		final int keyColumns = primaryKeyColumns.size();
+		final int nonKeyColumns = nonPrimaryKeyColumns.size();
+		int selectedColumns = selectColumns.size();
+		
 		Connection targetConnection = context.getConnection(context.getTargetDatabase());
 		Connection sourceConnection = context.getConnection(context.getSourceDatabase());
 		
@@ -216,30 +222,59 @@ public class DifferentialSynchronizationStrategy implements SynchronizationStrat
 				{
 					try (ResultSet targetResultSet = future.get())
 					{
-						if (selectAllSQL != null)
-						{
-							logger.log(Level.DEBUG, selectAllSQL);
-						}
-						try (PreparedStatement selectAllStatement = (selectAllSQL != null) ? targetConnection.prepareStatement(selectAllSQL) : null)
+						logger.log(Level.DEBUG, deleteSQL);
+						try (PreparedStatement deleteStatement = targetConnection.prepareStatement(deleteSQL))
 						{
-							logger.log(Level.DEBUG, deleteSQL);
-							try (PreparedStatement deleteStatement = targetConnection.prepareStatement(deleteSQL))
+							logger.log(Level.DEBUG, insertSQL);
+							try (PreparedStatement insertStatement = targetConnection.prepareStatement(insertSQL))
 							{
-								logger.log(Level.DEBUG, insertSQL);
-								try (PreparedStatement insertStatement = targetConnection.prepareStatement(insertSQL))
+								if (updateSQL != null)
 								{
-									if (updateSQL != null)
+									logger.log(Level.DEBUG, updateSQL);
+								}
+								try (PreparedStatement updateStatement = (updateSQL != null) ? targetConnection.prepareStatement(updateSQL) : null)
+								{
+									final Batch deleteBatch = new Batch(deleteStatement, this.maxBatchSize);
+									final Batch insertBatch = new Batch(insertStatement, this.maxBatchSize);
+									final Batch updateBatch = (updateStatement != null) ? new Batch(updateStatement, this.maxBatchSize) : null;
+									final long[] fetchedBytes = new long[1];
+									
+									RowFetcher.Handler<Boolean> handler = new RowFetcher.Handler<Boolean>()
 									{
-										logger.log(Level.DEBUG, updateSQL);
-									}
-									try (PreparedStatement updateStatement = (updateSQL != null) ? sourceConnection.prepareStatement(updateSQL) : null)
+										@Override
+										public void handle(Row row, Boolean insert) throws SQLException
+										{
+											if (insert)
+											{
+												PreparedStatement statement = insertBatch.getStatement();
+												statement.clearParameters();
+												allCodec.write(row, 0, keyColumns, statement, 1);
+												fetchedBytes[0] += allCodec.write(row, keyColumns, keyColumns + nonKeyColumns, statement, keyColumns + 1);
+												insertBatch.add();
+											}
+											else
+											{
+												PreparedStatement statement = updateBatch.getStatement();
+												statement.clearParameters();
+												fetchedBytes[0] += allCodec.write(row, keyColumns, keyColumns + nonKeyColumns, statement, 1);
+												allCodec.write(row, 0, keyColumns, statement, nonKeyColumns + 1);
+												updateBatch.add();
+											}
+										}
+									};
+									
+									// If only version columns are compared, the remaining columns of new or changed rows are fetched separately
+									try (RowFetcher<Boolean> fetcher = !versionColumns.isEmpty() ? new RowFetcher<>(context.getSourceDatabase().connect(context.getDecoder()), context.getExecutor(), tableName, primaryKeyColumns, allColumns, allCodec, this.maxBatchSize, handler) : null)
 									{
-										boolean hasMoreSourceResults = sourceResultSet.next();
-										boolean hasMoreTargetResults = targetResultSet.next();
+										Row sourceRow = selectCodec.createRow();
+										Row targetRow = selectCodec.createRow();
 										
-										int insertCount = 0;
-										int updateCount = 0;
-										int deleteCount = 0;
+										boolean hasMoreSourceResults = next(sourceResultSet, selectCodec, sourceRow);
+										boolean hasMoreTargetResults = next(targetResultSet, selectCodec, targetRow);
+										
+										SynchronizationProgress progress = context.getProgress();
+										long rows = 0;
+										long bytes = 0;
 										
 										while (hasMoreSourceResults || hasMoreTargetResults)
 										{
@@ -255,240 +290,96 @@ public class DifferentialSynchronizationStrategy implements SynchronizationStrat
 											}
 											else
 											{
-												for (int i = 1; i <= primaryKeyColumns.size(); ++i)
-												{
-													Object sourceObject = sourceResultSet.getObject(i);
-													Object targetObject = targetResultSet.getObject(i);
-													
-													// We assume that the primary keys column types are Comparable
-													compare = compare(sourceObject, targetObject);
-													
-													if (compare != 0)
-													{
-														break;
-													}
-												}
+												compare = selectCodec.compare(sourceRow, targetRow, keyColumns);
 											}
 											
 											if (compare > 0)
 											{
 												deleteStatement.clearParameters();
 												
-												for (int i = 1; i <= primaryKeyColumns.size(); ++i)
-												{
-													int type = context.getDialect().getColumnType(table.getColumnProperties(allColumns.get(i - 1)));
-													
-													deleteStatement.setObject(i, targetResultSet.getObject(i), type);
-												}
-												
-												deleteStatement.addBatch();
+												selectCodec.write(targetRow, 0, keyColumns, deleteStatement, 1);
 												
-												deleteCount += 1;
-												
-												if ((deleteCount % this.maxBatchSize) == 0)
-												{
-													deleteStatement.executeBatch();
-													deleteStatement.clearBatch();
-												}
+												deleteBatch.add();
 											}
 											else if (compare < 0)
 											{
-												insertStatement.clearParameters();
-												
-												for (int i = 1; i <= primaryKeyColumns.size(); ++i)
+												if (fetcher != null)
 												{
-													int type = context.getDialect().getColumnType(table.getColumnProperties(allColumns.get(i - 1)));
-													
-													insertStatement.setObject(i, sourceResultSet.getObject(i), type);
-												}
-												
-												if (versionColumns.isEmpty())
-												{
-													for (int i = primaryKeyColumns.size() + 1; i <= allColumns.size(); ++i)
-													{
-														int type = context.getDialect().getColumnType(table.getColumnProperties(allColumns.get(i - 1)));
-														
-														Object object = context.getSynchronizationSupport().getObject(sourceResultSet, i, type);
-														
-														if (sourceResultSet.wasNull())
-														{
-															insertStatement.setNull(i, type);
-														}
-														else
-														{
-															insertStatement.setObject(i, object, type);
-														}
-													}
+													fetcher.fetch(sourceRow, Boolean.TRUE);
 												}
 												else
 												{
-													if (selectAllStatement != null)
-													{
-														selectAllStatement.clearParameters();
-														
-														for (int i = 1; i <= primaryKeyColumns.size(); ++i)
-														{
-															int type = context.getDialect().getColumnType(table.getColumnProperties(allColumns.get(i - 1)));
-															
-															selectAllStatement.setObject(i, sourceResultSet.getObject(i), type);
-														}
-														
-														try (ResultSet selectAllResultSet = selectAllStatement.executeQuery())
-														{
-															if (!selectAllResultSet.next())
-															{
-																throw new IllegalStateException();
-															}
-															for (int i = primaryKeyColumns.size() + 1; i <= allColumns.size(); ++i)
-															{
-																int type = context.getDialect().getColumnType(table.getColumnProperties(allColumns.get(i - 1)));
-																
-																Object object = context.getSynchronizationSupport().getObject(selectAllResultSet, i - primaryKeyColumns.size(), type);
-																
-																if (selectAllResultSet.wasNull())
-																{
-																	insertStatement.setNull(i, type);
-																}
-																else
-																{
-																	insertStatement.setObject(i, object, type);
-																}
-															}
-														}
-													}
-												}
+													insertStatement.clearParameters();
 													
-												insertStatement.addBatch();
-												
-												insertCount += 1;
-												
-												if ((insertCount % this.maxBatchSize) == 0)
-												{
-													insertStatement.executeBatch();
-													insertStatement.clearBatch();
+													selectCodec.write(sourceRow, 0, keyColumns, insertStatement, 1);
+													bytes += selectCodec.write(sourceRow, keyColumns, selectedColumns, insertStatement, keyColumns + 1);
+													
+													insertBatch.add();
 												}
 											}
 											else if (updateStatement != null) // if (compare == 0)
 											{
-												updateStatement.clearParameters();
-												
-												boolean updated = false;
-												
-												for (int i = primaryKeyColumns.size() + 1; i <= selectColumns.size(); ++i)
+												if (fetcher != null)
 												{
-													int type = context.getDialect().getColumnType(table.getColumnProperties(selectColumns.get(i - 1)));
-													
-													Object sourceObject = context.getSynchronizationSupport().getObject(sourceResultSet, i, type);
-													Object targetObject = context.getSynchronizationSupport().getObject(targetResultSet, i, type);
-													
-													int index = i - primaryKeyColumns.size();
-													
-													if (sourceResultSet.wasNull())
-													{
-														updateStatement.setNull(index, type);
-														
-														updated |= !targetResultSet.wasNull();
-													}
-													else
+													if (!selectCodec.equals(sourceRow, targetRow, keyColumns, selectedColumns))
 													{
-														updateStatement.setObject(index, sourceObject, type);
-														
-														updated |= targetResultSet.wasNull();
-														updated |= !Objects.equals(sourceObject, targetObject);
+														fetcher.fetch(sourceRow, Boolean.FALSE);
 													}
 												}
-												
-												if (updated)
+												else
 												{
-													if (selectAllStatement != null)
-													{
-														selectAllStatement.clearParameters();
-														
-														for (int i = 1; i <= primaryKeyColumns.size(); ++i)
-														{
-															int type = context.getDialect().getColumnType(table.getColumnProperties(allColumns.get(i - 1)));
-															
-															selectAllStatement.setObject(i, sourceResultSet.getObject(i), type);
-														}
-														
-														try (ResultSet selectAllResultSet = selectAllStatement.executeQuery())
-														{
-															if (!selectAllResultSet.next())
-															{
-																throw new IllegalStateException();
-															}
-															for (int i = primaryKeyColumns.size() + 1; i <= allColumns.size(); ++i)
-															{
-																int type = context.getDialect().getColumnType(table.getColumnProperties(allColumns.get(i - 1)));
-																
-																int index = i - primaryKeyColumns.size();
-																
-																Object object = context.getSynchronizationSupport().getObject(selectAllResultSet, index, type);
-																
-																if (selectAllResultSet.wasNull())
-																{
-																	updateStatement.setNull(index, type);
-																}
-																else
-																{
-																	updateStatement.setObject(index, object, type);
-																}
-															}
-														}
-													}
-													
-													for (int i = 1; i <= primaryKeyColumns.size(); ++i)
-													{
-														int type = context.getDialect().getColumnType(table.getColumnProperties(allColumns.get(i - 1)));
-														
-														updateStatement.setObject(i + nonPrimaryKeyColumns.size(), targetResultSet.getObject(i), type);
-													}
-													
-													updateStatement.addBatch();
+													updateStatement.clearParameters();
 													
-													updateCount += 1;
+													bytes += selectCodec.write(sourceRow, keyColumns, selectedColumns, updateStatement, 1);
 													
-													if ((updateCount % this.maxBatchSize) == 0)
+													if (!selectCodec.equals(sourceRow, targetRow, keyColumns, selectedColumns))
 													{
-														updateStatement.executeBatch();
-														updateStatement.clearBatch();
+														selectCodec.write(targetRow, 0, keyColumns, updateStatement, nonKeyColumns + 1);
+														
+														updateBatch.add();
 													}
 												}
 											}
 											
 											if (hasMoreSourceResults && (compare <= 0))
 											{
-												hasMoreSourceResults = sourceResultSet.next();
+												hasMoreSourceResults = next(sourceResultSet, selectCodec, sourceRow);
+												
+												rows += 1;
+												
+												if ((rows % this.maxBatchSize) == 0)
+												{
+													progress.transfer(this.maxBatchSize, bytes + fetchedBytes[0]);
+													bytes = 0;
+													fetchedBytes[0] = 0;
+												}
 											}
 											
 											if (hasMoreTargetResults && (compare >= 0))
 											{
-												hasMoreTargetResults = targetResultSet.next();
+												hasMoreTargetResults = next(targetResultSet, selectCodec, targetRow);
 											}
 										}
 										
-										if ((deleteCount % this.maxBatchSize) > 0)
-										{
-											deleteStatement.executeBatch();
-										}
-										
-										if ((insertCount % this.maxBatchSize) > 0)
-										{
-											insertStatement.executeBatch();
-										}
-										
-										if (updateStatement != null)
+										if (fetcher != null)
 										{
-											if ((updateCount % this.maxBatchSize) > 0)
-											{
-												updateStatement.executeBatch();
-											}
+											fetcher.flush();
 										}
 										
-										logger.log(Level.INFO, messages.insertCount(table, insertCount));
-										logger.log(Level.INFO, messages.updateCount(table, insertCount));
-										logger.log(Level.INFO, messages.deleteCount(table, insertCount));
+										progress.transfer(rows % this.maxBatchSize, bytes + fetchedBytes[0]);
 									}
+									
+									deleteBatch.flush();
+									insertBatch.flush();
+									
+									if (updateBatch != null)
+									{
+										updateBatch.flush();
+									}
+									
+									logger.log(Level.INFO, messages.insertCount(table, insertBatch.getCount()));
+									logger.log(Level.INFO, messages.updateCount(table, (updateBatch != null) ? updateBatch.getCount() : 0));
+									logger.log(Level.INFO, messages.deleteCount(table, deleteBatch.getCount()));
 								}
 							}
 						}
@@ -507,12 +398,64 @@ public class DifferentialSynchronizationStrategy implements SynchronizationStrat
 		}
 	}
 	
-	private static int compare(Object object1, Object object2)
+	/**
+	 * Advances the specified result set, reading its next row, if any, into the specified row.
+	 */
+	private static boolean next(ResultSet resultSet, RowCodec codec, Row row) throws SQLException
 	{
-		@SuppressWarnings("unchecked")
-		Comparable<Object> comparable = (Comparable<Object>) object1;
+		boolean next = resultSet.next();
+		if (next)
+		{
+			codec.read(resultSet, row);
+		}
+		return next;
+	}
+	
+	/**
+	 * Accumulates executions of a prepared statement into batches of a maximum size.
+	 */
+	private static class Batch
+	{
+		private final PreparedStatement statement;
+		private final int maxBatchSize;
+		private int count = 0;
 		
-		return comparable.compareTo(object2);
+		Batch(PreparedStatement statement, int maxBatchSize)
+		{
+			this.statement = statement;
+			this.maxBatchSize = maxBatchSize;
+		}
+		
+		PreparedStatement getStatement()
+		{
+			return this.statement;
+		}
+		
+		int getCount()
+		{
+			return this.count;
+		}
+		
+		void add() throws SQLException
+		{
+			this.statement.addBatch();
+			
+			this.count += 1;
+			
+			if ((this.count % this.maxBatchSize) == 0)
+			{
+				this.statement.executeBatch();
+				this.statement.clearBatch();
+			}
+		}
+		
+		void flush() throws SQLException
+		{
+			if ((this.count % this.maxBatchSize) > 0)
+			{
+				this.statement.executeBatch();
+			}
+		}
 	}
 
 	/**
@@ -17,27 +17,42 @@
  */
 package net.sf.hajdbc.sync;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
 import net.sf.hajdbc.ExceptionType;
 import net.sf.hajdbc.SynchronizationStrategy;
 import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.dialect.Dialect;
 import net.sf.hajdbc.logging.Level;
 import net.sf.hajdbc.logging.Logger;
 import net.sf.hajdbc.logging.LoggerFactory;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.util.Files;
 import net.sf.hajdbc.util.Strings;
 
 /**
@@ -60,9 +75,13 @@ import net.sf.hajdbc.util.Strings;
  *  <li>Re-create the foreign keys on the inactive database</li>
  *  <li>Synchronize sequences</li>
  * </ol>
+ * Several inactive databases may be synchronized from a single pass over the active database,
+ * in which case each batch of rows is inserted into all inactive databases concurrently.
+ * If the dialect provides {@link BulkLoadSupport}, rows may instead be inserted via multi-row INSERT statements (see {@link #setRowsPerInsert(int)}),
+ * or loaded natively from a delimited file (see {@link #setLoadFile(boolean)}).
  * @author  Paul Ferraro
  */
-public class FullSynchronizationStrategy implements SynchronizationStrategy, TableSynchronizationStrategy
+public class FullSynchronizationStrategy implements MultiTargetSynchronizationStrategy, TableSynchronizationStrategy
 {
 	private static final long serialVersionUID = 9190347092842178162L;
 
@@ -72,6 +91,9 @@ public class FullSynchronizationStrategy implements SynchronizationStrategy, Tab
 	private SynchronizationStrategy strategy = new PerTableSynchronizationStrategy(this);
 	private int maxBatchSize = 100;
 	private int fetchSize = 0;
+	private int pipelineDepth = 0;
+	private int rowsPerInsert = 1;
+	private boolean loadFile = false;
 
 	@Override
 	public String getId()
@@ -97,6 +119,72 @@ public class FullSynchronizationStrategy implements SynchronizationStrategy, Tab
 		this.strategy.destroy(cluster);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.sync.MultiTargetSynchronizationStrategy#synchronize(java.util.List)
+	 */
+	@Override
+	public <Z, D extends Database<Z>> void synchronize(List<SynchronizationContext<Z, D>> contexts) throws SQLException
+	{
+		SynchronizationContext<Z, D> sourceContext = contexts.get(0);
+		
+		for (SynchronizationContext<Z, D> context: contexts)
+		{
+			this.dropConstraints(context);
+		}
+		
+		sourceContext.getConnection(sourceContext.getSourceDatabase()).setAutoCommit(false);
+		
+		for (SynchronizationContext<Z, D> context: contexts)
+		{
+			context.getConnection(context.getTargetDatabase()).setAutoCommit(false);
+		}
+		
+		Collection<TableProperties> tables = sourceContext.getSourceDatabaseProperties().getTables();
+		
+		for (SynchronizationContext<Z, D> context: contexts)
+		{
+			context.getProgress().start(tables.size());
+		}
+		
+		for (TableProperties table: tables)
+		{
+			for (SynchronizationContext<Z, D> context: contexts)
+			{
+				context.getProgress().startTable(table);
+			}
+			
+			try
+			{
+				this.synchronize(contexts, table);
+				
+				for (SynchronizationContext<Z, D> context: contexts)
+				{
+					context.getConnection(context.getTargetDatabase()).commit();
+					context.getProgress().completeTable(table);
+				}
+			}
+			catch (SQLException e)
+			{
+				for (SynchronizationContext<Z, D> context: contexts)
+				{
+					context.getSynchronizationSupport().rollback(context.getConnection(context.getTargetDatabase()));
+				}
+				throw e;
+			}
+		}
+		
+		for (SynchronizationContext<Z, D> context: contexts)
+		{
+			SynchronizationSupport support = context.getSynchronizationSupport();
+			
+			this.restoreConstraints(context);
+			
+			support.synchronizeIdentityColumns();
+			support.synchronizeSequences();
+		}
+	}
+
 	@Override
 	public <Z, D extends Database<Z>> void synchronize(SynchronizationContext<Z, D> context, TableProperties table) throws SQLException
 	{
@@ -107,7 +195,6 @@ public class FullSynchronizationStrategy implements SynchronizationStrategy, Tab
 		
 		final String selectSQL = String.format("SELECT %s FROM %s", commaDelimitedColumns, tableName);
 		final String deleteSQL = context.getDialect().getTruncateTableSQL(table);
-		final String insertSQL = String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, commaDelimitedColumns, Strings.join(Collections.nCopies(columns.size(), Strings.QUESTION), Strings.PADDED_COMMA));
 		
 		Connection sourceConnection = context.getConnection(context.getSourceDatabase());
 		Connection targetConnection = context.getConnection(context.getTargetDatabase());
@@ -136,65 +223,732 @@ public class FullSynchronizationStrategy implements SynchronizationStrategy, Tab
 				logger.log(Level.INFO, messages.deleteCount(table, deletedRows));
 			}
 			
-			logger.log(Level.DEBUG, insertSQL);
+			// Resolve column types once per table
+			RowCodec codec = new RowCodec(context.getDialect(), table, columns);
 			
-			try (PreparedStatement insertStatement = targetConnection.prepareStatement(insertSQL))
+			try (Loader loader = this.createLoader(context.getDialect(), targetConnection, table, columns, codec, context.getProgress()))
 			{
-				int statementCount = 0;
-				
 				try (ResultSet resultSet = future.get())
 				{
-					while (resultSet.next())
+					if (this.pipelineDepth > 0)
+					{
+						this.pipeline(context, codec, resultSet, loader);
+					}
+					else
 					{
-						int index = 0;
+						Row row = codec.createRow();
 						
-						for (String column: table.getColumns())
+						while (resultSet.next())
 						{
-							index += 1;
-							
-							int type = context.getDialect().getColumnType(table.getColumnProperties(column));
-							
-							Object object = context.getSynchronizationSupport().getObject(resultSet, index, type);
-							
-							if (resultSet.wasNull())
-							{
-								insertStatement.setNull(index, type);
-							}
-							else
-							{
-								insertStatement.setObject(index, object, type);
-							}
+							codec.read(resultSet, row);
+							loader.add(row);
 						}
-						
-						insertStatement.addBatch();
-						statementCount += 1;
-						
-						if ((statementCount % this.maxBatchSize) == 0)
+					}
+				}
+				
+				int statementCount = loader.flush();
+		
+				logger.log(Level.INFO, messages.insertCount(table, statementCount));
+			}
+			catch (ExecutionException e)
+			{
+				throw ExceptionType.SQL.<SQLException>getExceptionFactory().createException(e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new SQLException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Copies the specified table from the common source database to the target databases of the specified contexts, using a single scan of the source table.
+	 * Rows are read in chunks of {@link #getMaxBatchSize()} rows; each chunk is then inserted into all target databases concurrently, while the next chunk is read.
+	 */
+	private <Z, D extends Database<Z>> void synchronize(List<SynchronizationContext<Z, D>> contexts, TableProperties table) throws SQLException
+	{
+		SynchronizationContext<Z, D> sourceContext = contexts.get(0);
+		
+		String tableName = table.getName().getDMLName();
+		Collection<String> columns = table.getColumns();
+		
+		String commaDelimitedColumns = Strings.join(columns, Strings.PADDED_COMMA);
+		
+		final String selectSQL = String.format("SELECT %s FROM %s", commaDelimitedColumns, tableName);
+		final String deleteSQL = sourceContext.getDialect().getTruncateTableSQL(table);
+		
+		Connection sourceConnection = sourceContext.getConnection(sourceContext.getSourceDatabase());
+		
+		try (final Statement selectStatement = sourceConnection.createStatement())
+		{
+			selectStatement.setFetchSize(this.fetchSize);
+			
+			Callable<ResultSet> callable = new Callable<ResultSet>()
+			{
+				@Override
+				public ResultSet call() throws SQLException
+				{
+					logger.log(Level.DEBUG, selectSQL);
+					return selectStatement.executeQuery(selectSQL);
+				}
+			};
+			
+			Future<ResultSet> future = sourceContext.getExecutor().submit(callable);
+			
+			// Truncate all target tables concurrently
+			List<Future<Integer>> deletes = new ArrayList<>(contexts.size());
+			
+			for (SynchronizationContext<Z, D> context: contexts)
+			{
+				final Connection targetConnection = context.getConnection(context.getTargetDatabase());
+				
+				Callable<Integer> delete = new Callable<Integer>()
+				{
+					@Override
+					public Integer call() throws SQLException
+					{
+						try (Statement deleteStatement = targetConnection.createStatement())
 						{
-							insertStatement.executeBatch();
-							insertStatement.clearBatch();
+							logger.log(Level.DEBUG, deleteSQL);
+							return deleteStatement.executeUpdate(deleteSQL);
 						}
+					}
+				};
+				
+				deletes.add(context.getExecutor().submit(delete));
+			}
+			
+			complete(deletes);
+			
+			for (Future<Integer> delete: deletes)
+			{
+				logger.log(Level.INFO, messages.deleteCount(table, delete.get()));
+			}
+			
+			RowCodec codec = new RowCodec(sourceContext.getDialect(), table, columns);
+			List<Loader> batches = new ArrayList<>(contexts.size());
+			
+			try
+			{
+				for (SynchronizationContext<Z, D> context: contexts)
+				{
+					batches.add(this.createLoader(context.getDialect(), context.getConnection(context.getTargetDatabase()), table, columns, codec, context.getProgress()));
+				}
+				
+				List<Future<Integer>> writes = Collections.emptyList();
+				
+				try (ResultSet resultSet = future.get())
+				{
+					Row[] chunk = createChunk(codec, this.maxBatchSize);
+					Row[] nextChunk = createChunk(codec, this.maxBatchSize);
+					
+					int size = read(resultSet, codec, chunk);
+					
+					while (size > 0)
+					{
+						complete(writes);
+						
+						writes = write(contexts, batches, chunk, size);
 						
-						insertStatement.clearParameters();
+						// Read the next chunk while the current chunk is written
+						Row[] writingChunk = chunk;
+						chunk = nextChunk;
+						nextChunk = writingChunk;
+						
+						size = read(resultSet, codec, chunk);
 					}
+					
+					complete(writes);
+					
+					writes = write(contexts, batches, null, 0);
+					
+					complete(writes);
+				}
+				catch (SQLException | RuntimeException e)
+				{
+					// Ensure no statements are still executing against the target databases
+					await(writes);
+					throw e;
 				}
 				
-				if ((statementCount % this.maxBatchSize) > 0)
+				for (Future<Integer> write: writes)
 				{
-					insertStatement.executeBatch();
+					logger.log(Level.INFO, messages.insertCount(table, write.get()));
 				}
+			}
+			finally
+			{
+				for (Loader batch: batches)
+				{
+					batch.close();
+				}
+			}
+		}
+		catch (ExecutionException e)
+		{
+			throw ExceptionType.SQL.<SQLException>getExceptionFactory().createException(e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new SQLException(e);
+		}
+	}
+	
+	private static Row[] createChunk(RowCodec codec, int size)
+	{
+		Row[] chunk = new Row[size];
+		for (int i = 0; i < size; ++i)
+		{
+			chunk[i] = codec.createRow();
+		}
+		return chunk;
+	}
+	
+	private static int read(ResultSet resultSet, RowCodec codec, Row[] chunk) throws SQLException
+	{
+		int size = 0;
+		while ((size < chunk.length) && resultSet.next())
+		{
+			codec.read(resultSet, chunk[size++]);
+		}
+		return size;
+	}
+	
+	/**
+	 * Inserts the specified chunk of rows into each target database, concurrently, using the executor of each context.
+	 * If the chunk is empty, any partial batches are flushed instead.
+	 * Each task returns the total number of rows inserted into its target database.
+	 */
+	private static <Z, D extends Database<Z>> List<Future<Integer>> write(List<SynchronizationContext<Z, D>> contexts, List<Loader> batches, final Row[] chunk, final int size)
+	{
+		List<Future<Integer>> futures = new ArrayList<>(contexts.size());
 		
-				logger.log(Level.INFO, messages.insertCount(table, statementCount));
+		for (int i = 0; i < contexts.size(); ++i)
+		{
+			final Loader batch = batches.get(i);
+			
+			Callable<Integer> task = new Callable<Integer>()
+			{
+				@Override
+				public Integer call() throws SQLException
+				{
+					if (size == 0)
+					{
+						return batch.flush();
+					}
+					
+					for (int j = 0; j < size; ++j)
+					{
+						batch.add(chunk[j]);
+					}
+					return 0;
+				}
+			};
+			
+			futures.add(contexts.get(i).getExecutor().submit(task));
+		}
+		
+		return futures;
+	}
+	
+	/**
+	 * Waits for the specified tasks to complete, throwing the failure of any task, chained with the failures of subsequent tasks.
+	 */
+	private static void complete(List<? extends Future<?>> futures) throws SQLException, InterruptedException
+	{
+		SQLException exception = null;
+		
+		for (Future<?> future: futures)
+		{
+			try
+			{
+				future.get();
 			}
 			catch (ExecutionException e)
 			{
-				throw ExceptionType.SQL.<SQLException>getExceptionFactory().createException(e.getCause());
+				SQLException cause = ExceptionType.SQL.<SQLException>getExceptionFactory().createException(e.getCause());
+				
+				if (exception == null)
+				{
+					exception = cause;
+				}
+				else
+				{
+					exception.setNextException(cause);
+				}
+			}
+		}
+		
+		if (exception != null)
+		{
+			throw exception;
+		}
+	}
+	
+	/**
+	 * Waits for the specified tasks to complete, ignoring their outcome.
+	 */
+	private static void await(List<? extends Future<?>> futures)
+	{
+		for (Future<?> future: futures)
+		{
+			try
+			{
+				future.get();
+			}
+			catch (ExecutionException e)
+			{
+				logger.log(Level.DEBUG, e.getCause());
 			}
 			catch (InterruptedException e)
 			{
 				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Copies the rows of the specified result set using a reader stage, running on the executor of the synchronization context,
+	 * which fills a bounded ring of row buffers, and a writer stage, running on the current thread, which drains it into the specified loader.
+	 * Thus fetching rows from the source database overlaps with inserting rows into the target database.
+	 */
+	private <Z, D extends Database<Z>> void pipeline(SynchronizationContext<Z, D> context, final RowCodec codec, final ResultSet resultSet, Loader loader) throws SQLException, InterruptedException, ExecutionException
+	{
+		final BlockingQueue<Row> freeRows = new ArrayBlockingQueue<>(this.pipelineDepth);
+		// Reserve capacity for the end of stream marker
+		final BlockingQueue<Row> filledRows = new ArrayBlockingQueue<>(this.pipelineDepth + 1);
+		final Row end = new Row(0);
+		final AtomicBoolean aborted = new AtomicBoolean(false);
+		
+		for (int i = 0; i < this.pipelineDepth; ++i)
+		{
+			freeRows.add(codec.createRow());
+		}
+		
+		Callable<Void> reader = new Callable<Void>()
+		{
+			@Override
+			public Void call() throws SQLException, InterruptedException
+			{
+				try
+				{
+					while (!aborted.get() && resultSet.next())
+					{
+						Row row = freeRows.take();
+						codec.read(resultSet, row);
+						filledRows.add(row);
+					}
+					return null;
+				}
+				finally
+				{
+					filledRows.add(end);
+				}
+			}
+		};
+		
+		SynchronizationProgress progress = context.getProgress();
+		Future<Void> future = context.getExecutor().submit(reader);
+		
+		progress.setQueue(filledRows);
+		
+		try
+		{
+			Row row = filledRows.take();
+			
+			while (row != end)
+			{
+				try
+				{
+					loader.add(row);
+				}
+				finally
+				{
+					// Always return the row, otherwise a reader awaiting a free row would never finish
+					row.clear();
+					freeRows.add(row);
+				}
+				row = filledRows.take();
+			}
+		}
+		catch (SQLException | InterruptedException | RuntimeException e)
+		{
+			// Stop the reader, and wait for it to finish with the result set
+			aborted.set(true);
+			Row row = filledRows.take();
+			while (row != end)
+			{
+				freeRows.add(row);
+				row = filledRows.take();
+			}
+			throw e;
+		}
+		finally
+		{
+			progress.setQueue(null);
+		}
+		
+		future.get();
+	}
+	
+	/**
+	 * Creates a loader of rows into the specified table via the specified connection to a target database.
+	 * Uses the bulk load support of the dialect, if enabled and applicable to this table, otherwise batches of single row INSERT statements.
+	 */
+	private Loader createLoader(Dialect dialect, Connection connection, TableProperties table, Collection<String> columns, RowCodec codec, SynchronizationProgress progress) throws SQLException
+	{
+		BulkLoadSupport support = dialect.getBulkLoadSupport();
+		
+		if (support != null)
+		{
+			if (this.loadFile && codec.isFormattable())
+			{
+				File file = createTempFile();
+				List<String> statements = support.getLoadFileSQL(table, columns, file);
+				
+				if (statements != null)
+				{
+					return new FileLoader(connection, file, statements, codec, progress, this.maxBatchSize);
+				}
+				
+				Files.delete(file);
+			}
+			
+			int rows = Math.min(Math.min(this.rowsPerInsert, this.maxBatchSize), support.getMaxParameters() / Math.max(columns.size(), 1));
+			
+			if (rows > 1)
+			{
+				return new MultiRowInsertBatch(connection, support, table, columns, codec, rows, progress, this.maxBatchSize);
+			}
+		}
+		
+		String insertSQL = String.format("INSERT INTO %s (%s) VALUES (%s)", table.getName().getDMLName(), Strings.join(columns, Strings.PADDED_COMMA), Strings.join(Collections.nCopies(columns.size(), Strings.QUESTION), Strings.PADDED_COMMA));
+		
+		logger.log(Level.DEBUG, insertSQL);
+		
+		return new InsertBatch(connection.prepareStatement(insertSQL), codec, progress, this.maxBatchSize);
+	}
+	
+	private static File createTempFile() throws SQLException
+	{
+		try
+		{
+			return Files.createTempFile(".csv");
+		}
+		catch (IOException e)
+		{
+			throw new SQLException(e);
+		}
+	}
+	
+	/**
+	 * Loads rows into a table of a target database in batches of a maximum number of rows, reporting the progress of each batch.
+	 */
+	private abstract static class Loader implements AutoCloseable
+	{
+		private final SynchronizationProgress progress;
+		private final int maxBatchSize;
+		private int count = 0;
+		private long bytes = 0;
+		
+		Loader(SynchronizationProgress progress, int maxBatchSize)
+		{
+			this.progress = progress;
+			this.maxBatchSize = maxBatchSize;
+		}
+		
+		void add(Row row) throws SQLException
+		{
+			this.bytes += this.write(row);
+			this.count += 1;
+			
+			if ((this.count % this.maxBatchSize) == 0)
+			{
+				this.executeBatch();
+				this.transfer(this.maxBatchSize);
+			}
+		}
+		
+		int flush() throws SQLException
+		{
+			int remaining = this.count % this.maxBatchSize;
+			
+			if (remaining > 0)
+			{
+				this.executeBatch();
+				this.transfer(remaining);
+			}
+			
+			this.complete();
+			
+			return this.count;
+		}
+		
+		private void transfer(int rows) throws SQLException
+		{
+			this.progress.transfer(rows, this.bytes);
+			this.bytes = 0;
+		}
+		
+		/**
+		 * Adds the specified row to the current batch.
+		 * @return the approximate number of bytes written
+		 */
+		abstract long write(Row row) throws SQLException;
+		
+		/**
+		 * Executes the current batch.
+		 */
+		abstract void executeBatch() throws SQLException;
+		
+		/**
+		 * Completes loading, once all batches were executed.
+		 */
+		void complete() throws SQLException
+		{
+		}
+		
+		@Override
+		public abstract void close() throws SQLException;
+	}
+	
+	/**
+	 * Accumulates single row insert statements into batches.
+	 */
+	private static class InsertBatch extends Loader
+	{
+		private final PreparedStatement statement;
+		private final RowCodec codec;
+		
+		InsertBatch(PreparedStatement statement, RowCodec codec, SynchronizationProgress progress, int maxBatchSize)
+		{
+			super(progress, maxBatchSize);
+			this.statement = statement;
+			this.codec = codec;
+		}
+		
+		@Override
+		long write(Row row) throws SQLException
+		{
+			long bytes = this.codec.write(row, this.statement);
+			
+			this.statement.addBatch();
+			this.statement.clearParameters();
+			
+			return bytes;
+		}
+		
+		@Override
+		void executeBatch() throws SQLException
+		{
+			this.statement.executeBatch();
+			this.statement.clearBatch();
+		}
+		
+		@Override
+		public void close() throws SQLException
+		{
+			this.statement.close();
+		}
+	}
+	
+	/**
+	 * Accumulates multi-row insert statements into batches.
+	 * Rows are buffered until they fill the VALUES clause of a statement; any remaining rows are inserted via a statement of the appropriate size.
+	 * The batch size is rounded down to a multiple of the number of rows per statement.
+	 */
+	private static class MultiRowInsertBatch extends Loader
+	{
+		private final Connection connection;
+		private final BulkLoadSupport support;
+		private final TableProperties table;
+		private final Collection<String> columns;
+		private final RowCodec codec;
+		private final Row[] rows;
+		private PreparedStatement statement;
+		private int size = 0;
+		private int statements = 0;
+		
+		MultiRowInsertBatch(Connection connection, BulkLoadSupport support, TableProperties table, Collection<String> columns, RowCodec codec, int rowsPerInsert, SynchronizationProgress progress, int maxBatchSize) throws SQLException
+		{
+			super(progress, rowsPerInsert * Math.max(maxBatchSize / rowsPerInsert, 1));
+			this.connection = connection;
+			this.support = support;
+			this.table = table;
+			this.columns = columns;
+			this.codec = codec;
+			this.rows = new Row[rowsPerInsert];
+			for (int i = 0; i < rowsPerInsert; ++i)
+			{
+				this.rows[i] = codec.createRow();
+			}
+		}
+		
+		@Override
+		long write(Row row) throws SQLException
+		{
+			this.rows[this.size++].copy(row, row.size());
+			
+			if (this.size < this.rows.length) return 0L;
+			
+			// Prepare lazily, since small tables may never fill a statement
+			if (this.statement == null)
+			{
+				String sql = this.support.getMultiRowInsertSQL(this.table, this.columns, this.rows.length);
+				logger.log(Level.DEBUG, sql);
+				this.statement = this.connection.prepareStatement(sql);
+			}
+			
+			long bytes = this.bind(this.statement);
+			
+			this.statement.addBatch();
+			this.statement.clearParameters();
+			this.statements += 1;
+			
+			return bytes;
+		}
+		
+		@Override
+		void executeBatch() throws SQLException
+		{
+			if (this.statements > 0)
+			{
+				this.statement.executeBatch();
+				this.statement.clearBatch();
+				this.statements = 0;
+			}
+			
+			// Only possible when flushing, since the batch size is a multiple of the number of rows per statement
+			if (this.size > 0)
+			{
+				String sql = this.support.getMultiRowInsertSQL(this.table, this.columns, this.size);
+				logger.log(Level.DEBUG, sql);
+				
+				try (PreparedStatement statement = this.connection.prepareStatement(sql))
+				{
+					this.bind(statement);
+					statement.executeUpdate();
+				}
+			}
+		}
+		
+		/**
+		 * Writes the buffered rows to the parameters of the specified statement, and resets the buffer.
+		 */
+		private long bind(PreparedStatement statement) throws SQLException
+		{
+			int columns = this.codec.size();
+			long bytes = 0;
+			for (int i = 0; i < this.size; ++i)
+			{
+				bytes += this.codec.write(this.rows[i], 0, columns, statement, (i * columns) + 1);
+				this.rows[i].clear();
+			}
+			this.size = 0;
+			return bytes;
+		}
+		
+		@Override
+		public void close() throws SQLException
+		{
+			if (this.statement != null)
+			{
+				this.statement.close();
+			}
+		}
+	}
+	
+	/**
+	 * Writes rows to a delimited file, which is then loaded natively by the target database.
+	 * Batches of rows are formatted in memory and appended to the file; the file is loaded once all rows were written.
+	 */
+	private static class FileLoader extends Loader
+	{
+		private final Connection connection;
+		private final File file;
+		private final List<String> statements;
+		private final RowCodec codec;
+		private final Writer writer;
+		private final StringBuilder builder = new StringBuilder();
+		
+		FileLoader(Connection connection, File file, List<String> statements, RowCodec codec, SynchronizationProgress progress, int maxBatchSize) throws SQLException
+		{
+			super(progress, maxBatchSize);
+			this.connection = connection;
+			this.file = file;
+			this.statements = statements;
+			this.codec = codec;
+			try
+			{
+				this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+			}
+			catch (IOException e)
+			{
+				Files.delete(file);
+				throw new SQLException(e);
+			}
+		}
+		
+		@Override
+		long write(Row row) throws SQLException
+		{
+			return this.codec.format(row, this.builder);
+		}
+		
+		@Override
+		void executeBatch() throws SQLException
+		{
+			try
+			{
+				this.writer.append(this.builder);
+				this.builder.setLength(0);
+			}
+			catch (IOException e)
+			{
+				throw new SQLException(e);
+			}
+		}
+		
+		@Override
+		void complete() throws SQLException
+		{
+			try
+			{
+				this.writer.close();
+			}
+			catch (IOException e)
+			{
 				throw new SQLException(e);
 			}
+			
+			try (Statement statement = this.connection.createStatement())
+			{
+				for (String sql: this.statements)
+				{
+					logger.log(Level.DEBUG, sql);
+					statement.execute(sql);
+				}
+			}
+		}
+		
+		@Override
+		public void close()
+		{
+			try
+			{
+				this.writer.close();
+			}
+			catch (IOException e)
+			{
+				logger.log(Level.WARN, e);
+			}
+			finally
+			{
+				Files.delete(this.file);
+			}
 		}
 	}
 	
@@ -241,4 +995,53 @@ public class FullSynchronizationStrategy implements SynchronizationStrategy, Tab
 	{
 		this.maxBatchSize = maxBatchSize;
 	}
+
+	/**
+	 * @return the maximum number of rows inserted per INSERT statement.
+	 */
+	public int getRowsPerInsert()
+	{
+		return this.rowsPerInsert;
+	}
+
+	/**
+	 * @param rowsPerInsert the maximum number of rows inserted per INSERT statement.  Values greater than 1 enable multi-row inserts, if supported by the dialect.
+	 */
+	public void setRowsPerInsert(int rowsPerInsert)
+	{
+		this.rowsPerInsert = rowsPerInsert;
+	}
+
+	/**
+	 * @return true, if rows are loaded into the target database from a delimited file, if supported by the dialect, false otherwise.
+	 */
+	public boolean isLoadFile()
+	{
+		return this.loadFile;
+	}
+
+	/**
+	 * @param loadFile indicates whether rows should be loaded into the target database from a delimited file, if supported by the dialect.
+	 * The file is written to the local temporary directory, thus this is only applicable to databases embedded within, or co-located with, this process.
+	 */
+	public void setLoadFile(boolean loadFile)
+	{
+		this.loadFile = loadFile;
+	}
+
+	/**
+	 * @return the number of row buffers between the reader and writer stages, or 0 if pipelining is disabled.
+	 */
+	public int getPipelineDepth()
+	{
+		return this.pipelineDepth;
+	}
+
+	/**
+	 * @param pipelineDepth the number of row buffers between the reader and writer stages, or 0 to disable pipelining.
+	 */
+	public void setPipelineDepth(int pipelineDepth)
+	{
+		this.pipelineDepth = pipelineDepth;
+	}
 }
@@ -19,6 +19,7 @@ package net.sf.hajdbc.sync;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
@@ -67,13 +68,22 @@ public class PerTableSynchronizationStrategy implements SynchronizationStrategy
 		sourceConnection.setAutoCommit(false);
 		targetConnection.setAutoCommit(false);
 		
-		for (TableProperties table: context.getSourceDatabaseProperties().getTables())
+		SynchronizationProgress progress = context.getProgress();
+		Collection<TableProperties> tables = context.getSourceDatabaseProperties().getTables();
+		
+		progress.start(tables.size());
+		
+		for (TableProperties table: tables)
 		{
+			progress.startTable(table);
+			
 			try
 			{
 				this.strategy.synchronize(context, table);
 				
 				targetConnection.commit();
+				
+				progress.completeTable(table);
 			}
 			catch (SQLException e)
 			{
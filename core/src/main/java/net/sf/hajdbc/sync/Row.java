@@ -0,0 +1,83 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer for the column values of a single row.
+ * Values of primitive columns are stored unboxed (floating point values as their raw bits); all other values are stored as objects.
+ * A row is not thread-safe.
+ * @author Paul Ferraro
+ */
+public class Row
+{
+	final long[] values;
+	final Object[] objects;
+	final boolean[] nulls;
+
+	/**
+	 * Creates a buffer for a row with the specified number of columns.
+	 * @param columns a number of columns
+	 */
+	public Row(int columns)
+	{
+		this.values = new long[columns];
+		this.objects = new Object[columns];
+		this.nulls = new boolean[columns];
+	}
+
+	/**
+	 * Returns the number of columns in this row.
+	 * @return a number of columns
+	 */
+	public int size()
+	{
+		return this.nulls.length;
+	}
+
+	/**
+	 * Indicates whether the value of the specified column is null.
+	 * @param column a 0-based column index
+	 * @return true, if the value of this column is null, false otherwise
+	 */
+	public boolean isNull(int column)
+	{
+		return this.nulls[column];
+	}
+
+	/**
+	 * Copies the leading columns of the specified row into this row.
+	 * @param row a row
+	 * @param columns the number of leading columns to copy
+	 */
+	public void copy(Row row, int columns)
+	{
+		System.arraycopy(row.values, 0, this.values, 0, columns);
+		System.arraycopy(row.objects, 0, this.objects, 0, columns);
+		System.arraycopy(row.nulls, 0, this.nulls, 0, columns);
+	}
+
+	/**
+	 * Releases any object references held by this row.
+	 */
+	public void clear()
+	{
+		Arrays.fill(this.objects, null);
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.dialect.Dialect;
+
+/**
+ * Precompiled codec for the rows of a table, composed of a {@link ColumnCodec} per selected column.
+ * The column types are resolved once per table, rather than once per value.
+ * @author Paul Ferraro
+ */
+public class RowCodec
+{
+	private final ColumnCodec[] codecs;
+
+	/**
+	 * Creates a codec for the specified columns of the specified table.
+	 * @param dialect the dialect used to resolve the column types
+	 * @param table a table
+	 * @param columns the selected columns of this table, in order
+	 * @throws SQLException if a column type could not be resolved
+	 */
+	public RowCodec(Dialect dialect, TableProperties table, Collection<String> columns) throws SQLException
+	{
+		this.codecs = new ColumnCodec[columns.size()];
+		int column = 0;
+		for (String name: columns)
+		{
+			this.codecs[column++] = ColumnCodec.forType(dialect.getColumnType(table.getColumnProperties(name)));
+		}
+	}
+
+	/**
+	 * Returns the number of columns handled by this codec.
+	 * @return a number of columns
+	 */
+	public int size()
+	{
+		return this.codecs.length;
+	}
+
+	/**
+	 * Returns the JDBC type of the specified column.
+	 * @param column a 0-based column index
+	 * @return a JDBC type, as defined in {@link java.sql.Types}
+	 */
+	public int getType(int column)
+	{
+		return this.codecs[column].getType();
+	}
+
+	/**
+	 * Creates a buffer suitable for rows read by this codec.
+	 * @return a new row
+	 */
+	public Row createRow()
+	{
+		return new Row(this.codecs.length);
+	}
+
+	/**
+	 * Reads all columns of the current row of the specified result set into the specified row.
+	 * @param resultSet a result set, whose columns correspond to the columns of this codec
+	 * @param row a row
+	 * @throws SQLException if a value could not be read
+	 */
+	public void read(ResultSet resultSet, Row row) throws SQLException
+	{
+		for (int i = 0; i < this.codecs.length; ++i)
+		{
+			this.codecs[i].read(resultSet, i + 1, row, i);
+		}
+	}
+
+	/**
+	 * Writes all columns of the specified row to the parameters of the specified statement.
+	 * @param row a row
+	 * @param statement a prepared statement
+	 * @return the approximate number of bytes written
+	 * @throws SQLException if a value could not be written
+	 */
+	public long write(Row row, PreparedStatement statement) throws SQLException
+	{
+		return this.write(row, 0, this.codecs.length, statement, 1);
+	}
+
+	/**
+	 * Writes a range of columns of the specified row to consecutive parameters of the specified statement.
+	 * @param row a row
+	 * @param from the 0-based index of the first column to write (inclusive)
+	 * @param to the 0-based index of the last column to write (exclusive)
+	 * @param statement a prepared statement
+	 * @param index the 1-based index of the first parameter
+	 * @return the approximate number of bytes written
+	 * @throws SQLException if a value could not be written
+	 */
+	public long write(Row row, int from, int to, PreparedStatement statement, int index) throws SQLException
+	{
+		long bytes = 0;
+		for (int i = from; i < to; ++i)
+		{
+			bytes += this.codecs[i].write(row, i, statement, index + i - from);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Indicates whether all columns of this codec can be written to a delimited file.
+	 * @return true, if rows can be formatted, false otherwise
+	 */
+	public boolean isFormattable()
+	{
+		for (ColumnCodec codec: this.codecs)
+		{
+			if (!codec.isFormattable()) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Appends the specified row to the specified buffer, as a line of a delimited file.
+	 * @param row a row
+	 * @param builder a buffer
+	 * @return the approximate number of bytes written
+	 * @throws SQLException if a value could not be formatted
+	 * @see net.sf.hajdbc.BulkLoadSupport
+	 */
+	public long format(Row row, StringBuilder builder) throws SQLException
+	{
+		long bytes = 0;
+		for (int i = 0; i < this.codecs.length; ++i)
+		{
+			if (i > 0)
+			{
+				builder.append(',');
+			}
+			bytes += this.codecs[i].format(row, i, builder);
+		}
+		builder.append('\n');
+		return bytes;
+	}
+
+	/**
+	 * Describes the leading columns of the specified row, e.g. its primary key, for use in messages.
+	 * @param row a row
+	 * @param columns the number of leading columns to describe
+	 * @return a comma delimited list of values
+	 */
+	public String describe(Row row, int columns)
+	{
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < columns; ++i)
+		{
+			if (i > 0)
+			{
+				builder.append(", ");
+			}
+			if (row.nulls[i])
+			{
+				builder.append("NULL");
+			}
+			else
+			{
+				this.codecs[i].formatValue(row, i, builder);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Compares the leading columns of the specified rows, e.g. their primary key.
+	 * @param row1 a row
+	 * @param row2 another row
+	 * @param columns the number of leading columns to compare
+	 * @return a negative integer, zero, or a positive integer if the first row is less than, equal to, or greater than the second row
+	 */
+	public int compare(Row row1, Row row2, int columns)
+	{
+		for (int i = 0; i < columns; ++i)
+		{
+			int result = this.codecs[i].compare(row1, row2, i);
+			if (result != 0) return result;
+		}
+		return 0;
+	}
+
+	/**
+	 * Indicates whether a range of columns of the specified rows are equal.
+	 * @param row1 a row
+	 * @param row2 another row
+	 * @param from the 0-based index of the first column to compare (inclusive)
+	 * @param to the 0-based index of the last column to compare (exclusive)
+	 * @return true, if all values in this range are equal, false otherwise
+	 */
+	public boolean equals(Row row1, Row row2, int from, int to)
+	{
+		for (int i = from; i < to; ++i)
+		{
+			if (!this.codecs[i].equals(row1, row2, i)) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,304 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.sf.hajdbc.ExceptionType;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.util.Strings;
+
+/**
+ * Fetches complete rows, identified by their primary key, in set-based batches, i.e. using a single query per batch of keys.
+ * A batch is fetched asynchronously, using a dedicated connection, while the next batch of keys is collected.
+ * At most 2 batches of rows are retained at a time.
+ * Keys must be requested in the order of their primary key.
+ * @author Paul Ferraro
+ */
+public class RowFetcher<C> implements AutoCloseable
+{
+	private static final Logger logger = LoggerFactory.getLogger(RowFetcher.class);
+	private static final Messages messages = MessagesFactory.getMessages();
+	
+	/**
+	 * Handles fetched rows.
+	 */
+	public interface Handler<C>
+	{
+		/**
+		 * Handles the specified fetched row.
+		 * @param row a complete row
+		 * @param context the context with which the key of this row was requested
+		 * @throws SQLException if the row could not be handled
+		 */
+		void handle(Row row, C context) throws SQLException;
+	}
+	
+	private final Connection connection;
+	private final ExecutorService executor;
+	private final String tableName;
+	private final List<String> primaryKeyColumns;
+	private final String columns;
+	private final RowCodec codec;
+	private final int batchSize;
+	private final Handler<C> handler;
+	
+	private PreparedStatement statement = null;
+	private List<Row> keys;
+	private List<C> contexts;
+	private Future<List<Row>> future = null;
+	private List<C> futureContexts = null;
+	
+	/**
+	 * Creates a new row fetcher
+	 * @param connection a connection dedicated to this fetcher, closed along with this fetcher
+	 * @param executor an executor used to fetch batches asynchronously
+	 * @param tableName the name of a table
+	 * @param primaryKeyColumns the primary key columns of this table
+	 * @param columns the columns to fetch, starting with the primary key columns
+	 * @param codec a codec for the columns to fetch
+	 * @param batchSize the maximum number of rows to fetch per query
+	 * @param handler handles the fetched rows
+	 */
+	public RowFetcher(Connection connection, ExecutorService executor, String tableName, List<String> primaryKeyColumns, List<String> columns, RowCodec codec, int batchSize, Handler<C> handler)
+	{
+		this.connection = connection;
+		this.executor = executor;
+		this.tableName = tableName;
+		this.primaryKeyColumns = primaryKeyColumns;
+		this.columns = Strings.join(columns, Strings.PADDED_COMMA);
+		this.codec = codec;
+		this.batchSize = Math.max(batchSize, 1);
+		this.handler = handler;
+		this.keys = new ArrayList<>(this.batchSize);
+		this.contexts = new ArrayList<>(this.batchSize);
+	}
+	
+	/**
+	 * Requests the row identified by the primary key of the specified row.
+	 * The complete row will be passed to the handler, along with the specified context, once its batch is fetched.
+	 * @param key a row whose leading columns contain a primary key
+	 * @param context a context for this request
+	 * @throws SQLException if a previous batch could not be fetched or handled
+	 */
+	public void fetch(Row key, C context) throws SQLException
+	{
+		Row row = this.codec.createRow();
+		row.copy(key, this.primaryKeyColumns.size());
+		
+		this.keys.add(row);
+		this.contexts.add(context);
+		
+		if (this.keys.size() == this.batchSize)
+		{
+			// Wait for, and handle, the previous batch before fetching the next
+			this.complete();
+			
+			final List<Row> keys = this.keys;
+			Callable<List<Row>> task = new Callable<List<Row>>()
+			{
+				@Override
+				public List<Row> call() throws SQLException
+				{
+					return RowFetcher.this.fetch(keys);
+				}
+			};
+			this.futureContexts = this.contexts;
+			this.future = this.executor.submit(task);
+			
+			this.keys = new ArrayList<>(this.batchSize);
+			this.contexts = new ArrayList<>(this.batchSize);
+		}
+	}
+	
+	/**
+	 * Fetches and handles all outstanding requests.
+	 * @throws SQLException if a batch could not be fetched or handled
+	 */
+	public void flush() throws SQLException
+	{
+		this.complete();
+		
+		if (!this.keys.isEmpty())
+		{
+			this.handle(this.fetch(this.keys), this.contexts);
+			
+			this.keys = new ArrayList<>(this.batchSize);
+			this.contexts = new ArrayList<>(this.batchSize);
+		}
+	}
+	
+	private void complete() throws SQLException
+	{
+		Future<List<Row>> future = this.future;
+		
+		if (future != null)
+		{
+			this.future = null;
+			
+			try
+			{
+				this.handle(future.get(), this.futureContexts);
+			}
+			catch (ExecutionException e)
+			{
+				throw ExceptionType.SQL.<SQLException>getExceptionFactory().createException(e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new SQLException(e);
+			}
+		}
+	}
+	
+	private void handle(List<Row> rows, List<C> contexts) throws SQLException
+	{
+		for (int i = 0; i < rows.size(); ++i)
+		{
+			this.handler.handle(rows.get(i), contexts.get(i));
+		}
+	}
+	
+	List<Row> fetch(List<Row> keys) throws SQLException
+	{
+		int keyColumns = this.primaryKeyColumns.size();
+		boolean full = (keys.size() == this.batchSize);
+		
+		if (full && (this.statement == null))
+		{
+			this.statement = this.prepareStatement(keys.size());
+		}
+		
+		PreparedStatement statement = full ? this.statement : this.prepareStatement(keys.size());
+		
+		try
+		{
+			statement.clearParameters();
+			
+			int index = 1;
+			for (Row key: keys)
+			{
+				this.codec.write(key, 0, keyColumns, statement, index);
+				index += keyColumns;
+			}
+			
+			List<Row> rows = new ArrayList<>(keys.size());
+			
+			// Rows are returned in primary key order, i.e. in the order of their keys
+			try (ResultSet resultSet = statement.executeQuery())
+			{
+				for (Row key: keys)
+				{
+					// A missing row precedes either the end of the results, or the row of a subsequent key
+					if (!resultSet.next())
+					{
+						throw new SQLException(messages.rowNotFound(this.tableName, this.codec.describe(key, keyColumns)));
+					}
+					
+					Row row = this.codec.createRow();
+					this.codec.read(resultSet, row);
+					
+					if (this.codec.compare(key, row, keyColumns) != 0)
+					{
+						throw new SQLException(messages.rowNotFound(this.tableName, this.codec.describe(key, keyColumns)));
+					}
+					rows.add(row);
+				}
+			}
+			
+			return rows;
+		}
+		finally
+		{
+			if (!full)
+			{
+				statement.close();
+			}
+		}
+	}
+	
+	private PreparedStatement prepareStatement(int keys) throws SQLException
+	{
+		String keyColumns = Strings.join(this.primaryKeyColumns, Strings.PADDED_COMMA);
+		StringBuilder builder = new StringBuilder("SELECT ").append(this.columns).append(" FROM ").append(this.tableName).append(" WHERE ");
+		
+		if (this.primaryKeyColumns.size() == 1)
+		{
+			// Keyset IN list
+			builder.append(keyColumns).append(" IN (");
+			Strings.join(builder, Collections.nCopies(keys, Strings.QUESTION), Strings.PADDED_COMMA).append(')');
+		}
+		else
+		{
+			String clause = Strings.join(new StringBuilder("("), this.primaryKeyColumns, " = ? AND ").append(" = ?)").toString();
+			Strings.join(builder, Collections.nCopies(keys, clause), " OR ");
+		}
+		
+		String sql = builder.append(" ORDER BY ").append(keyColumns).toString();
+		
+		logger.log(Level.DEBUG, sql);
+		
+		return this.connection.prepareStatement(sql);
+	}
+	
+	@Override
+	public void close()
+	{
+		Future<List<Row>> future = this.future;
+		if (future != null)
+		{
+			// Wait for any outstanding batch to complete before closing its connection
+			try
+			{
+				future.get();
+			}
+			catch (ExecutionException e)
+			{
+				logger.log(Level.DEBUG, e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		try
+		{
+			this.connection.close();
+		}
+		catch (SQLException e)
+		{
+			logger.log(Level.WARN, e);
+		}
+	}
+}
@@ -87,6 +87,12 @@ public interface SynchronizationContext<Z, D extends Database<Z>> extends AutoCl
 	
 	SynchronizationSupport getSynchronizationSupport();
 	
+	/**
+	 * Returns the progress tracker of this synchronization, used to report and throttle the transfer of data from the source database.
+	 * @return a progress tracker
+	 */
+	SynchronizationProgress getProgress();
+	
 	Decoder getDecoder();
 	
 	/**
@@ -20,6 +20,7 @@ package net.sf.hajdbc.sync;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +30,7 @@ import java.util.concurrent.Executors;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
 import net.sf.hajdbc.DatabaseProperties;
+import net.sf.hajdbc.SynchronizationListener;
 import net.sf.hajdbc.balancer.Balancer;
 import net.sf.hajdbc.cache.DatabaseMetaDataCache;
 import net.sf.hajdbc.codec.Decoder;
@@ -53,6 +55,8 @@ public class SynchronizationContextImpl<Z, D extends Database<Z>> implements Syn
 	private final DatabaseProperties targetDatabaseProperties;
 	private final Map<D, Map.Entry<Connection, Boolean>> connectionMap = new HashMap<>();
 	private final ExecutorService executor;
+	private final SynchronizationProgress progress;
+	private final int constraintThreads;
 	
 	/**
 	 * @param cluster
@@ -60,16 +64,55 @@ public class SynchronizationContextImpl<Z, D extends Database<Z>> implements Syn
 	 * @throws SQLException
 	 */
 	public SynchronizationContextImpl(DatabaseCluster<Z, D> cluster, D database) throws SQLException
+	{
+		this(cluster, database, new SynchronizationProgress(database, new SynchronizationThrottle(0, 0), Collections.<SynchronizationListener>emptyList()));
+	}
+	
+	/**
+	 * @param cluster
+	 * @param database
+	 * @param progress
+	 * @throws SQLException
+	 */
+	public SynchronizationContextImpl(DatabaseCluster<Z, D> cluster, D database, SynchronizationProgress progress) throws SQLException
+	{
+		this(cluster, cluster.getBalancer().next(), database, progress);
+	}
+	
+	/**
+	 * @param cluster
+	 * @param sourceDatabase
+	 * @param database
+	 * @param progress
+	 * @throws SQLException
+	 */
+	public SynchronizationContextImpl(DatabaseCluster<Z, D> cluster, D sourceDatabase, D database, SynchronizationProgress progress) throws SQLException
+	{
+		this(cluster, sourceDatabase, database, progress, 1);
+	}
+	
+	/**
+	 * @param cluster
+	 * @param sourceDatabase
+	 * @param database
+	 * @param progress
+	 * @param constraintThreads the number of target connections over which to drop and restore constraints
+	 * @throws SQLException
+	 */
+	public SynchronizationContextImpl(DatabaseCluster<Z, D> cluster, D sourceDatabase, D database, SynchronizationProgress progress, int constraintThreads) throws SQLException
 	{
 		this.cluster = cluster;
+		this.progress = progress;
+		this.constraintThreads = constraintThreads;
 		
 		Balancer<Z, D> balancer = cluster.getBalancer();
 		
-		this.sourceDatabase = balancer.next();
+		this.sourceDatabase = sourceDatabase;
 		
 		this.activeDatabaseSet = balancer;
 		this.targetDatabase = database;
-		this.executor = Executors.newFixedThreadPool(this.activeDatabaseSet.size(), this.cluster.getThreadFactory());
+		// Also runs constraint DDL over multiple target connections
+		this.executor = Executors.newFixedThreadPool(Math.max(this.activeDatabaseSet.size(), constraintThreads), this.cluster.getThreadFactory());
 		
 		DatabaseMetaDataCache<Z, D> cache = cluster.getDatabaseMetaDataCache();
 		
@@ -176,7 +219,17 @@ public class SynchronizationContextImpl<Z, D extends Database<Z>> implements Syn
 	@Override
 	public SynchronizationSupport getSynchronizationSupport()
 	{
-		return new SynchronizationSupportImpl<>(this);
+		return new SynchronizationSupportImpl<>(this, this.constraintThreads);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.sync.SynchronizationContext#getProgress()
+	 */
+	@Override
+	public SynchronizationProgress getProgress()
+	{
+		return this.progress;
 	}
 
 	/**
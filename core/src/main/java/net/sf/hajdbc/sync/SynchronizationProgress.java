@@ -0,0 +1,264 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.SynchronizationListener;
+import net.sf.hajdbc.SynchronizationProgressListener;
+import net.sf.hajdbc.TableProperties;
+
+/**
+ * Tracks the progress of the synchronization of a database, and applies the rate limits of a {@link SynchronizationThrottle}.
+ * Registered {@link SynchronizationProgressListener}s are notified at most once per second, and upon completion of each table.
+ * @author Paul Ferraro
+ */
+public class SynchronizationProgress
+{
+	private static final long NOTIFICATION_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+	
+	private final Database<?> database;
+	private final SynchronizationThrottle throttle;
+	private final Collection<SynchronizationListener> listeners;
+	private final long startTime = System.nanoTime();
+	private final AtomicLong lastNotificationTime = new AtomicLong(this.startTime);
+	private final AtomicInteger completedTables = new AtomicInteger();
+	private final AtomicLong rows = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+	private volatile int tables = 0;
+	private volatile String currentTable = null;
+	private volatile Collection<?> queue = null;
+	
+	public SynchronizationProgress(Database<?> database, SynchronizationThrottle throttle, Collection<SynchronizationListener> listeners)
+	{
+		this.database = database;
+		this.throttle = throttle;
+		this.listeners = listeners;
+	}
+	
+	/**
+	 * Indicates the total number of tables to be synchronized.
+	 * @param tables a number of tables
+	 */
+	public void start(int tables)
+	{
+		this.tables = tables;
+	}
+	
+	/**
+	 * Indicates that synchronization of the specified table has begun.
+	 * @param table a table
+	 */
+	public void startTable(TableProperties table)
+	{
+		this.currentTable = table.getName().getDMLName();
+	}
+	
+	/**
+	 * Indicates that synchronization of the specified table has completed.
+	 * @param table a table
+	 */
+	public void completeTable(TableProperties table)
+	{
+		this.completedTables.incrementAndGet();
+		this.currentTable = null;
+		this.notifyListeners();
+	}
+	
+	/**
+	 * Accounts for the specified number of rows and bytes read from the source database.
+	 * Blocks the caller, if necessary, to honor the ceilings of the throttle.
+	 * @param rows a number of rows
+	 * @param bytes an estimated number of bytes
+	 * @throws SQLException if interrupted while throttled
+	 */
+	public void transfer(long rows, long bytes) throws SQLException
+	{
+		this.rows.addAndGet(rows);
+		this.bytes.addAndGet(bytes);
+		
+		try
+		{
+			this.throttle.acquire(rows, bytes);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new SQLException(e);
+		}
+		
+		long now = System.nanoTime();
+		long lastNotification = this.lastNotificationTime.get();
+		
+		if ((now - lastNotification >= NOTIFICATION_INTERVAL) && this.lastNotificationTime.compareAndSet(lastNotification, now))
+		{
+			this.notifyListeners();
+		}
+	}
+	
+	private void notifyListeners()
+	{
+		SynchronizationProgressEvent event = null;
+		
+		for (SynchronizationListener listener: this.listeners)
+		{
+			if (listener instanceof SynchronizationProgressListener)
+			{
+				if (event == null)
+				{
+					event = new SynchronizationProgressEvent(this.database, this);
+				}
+				((SynchronizationProgressListener) listener).synchronizationProgress(event);
+			}
+		}
+	}
+	
+	/**
+	 * Indicates the queue of rows read from the source database, but not yet written to the target database, if synchronization is pipelined.
+	 * @param queue a queue of rows, or null if synchronization is not currently pipelined
+	 */
+	public void setQueue(Collection<?> queue)
+	{
+		this.queue = queue;
+	}
+	
+	/**
+	 * @return the database being synchronized
+	 */
+	public Database<?> getDatabase()
+	{
+		return this.database;
+	}
+	
+	/**
+	 * @return the name of the table currently being synchronized, or null if none.
+	 */
+	public String getCurrentTable()
+	{
+		return this.currentTable;
+	}
+	
+	/**
+	 * @return the total number of tables to synchronize
+	 */
+	public int getTables()
+	{
+		return this.tables;
+	}
+	
+	/**
+	 * @return the number of tables synchronized so far
+	 */
+	public int getCompletedTables()
+	{
+		return this.completedTables.get();
+	}
+	
+	/**
+	 * @return the number of rows read from the source database so far
+	 */
+	public long getRows()
+	{
+		return this.rows.get();
+	}
+	
+	/**
+	 * @return the estimated number of bytes read from the source database so far
+	 */
+	public long getBytes()
+	{
+		return this.bytes.get();
+	}
+	
+	/**
+	 * @return the number of rows read from the source database, but not yet written to the target database, or 0 if synchronization is not currently pipelined
+	 */
+	public int getQueueDepth()
+	{
+		Collection<?> queue = this.queue;
+		return (queue != null) ? queue.size() : 0;
+	}
+	
+	/**
+	 * @return the number of milliseconds elapsed since synchronization began
+	 */
+	public long getElapsedTime()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTime);
+	}
+	
+	/**
+	 * @return the average number of rows read per second
+	 */
+	public double getRowsPerSecond()
+	{
+		return rate(this.rows.get(), System.nanoTime() - this.startTime);
+	}
+	
+	/**
+	 * @return the average number of bytes read per second
+	 */
+	public double getBytesPerSecond()
+	{
+		return rate(this.bytes.get(), System.nanoTime() - this.startTime);
+	}
+	
+	private static double rate(long amount, long nanos)
+	{
+		return (nanos > 0) ? amount * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0d;
+	}
+	
+	/**
+	 * Estimates the time remaining, extrapolated from the number of completed tables.
+	 * @return the estimated number of milliseconds until synchronization completes, or -1 if not yet known.
+	 */
+	public long getEstimatedTimeRemaining()
+	{
+		int tables = this.tables;
+		int completedTables = this.completedTables.get();
+		
+		if ((tables == 0) || (completedTables == 0)) return -1L;
+		
+		long elapsed = this.getElapsedTime();
+		
+		return elapsed * (tables - completedTables) / completedTables;
+	}
+	
+	/**
+	 * Estimates the number of bytes occupied by the specified column value.
+	 * @param object a column value
+	 * @return an estimated number of bytes
+	 * @throws SQLException if the length of a large object could not be determined
+	 */
+	public static long sizeOf(Object object) throws SQLException
+	{
+		if (object == null) return 0L;
+		if (object instanceof byte[]) return ((byte[]) object).length;
+		if (object instanceof CharSequence) return ((CharSequence) object).length() * 2L;
+		if (object instanceof Blob) return ((Blob) object).length();
+		if (object instanceof Clob) return ((Clob) object).length() * 2L;
+		return Long.SIZE / Byte.SIZE;
+	}
+}
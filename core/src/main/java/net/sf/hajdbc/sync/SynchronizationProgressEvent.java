@@ -0,0 +1,127 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.state.DatabaseEvent;
+
+/**
+ * Snapshot of the progress of the synchronization of a database.
+ * @author Paul Ferraro
+ */
+public class SynchronizationProgressEvent extends DatabaseEvent
+{
+	private static final long serialVersionUID = 3583520405218718094L;
+
+	private final String table;
+	private final int tables;
+	private final int completedTables;
+	private final long rows;
+	private final long bytes;
+	private final int queueDepth;
+	private final double rowsPerSecond;
+	private final double bytesPerSecond;
+	private final long estimatedTimeRemaining;
+	
+	public SynchronizationProgressEvent(Database<?> database, SynchronizationProgress progress)
+	{
+		super(database);
+		
+		this.table = progress.getCurrentTable();
+		this.tables = progress.getTables();
+		this.completedTables = progress.getCompletedTables();
+		this.rows = progress.getRows();
+		this.bytes = progress.getBytes();
+		this.queueDepth = progress.getQueueDepth();
+		this.rowsPerSecond = progress.getRowsPerSecond();
+		this.bytesPerSecond = progress.getBytesPerSecond();
+		this.estimatedTimeRemaining = progress.getEstimatedTimeRemaining();
+	}
+
+	/**
+	 * @return the name of the table currently being synchronized, or null if none.
+	 */
+	public String getTable()
+	{
+		return this.table;
+	}
+
+	/**
+	 * @return the total number of tables to synchronize
+	 */
+	public int getTables()
+	{
+		return this.tables;
+	}
+
+	/**
+	 * @return the number of tables synchronized so far
+	 */
+	public int getCompletedTables()
+	{
+		return this.completedTables;
+	}
+
+	/**
+	 * @return the number of rows read from the source database so far
+	 */
+	public long getRows()
+	{
+		return this.rows;
+	}
+
+	/**
+	 * @return the estimated number of bytes read from the source database so far
+	 */
+	public long getBytes()
+	{
+		return this.bytes;
+	}
+
+	/**
+	 * @return the number of rows read from the source database, but not yet written to the target database
+	 */
+	public int getQueueDepth()
+	{
+		return this.queueDepth;
+	}
+
+	/**
+	 * @return the average number of rows read per second
+	 */
+	public double getRowsPerSecond()
+	{
+		return this.rowsPerSecond;
+	}
+
+	/**
+	 * @return the average number of bytes read per second
+	 */
+	public double getBytesPerSecond()
+	{
+		return this.bytesPerSecond;
+	}
+
+	/**
+	 * @return the estimated number of milliseconds until synchronization completes, or -1 if not yet known.
+	 */
+	public long getEstimatedTimeRemaining()
+	{
+		return this.estimatedTimeRemaining;
+	}
+}
@@ -23,14 +23,21 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.ExceptionType;
@@ -40,6 +47,7 @@ import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequenceSupport;
 import net.sf.hajdbc.TableProperties;
 import net.sf.hajdbc.UniqueConstraint;
+import net.sf.hajdbc.codec.Decoder;
 import net.sf.hajdbc.dialect.Dialect;
 import net.sf.hajdbc.logging.Level;
 import net.sf.hajdbc.logging.Logger;
@@ -58,10 +66,21 @@ public class SynchronizationSupportImpl<Z, D extends Database<Z>> implements Syn
 	private static final Logger logger = LoggerFactory.getLogger(SynchronizationSupport.class);
 	
 	private final SynchronizationContext<Z, D> context;
+	private final int threads;
 	
 	public SynchronizationSupportImpl(SynchronizationContext<Z, D> context)
+	{
+		this(context, 1);
+	}
+	
+	/**
+	 * @param context a synchronization context, whose executor runs constraint DDL over multiple connections
+	 * @param threads the number of target connections over which to drop and restore constraints
+	 */
+	public SynchronizationSupportImpl(SynchronizationContext<Z, D> context, int threads)
 	{
 		this.context = context;
+		this.threads = threads;
 	}
 	
 	/**
@@ -72,33 +91,18 @@ public class SynchronizationSupportImpl<Z, D extends Database<Z>> implements Syn
 	public void dropForeignKeys() throws SQLException
 	{
 		Dialect dialect = this.context.getDialect();
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		Map<String, String> components = components(this.context.getTargetDatabaseProperties().getTables());
 		
-		Connection connection = this.context.getConnection(this.context.getTargetDatabase());
-		boolean autoCommit = connection.getAutoCommit();
-		try
+		for (TableProperties table: this.context.getTargetDatabaseProperties().getTables())
 		{
-			connection.setAutoCommit(true);
-			
-			try (Statement statement = connection.createStatement())
+			for (ForeignKeyConstraint constraint: table.getForeignKeyConstraints())
 			{
-				for (TableProperties table: this.context.getTargetDatabaseProperties().getTables())
-				{
-					for (ForeignKeyConstraint constraint: table.getForeignKeyConstraints())
-					{
-						String sql = dialect.getDropForeignKeyConstraintSQL(constraint);
-						
-						logger.log(Level.DEBUG, sql);
-						
-						statement.addBatch(sql);
-					}
-				}
-				statement.executeBatch();
+				add(groups, components.get(table.getName().getDMLName()), dialect.getDropForeignKeyConstraintSQL(constraint));
 			}
 		}
-		finally
-		{
-			connection.setAutoCommit(autoCommit);
-		}
+		
+		this.execute("drop foreign key", groups.values());
 	}
 	
 	/**
@@ -109,34 +113,18 @@ public class SynchronizationSupportImpl<Z, D extends Database<Z>> implements Syn
 	public void restoreForeignKeys() throws SQLException
 	{
 		Dialect dialect = this.context.getDialect();
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		Map<String, String> components = components(this.context.getSourceDatabaseProperties().getTables());
 		
-		Connection connection = this.context.getConnection(this.context.getTargetDatabase());
-		boolean autoCommit = connection.getAutoCommit();
-		try
+		for (TableProperties table: this.context.getSourceDatabaseProperties().getTables())
 		{
-			connection.setAutoCommit(true);
-			
-			try (Statement statement = connection.createStatement())
+			for (ForeignKeyConstraint constraint: table.getForeignKeyConstraints())
 			{
-				for (TableProperties table: this.context.getSourceDatabaseProperties().getTables())
-				{
-					for (ForeignKeyConstraint constraint: table.getForeignKeyConstraints())
-					{
-						String sql = dialect.getCreateForeignKeyConstraintSQL(constraint);
-						
-						logger.log(Level.DEBUG, sql);
-						
-						statement.addBatch(sql);
-					}
-				}
-				
-				statement.executeBatch();
+				add(groups, components.get(table.getName().getDMLName()), dialect.getCreateForeignKeyConstraintSQL(constraint));
 			}
 		}
-		finally
-		{
-			connection.setAutoCommit(autoCommit);
-		}
+		
+		this.execute("restore foreign key", groups.values());
 	}
 	
 	/**
@@ -312,34 +300,17 @@ public class SynchronizationSupportImpl<Z, D extends Database<Z>> implements Syn
 	public void dropUniqueConstraints() throws SQLException
 	{
 		Dialect dialect = this.context.getDialect();
-
-		Connection connection = this.context.getConnection(this.context.getTargetDatabase());
-		boolean autoCommit = connection.getAutoCommit();
-		try
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		
+		for (TableProperties table: this.context.getTargetDatabaseProperties().getTables())
 		{
-			connection.setAutoCommit(true);
-			
-			try (Statement statement = connection.createStatement())
+			for (UniqueConstraint constraint: table.getUniqueConstraints())
 			{
-				for (TableProperties table: this.context.getTargetDatabaseProperties().getTables())
-				{
-					for (UniqueConstraint constraint: table.getUniqueConstraints())
-					{
-						String sql = dialect.getDropUniqueConstraintSQL(constraint);
-						
-						logger.log(Level.DEBUG, sql);
-						
-						statement.addBatch(sql);
-					}
-				}
-				
-				statement.executeBatch();
+				add(groups, table.getName().getDMLName(), dialect.getDropUniqueConstraintSQL(constraint));
 			}
 		}
-		finally
-		{
-			connection.setAutoCommit(autoCommit);
-		}
+		
+		this.execute("drop unique constraint", groups.values());
 	}
 	
 	/**
@@ -350,34 +321,238 @@ public class SynchronizationSupportImpl<Z, D extends Database<Z>> implements Syn
 	public void restoreUniqueConstraints() throws SQLException
 	{
 		Dialect dialect = this.context.getDialect();
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		
+		for (TableProperties table: this.context.getSourceDatabaseProperties().getTables())
+		{
+			for (UniqueConstraint constraint: table.getUniqueConstraints())
+			{
+				add(groups, table.getName().getDMLName(), dialect.getCreateUniqueConstraintSQL(constraint));
+			}
+		}
+		
+		this.execute("restore unique constraint", groups.values());
+	}
 
-		Connection connection = this.context.getConnection(this.context.getTargetDatabase());
-		boolean autoCommit = connection.getAutoCommit();
-		try
+	private static void add(Map<String, List<String>> groups, String key, String sql)
+	{
+		List<String> group = groups.get(key);
+		
+		if (group == null)
 		{
-			connection.setAutoCommit(true);
+			group = new LinkedList<>();
+			groups.put(key, group);
+		}
+		
+		group.add(sql);
+	}
+	
+	/**
+	 * Partitions the specified tables into sets of tables related via foreign keys.
+	 * Foreign key DDL locks both the referencing and the referenced table, so DDL for tables of different sets can execute concurrently without deadlocking.
+	 * @return a map of table name to the name of a representative table of its set
+	 */
+	static Map<String, String> components(Collection<TableProperties> tables) throws SQLException
+	{
+		Map<String, String> parents = new HashMap<>();
+		
+		for (TableProperties table: tables)
+		{
+			String name = table.getName().getDMLName();
 			
-			try (Statement statement = connection.createStatement())
+			for (ForeignKeyConstraint constraint: table.getForeignKeyConstraints())
 			{
-				for (TableProperties table: this.context.getSourceDatabaseProperties().getTables())
+				String root = find(parents, name);
+				String foreignRoot = find(parents, constraint.getForeignTable().getDMLName());
+				
+				if (!root.equals(foreignRoot))
 				{
-					// Drop unique constraints on the current table
-					for (UniqueConstraint constraint: table.getUniqueConstraints())
+					parents.put(foreignRoot, root);
+				}
+			}
+		}
+		
+		Map<String, String> components = new HashMap<>();
+		
+		for (TableProperties table: tables)
+		{
+			String name = table.getName().getDMLName();
+			components.put(name, find(parents, name));
+		}
+		
+		return components;
+	}
+	
+	private static String find(Map<String, String> parents, String name)
+	{
+		String root = name;
+		String parent = parents.get(root);
+		
+		while (parent != null)
+		{
+			root = parent;
+			parent = parents.get(root);
+		}
+		
+		// Compress path
+		if (!root.equals(name))
+		{
+			parents.put(name, root);
+		}
+		
+		return root;
+	}
+	
+	/**
+	 * Executes the specified groups of DDL statements against the target database.
+	 * Each group is executed serially, while distinct groups are executed in parallel, each via one of up to {@link #threads} connections, using the executor of the synchronization context.
+	 * @param phase a description of the statements, used for logging
+	 * @param groups groups of DDL statements
+	 * @throws SQLException if any statement failed
+	 */
+	private void execute(String phase, Collection<List<String>> groups) throws SQLException
+	{
+		int count = 0;
+		
+		for (List<String> group: groups)
+		{
+			count += group.size();
+		}
+		
+		if (count == 0) return;
+		
+		long start = System.nanoTime();
+		int threads = Math.min(this.threads, groups.size());
+		
+		if (threads > 1)
+		{
+			this.execute(groups, threads);
+		}
+		else
+		{
+			Connection connection = this.context.getConnection(this.context.getTargetDatabase());
+			boolean autoCommit = connection.getAutoCommit();
+			try
+			{
+				connection.setAutoCommit(true);
+				
+				try (Statement statement = connection.createStatement())
+				{
+					for (List<String> group: groups)
 					{
-						String sql = dialect.getCreateUniqueConstraintSQL(constraint);
-						
-						logger.log(Level.DEBUG, sql);
+						for (String sql: group)
+						{
+							logger.log(Level.DEBUG, sql);
+							
+							statement.addBatch(sql);
+						}
+					}
+					
+					statement.executeBatch();
+				}
+			}
+			finally
+			{
+				connection.setAutoCommit(autoCommit);
+			}
+		}
+		
+		logger.log(Level.INFO, messages.constraintPhase(this.context.getTargetDatabase(), phase, count, threads, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+	}
+	
+	private void execute(Collection<List<String>> groups, int threads) throws SQLException
+	{
+		final D database = this.context.getTargetDatabase();
+		final Decoder decoder = this.context.getDecoder();
+		final Queue<List<String>> queue = new ConcurrentLinkedQueue<>(groups);
+		
+		Callable<Void> task = new Callable<Void>()
+		{
+			@Override
+			public Void call() throws SQLException
+			{
+				try (Connection connection = database.connect(decoder))
+				{
+					connection.setAutoCommit(true);
+					
+					try (Statement statement = connection.createStatement())
+					{
+						List<String> group = queue.poll();
 						
-						statement.addBatch(sql);
+						while (group != null)
+						{
+							for (String sql: group)
+							{
+								logger.log(Level.DEBUG, sql);
+								
+								statement.addBatch(sql);
+							}
+							
+							statement.executeBatch();
+							
+							group = queue.poll();
+						}
 					}
 				}
-				
-				statement.executeBatch();
+				catch (SQLException e)
+				{
+					// Abandon remaining groups
+					queue.clear();
+					throw e;
+				}
+				return null;
+			}
+		};
+		
+		ExecutorService executor = this.context.getExecutor();
+		List<Future<Void>> futures = new ArrayList<>(threads);
+		
+		try
+		{
+			for (int i = 0; i < threads; ++i)
+			{
+				futures.add(executor.submit(task));
+			}
+			
+			SQLException exception = null;
+			
+			for (Future<Void> future: futures)
+			{
+				try
+				{
+					future.get();
+				}
+				catch (ExecutionException e)
+				{
+					SQLException cause = ExceptionType.SQL.<SQLException>getExceptionFactory().createException(e.getCause());
+					
+					if (exception == null)
+					{
+						exception = cause;
+					}
+					else
+					{
+						exception.setNextException(cause);
+					}
+				}
+			}
+			
+			if (exception != null)
+			{
+				throw exception;
 			}
 		}
-		finally
+		catch (InterruptedException e)
 		{
-			connection.setAutoCommit(autoCommit);
+			Thread.currentThread().interrupt();
+			
+			// The executor outlives this phase, so abandon any remaining groups
+			queue.clear();
+			for (Future<Void> future: futures)
+			{
+				future.cancel(true);
+			}
+			throw new SQLException(e);
 		}
 	}
 
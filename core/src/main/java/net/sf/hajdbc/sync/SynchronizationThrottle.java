@@ -0,0 +1,118 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which rows and/or bytes are read from the source database during synchronization.
+ * Both ceilings may be adjusted while a synchronization is in progress.  A ceiling of 0 indicates no limit.
+ * @author Paul Ferraro
+ */
+public class SynchronizationThrottle
+{
+	private volatile long maxRowsPerSecond;
+	private volatile long maxBytesPerSecond;
+	// Guarded by this
+	private long nextAvailableTime = System.nanoTime();
+	
+	public SynchronizationThrottle(long maxRowsPerSecond, long maxBytesPerSecond)
+	{
+		this.setMaxRowsPerSecond(maxRowsPerSecond);
+		this.setMaxBytesPerSecond(maxBytesPerSecond);
+	}
+	
+	/**
+	 * Accounts for the transfer of the specified number of rows and bytes, blocking the caller if necessary to honor the configured ceilings.
+	 * @param rows a number of rows
+	 * @param bytes a number of bytes
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void acquire(long rows, long bytes) throws InterruptedException
+	{
+		long cost = Math.max(cost(rows, this.maxRowsPerSecond), cost(bytes, this.maxBytesPerSecond));
+		
+		if (cost == 0) return;
+		
+		long delay = 0;
+		
+		synchronized (this)
+		{
+			long now = System.nanoTime();
+			
+			// Don't accumulate credit while idle
+			if (this.nextAvailableTime - now < 0)
+			{
+				this.nextAvailableTime = now;
+			}
+			
+			delay = this.nextAvailableTime - now;
+			this.nextAvailableTime += cost;
+		}
+		
+		if (delay > 0)
+		{
+			TimeUnit.NANOSECONDS.sleep(delay);
+		}
+	}
+	
+	private static long cost(long amount, long rate)
+	{
+		return (rate > 0) ? (long) (amount * (double) TimeUnit.SECONDS.toNanos(1) / rate) : 0L;
+	}
+	
+	/**
+	 * @return the maximum number of rows to read per second, or 0, if unlimited.
+	 */
+	public long getMaxRowsPerSecond()
+	{
+		return this.maxRowsPerSecond;
+	}
+	
+	/**
+	 * @param maxRowsPerSecond the maximum number of rows to read per second, or 0, if unlimited.
+	 */
+	public void setMaxRowsPerSecond(long maxRowsPerSecond)
+	{
+		if (maxRowsPerSecond < 0)
+		{
+			throw new IllegalArgumentException(String.valueOf(maxRowsPerSecond));
+		}
+		this.maxRowsPerSecond = maxRowsPerSecond;
+	}
+	
+	/**
+	 * @return the maximum number of bytes to read per second, or 0, if unlimited.
+	 */
+	public long getMaxBytesPerSecond()
+	{
+		return this.maxBytesPerSecond;
+	}
+	
+	/**
+	 * @param maxBytesPerSecond the maximum number of bytes to read per second, or 0, if unlimited.
+	 */
+	public void setMaxBytesPerSecond(long maxBytesPerSecond)
+	{
+		if (maxBytesPerSecond < 0)
+		{
+			throw new IllegalArgumentException(String.valueOf(maxBytesPerSecond));
+		}
+		this.maxBytesPerSecond = maxBytesPerSecond;
+	}
+}
@@ -156,6 +156,23 @@ public class Objects
 //		}
 	}
 	
+	/**
+	 * Spreads the bits of the specified value, e.g. a hash code, using the finalization mix of MurmurHash3.
+	 * Useful for consistent hashing, since the hash codes of similar objects (e.g. table names) are poorly distributed.
+	 * @param value a value
+	 * @return a mixed value
+	 */
+	public static long mix(long value)
+	{
+		long hash = value;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+	
 	private Objects()
 	{
 		// Hide
@@ -52,6 +52,25 @@ public class ServiceLoaders
 		return null;
 	}
 
+	public static <T> List<T> findServices(Class<T> serviceClass)
+	{
+		List<T> services = new LinkedList<>();
+		Iterator<T> providers = ServiceLoader.load(serviceClass, serviceClass.getClassLoader()).iterator();
+		
+		while (providers.hasNext())
+		{
+			try
+			{
+				services.add(providers.next());
+			}
+			catch (ServiceConfigurationError e)
+			{
+				logger.log(Level.DEBUG, e.getLocalizedMessage());
+			}
+		}
+		return services;
+	}
+
 	public static <T> T findRequiredService(Class<T> serviceClass)
 	{
 		T service = findService(serviceClass);
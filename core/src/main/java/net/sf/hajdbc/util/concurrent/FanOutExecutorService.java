@@ -0,0 +1,263 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor service for fanning out invocations across databases.
+ * <ul>
+ * <li>{@link #invokeAll(Collection)} executes the first task (i.e. the invocation against the primary database) in the caller thread, and dispatches only the remaining tasks.</li>
+ * <li>The number of outstanding tasks per {@link PartitionedTask partition} is bounded.
+ * Once a partition is full, subsequent tasks for that partition are executed by the submitting thread, so that a slow database applies backpressure to its callers, rather than accumulating an unbounded backlog.
+ * Running the task, rather than waiting for a free slot, ensures that a full partition cannot deadlock, e.g. when all of its tasks wait on a row lock held by a transaction whose commit is itself waiting for a free slot.</li>
+ * </ul>
+ * @author Paul Ferraro
+ */
+public class FanOutExecutorService extends AbstractExecutorService
+{
+	private final ExecutorService executor;
+	private final int maxPending;
+	private final ConcurrentMap<Object, Semaphore> partitions = new ConcurrentHashMap<>();
+	
+	/**
+	 * Constructs a new fan-out executor
+	 * @param executor the executor to which tasks are dispatched
+	 * @param maxPending the maximum number of outstanding tasks per partition
+	 */
+	public FanOutExecutorService(ExecutorService executor, int maxPending)
+	{
+		this.executor = executor;
+		this.maxPending = maxPending;
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> task)
+	{
+		return (task instanceof PartitionedTask) ? new PartitionedFutureTask<>(task, ((PartitionedTask) task).getPartition()) : super.newTaskFor(task);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Executor#execute(java.lang.Runnable)
+	 */
+	@Override
+	public void execute(final Runnable task)
+	{
+		if (!(task instanceof PartitionedTask))
+		{
+			this.executor.execute(task);
+			return;
+		}
+		
+		final Semaphore semaphore = this.getSemaphore(((PartitionedTask) task).getPartition());
+		
+		if (!semaphore.tryAcquire())
+		{
+			task.run();
+			return;
+		}
+		
+		Runnable releasingTask = new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					task.run();
+				}
+				finally
+				{
+					semaphore.release();
+				}
+			}
+		};
+		
+		try
+		{
+			this.executor.execute(releasingTask);
+		}
+		catch (RejectedExecutionException e)
+		{
+			semaphore.release();
+			throw e;
+		}
+	}
+	
+	private Semaphore getSemaphore(Object partition)
+	{
+		Semaphore semaphore = this.partitions.get(partition);
+		
+		if (semaphore == null)
+		{
+			Semaphore newSemaphore = new Semaphore(this.maxPending);
+			semaphore = this.partitions.putIfAbsent(partition, newSemaphore);
+			
+			if (semaphore == null)
+			{
+				semaphore = newSemaphore;
+			}
+		}
+		
+		return semaphore;
+	}
+
+	/**
+	 * Executes the first task in the caller thread, while the remaining tasks are executed by the underlying executor.
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.AbstractExecutorService#invokeAll(java.util.Collection)
+	 */
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException
+	{
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		
+		if (tasks.isEmpty()) return futures;
+		
+		boolean done = false;
+		
+		try
+		{
+			Iterator<? extends Callable<T>> callables = tasks.iterator();
+			RunnableFuture<T> first = this.newTaskFor(callables.next());
+			futures.add(first);
+			
+			while (callables.hasNext())
+			{
+				RunnableFuture<T> future = this.newTaskFor(callables.next());
+				futures.add(future);
+				this.execute(future);
+			}
+			
+			// Execute directly - bypassing any partition limit, since the caller is not queued
+			first.run();
+			
+			for (Future<T> future: futures)
+			{
+				if (!future.isDone())
+				{
+					try
+					{
+						future.get();
+					}
+					catch (ExecutionException e)
+					{
+						// Ignore
+					}
+					catch (CancellationException e)
+					{
+						// Ignore
+					}
+				}
+			}
+			
+			done = true;
+			
+			return futures;
+		}
+		finally
+		{
+			if (!done)
+			{
+				for (Future<T> future: futures)
+				{
+					future.cancel(true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#shutdown()
+	 */
+	@Override
+	public void shutdown()
+	{
+		this.executor.shutdown();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#shutdownNow()
+	 */
+	@Override
+	public List<Runnable> shutdownNow()
+	{
+		return this.executor.shutdownNow();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#isShutdown()
+	 */
+	@Override
+	public boolean isShutdown()
+	{
+		return this.executor.isShutdown();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#isTerminated()
+	 */
+	@Override
+	public boolean isTerminated()
+	{
+		return this.executor.isTerminated();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#awaitTermination(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return this.executor.awaitTermination(timeout, unit);
+	}
+	
+	private static class PartitionedFutureTask<T> extends FutureTask<T> implements PartitionedTask
+	{
+		private final Object partition;
+		
+		PartitionedFutureTask(Callable<T> task, Object partition)
+		{
+			super(task);
+			this.partition = partition;
+		}
+
+		@Override
+		public Object getPartition()
+		{
+			return this.partition;
+		}
+	}
+}
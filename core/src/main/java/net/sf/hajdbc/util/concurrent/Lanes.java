@@ -0,0 +1,255 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.concurrent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import net.sf.hajdbc.TransactionLanes;
+
+/**
+ * The ordered, single-consumer lanes of a transaction, per partition, via which an {@link OrderedExecutor} executes the tasks it leaves pending.
+ * Once a task fails, subsequent tasks in the same lane fail with the same exception, without executing.
+ * @author Paul Ferraro
+ */
+public class Lanes implements TransactionLanes
+{
+	private final Map<Object, Lane> lanes = new HashMap<>();
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.TransactionLanes#submit(java.lang.Object, java.util.concurrent.Callable, java.util.concurrent.Executor)
+	 */
+	@Override
+	public synchronized <T> Future<T> submit(Object partition, Callable<T> task, Executor executor)
+	{
+		Lane lane = this.lanes.get(partition);
+
+		if (lane == null)
+		{
+			lane = new Lane(executor);
+			this.lanes.put(partition, lane);
+		}
+
+		return lane.submit(task);
+	}
+
+	/**
+	 * Waits, uninterruptibly, for the pending tasks of every lane to complete, then discards all lanes.
+	 * @return the failure of each partition whose lane failed
+	 */
+	public synchronized Map<Object, Throwable> await()
+	{
+		if (this.lanes.isEmpty()) return Collections.emptyMap();
+
+		Map<Object, Throwable> failures = new HashMap<>();
+
+		for (Map.Entry<Object, Lane> entry: this.lanes.entrySet())
+		{
+			Lane lane = entry.getValue();
+
+			lane.await();
+
+			Throwable failure = lane.getFailure();
+
+			if (failure != null)
+			{
+				failures.put(entry.getKey(), failure);
+			}
+		}
+
+		this.lanes.clear();
+
+		return failures;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.TransactionLanes#clear()
+	 */
+	@Override
+	public synchronized void clear()
+	{
+		this.lanes.clear();
+	}
+
+	/**
+	 * Executes its tasks one at a time, in submission order, via an executor.
+	 */
+	private static class Lane implements Runnable
+	{
+		private final Executor executor;
+		private final Queue<Runnable> tasks = new LinkedList<>();
+		private boolean running = false;
+		private volatile Throwable failure;
+
+		Lane(Executor executor)
+		{
+			this.executor = executor;
+		}
+
+		<T> Future<T> submit(Callable<T> task)
+		{
+			LaneTask<T> future = new LaneTask<>(this, task);
+
+			// A failed lane need not wait its turn
+			if (this.failure != null)
+			{
+				future.run();
+				return future;
+			}
+
+			synchronized (this)
+			{
+				this.tasks.add(future);
+
+				if (this.running) return future;
+
+				this.running = true;
+			}
+
+			try
+			{
+				this.executor.execute(this);
+			}
+			catch (RejectedExecutionException e)
+			{
+				synchronized (this)
+				{
+					this.tasks.remove(future);
+					this.running = false;
+					this.notifyAll();
+				}
+				throw e;
+			}
+
+			return future;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run()
+		{
+			while (true)
+			{
+				Runnable task = null;
+
+				synchronized (this)
+				{
+					task = this.tasks.poll();
+
+					if (task == null)
+					{
+						this.running = false;
+						this.notifyAll();
+						return;
+					}
+				}
+
+				task.run();
+			}
+		}
+
+		synchronized void await()
+		{
+			boolean interrupted = false;
+
+			while (this.running)
+			{
+				try
+				{
+					this.wait();
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+				}
+			}
+
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		void fail(Throwable exception)
+		{
+			this.failure = exception;
+		}
+
+		Throwable getFailure()
+		{
+			return this.failure;
+		}
+	}
+
+	/**
+	 * Task that fails without executing if a previous task of its lane failed.
+	 */
+	private static class LaneTask<T> extends FutureTask<T>
+	{
+		private final Lane lane;
+
+		LaneTask(Lane lane, Callable<T> task)
+		{
+			super(task);
+			this.lane = lane;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @see java.util.concurrent.FutureTask#run()
+		 */
+		@Override
+		public void run()
+		{
+			Throwable failure = this.lane.getFailure();
+
+			if (failure != null)
+			{
+				this.setException(failure);
+			}
+			else
+			{
+				super.run();
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @see java.util.concurrent.FutureTask#setException(java.lang.Throwable)
+		 */
+		@Override
+		protected void setException(Throwable exception)
+		{
+			this.lane.fail(exception);
+			super.setException(exception);
+		}
+	}
+}
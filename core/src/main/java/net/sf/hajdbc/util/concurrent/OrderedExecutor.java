@@ -0,0 +1,235 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.hajdbc.TransactionCompletion;
+import net.sf.hajdbc.TransactionLanes;
+
+/**
+ * Executor service that executes the tasks of each {@link PartitionedTask partition} via the ordered, single-consumer {@link Lanes lanes} of a transaction.
+ * <ul>
+ * <li>{@link #invokeAll(Collection)} executes the first task (i.e. the invocation against the primary database) in the caller thread, then appends the remaining tasks to the lane of their partition.
+ * Thus the statements of a transaction are never reordered against a given database, while different databases proceed concurrently.</li>
+ * <li>Depending on the {@link TransactionCompletion}, the caller then waits for every task, or for the first task only.
+ * Tasks are only left pending if the first task returned a simple value (e.g. an update count), since other results (e.g. result sets, savepoints) are needed from every database.
+ * {@link #invokeAll(Collection)} may therefore return futures that are not yet done.</li>
+ * <li>Tasks that end a transaction wait for every lane to drain, and execute the first task last, as per {@link SynchronousExecutor}.
+ * The lanes of the transaction are discarded thereafter.</li>
+ * <li>Once a task fails, subsequent tasks in the same lane fail with the same exception, without executing.
+ * Thus the failure of a pending task is reported by the next task against the same partition, or when the transaction ends, at the latest.</li>
+ * </ul>
+ * Any other access to the partitions of the transaction must first {@link Lanes#await()} its lanes.
+ * @author Paul Ferraro
+ */
+public class OrderedExecutor extends AbstractExecutorService
+{
+	private final ExecutorService executor;
+	private final TransactionLanes lanes;
+	private final TransactionCompletion completion;
+	private final boolean end;
+
+	/**
+	 * Constructs a new ordered executor
+	 * @param executor the executor via which lanes execute their tasks
+	 * @param lanes the lanes of the current transaction
+	 * @param completion indicates whether to wait for every task, or just the first
+	 * @param end indicates whether the tasks end the current transaction
+	 */
+	public OrderedExecutor(ExecutorService executor, TransactionLanes lanes, TransactionCompletion completion, boolean end)
+	{
+		this.executor = executor;
+		this.lanes = lanes;
+		this.completion = completion;
+		this.end = end;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Executor#execute(java.lang.Runnable)
+	 */
+	@Override
+	public void execute(Runnable task)
+	{
+		this.executor.execute(task);
+	}
+
+	/**
+	 * Executes the first task in the caller thread, and appends the remaining tasks to the lanes of their partitions.
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.AbstractExecutorService#invokeAll(java.util.Collection)
+	 */
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException
+	{
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+
+		if (tasks.isEmpty()) return futures;
+
+		boolean done = false;
+
+		try
+		{
+			Iterator<? extends Callable<T>> callables = tasks.iterator();
+			RunnableFuture<T> first = this.newTaskFor(callables.next());
+			futures.add(first);
+
+			// If ending the transaction, execute against the first partition last
+			if (!this.end)
+			{
+				first.run();
+			}
+
+			while (callables.hasNext())
+			{
+				futures.add(this.append(callables.next()));
+			}
+
+			if (this.end || (this.completion == TransactionCompletion.ALL) || !isDeferrable(first))
+			{
+				for (Future<T> future: futures.subList(1, futures.size()))
+				{
+					try
+					{
+						future.get();
+					}
+					catch (ExecutionException e)
+					{
+						// Ignore
+					}
+					catch (CancellationException e)
+					{
+						// Ignore
+					}
+				}
+			}
+
+			if (this.end)
+			{
+				first.run();
+
+				this.lanes.clear();
+			}
+
+			done = true;
+
+			return futures;
+		}
+		finally
+		{
+			if (!done)
+			{
+				for (Future<T> future: futures)
+				{
+					future.cancel(true);
+				}
+			}
+		}
+	}
+
+	private <T> Future<T> append(Callable<T> task)
+	{
+		if (task instanceof PartitionedTask)
+		{
+			return this.lanes.submit(((PartitionedTask) task).getPartition(), task, this.executor);
+		}
+
+		RunnableFuture<T> future = this.newTaskFor(task);
+		this.executor.execute(future);
+		return future;
+	}
+
+	/**
+	 * Indicates whether the remaining tasks may complete after the specified, completed, task.
+	 * Failures, and results other than simple values, must be compared against the results of the remaining tasks.
+	 */
+	private static boolean isDeferrable(Future<?> future) throws InterruptedException
+	{
+		try
+		{
+			Object result = future.get();
+
+			return (result == null) || (result instanceof Number) || (result instanceof Boolean) || (result.getClass().isArray() && result.getClass().getComponentType().isPrimitive());
+		}
+		catch (ExecutionException e)
+		{
+			return false;
+		}
+		catch (CancellationException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#shutdown()
+	 */
+	@Override
+	public void shutdown()
+	{
+		this.executor.shutdown();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#shutdownNow()
+	 */
+	@Override
+	public List<Runnable> shutdownNow()
+	{
+		return this.executor.shutdownNow();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#isShutdown()
+	 */
+	@Override
+	public boolean isShutdown()
+	{
+		return this.executor.isShutdown();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#isTerminated()
+	 */
+	@Override
+	public boolean isTerminated()
+	{
+		return this.executor.isTerminated();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#awaitTermination(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return this.executor.awaitTermination(timeout, unit);
+	}
+}
@@ -17,7 +17,6 @@
  */
 package net.sf.hajdbc.util.reflect;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.SQLException;
 import java.util.HashSet;
@@ -34,7 +33,7 @@ import net.sf.hajdbc.ExceptionFactory;
 public final class Methods
 {
 	/**
-	 * Helper method for <code>Method.invoke(Object, Object...)</code> that performs the necessary exception handling.
+	 * Helper method for <code>Method.invoke(Object, Object...)</code>, via the configured {@link ProxyEngine}, that performs the necessary exception handling.
 	 * @param method a method to invoke
 	 * @param object the object on which to invoke the given method
 	 * @param parameters the method parameters
@@ -47,13 +46,9 @@ public final class Methods
 	{
 		try
 		{
-			return (R) method.invoke(object, parameters);
+			return (R) ProxyEngine.getEngine().invoke(method, object, parameters);
 		}
-		catch (InvocationTargetException e)
-		{
-			throw factory.createException(e.getTargetException());
-		}
-		catch (IllegalAccessException e)
+		catch (Throwable e)
 		{
 			throw factory.createException(e);
 		}
@@ -18,7 +18,6 @@
 package net.sf.hajdbc.util.reflect;
 
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
 
 /**
  * @author Paul Ferraro
@@ -26,7 +25,7 @@ import java.lang.reflect.Proxy;
 public final class Proxies
 {
 	/**
-	 * Helper method to simplify creation and casting of a proxy instance for a single interface.
+	 * Helper method to simplify creation and casting of a proxy instance for a single interface, using the configured {@link ProxyEngine}.
 	 * @param <T> target interface
 	 * @param targetInterface interface to proxy
 	 * @param handler an invocation handler
@@ -34,7 +33,7 @@ public final class Proxies
 	 */
 	public static <T> T createProxy(Class<T> targetInterface, InvocationHandler handler)
 	{
-		return targetInterface.cast(Proxy.newProxyInstance(targetInterface.getClassLoader(), new Class<?>[] { targetInterface }, handler));
+		return ProxyEngine.getEngine().createProxy(targetInterface, handler);
 	}
 	
 	private Proxies()
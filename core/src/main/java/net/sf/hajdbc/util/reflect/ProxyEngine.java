@@ -0,0 +1,226 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.hajdbc.util.SystemProperties;
+
+/**
+ * Engine used to create the proxies that HA-JDBC hands out, and to dispatch proxied methods to the per-database objects.
+ * The engine is selected via the {@value #ENGINE} system property.
+ * @author Paul Ferraro
+ */
+public enum ProxyEngine
+{
+	/**
+	 * Creates proxies via {@link Proxy#newProxyInstance(ClassLoader, Class[], InvocationHandler)}, and dispatches via {@link Method#invoke(Object, Object...)}.
+	 */
+	REFLECTION("reflection")
+	{
+		@Override
+		public <T> T createProxy(Class<T> targetInterface, InvocationHandler handler)
+		{
+			return targetInterface.cast(Proxy.newProxyInstance(targetInterface.getClassLoader(), new Class<?>[] { targetInterface }, handler));
+		}
+
+		@Override
+		public Object invoke(Method method, Object object, Object... parameters) throws Throwable
+		{
+			try
+			{
+				return method.invoke(object, parameters);
+			}
+			catch (InvocationTargetException e)
+			{
+				throw e.getTargetException();
+			}
+		}
+	},
+	/**
+	 * Creates proxies via a constructor handle of the proxy class, resolved once per interface,
+	 * and dispatches via a method handle, resolved once per method, that skips the access checks and argument copying of reflective invocation.
+	 * Falls back to reflection for any interface or method that is not publicly accessible.
+	 */
+	METHOD_HANDLE("method-handle")
+	{
+		private final ClassValue<MethodHandle> constructors = new ClassValue<MethodHandle>()
+		{
+			@Override
+			protected MethodHandle computeValue(Class<?> targetInterface)
+			{
+				Class<?> proxyClass = Proxy.newProxyInstance(targetInterface.getClassLoader(), new Class<?>[] { targetInterface }, NULL_HANDLER).getClass();
+				try
+				{
+					return MethodHandles.publicLookup().findConstructor(proxyClass, MethodType.methodType(void.class, InvocationHandler.class)).asType(MethodType.methodType(Object.class, InvocationHandler.class));
+				}
+				catch (NoSuchMethodException | IllegalAccessException e)
+				{
+					return null;
+				}
+			}
+		};
+		private final ConcurrentMap<Method, MethodHandle> methods = new ConcurrentHashMap<>();
+
+		@Override
+		public <T> T createProxy(Class<T> targetInterface, InvocationHandler handler)
+		{
+			MethodHandle constructor = this.constructors.get(targetInterface);
+			
+			if (constructor == null) return REFLECTION.createProxy(targetInterface, handler);
+			
+			try
+			{
+				return targetInterface.cast((Object) constructor.invokeExact(handler));
+			}
+			catch (RuntimeException | Error e)
+			{
+				throw e;
+			}
+			catch (Throwable e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public Object invoke(Method method, Object object, Object... parameters) throws Throwable
+		{
+			MethodHandle handle = this.methods.get(method);
+			
+			if (handle == null)
+			{
+				handle = resolve(method);
+				
+				MethodHandle existing = this.methods.putIfAbsent(method, handle);
+				
+				if (existing != null)
+				{
+					handle = existing;
+				}
+			}
+			
+			return (handle != UNRESOLVED) ? (Object) handle.invokeExact(object, parameters) : REFLECTION.invoke(method, object, parameters);
+		}
+	};
+	
+	/** The system property used to select the proxy engine, i.e. "reflection" (the default) or "method-handle" */
+	public static final String ENGINE = "ha-jdbc.proxy.engine";
+	
+	static final InvocationHandler NULL_HANDLER = new InvocationHandler()
+	{
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] parameters)
+		{
+			return null;
+		}
+	};
+	
+	static final MethodHandle UNRESOLVED = MethodHandles.constant(Object.class, null);
+	
+	private static final ProxyEngine engine = forId(SystemProperties.getSystemProperty(ENGINE, REFLECTION.id));
+	
+	/**
+	 * Returns the proxy engine selected via the {@value #ENGINE} system property.
+	 * @return a proxy engine
+	 */
+	public static ProxyEngine getEngine()
+	{
+		return engine;
+	}
+	
+	/**
+	 * Returns the proxy engine with the specified identifier.
+	 * @param id a proxy engine identifier
+	 * @return a proxy engine
+	 * @throws IllegalArgumentException if no proxy engine exists with the specified identifier
+	 */
+	public static ProxyEngine forId(String id)
+	{
+		for (ProxyEngine engine: ProxyEngine.values())
+		{
+			if (engine.id.equalsIgnoreCase(id)) return engine;
+		}
+		throw new IllegalArgumentException(id);
+	}
+	
+	/**
+	 * Resolves a method handle of type (Object, Object[])Object for the specified method.
+	 * @param method a method
+	 * @return a method handle, or {@link #UNRESOLVED} if the method is not publicly accessible
+	 */
+	static MethodHandle resolve(Method method)
+	{
+		if (Modifier.isStatic(method.getModifiers())) return UNRESOLVED;
+		
+		int parameters = method.getParameterTypes().length;
+		
+		try
+		{
+			return MethodHandles.publicLookup().unreflect(method).asFixedArity().asType(MethodType.genericMethodType(parameters + 1)).asSpreader(Object[].class, parameters);
+		}
+		catch (IllegalAccessException e)
+		{
+			return UNRESOLVED;
+		}
+	}
+	
+	private final String id;
+	
+	private ProxyEngine(String id)
+	{
+		this.id = id;
+	}
+	
+	/**
+	 * Returns the identifier of this engine.
+	 * @return an identifier
+	 */
+	public String getId()
+	{
+		return this.id;
+	}
+	
+	/**
+	 * Creates a proxy instance for a single interface.
+	 * @param <T> target interface
+	 * @param targetInterface interface to proxy
+	 * @param handler an invocation handler
+	 * @return a proxy instance for the given target interface
+	 */
+	public abstract <T> T createProxy(Class<T> targetInterface, InvocationHandler handler);
+	
+	/**
+	 * Invokes the specified method on the specified object.
+	 * @param method a method to invoke
+	 * @param object the object on which to invoke the given method
+	 * @param parameters the method parameters
+	 * @return the return value of the method invocation
+	 * @throws Throwable the exception thrown by the method invocation
+	 */
+	public abstract Object invoke(Method method, Object object, Object... parameters) throws Throwable;
+}
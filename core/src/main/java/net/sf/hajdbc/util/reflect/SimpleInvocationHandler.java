@@ -18,7 +18,6 @@
 package net.sf.hajdbc.util.reflect;
 
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
@@ -44,13 +43,6 @@ public class SimpleInvocationHandler implements InvocationHandler
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] parameters) throws Throwable
 	{
-		try
-		{
-			return method.invoke(this.object, parameters);
-		}
-		catch (InvocationTargetException e)
-		{
-			throw e.getTargetException();
-		}
+		return ProxyEngine.getEngine().invoke(method, this.object, parameters);
 	}
 }
@@ -43,17 +43,32 @@ public interface Constants
 	final String EVAL_RAND = "eval-rand";
 	final String FAILURE_DETECT_SCHEDULE = "failure-detect-schedule";
 	final String ID = "id";
+	final String IDENTITY_BLOCK_SIZE = "identity-block-size";
 	final String INPUT_SINK = "input-sink";
 	@Deprecated final String LOCAL = "local";
 	final String LOCALITY = "locality";
 	final String LOCATION = "location";
 	final String LOCK = "lock";
+	final String LOCK_HASHING = "lock-hashing";
+	final String LOCK_LEASE_TIME = "lock-lease-time";
 	final String META_DATA_CACHE = "meta-data-cache";
 	final String NAME = "name";
+	final String PARALLEL_INVOCATION_THRESHOLD = "parallel-invocation-threshold";
 	final String PASSWORD = "password";
 	final String PROPERTY = "property";
+	final String REPLAY_LOG_SIZE = "replay-log-size";
+	final String SEQUENCE_BLOCK_SIZE = "sequence-block-size";
+	final String SHADOW_READ_DEACTIVATE = "shadow-read-deactivate";
+	final String SHADOW_READ_MAX_ROWS = "shadow-read-max-rows";
+	final String SHADOW_READ_RATIO = "shadow-read-ratio";
+	final String SHADOW_READ_THREADS = "shadow-read-threads";
 	final String STATE = "state";
+	final String STATEMENT_CACHE_SIZE = "statement-cache-size";
 	final String SYNC = "sync";
+	final String SYNC_CONSTRAINT_THREADS = "sync-constraint-threads";
+	final String SYNC_MAX_BYTES_PER_SECOND = "sync-max-bytes-per-second";
+	final String SYNC_MAX_ROWS_PER_SECOND = "sync-max-rows-per-second";
+	final String TRANSACTION_COMPLETION = "transaction-completion";
 	final String TRANSACTION_MODE = "transaction-mode";
 	final String USER = "user";
 	final String WEIGHT = "weight";
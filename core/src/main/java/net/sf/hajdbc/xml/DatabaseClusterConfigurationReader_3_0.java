@@ -30,6 +30,7 @@ import net.sf.hajdbc.DatabaseBuilder;
 import net.sf.hajdbc.Identifiable;
 import net.sf.hajdbc.IdentifiableMatcher;
 import net.sf.hajdbc.Locality;
+import net.sf.hajdbc.TransactionCompletion;
 import net.sf.hajdbc.configuration.ServiceBuilder;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
@@ -145,6 +146,11 @@ public class DatabaseClusterConfigurationReader_3_0<Z, D extends Database<Z>, B
 					builder.transactionMode(TransactionModeEnum.valueOf(value.toUpperCase(Locale.ENGLISH)));
 					break;
 				}
+				case TRANSACTION_COMPLETION:
+				{
+					builder.transactionCompletion(TransactionCompletion.valueOf(value.toUpperCase(Locale.ENGLISH)));
+					break;
+				}
 				case AUTO_ACTIVATE_SCHEDULE:
 				{
 					builder.autoActivateSchedule(value);
@@ -190,6 +196,76 @@ public class DatabaseClusterConfigurationReader_3_0<Z, D extends Database<Z>, B
 					builder.allowEmptyCluster(Boolean.parseBoolean(value));
 					break;
 				}
+				case SYNC_MAX_ROWS_PER_SECOND:
+				{
+					builder.syncMaxRowsPerSecond(Long.parseLong(value));
+					break;
+				}
+				case SYNC_MAX_BYTES_PER_SECOND:
+				{
+					builder.syncMaxBytesPerSecond(Long.parseLong(value));
+					break;
+				}
+				case SYNC_CONSTRAINT_THREADS:
+				{
+					builder.syncConstraintThreads(Integer.parseInt(value));
+					break;
+				}
+				case IDENTITY_BLOCK_SIZE:
+				{
+					builder.identityBlockSize(Integer.parseInt(value));
+					break;
+				}
+				case LOCK_HASHING:
+				{
+					builder.lockHashing(Boolean.parseBoolean(value));
+					break;
+				}
+				case LOCK_LEASE_TIME:
+				{
+					builder.lockLeaseTime(Long.parseLong(value));
+					break;
+				}
+				case REPLAY_LOG_SIZE:
+				{
+					builder.replayLogSize(Integer.parseInt(value));
+					break;
+				}
+				case STATEMENT_CACHE_SIZE:
+				{
+					builder.statementCacheSize(Integer.parseInt(value));
+					break;
+				}
+				case PARALLEL_INVOCATION_THRESHOLD:
+				{
+					builder.parallelInvocationThreshold(Integer.parseInt(value));
+					break;
+				}
+				case SEQUENCE_BLOCK_SIZE:
+				{
+					builder.sequenceBlockSize(Integer.parseInt(value));
+					break;
+				}
+				case SHADOW_READ_RATIO:
+				{
+					builder.shadowReadRatio(Double.parseDouble(value));
+					break;
+				}
+				case SHADOW_READ_THREADS:
+				{
+					builder.shadowReadThreads(Integer.parseInt(value));
+					break;
+				}
+				case SHADOW_READ_MAX_ROWS:
+				{
+					builder.shadowReadMaxRows(Integer.parseInt(value));
+					break;
+				}
+				case SHADOW_READ_DEACTIVATE:
+				{
+					builder.shadowReadDeactivate(Boolean.parseBoolean(value));
+					break;
+				}
 				default:
 				{
 					throw new XMLStreamException(messages.unexpectedAttribute(reader, i));
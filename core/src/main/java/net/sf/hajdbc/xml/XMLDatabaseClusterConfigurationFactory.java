@@ -228,8 +228,23 @@ public class XMLDatabaseClusterConfigurationFactory<Z, D extends Database<Z>> im
 				writeAttribute(writer, EVAL_CURRENT_TIMESTAMP, config.isCurrentTimestampEvaluationEnabled());
 				writeAttribute(writer, EVAL_RAND, config.isRandEvaluationEnabled());
 				writeAttribute(writer, FAILURE_DETECT_SCHEDULE, config.getFailureDetectionExpression());
+				writeAttribute(writer, IDENTITY_BLOCK_SIZE, config.getIdentityBlockSize());
 				writeAttribute(writer, INPUT_SINK, config.getInputSinkProvider());
+				writeAttribute(writer, LOCK_HASHING, config.isLockHashingEnabled());
+				writeAttribute(writer, LOCK_LEASE_TIME, config.getLockLeaseTime());
 				writeAttribute(writer, META_DATA_CACHE, config.getDatabaseMetaDataCacheFactory());
+				writeAttribute(writer, PARALLEL_INVOCATION_THRESHOLD, config.getParallelInvocationThreshold());
+				writeAttribute(writer, REPLAY_LOG_SIZE, config.getReplayLogSize());
+				writeAttribute(writer, SEQUENCE_BLOCK_SIZE, config.getSequenceBlockSize());
+				writeAttribute(writer, SHADOW_READ_DEACTIVATE, config.isShadowReadDeactivationEnabled());
+				writeAttribute(writer, SHADOW_READ_MAX_ROWS, config.getShadowReadMaxRows());
+				writeAttribute(writer, SHADOW_READ_RATIO, config.getShadowReadRatio());
+				writeAttribute(writer, SHADOW_READ_THREADS, config.getShadowReadThreads());
+				writeAttribute(writer, STATEMENT_CACHE_SIZE, config.getStatementCacheSize());
+				writeAttribute(writer, SYNC_CONSTRAINT_THREADS, config.getSynchronizationConstraintThreads());
+				writeAttribute(writer, SYNC_MAX_BYTES_PER_SECOND, config.getSynchronizationMaxBytesPerSecond());
+				writeAttribute(writer, SYNC_MAX_ROWS_PER_SECOND, config.getSynchronizationMaxRowsPerSecond());
+				writeAttribute(writer, TRANSACTION_COMPLETION, config.getTransactionCompletion());
 				writeAttribute(writer, TRANSACTION_MODE, config.getTransactionMode());
 				for (D database: config.getDatabaseMap().values())
 				{
@@ -281,6 +296,22 @@ public class XMLDatabaseClusterConfigurationFactory<Z, D extends Database<Z>> im
 		}
 	}
 
+	private static void writeAttribute(XMLStreamWriter writer, String name, long value) throws XMLStreamException
+	{
+		if (value > 0)
+		{
+			writer.writeAttribute(name, String.valueOf(value));
+		}
+	}
+
+	private static void writeAttribute(XMLStreamWriter writer, String name, double value) throws XMLStreamException
+	{
+		if (value > 0)
+		{
+			writer.writeAttribute(name, String.valueOf(value));
+		}
+	}
+
 	private static void writeAttribute(XMLStreamWriter writer, String name, boolean value) throws XMLStreamException
 	{
 		writer.writeAttribute(name, String.valueOf(value));
@@ -183,6 +183,46 @@ public abstract class AbstractBalancerTest
 		assertFalse(backups.hasNext());
 	}
 
+	@Test
+	public void topology()
+	{
+		Balancer<Void, MockDatabase> balancer = this.factory.createBalancer(Collections.<MockDatabase>emptySet());
+
+		Topology<Void, MockDatabase> topology = balancer.topology();
+		assertTrue(topology.isEmpty());
+		assertNull(topology.primary());
+		assertTrue(topology.backups().isEmpty());
+		
+		balancer.add(this.databases[2]);
+		balancer.add(this.databases[0]);
+		
+		// Existing snapshots are immutable
+		assertTrue(topology.isEmpty());
+		
+		topology = balancer.topology();
+		assertEquals(2, topology.size());
+		assertSame(this.databases[0], topology.primary());
+		assertSame(this.databases[0], topology.get(0));
+		assertSame(this.databases[2], topology.get(1));
+		assertEquals(Arrays.asList(this.databases[2]), topology.backups());
+		assertEquals(0, topology.indexOf(this.databases[0]));
+		assertEquals(1, topology.indexOf(this.databases[2]));
+		assertEquals(-1, topology.indexOf(this.databases[1]));
+		
+		balancer.remove(this.databases[0]);
+		
+		assertSame(this.databases[0], topology.primary());
+		
+		topology = balancer.topology();
+		assertEquals(1, topology.size());
+		assertSame(this.databases[2], topology.primary());
+		assertTrue(topology.backups().isEmpty());
+		
+		balancer.clear();
+		
+		assertTrue(balancer.topology().isEmpty());
+	}
+
 	/**
 	 * Test method for {@link net.sf.hajdbc.balancer.load.LoadBalancer#addAll(java.util.Collection)}.
 	 */
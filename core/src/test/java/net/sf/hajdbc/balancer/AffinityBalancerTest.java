@@ -0,0 +1,108 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.balancer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.balancer.affinity.AffinityBalancer;
+import net.sf.hajdbc.balancer.affinity.AffinityBalancerFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Paul Ferraro
+ */
+public class AffinityBalancerTest extends AbstractBalancerTest
+{
+	public AffinityBalancerTest()
+	{
+		super(new AffinityBalancerFactory());
+	}
+	
+	@Override
+	public void next(Balancer<Void, MockDatabase> balancer)
+	{
+		int count = 1000;
+		int[] results = new int[] { 0, 0, 0 };
+		
+		for (int i = 0; i < count; ++i)
+		{
+			results[balancer.next().getWeight()] += 1;
+		}
+		
+		assertEquals(0, results[0]);
+		assertTrue(results[1] > 0);
+		assertTrue(results[2] > results[1]);
+	}
+	
+	@Test
+	public void affinity()
+	{
+		AffinityBalancer<Void, MockDatabase> balancer = (AffinityBalancer<Void, MockDatabase>) this.factory.<Void, MockDatabase>createBalancer(new HashSet<>(Arrays.asList(this.databases)));
+		
+		int count = 100;
+		MockDatabase[] routes = new MockDatabase[count];
+		
+		for (int i = 0; i < count; ++i)
+		{
+			routes[i] = balancer.next("table" + i);
+			
+			assertNotSame(this.databases[0], routes[i]);
+			// Routing is stable
+			assertSame(routes[i], balancer.next("table" + i));
+		}
+		
+		balancer.remove(this.databases[2]);
+		
+		for (int i = 0; i < count; ++i)
+		{
+			// Only keys routed to the removed database move
+			assertSame(this.databases[1], balancer.next("table" + i));
+		}
+		
+		balancer.add(this.databases[2]);
+		
+		for (int i = 0; i < count; ++i)
+		{
+			// Keys return to their original database
+			assertSame(routes[i], balancer.next("table" + i));
+		}
+	}
+	
+	@Test
+	public void weightChange()
+	{
+		AffinityBalancer<Void, MockDatabase> balancer = (AffinityBalancer<Void, MockDatabase>) this.factory.<Void, MockDatabase>createBalancer(new HashSet<>(Arrays.asList(this.databases)));
+		
+		// Changing the weight of an active database does not change its points
+		this.databases[2].setWeight(1);
+		
+		balancer.remove(this.databases[2]);
+		
+		for (int i = 0; i < 100; ++i)
+		{
+			// All points of the removed database were removed
+			assertSame(this.databases[1], balancer.next("table" + i));
+		}
+	}
+}
@@ -186,4 +186,14 @@ public class DB2DialectTest extends StandardDialectTest
 		assertEquals("SELECT LOCALTIME FROM test", this.dialect.evaluateCurrentTimestamp("SELECT LOCALTIME FROM test", timestamp));
 		assertEquals("SELECT 1 FROM test", this.dialect.evaluateCurrentTimestamp("SELECT 1 FROM test", timestamp));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getBulkLoadSupport()
+	 */
+	@Override
+	public void getBulkLoadSupport()
+	{
+		assertSame(this.dialect, this.dialect.getBulkLoadSupport());
+	}
 }
@@ -17,18 +17,23 @@
  */
 package net.sf.hajdbc.dialect;
 
+import java.io.File;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.List;
 
 import net.sf.hajdbc.ForeignKeyConstraint;
 import net.sf.hajdbc.QualifiedName;
 import net.sf.hajdbc.SequenceProperties;
+import net.sf.hajdbc.TableProperties;
 import net.sf.hajdbc.dialect.derby.DerbyDialectFactory;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import org.junit.Test;
+
 /**
  * @author Paul Ferraro
  *
@@ -167,4 +172,30 @@ public class DerbyDialectTest extends StandardDialectTest
 		assertEquals("SELECT LOCALTIME FROM test", this.dialect.evaluateCurrentTimestamp("SELECT LOCALTIME FROM test", timestamp));
 		assertEquals("SELECT 1 FROM test", this.dialect.evaluateCurrentTimestamp("SELECT 1 FROM test", timestamp));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getBulkLoadSupport()
+	 */
+	@Override
+	public void getBulkLoadSupport()
+	{
+		assertSame(this.dialect, this.dialect.getBulkLoadSupport());
+	}
+
+	@Test
+	public void getLoadFileSQL() throws SQLException
+	{
+		TableProperties table = mock(TableProperties.class);
+		QualifiedName name = mock(QualifiedName.class);
+		File file = new File("table.csv");
+		
+		when(table.getName()).thenReturn(name);
+		when(name.getSchema()).thenReturn("schema");
+		when(name.getName()).thenReturn("\"Table\"");
+		
+		List<String> result = this.dialect.getBulkLoadSupport().getLoadFileSQL(table, Arrays.asList("column1", "column2"), file);
+		
+		assertEquals(Arrays.asList("CALL SYSCS_UTIL.SYSCS_IMPORT_DATA('schema', 'Table', 'column1,column2', NULL, '" + file.getAbsolutePath() + "', NULL, NULL, 'UTF-8', 0)"), result);
+	}
 }
@@ -25,6 +25,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
@@ -39,9 +40,11 @@ import net.sf.hajdbc.ForeignKeyConstraint;
 import net.sf.hajdbc.QualifiedName;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
+import net.sf.hajdbc.TableProperties;
 import net.sf.hajdbc.dialect.h2.H2DialectFactory;
 
 import org.h2.api.ErrorCode;
+import org.junit.Test;
 
 /**
  * @author Paul Ferraro
@@ -246,4 +249,29 @@ public class H2DialectTest extends StandardDialectTest
 		assertTrue(this.dialect.indicatesFailure(new SQLException("", "", ErrorCode.DATABASE_CALLED_AT_SHUTDOWN)));
 		assertTrue(this.dialect.indicatesFailure(new SQLException("", "", ErrorCode.URL_FORMAT_ERROR_2)));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getBulkLoadSupport()
+	 */
+	@Override
+	public void getBulkLoadSupport()
+	{
+		assertSame(this.dialect, this.dialect.getBulkLoadSupport());
+	}
+
+	@Test
+	public void getLoadFileSQL() throws SQLException
+	{
+		TableProperties table = mock(TableProperties.class);
+		QualifiedName name = mock(QualifiedName.class);
+		File file = new File("table.csv");
+		
+		when(table.getName()).thenReturn(name);
+		when(name.getDMLName()).thenReturn("table");
+		
+		List<String> result = this.dialect.getBulkLoadSupport().getLoadFileSQL(table, Arrays.asList("column1", "column2"), file);
+		
+		assertEquals(Arrays.asList("INSERT INTO table (column1, column2) SELECT * FROM CSVREAD('" + file.getAbsolutePath() + "', 'C1,C2', 'charset=UTF-8')"), result);
+	}
 }
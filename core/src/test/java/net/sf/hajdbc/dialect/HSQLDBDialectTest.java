@@ -25,6 +25,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
@@ -39,6 +40,7 @@ import net.sf.hajdbc.ForeignKeyConstraint;
 import net.sf.hajdbc.QualifiedName;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
+import net.sf.hajdbc.TableProperties;
 import net.sf.hajdbc.dialect.hsqldb.HSQLDBDialectFactory;
 
 import org.hsqldb.error.ErrorCode;
@@ -241,4 +243,35 @@ public class HSQLDBDialectTest extends StandardDialectTest
 		assertTrue(this.dialect.indicatesFailure(new SQLException("", "", ErrorCode.SERVER_DATABASE_DISCONNECTED)));
 		assertTrue(this.dialect.indicatesFailure(new SQLException("", "", ErrorCode.SERVER_NO_DATABASE)));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getBulkLoadSupport()
+	 */
+	@Override
+	public void getBulkLoadSupport()
+	{
+		assertSame(this.dialect, this.dialect.getBulkLoadSupport());
+	}
+
+	@Test
+	public void getLoadFileSQL() throws SQLException
+	{
+		TableProperties table = mock(TableProperties.class);
+		QualifiedName name = mock(QualifiedName.class);
+		File file = new File("table.csv");
+		
+		when(table.getName()).thenReturn(name);
+		when(name.getDMLName()).thenReturn("table");
+		
+		List<String> result = this.dialect.getBulkLoadSupport().getLoadFileSQL(table, Arrays.asList("column1", "column2"), file);
+		
+		assertEquals(Arrays.asList(
+			"DROP TABLE HAJDBC_LOAD IF EXISTS",
+			"CREATE TEXT TABLE HAJDBC_LOAD AS (SELECT column1, column2 FROM table) WITH NO DATA",
+			"SET TABLE HAJDBC_LOAD SOURCE '" + file.getAbsolutePath() + ";encoding=UTF-8'",
+			"INSERT INTO table (column1, column2) SELECT column1, column2 FROM HAJDBC_LOAD",
+			"DROP TABLE HAJDBC_LOAD"
+		), result);
+	}
 }
@@ -60,4 +60,19 @@ public class MckoiDialectTest extends StandardDialectTest
 		assertNull(support.parseSequence("SELECT NEXT VALUE FOR sequence"));
 		assertNull(support.parseSequence("SELECT * FROM table"));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#evaluateNextSequenceValue()
+	 */
+	@Override
+	public void evaluateNextSequenceValue() throws SQLException
+	{
+		SequenceSupport support = this.dialect.getSequenceSupport();
+		assertTrue(support.isNextSequenceValueEvaluable("SELECT NEXTVAL('sequence')"));
+		assertTrue(support.isNextSequenceValueEvaluable("INSERT INTO table VALUES (NEXTVAL ( 'sequence' ), 0)"));
+		assertFalse(support.isNextSequenceValueEvaluable("INSERT INTO table VALUES (CURRVAL('sequence'), 0)"));
+		assertFalse(support.isNextSequenceValueEvaluable("SELECT NEXTVAL('sequence'), * FROM table"));
+		assertEquals("SELECT 1000", support.evaluateNextSequenceValue("SELECT NEXTVAL('sequence')", 1000L));
+	}
 }
@@ -18,6 +18,7 @@
 package net.sf.hajdbc.dialect;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -27,9 +28,11 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.Arrays;
 import java.util.List;
 
+import net.sf.hajdbc.ColumnProperties;
 import net.sf.hajdbc.ForeignKeyConstraint;
 import net.sf.hajdbc.QualifiedName;
 import net.sf.hajdbc.UniqueConstraint;
@@ -47,6 +50,36 @@ public class MySQLDialectTest extends StandardDialectTest
 		super(new MySQLDialectFactory());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getColumnType()
+	 */
+	@Override
+	public void getColumnType() throws SQLException
+	{
+		ColumnProperties column = mock(ColumnProperties.class);
+		
+		when(column.getType()).thenReturn(Types.BIGINT);
+		when(column.getNativeType()).thenReturn("BIGINT UNSIGNED");
+		
+		int result = this.dialect.getColumnType(column);
+		
+		assertEquals(Types.DECIMAL, result);
+		
+		when(column.getNativeType()).thenReturn("BIGINT");
+		
+		result = this.dialect.getColumnType(column);
+		
+		assertEquals(Types.BIGINT, result);
+		
+		when(column.getType()).thenReturn(Types.INTEGER);
+		when(column.getNativeType()).thenReturn("INT UNSIGNED");
+		
+		result = this.dialect.getColumnType(column);
+		
+		assertEquals(Types.INTEGER, result);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getCreateForeignKeyConstraintSQL()
@@ -226,4 +259,14 @@ public class MySQLDialectTest extends StandardDialectTest
 		assertEquals("SELECT LOCALTIME FROM test", this.dialect.evaluateCurrentTimestamp("SELECT LOCALTIME FROM test", timestamp));
 		assertEquals("SELECT 1 FROM test", this.dialect.evaluateCurrentTimestamp("SELECT 1 FROM test", timestamp));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getBulkLoadSupport()
+	 */
+	@Override
+	public void getBulkLoadSupport()
+	{
+		assertSame(this.dialect, this.dialect.getBulkLoadSupport());
+	}
 }
@@ -142,6 +142,29 @@ public class PostgreSQLDialectTest extends StandardDialectTest
 		assertNull(support.parseSequence("SELECT NEXT VALUE FOR sequence"));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#evaluateNextSequenceValue()
+	 */
+	@Override
+	public void evaluateNextSequenceValue() throws SQLException
+	{
+		super.evaluateNextSequenceValue();
+		
+		SequenceSupport support = this.dialect.getSequenceSupport();
+		
+		assertTrue(support.isNextSequenceValueEvaluable("INSERT INTO table VALUES (NEXTVAL('sequence'), 'a)')"));
+		assertTrue(support.isNextSequenceValueEvaluable("INSERT INTO table (id, name) VALUES (nextval('sequence'), 'a');"));
+		assertFalse(support.isNextSequenceValueEvaluable("INSERT INTO table VALUES (NEXTVAL('sequence'), 0), (NEXTVAL('sequence'), 1)"));
+		assertFalse(support.isNextSequenceValueEvaluable("INSERT INTO table VALUES (NEXTVAL('sequence'), 0), (0, 1)"));
+		assertFalse(support.isNextSequenceValueEvaluable("INSERT INTO table SELECT NEXTVAL('sequence'), name FROM other"));
+		assertFalse(support.isNextSequenceValueEvaluable("INSERT INTO table VALUES (CURRVAL('sequence'), 0)"));
+		assertFalse(support.isNextSequenceValueEvaluable("UPDATE table SET id = NEXTVAL('sequence')"));
+		assertFalse(support.isNextSequenceValueEvaluable("SELECT NEXTVAL('sequence'), * FROM table"));
+		
+		assertEquals("INSERT INTO table VALUES (1000, 0)", support.evaluateNextSequenceValue("INSERT INTO table VALUES (NEXTVAL('sequence'), 0)", 1000L));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getDefaultSchemas()
@@ -205,4 +228,14 @@ public class PostgreSQLDialectTest extends StandardDialectTest
 		assertEquals("SELECT RAND() FROM test", this.dialect.evaluateRand("SELECT RAND() FROM test"));
 		assertEquals("SELECT OPERANDOM() FROM test", this.dialect.evaluateRand("SELECT OPERANDOM() FROM test"));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getBulkLoadSupport()
+	 */
+	@Override
+	public void getBulkLoadSupport()
+	{
+		assertSame(this.dialect, this.dialect.getBulkLoadSupport());
+	}
 }
@@ -19,7 +19,7 @@ package net.sf.hajdbc.dialect;
 
 import static org.junit.Assert.*;
 import static org.mockito.AdditionalMatchers.aryEq;
-import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -57,6 +57,7 @@ import javax.sql.rowset.spi.SyncFactoryException;
 import javax.sql.rowset.spi.SyncProviderException;
 import javax.transaction.xa.XAException;
 
+import net.sf.hajdbc.BulkLoadSupport;
 import net.sf.hajdbc.ColumnProperties;
 import net.sf.hajdbc.Credentials;
 import net.sf.hajdbc.Database;
@@ -104,6 +105,31 @@ public class StandardDialectTest
 		assertNull(this.dialect.getIdentityColumnSupport());
 	}
 	
+	@Test
+	public void getBulkLoadSupport()
+	{
+		assertNull(this.dialect.getBulkLoadSupport());
+	}
+	
+	@Test
+	public void getMultiRowInsertSQL() throws SQLException
+	{
+		BulkLoadSupport support = this.dialect.getBulkLoadSupport();
+		
+		if (support != null)
+		{
+			TableProperties table = mock(TableProperties.class);
+			QualifiedName name = mock(QualifiedName.class);
+			
+			when(table.getName()).thenReturn(name);
+			when(name.getDMLName()).thenReturn("table");
+			
+			String result = support.getMultiRowInsertSQL(table, Arrays.asList("column1", "column2"), 3);
+			
+			assertEquals("INSERT INTO table (column1, column2) VALUES (?, ?), (?, ?), (?, ?)", result);
+		}
+	}
+	
 	@Test
 	public void getAlterSequenceSQL() throws SQLException
 	{
@@ -289,6 +315,16 @@ public class StandardDialectTest
 		assertFalse(this.dialect.isSelectForUpdate("SELECT * FROM test"));
 	}
 
+	@Test
+	public void parseSelectTable()
+	{
+		assertEquals("test", this.dialect.parseSelectTable("SELECT * FROM test"));
+		assertEquals("test", this.dialect.parseSelectTable("SELECT column1, column2 FROM test WHERE column1 = 0"));
+		assertEquals("test", this.dialect.parseSelectTable("select column1,\n column2\nfrom test, dummy"));
+		assertNull(this.dialect.parseSelectTable("INSERT INTO test SELECT column1, column2 FROM dummy"));
+		assertNull(this.dialect.parseSelectTable("UPDATE test SET column = 0"));
+	}
+
 	@Test
 	public void parseSequence() throws SQLException
 	{
@@ -304,6 +340,32 @@ public class StandardDialectTest
 		}
 	}
 
+	@Test
+	public void evaluateNextSequenceValue() throws SQLException
+	{
+		SequenceSupport support = this.dialect.getSequenceSupport();
+		
+		if (support != null)
+		{
+			SequenceProperties sequence = mock(SequenceProperties.class);
+			QualifiedName name = mock(QualifiedName.class);
+			
+			when(sequence.getName()).thenReturn(name);
+			when(name.getDMLName()).thenReturn("sequence");
+			
+			String sql = support.getNextSequenceValueSQL(sequence);
+			
+			assertTrue(support.isNextSequenceValueEvaluable(sql));
+			
+			String result = support.evaluateNextSequenceValue(sql, 1000L);
+			
+			assertTrue(result.contains("1000"));
+			assertNull(support.parseSequence(result));
+			assertFalse(support.isNextSequenceValueEvaluable(result));
+			assertFalse(support.isNextSequenceValueEvaluable("SELECT * FROM table"));
+		}
+	}
+
 	@Test
 	public void getDefaultSchemas() throws SQLException
 	{
@@ -339,6 +401,33 @@ public class StandardDialectTest
 		}
 	}
 
+	@Test
+	public void parseInsertColumns() throws SQLException
+	{
+		IdentityColumnSupport support = this.dialect.getIdentityColumnSupport();
+		
+		if (support != null)
+		{
+			assertEquals(Arrays.asList("column1", "column2"), support.parseInsertColumns("INSERT INTO table (column1, column2) VALUES (1, 'a,b)')"));
+			assertEquals(Arrays.asList("column1", "column2"), support.parseInsertColumns("INSERT table (\"column1\", column2) VALUES (1, 2);"));
+			assertNull(support.parseInsertColumns("INSERT INTO table VALUES (1, 2)"));
+			assertNull(support.parseInsertColumns("INSERT INTO table (column1, column2) VALUES (1, 2), (3, 4)"));
+			assertNull(support.parseInsertColumns("INSERT INTO table (column1, column2) SELECT column1, column2 FROM dummy"));
+			assertNull(support.parseInsertColumns("UPDATE table SET column = 0"));
+		}
+	}
+
+	@Test
+	public void evaluateIdentityColumn() throws SQLException
+	{
+		IdentityColumnSupport support = this.dialect.getIdentityColumnSupport();
+		
+		if (support != null)
+		{
+			assertEquals("INSERT INTO table (id, column1, column2) VALUES (100, 1, 2)", support.evaluateIdentityColumn("INSERT INTO table (column1, column2) VALUES (1, 2)", "id", 100L));
+		}
+	}
+
 	@Test
 	public void evaluateCurrentDate()
 	{
@@ -0,0 +1,203 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.invocation;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.ExceptionType;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.balancer.Balancer;
+import net.sf.hajdbc.sql.ProxyFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ExistingResultsCollector}.
+ * @author Paul Ferraro
+ */
+public class ExistingResultsCollectorTest
+{
+	private final MockDatabase db1 = new MockDatabase("db1");
+	private final MockDatabase db2 = new MockDatabase("db2");
+	
+	@SuppressWarnings("unchecked")
+	private final DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+	@SuppressWarnings("unchecked")
+	private final Balancer<Void, MockDatabase> balancer = mock(Balancer.class);
+	@SuppressWarnings("unchecked")
+	private final ProxyFactory<Void, MockDatabase, Object, SQLException> factory = mock(ProxyFactory.class);
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+	private final ExistingResultsCollector collector = new ExistingResultsCollector();
+	
+	@Before
+	public void init()
+	{
+		Map<MockDatabase, Object> objects = new TreeMap<>();
+		objects.put(this.db1, new Object());
+		objects.put(this.db2, new Object());
+		
+		when(this.factory.entries()).thenReturn(objects.entrySet());
+		when(this.factory.getDatabaseCluster()).thenReturn(this.cluster);
+		when(this.factory.getExceptionFactory()).thenReturn(ExceptionType.SQL.<SQLException>getExceptionFactory());
+		when(this.cluster.getBalancer()).thenReturn(this.balancer);
+		when(this.cluster.getExecutor()).thenReturn(this.executor);
+		when(this.balancer.contains(this.db1)).thenReturn(true);
+		when(this.balancer.contains(this.db2)).thenReturn(true);
+	}
+	
+	@After
+	public void destroy()
+	{
+		this.executor.shutdownNow();
+	}
+	
+	@Test
+	public void sequential()
+	{
+		// Far slower than any invocation
+		when(this.cluster.getInvocationLatencies()).thenReturn(new InvocationLatencies(1, TimeUnit.MINUTES));
+		
+		ThreadInvoker invoker = new ThreadInvoker(null);
+		
+		for (int i = 0; i < 3; ++i)
+		{
+			Map.Entry<SortedMap<MockDatabase, String>, SortedMap<MockDatabase, SQLException>> results = this.collector.collectResults(this.factory, invoker);
+			
+			assertTrue(results.getValue().isEmpty());
+			assertEquals(Thread.currentThread().getName(), results.getKey().get(this.db1));
+			assertEquals(Thread.currentThread().getName(), results.getKey().get(this.db2));
+		}
+		
+		verify(this.cluster, never()).getExecutor();
+	}
+	
+	@Test
+	public void concurrent()
+	{
+		when(this.cluster.getInvocationLatencies()).thenReturn(new InvocationLatencies(0, TimeUnit.MICROSECONDS));
+		
+		ThreadInvoker invoker = new ThreadInvoker(null);
+		
+		// The first invocation executes sequentially, since its latency is not yet known
+		Map.Entry<SortedMap<MockDatabase, String>, SortedMap<MockDatabase, SQLException>> results = this.collector.collectResults(this.factory, invoker);
+		
+		assertEquals(Thread.currentThread().getName(), results.getKey().get(this.db1));
+		assertEquals(Thread.currentThread().getName(), results.getKey().get(this.db2));
+		
+		results = this.collector.collectResults(this.factory, invoker);
+		
+		assertTrue(results.getValue().isEmpty());
+		assertEquals(2, results.getKey().size());
+		assertNotEquals(Thread.currentThread().getName(), results.getKey().get(this.db1));
+		assertNotEquals(Thread.currentThread().getName(), results.getKey().get(this.db2));
+	}
+	
+	@Test
+	public void concurrentFailure()
+	{
+		when(this.cluster.getInvocationLatencies()).thenReturn(new InvocationLatencies(0, TimeUnit.MICROSECONDS));
+		
+		ThreadInvoker invoker = new ThreadInvoker(this.db2);
+		
+		this.collector.collectResults(this.factory, invoker);
+		
+		Map.Entry<SortedMap<MockDatabase, String>, SortedMap<MockDatabase, SQLException>> results = this.collector.collectResults(this.factory, invoker);
+		
+		assertEquals(1, results.getKey().size());
+		assertNotEquals(Thread.currentThread().getName(), results.getKey().get(this.db1));
+		assertEquals(1, results.getValue().size());
+		assertEquals("db2", results.getValue().get(this.db2).getMessage());
+		
+		// Failures of concurrently deactivated databases are ignored
+		when(this.balancer.contains(this.db2)).thenReturn(false);
+		
+		results = this.collector.collectResults(this.factory, invoker);
+		
+		assertEquals(1, results.getKey().size());
+		assertTrue(results.getValue().isEmpty());
+	}
+	
+	@Test
+	public void latencies()
+	{
+		InvocationLatencies latencies = new InvocationLatencies(100, TimeUnit.MICROSECONDS);
+		ThreadInvoker invoker = new ThreadInvoker(null);
+		InvocationLatencies.Latency latency = latencies.getLatency(invoker);
+		
+		assertSame(latency, latencies.getLatency(new ThreadInvoker(null)));
+		assertFalse(latency.isExpensive());
+		
+		latency.record(TimeUnit.MICROSECONDS.toNanos(800));
+		
+		assertEquals(TimeUnit.MICROSECONDS.toNanos(800), latency.getAverage());
+		assertTrue(latency.isExpensive());
+		
+		// Each sample moves the average 1/8 of the way
+		latency.record(0);
+		
+		assertEquals(TimeUnit.MICROSECONDS.toNanos(700), latency.getAverage());
+		
+		// Latencies learned by one cluster do not affect another
+		assertFalse(new InvocationLatencies(100, TimeUnit.MICROSECONDS).getLatency(invoker).isExpensive());
+	}
+	
+	/**
+	 * Returns the name of the invoking thread, after a brief delay, or fails against the specified database.
+	 */
+	static class ThreadInvoker implements Invoker<Void, MockDatabase, Object, String, SQLException>
+	{
+		private final MockDatabase failure;
+		
+		ThreadInvoker(MockDatabase failure)
+		{
+			this.failure = failure;
+		}
+		
+		@Override
+		public String invoke(MockDatabase database, Object object) throws SQLException
+		{
+			try
+			{
+				Thread.sleep(1);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			
+			if (database.equals(this.failure))
+			{
+				throw new SQLException(database.getId());
+			}
+			
+			return Thread.currentThread().getName();
+		}
+	}
+}
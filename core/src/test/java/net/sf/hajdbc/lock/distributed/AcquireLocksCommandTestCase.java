@@ -0,0 +1,77 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock.distributed;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AcquireLocksCommand}.
+ * @author Paul Ferraro
+ */
+public class AcquireLocksCommandTestCase
+{
+	@Test
+	public void execute() throws InterruptedException
+	{
+		RemoteLockDescriptor descriptor1 = mock(RemoteLockDescriptor.class);
+		RemoteLockDescriptor descriptor2 = mock(RemoteLockDescriptor.class);
+		LockCommandContext context = mock(LockCommandContext.class);
+		Lock lock1 = mock(Lock.class);
+		Lock lock2 = mock(Lock.class);
+		long timeout = 10L;
+		AcquireLocksCommand command = new AcquireLocksCommand(Arrays.asList(descriptor1, descriptor2), timeout);
+		@SuppressWarnings("unchecked")
+		Map<LockDescriptor, Lock> locks = mock(Map.class);
+		
+		// Successful lock
+		when(context.getLock(descriptor1)).thenReturn(lock1);
+		when(context.getLock(descriptor2)).thenReturn(lock2);
+		when(lock1.tryLock(anyLong(), same(TimeUnit.MILLISECONDS))).thenReturn(true);
+		when(lock2.tryLock(anyLong(), same(TimeUnit.MILLISECONDS))).thenReturn(true);
+		when(context.getRemoteLocks(descriptor1)).thenReturn(locks);
+		when(context.getRemoteLocks(descriptor2)).thenReturn(locks);
+		
+		Boolean result = command.execute(context);
+		
+		verify(locks).put(descriptor1, lock1);
+		verify(locks).put(descriptor2, lock2);
+		
+		assertNotNull(result);
+		assertTrue(result.booleanValue());
+		
+		// Unsuccessful lock releases any locks already acquired
+		when(lock2.tryLock(anyLong(), same(TimeUnit.MILLISECONDS))).thenReturn(false);
+		
+		result = command.execute(context);
+		
+		verify(lock1).unlock();
+		verify(lock2, never()).unlock();
+		verifyNoMoreInteractions(locks);
+		
+		assertNotNull(result);
+		assertFalse(result.booleanValue());
+	}
+}
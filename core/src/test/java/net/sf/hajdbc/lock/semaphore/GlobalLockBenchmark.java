@@ -0,0 +1,79 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock.semaphore;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput of the global read lock, as acquired by every transaction, under contention from all available processors.
+ * Compares the semaphore-based lock, whose readers all update the same semaphore, to the striped lock.
+ * Not run as part of the test suite; run via {@link #main(String[])}, from the test classpath.
+ * @author Paul Ferraro
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class GlobalLockBenchmark
+{
+	@Param({ "semaphore", "striped" })
+	String type;
+	
+	Lock readLock;
+	
+	@Setup
+	public void setup()
+	{
+		ReadWriteLock lock = "striped".equals(this.type) ? new StripedReadWriteLock(false) : new SemaphoreReadWriteLock(new Semaphore(Integer.MAX_VALUE, false));
+		this.readLock = lock.readLock();
+	}
+	
+	@Benchmark
+	public void readLock()
+	{
+		this.readLock.lock();
+		this.readLock.unlock();
+	}
+	
+	public static void main(String... args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder().include(GlobalLockBenchmark.class.getSimpleName()).build()).run();
+	}
+}
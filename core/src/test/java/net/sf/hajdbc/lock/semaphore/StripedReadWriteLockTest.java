@@ -0,0 +1,101 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.lock.semaphore;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.junit.Test;
+
+public class StripedReadWriteLockTest
+{
+	@Test
+	public void test() throws Exception
+	{
+		ReadWriteLock rwLock = new StripedReadWriteLock(4, false);
+		final Lock readLock = rwLock.readLock();
+		Lock writeLock = rwLock.writeLock();
+		
+		// Validate that a write lock blocks readers
+		assertTrue(writeLock.tryLock());
+		try
+		{
+			assertFalse(readLock.tryLock());
+			assertFalse(readLock.tryLock(10, TimeUnit.MILLISECONDS));
+		}
+		finally
+		{
+			writeLock.unlock();
+		}
+		
+		assertTrue(readLock.tryLock());
+		try
+		{
+			// Validate that a read lock blocks writers
+			assertFalse(writeLock.tryLock());
+			assertFalse(writeLock.tryLock(10, TimeUnit.MILLISECONDS));
+
+			// Validate multiple readers
+			assertTrue(readLock.tryLock());
+			readLock.unlock();
+		}
+		finally
+		{
+			readLock.unlock();
+		}
+		
+		assertTrue(writeLock.tryLock());
+		writeLock.unlock();
+		
+		// Validate that a read lock can be released by a different thread
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			Callable<Void> task = new Callable<Void>()
+			{
+				@Override
+				public Void call()
+				{
+					readLock.unlock();
+					return null;
+				}
+			};
+			
+			for (int i = 0; i < 10; ++i)
+			{
+				readLock.lock();
+				Future<Void> future = executor.submit(task);
+				future.get();
+			}
+			
+			assertTrue(writeLock.tryLock());
+			writeLock.unlock();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+}
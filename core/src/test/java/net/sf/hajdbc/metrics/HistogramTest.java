@@ -0,0 +1,69 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class HistogramTest
+{
+	@Test
+	public void empty()
+	{
+		Histogram histogram = new Histogram();
+		
+		assertEquals(0L, histogram.getCount());
+		assertEquals(0L, histogram.getMax());
+		assertEquals(0d, histogram.getMean(), 0d);
+		assertEquals(0L, histogram.getValueAtPercentile(99));
+	}
+	
+	@Test
+	public void record()
+	{
+		Histogram histogram = new Histogram();
+		
+		for (long i = 1; i <= 1000; ++i)
+		{
+			histogram.record(i);
+		}
+		
+		assertEquals(1000L, histogram.getCount());
+		assertEquals(500500L, histogram.getTotal());
+		assertEquals(1000L, histogram.getMax());
+		assertEquals(500.5d, histogram.getMean(), 0d);
+		
+		// Percentiles are accurate to within the sub-bucket resolution
+		assertEquals(500d, histogram.getValueAtPercentile(50), 500 * 0.125);
+		assertEquals(990d, histogram.getValueAtPercentile(99), 990 * 0.125);
+		assertEquals(1000L, histogram.getValueAtPercentile(100));
+	}
+	
+	@Test
+	public void buckets()
+	{
+		for (long value: new long[] { 0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE })
+		{
+			int index = Histogram.index(value);
+			
+			assertTrue(Long.toString(value), Histogram.lowerBound(index) <= value);
+			assertTrue(Long.toString(value), Histogram.upperBound(index) >= value);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.replay;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.state.DatabaseEvent;
+
+import org.junit.Test;
+
+public class ReplayLogTest
+{
+	private final List<String> executed = new ArrayList<>();
+	
+	@Test
+	public void replay() throws SQLException
+	{
+		ReplayLog<Void, Database<Void>> log = new ReplayLog<>(5);
+		Database<Void> database = database("db1");
+		Connection connection = mock(Connection.class);
+		
+		this.commit(log, "1");
+		log.deactivated(new DatabaseEvent(database));
+		this.commit(log, "2", "3");
+		
+		assertTrue(log.isReplayable(database));
+		assertEquals(2L, log.replay(database, connection));
+		assertEquals(Arrays.asList("2", "3"), this.executed);
+		
+		log.activated(new DatabaseEvent(database));
+		
+		assertFalse(log.isReplayable(database));
+	}
+	
+	@Test
+	public void evicted()
+	{
+		ReplayLog<Void, Database<Void>> log = new ReplayLog<>(2);
+		Database<Void> database = database("db1");
+		
+		log.deactivated(new DatabaseEvent(database));
+		this.commit(log, "1", "2");
+		
+		assertTrue(log.isReplayable(database));
+		
+		this.commit(log, "3");
+		
+		assertFalse(log.isReplayable(database));
+	}
+	
+	@Test
+	public void opaque()
+	{
+		ReplayLog<Void, Database<Void>> log = new ReplayLog<>(5);
+		Database<Void> database = database("db1");
+		
+		log.deactivated(new DatabaseEvent(database));
+		log.invalidate();
+		this.commit(log, "1");
+		
+		assertFalse(log.isReplayable(database));
+	}
+	
+	@Test
+	public void inconsistent()
+	{
+		ReplayLog<Void, Database<Void>> log = new ReplayLog<>(5);
+		Database<Void> database = database("db1");
+		
+		log.deactivated(new DatabaseEvent(database));
+		log.invalidate(database);
+		
+		assertFalse(log.isReplayable(database));
+	}
+	
+	@Test
+	public void committing() throws InterruptedException
+	{
+		final ReplayLog<Void, Database<Void>> log = new ReplayLog<>(5);
+		Database<Void> database = database("db1");
+		final long[] sequence = new long[1];
+		
+		// Reserved, but not yet appended, by another thread
+		Thread thread = new Thread()
+		{
+			@Override
+			public void run()
+			{
+				sequence[0] = log.reserve();
+			}
+		};
+		thread.start();
+		thread.join();
+		
+		log.deactivated(new DatabaseEvent(database));
+		
+		assertFalse(log.isReplayable(database));
+		
+		// The deactivated database may or may not have committed this transaction
+		log.append(sequence[0], Collections.singletonList(this.statement("1")));
+		
+		assertFalse(log.isReplayable(database));
+	}
+	
+	@Test
+	public void disabled()
+	{
+		ReplayLog<Void, Database<Void>> log = new ReplayLog<>(0);
+		Database<Void> database = database("db1");
+		
+		assertFalse(log.isEnabled());
+		
+		log.deactivated(new DatabaseEvent(database));
+		
+		assertFalse(log.isReplayable(database));
+	}
+	
+	private void commit(ReplayLog<Void, Database<Void>> log, String... statements)
+	{
+		long sequence = log.reserve();
+		List<ReplayStatement<Void, Database<Void>>> list = new ArrayList<>(statements.length);
+		for (String statement: statements)
+		{
+			list.add(this.statement(statement));
+		}
+		log.append(sequence, list);
+	}
+	
+	private ReplayStatement<Void, Database<Void>> statement(final String sql)
+	{
+		return new ReplayStatement<Void, Database<Void>>()
+		{
+			@Override
+			public void execute(Database<Void> database, Connection connection)
+			{
+				ReplayLogTest.this.executed.add(sql);
+			}
+		};
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static Database<Void> database(String id)
+	{
+		Database<Void> database = mock(Database.class);
+		when(database.getId()).thenReturn(id);
+		return database;
+	}
+}
@@ -0,0 +1,399 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sequence;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.sf.hajdbc.ColumnProperties;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.DatabaseProperties;
+import net.sf.hajdbc.IdentityColumnSupport;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.QualifiedName;
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.dialect.Dialect;
+import net.sf.hajdbc.lock.LockManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link IdentityColumnAllocator}.
+ * @author Paul Ferraro
+ */
+public class IdentityColumnAllocatorTest
+{
+	private static final String TABLE = "tbl";
+	private static final String COLUMN = "id";
+	
+	private final MockDatabase database1 = new MockDatabase("db1");
+	private final MockDatabase database2 = new MockDatabase("db2");
+	
+	@SuppressWarnings("unchecked")
+	private final DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+	private final Dialect dialect = mock(Dialect.class);
+	private final LockManager lockManager = mock(LockManager.class);
+	private final DatabaseProperties databaseProperties = mock(DatabaseProperties.class);
+	private final TableProperties tableProperties = mock(TableProperties.class);
+	private final ColumnProperties columnProperties = mock(ColumnProperties.class);
+	private final QualifiedName tableName = mock(QualifiedName.class);
+	private final TestIdentityColumnSupport support = new TestIdentityColumnSupport();
+	
+	// Maximum identity value and identity restart value of each simulated database
+	private final Map<MockDatabase, Long> maximums = new TreeMap<>();
+	private final Map<MockDatabase, Long> restarts = new TreeMap<>();
+	private final Set<MockDatabase> failures = new HashSet<>();
+	private final List<Long> alterations = new ArrayList<>();
+	
+	@Before
+	public void init() throws SQLException
+	{
+		when(this.cluster.getDialect()).thenReturn(this.dialect);
+		when(this.cluster.getLockManager()).thenReturn(this.lockManager);
+		when(this.dialect.getIdentityColumnSupport()).thenReturn(this.support);
+		when(this.lockManager.writeLock(TABLE)).thenReturn(new ReentrantLock());
+		when(this.databaseProperties.findTable(TABLE)).thenReturn(this.tableProperties);
+		when(this.tableProperties.getName()).thenReturn(this.tableName);
+		when(this.tableName.getDMLName()).thenReturn(TABLE);
+		when(this.tableProperties.getIdentityColumns()).thenReturn(Collections.singletonList(COLUMN));
+		when(this.tableProperties.getColumnProperties(COLUMN)).thenReturn(this.columnProperties);
+		when(this.columnProperties.getName()).thenReturn(COLUMN);
+		
+		this.maximums.put(this.database1, 5L);
+		this.maximums.put(this.database2, 5L);
+	}
+	
+	@Test
+	public void disabled() throws SQLException
+	{
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(0);
+		
+		assertFalse(allocator.isEnabled());
+		assertNull(allocator.next(TABLE));
+		assertTrue(this.alterations.isEmpty());
+	}
+	
+	@Test
+	public void unknownTable() throws SQLException
+	{
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		assertNull(allocator.next("unknown"));
+		assertTrue(this.alterations.isEmpty());
+	}
+	
+	@Test
+	public void multipleIdentityColumns() throws SQLException
+	{
+		when(this.tableProperties.getIdentityColumns()).thenReturn(Arrays.asList(COLUMN, "other"));
+		
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		assertNull(allocator.next(TABLE));
+		assertTrue(this.alterations.isEmpty());
+	}
+	
+	@Test
+	public void restartUnsupported() throws SQLException
+	{
+		this.support.alterable = false;
+		
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		// Values cannot be reserved if generated values might collide with them
+		assertNull(allocator.next(TABLE));
+		assertTrue(this.alterations.isEmpty());
+	}
+	
+	@Test
+	public void reserve() throws SQLException
+	{
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		assertEquals(6L, allocator.next(TABLE).longValue());
+		
+		// The identity column of every database now restarts beyond the reserved block
+		assertEquals(Collections.singletonList(9L), this.alterations);
+		assertEquals(9L, this.restarts.get(this.database1).longValue());
+		assertEquals(9L, this.restarts.get(this.database2).longValue());
+		
+		assertEquals(7L, allocator.next(TABLE).longValue());
+		assertEquals(8L, allocator.next(TABLE).longValue());
+		assertEquals(1, this.alterations.size());
+	}
+	
+	@Test
+	public void refill() throws SQLException
+	{
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		for (long i = 6; i < 9; ++i)
+		{
+			assertEquals(i, allocator.next(TABLE).longValue());
+		}
+		
+		// Reserved values were never inserted, so the next block must start beyond the previous block, not the maximum value
+		assertEquals(9L, allocator.next(TABLE).longValue());
+		assertEquals(Arrays.asList(9L, 12L), this.alterations);
+	}
+	
+	@Test
+	public void emptyTable() throws SQLException
+	{
+		this.maximums.put(this.database1, 0L);
+		this.maximums.put(this.database2, 0L);
+		
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		assertEquals(1L, allocator.next(TABLE).longValue());
+		assertEquals(Collections.singletonList(4L), this.alterations);
+	}
+	
+	@Test
+	public void divergentTables() throws SQLException
+	{
+		this.maximums.put(this.database2, 20L);
+		
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		// Block must start beyond the largest value of any database
+		assertEquals(21L, allocator.next(TABLE).longValue());
+		assertEquals(24L, this.restarts.get(this.database1).longValue());
+		assertEquals(24L, this.restarts.get(this.database2).longValue());
+	}
+	
+	@Test
+	public void failure() throws SQLException
+	{
+		when(this.cluster.deactivate(this.database2, null)).thenReturn(true);
+		
+		this.failures.add(this.database2);
+		
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		assertEquals(6L, allocator.next(TABLE).longValue());
+		
+		verify(this.cluster, atLeastOnce()).deactivate(this.database2, null);
+		verify(this.cluster, never()).deactivate(this.database1, null);
+		
+		// Block was still reserved on the surviving database
+		assertEquals(9L, this.restarts.get(this.database1).longValue());
+		assertNull(this.restarts.get(this.database2));
+	}
+	
+	@Test
+	public void totalFailure()
+	{
+		this.failures.add(this.database1);
+		this.failures.add(this.database2);
+		
+		TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(3);
+		
+		try
+		{
+			allocator.next(TABLE);
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertEquals("db1", e.getMessage());
+		}
+		
+		verify(this.cluster, never()).deactivate(this.database1, null);
+		verify(this.cluster, never()).deactivate(this.database2, null);
+		assertTrue(this.alterations.isEmpty());
+	}
+	
+	@Test
+	public void concurrentAllocation() throws Exception
+	{
+		final TestIdentityColumnAllocator allocator = new TestIdentityColumnAllocator(10);
+		final int threads = 8;
+		final int count = 1000;
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		
+		try
+		{
+			List<Future<List<Long>>> futures = new ArrayList<>(threads);
+			
+			for (int i = 0; i < threads; ++i)
+			{
+				futures.add(executor.submit(new Callable<List<Long>>()
+				{
+					@Override
+					public List<Long> call() throws SQLException
+					{
+						List<Long> values = new ArrayList<>(count);
+						
+						for (int j = 0; j < count; ++j)
+						{
+							values.add(allocator.next(TABLE));
+						}
+						
+						return values;
+					}
+				}));
+			}
+			
+			TreeSet<Long> values = new TreeSet<>();
+			
+			for (Future<List<Long>> future: futures)
+			{
+				values.addAll(future.get());
+			}
+			
+			// Every allocated value is unique and lies below the restart value of every database
+			assertEquals(threads * count, values.size());
+			assertEquals(threads * count / 10, this.alterations.size());
+			assertEquals(6L, values.first().longValue());
+			assertTrue(values.last() < this.restarts.get(this.database1));
+			assertTrue(values.last() < this.restarts.get(this.database2));
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Allocator whose databases are simulated by in-memory identity column state.
+	 */
+	private class TestIdentityColumnAllocator extends IdentityColumnAllocator<Void, MockDatabase>
+	{
+		TestIdentityColumnAllocator(int blockSize)
+		{
+			super(IdentityColumnAllocatorTest.this.cluster, blockSize);
+		}
+
+		@Override
+		protected Connection connect()
+		{
+			return null;
+		}
+
+		@Override
+		protected DatabaseProperties getDatabaseProperties(Connection connection)
+		{
+			return IdentityColumnAllocatorTest.this.databaseProperties;
+		}
+
+		@Override
+		protected Set<MockDatabase> getDatabases()
+		{
+			return new TreeSet<>(IdentityColumnAllocatorTest.this.maximums.keySet());
+		}
+
+		@Override
+		protected Map<MockDatabase, Long> executeQuery(Set<MockDatabase> databases, String sql, Map<MockDatabase, SQLException> exceptions)
+		{
+			assertEquals("SELECT max(id) FROM tbl", sql);
+			
+			Map<MockDatabase, Long> results = new TreeMap<>();
+			
+			synchronized (IdentityColumnAllocatorTest.this.maximums)
+			{
+				for (MockDatabase database: databases)
+				{
+					if (IdentityColumnAllocatorTest.this.failures.contains(database))
+					{
+						exceptions.put(database, new SQLException(database.getId()));
+					}
+					else
+					{
+						results.put(database, IdentityColumnAllocatorTest.this.maximums.get(database));
+					}
+				}
+			}
+			
+			return results;
+		}
+
+		@Override
+		protected void execute(Set<MockDatabase> databases, String sql, Map<MockDatabase, SQLException> exceptions)
+		{
+			assertTrue(sql.startsWith("RESTART "));
+			
+			long value = Long.parseLong(sql.substring("RESTART ".length()));
+			
+			synchronized (IdentityColumnAllocatorTest.this.maximums)
+			{
+				IdentityColumnAllocatorTest.this.alterations.add(value);
+				
+				for (MockDatabase database: databases)
+				{
+					if (!exceptions.containsKey(database))
+					{
+						IdentityColumnAllocatorTest.this.restarts.put(database, value);
+					}
+				}
+			}
+		}
+	}
+	
+	private static class TestIdentityColumnSupport implements IdentityColumnSupport
+	{
+		volatile boolean alterable = true;
+		
+		TestIdentityColumnSupport()
+		{
+		}
+
+		@Override
+		public String getAlterIdentityColumnSQL(TableProperties table, ColumnProperties column, long value)
+		{
+			return this.alterable ? "RESTART " + value : null;
+		}
+
+		@Override
+		public String parseInsertTable(String sql)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<String> parseInsertColumns(String sql)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String evaluateIdentityColumn(String sql, String column, long value)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,398 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sequence;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.DatabaseProperties;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.QualifiedNameFactory;
+import net.sf.hajdbc.SequenceProperties;
+import net.sf.hajdbc.SequencePropertiesFactory;
+import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.Dialect;
+import net.sf.hajdbc.lock.LockManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SequenceAllocator}.
+ * @author Paul Ferraro
+ */
+public class SequenceAllocatorTest
+{
+	private static final String SEQUENCE = "seq";
+	
+	private final MockDatabase database1 = new MockDatabase("db1");
+	private final MockDatabase database2 = new MockDatabase("db2");
+	
+	@SuppressWarnings("unchecked")
+	private final DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+	private final Dialect dialect = mock(Dialect.class);
+	private final LockManager lockManager = mock(LockManager.class);
+	private final DatabaseProperties databaseProperties = mock(DatabaseProperties.class);
+	private final SequenceProperties sequenceProperties = mock(SequenceProperties.class);
+	
+	private final Map<MockDatabase, Long> sequences = new TreeMap<>();
+	private final Set<MockDatabase> failures = new HashSet<>();
+	private final List<Long> restarts = new ArrayList<>();
+	
+	@Before
+	public void init() throws SQLException
+	{
+		when(this.cluster.getDialect()).thenReturn(this.dialect);
+		when(this.cluster.getLockManager()).thenReturn(this.lockManager);
+		when(this.dialect.getSequenceSupport()).thenReturn(new TestSequenceSupport());
+		when(this.lockManager.writeLock(SEQUENCE)).thenReturn(new ReentrantLock());
+		when(this.databaseProperties.findSequence(SEQUENCE)).thenReturn(this.sequenceProperties);
+		when(this.sequenceProperties.getIncrement()).thenReturn(1);
+		
+		this.sequences.put(this.database1, 10L);
+		this.sequences.put(this.database2, 10L);
+	}
+	
+	@Test
+	public void disabled() throws SQLException
+	{
+		TestSequenceAllocator allocator = new TestSequenceAllocator(0);
+		
+		assertFalse(allocator.isEnabled());
+		assertNull(allocator.next(SEQUENCE));
+		assertTrue(this.restarts.isEmpty());
+		assertEquals(10L, this.sequences.get(this.database1).longValue());
+	}
+	
+	@Test
+	public void unknownSequence() throws SQLException
+	{
+		TestSequenceAllocator allocator = new TestSequenceAllocator(3);
+		
+		assertNull(allocator.next("unknown"));
+		assertTrue(this.restarts.isEmpty());
+	}
+	
+	@Test
+	public void reserve() throws SQLException
+	{
+		TestSequenceAllocator allocator = new TestSequenceAllocator(3);
+		
+		assertEquals(10L, allocator.next(SEQUENCE).longValue());
+		
+		// The sequence of every database now restarts beyond the reserved block
+		assertEquals(1, this.restarts.size());
+		assertEquals(13L, this.restarts.get(0).longValue());
+		assertEquals(13L, this.sequences.get(this.database1).longValue());
+		assertEquals(13L, this.sequences.get(this.database2).longValue());
+		
+		// Remaining values of the block are allocated locally
+		assertEquals(11L, allocator.next(SEQUENCE).longValue());
+		assertEquals(12L, allocator.next(SEQUENCE).longValue());
+		assertEquals(1, this.restarts.size());
+	}
+	
+	@Test
+	public void refill() throws SQLException
+	{
+		TestSequenceAllocator allocator = new TestSequenceAllocator(3);
+		
+		for (long i = 10; i < 13; ++i)
+		{
+			assertEquals(i, allocator.next(SEQUENCE).longValue());
+		}
+		
+		// Block is exhausted, so another must be reserved
+		assertEquals(13L, allocator.next(SEQUENCE).longValue());
+		
+		assertEquals(2, this.restarts.size());
+		assertEquals(16L, this.restarts.get(1).longValue());
+		assertEquals(16L, this.sequences.get(this.database1).longValue());
+		assertEquals(16L, this.sequences.get(this.database2).longValue());
+	}
+	
+	@Test
+	public void increment() throws SQLException
+	{
+		when(this.sequenceProperties.getIncrement()).thenReturn(5);
+		
+		TestSequenceAllocator allocator = new TestSequenceAllocator(3);
+		
+		assertEquals(10L, allocator.next(SEQUENCE).longValue());
+		assertEquals(15L, allocator.next(SEQUENCE).longValue());
+		assertEquals(20L, allocator.next(SEQUENCE).longValue());
+		assertEquals(25L, this.restarts.get(0).longValue());
+		
+		assertEquals(25L, allocator.next(SEQUENCE).longValue());
+		assertEquals(40L, this.restarts.get(1).longValue());
+	}
+	
+	@Test
+	public void divergentSequences() throws SQLException
+	{
+		this.sequences.put(this.database2, 20L);
+		
+		TestSequenceAllocator allocator = new TestSequenceAllocator(3);
+		
+		// Block must start beyond the largest value of any database
+		assertEquals(20L, allocator.next(SEQUENCE).longValue());
+		assertEquals(23L, this.sequences.get(this.database1).longValue());
+		assertEquals(23L, this.sequences.get(this.database2).longValue());
+	}
+	
+	@Test
+	public void failure() throws SQLException
+	{
+		when(this.cluster.deactivate(this.database2, null)).thenReturn(true);
+		
+		this.failures.add(this.database2);
+		
+		TestSequenceAllocator allocator = new TestSequenceAllocator(3);
+		
+		assertEquals(10L, allocator.next(SEQUENCE).longValue());
+		
+		verify(this.cluster, atLeastOnce()).deactivate(this.database2, null);
+		verify(this.cluster, never()).deactivate(this.database1, null);
+		
+		// Block was still reserved on the surviving database
+		assertEquals(13L, this.sequences.get(this.database1).longValue());
+		assertEquals(10L, this.sequences.get(this.database2).longValue());
+	}
+	
+	@Test
+	public void totalFailure()
+	{
+		this.failures.add(this.database1);
+		this.failures.add(this.database2);
+		
+		TestSequenceAllocator allocator = new TestSequenceAllocator(3);
+		
+		try
+		{
+			allocator.next(SEQUENCE);
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertEquals("db1", e.getMessage());
+		}
+		
+		verify(this.cluster, never()).deactivate(this.database1, null);
+		verify(this.cluster, never()).deactivate(this.database2, null);
+		assertTrue(this.restarts.isEmpty());
+	}
+	
+	@Test
+	public void concurrentAllocation() throws Exception
+	{
+		final TestSequenceAllocator allocator = new TestSequenceAllocator(10);
+		final int threads = 8;
+		final int count = 1000;
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		
+		try
+		{
+			List<Future<List<Long>>> futures = new ArrayList<>(threads);
+			
+			for (int i = 0; i < threads; ++i)
+			{
+				futures.add(executor.submit(new Callable<List<Long>>()
+				{
+					@Override
+					public List<Long> call() throws SQLException
+					{
+						List<Long> values = new ArrayList<>(count);
+						
+						for (int j = 0; j < count; ++j)
+						{
+							values.add(allocator.next(SEQUENCE));
+						}
+						
+						return values;
+					}
+				}));
+			}
+			
+			Set<Long> values = new TreeSet<>();
+			
+			for (Future<List<Long>> future: futures)
+			{
+				values.addAll(future.get());
+			}
+			
+			// Every allocated value is unique and was reserved on every database
+			assertEquals(threads * count, values.size());
+			assertEquals(threads * count / 10, this.restarts.size());
+			
+			long last = ((TreeSet<Long>) values).last();
+			
+			assertTrue(last < this.sequences.get(this.database1));
+			assertTrue(last < this.sequences.get(this.database2));
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Allocator whose databases are simulated by in-memory sequences.
+	 */
+	private class TestSequenceAllocator extends SequenceAllocator<Void, MockDatabase>
+	{
+		TestSequenceAllocator(int blockSize)
+		{
+			super(SequenceAllocatorTest.this.cluster, blockSize);
+		}
+
+		@Override
+		protected Connection connect()
+		{
+			return null;
+		}
+
+		@Override
+		protected DatabaseProperties getDatabaseProperties(Connection connection)
+		{
+			return SequenceAllocatorTest.this.databaseProperties;
+		}
+
+		@Override
+		protected Set<MockDatabase> getDatabases()
+		{
+			return new TreeSet<>(SequenceAllocatorTest.this.sequences.keySet());
+		}
+
+		@Override
+		protected Map<MockDatabase, Long> executeQuery(Set<MockDatabase> databases, String sql, Map<MockDatabase, SQLException> exceptions)
+		{
+			assertEquals("NEXT", sql);
+			
+			Map<MockDatabase, Long> results = new TreeMap<>();
+			
+			synchronized (SequenceAllocatorTest.this.sequences)
+			{
+				for (MockDatabase database: databases)
+				{
+					if (SequenceAllocatorTest.this.failures.contains(database))
+					{
+						exceptions.put(database, new SQLException(database.getId()));
+					}
+					else
+					{
+						long value = SequenceAllocatorTest.this.sequences.get(database);
+						
+						results.put(database, value);
+						SequenceAllocatorTest.this.sequences.put(database, value + SequenceAllocatorTest.this.sequenceProperties.getIncrement());
+					}
+				}
+			}
+			
+			return results;
+		}
+
+		@Override
+		protected void execute(Set<MockDatabase> databases, String sql, Map<MockDatabase, SQLException> exceptions)
+		{
+			assertTrue(sql.startsWith("RESTART "));
+			
+			long value = Long.parseLong(sql.substring("RESTART ".length()));
+			
+			synchronized (SequenceAllocatorTest.this.sequences)
+			{
+				SequenceAllocatorTest.this.restarts.add(value);
+				
+				for (MockDatabase database: databases)
+				{
+					if (!exceptions.containsKey(database))
+					{
+						SequenceAllocatorTest.this.sequences.put(database, value);
+					}
+				}
+			}
+		}
+	}
+	
+	private static class TestSequenceSupport implements SequenceSupport
+	{
+		TestSequenceSupport()
+		{
+		}
+
+		@Override
+		public String getNextSequenceValueSQL(SequenceProperties sequence)
+		{
+			return "NEXT";
+		}
+
+		@Override
+		public String getAlterSequenceSQL(SequenceProperties sequence, long value)
+		{
+			return "RESTART " + value;
+		}
+
+		@Override
+		public String parseSequence(String sql)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Collection<SequenceProperties> getSequences(DatabaseMetaData metaData, SequencePropertiesFactory factory)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isNextSequenceValueEvaluable(String sql)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String evaluateNextSequenceValue(String sql, long value)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public SequencePropertiesFactory createSequencePropertiesFactory(QualifiedNameFactory factory)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+}
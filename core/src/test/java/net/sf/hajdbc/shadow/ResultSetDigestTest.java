@@ -0,0 +1,99 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.shadow;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+public class ResultSetDigestTest
+{
+	@Test
+	public void orderIndependent() throws SQLException
+	{
+		ResultSetDigest expected = ResultSetDigest.digest(resultSet(1L, "a", 2L, "b"), 0);
+		ResultSetDigest actual = ResultSetDigest.digest(resultSet(2L, "b", 1L, "a"), 0);
+		
+		assertEquals(2L, expected.getRows());
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void normalizesNumbers() throws SQLException
+	{
+		ResultSetDigest expected = ResultSetDigest.digest(resultSet(1L, "a"), 0);
+		ResultSetDigest actual = ResultSetDigest.digest(resultSet(new BigDecimal("1.00"), "a"), 0);
+		
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void mismatch() throws SQLException
+	{
+		ResultSetDigest expected = ResultSetDigest.digest(resultSet(1L, "a", 2L, "b"), 0);
+		
+		assertNotEquals(expected, ResultSetDigest.digest(resultSet(1L, "a", 2L, "c"), 0));
+		assertNotEquals(expected, ResultSetDigest.digest(resultSet(1L, "a"), 0));
+		// Swapping values between rows must not preserve the digest
+		assertNotEquals(expected, ResultSetDigest.digest(resultSet(1L, "b", 2L, "a"), 0));
+	}
+	
+	@Test
+	public void maxRows() throws SQLException
+	{
+		assertNotNull(ResultSetDigest.digest(resultSet(1L, "a", 2L, "b"), 2));
+		assertNull(ResultSetDigest.digest(resultSet(1L, "a", 2L, "b"), 1));
+	}
+	
+	/**
+	 * Creates a mock result set with 2 columns from the specified alternating column values.
+	 */
+	private static ResultSet resultSet(Object... values) throws SQLException
+	{
+		ResultSet resultSet = mock(ResultSet.class);
+		ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+		int rows = values.length / 2;
+		
+		when(resultSet.getMetaData()).thenReturn(metaData);
+		when(metaData.getColumnCount()).thenReturn(2);
+		
+		Boolean[] next = new Boolean[rows];
+		Object[] first = new Object[rows - 1];
+		Object[] second = new Object[rows - 1];
+		for (int i = 0; i < rows; ++i)
+		{
+			next[i] = (i < rows - 1);
+			if (i > 0)
+			{
+				first[i - 1] = values[2 * i];
+				second[i - 1] = values[2 * i + 1];
+			}
+		}
+		when(resultSet.next()).thenReturn(true, next);
+		when(resultSet.getObject(1)).thenReturn(values[0], first);
+		when(resultSet.getObject(2)).thenReturn(values[1], second);
+		
+		return resultSet;
+	}
+}
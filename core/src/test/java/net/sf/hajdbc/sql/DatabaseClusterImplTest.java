@@ -0,0 +1,249 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.sf.hajdbc.SynchronizationProgressListener;
+import net.sf.hajdbc.state.DatabaseEvent;
+import net.sf.hajdbc.sync.SynchronizationProgressEvent;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+
+/**
+ * Unit test for the activation of multiple databases by {@link DatabaseClusterImpl}.
+ * @author Paul Ferraro
+ */
+public class DatabaseClusterImplTest
+{
+	private static final int ROWS = 250;
+	
+	@Test
+	public void activateMultipleTargets() throws Exception
+	{
+		// Synchronizes both databases from a single pass over the source database
+		ProgressListener listener = this.activate("activate-full", "full");
+		
+		// Progress of each database is reported separately
+		assertEquals(new HashSet<>(Arrays.asList("db2", "db3")), listener.progress.keySet());
+		for (Map.Entry<String, Map<String, Object>> entry: listener.progress.entrySet())
+		{
+			assertEquals(entry.getKey(), entry.getValue().get("database"));
+		}
+	}
+	
+	@Test
+	public void activateSingleTargets() throws Exception
+	{
+		// Synchronizes and activates each database in turn
+		this.activate("activate-diff", "diff");
+	}
+	
+	@Test
+	public void activateEmptyCluster() throws Exception
+	{
+		JDBCDataSource ds1 = createDataSource("activate-empty1");
+		JDBCDataSource ds2 = createDataSource("activate-empty2");
+		JDBCDataSource ds3 = createDataSource("activate-empty3");
+		
+		try (DataSource ds = new DataSource())
+		{
+			ds.setCluster("activate-empty");
+			
+			DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+			builder.addDatabase("db1").dataSource(ds1);
+			builder.addDatabase("db2").dataSource(ds2);
+			builder.addDatabase("db3").dataSource(ds3);
+			builder.addSynchronizationStrategy("full");
+			builder.defaultSynchronizationStrategy("full").dialect("hsqldb").metaDataCache("none").durability("none").state("simple");
+			builder.allowEmptyCluster(true);
+			
+			DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> databaseCluster = getDatabaseCluster(ds);
+			databaseCluster.deactivate("db2");
+			databaseCluster.deactivate("db3");
+			
+			insert(ds);
+			
+			databaseCluster.deactivate("db1");
+			
+			assertTrue(databaseCluster.getActiveDatabases().isEmpty());
+			
+			ProgressListener listener = new ProgressListener(databaseCluster);
+			databaseCluster.addSynchronizationListener(listener);
+			
+			databaseCluster.activate(new String[] { "db1", "db2", "db3" });
+			
+			assertEquals(new HashSet<>(Arrays.asList("db1", "db2", "db3")), databaseCluster.getActiveDatabases());
+			
+			// The first database is activated as is, and the remaining databases are synchronized from it
+			assertEquals(Arrays.asList("db2", "db3"), listener.before);
+			assertEquals(Arrays.asList("db2", "db3"), listener.after);
+			
+			assertEquals(ROWS, count(ds2));
+			assertEquals(ROWS, count(ds3));
+		}
+	}
+	
+	/**
+	 * Modifies the first database while the others are inactive, then reactivates them together using the specified strategy.
+	 * @return a listener of the synchronization of the reactivated databases
+	 */
+	private ProgressListener activate(String cluster, String strategy) throws Exception
+	{
+		JDBCDataSource ds1 = createDataSource(cluster + "1");
+		JDBCDataSource ds2 = createDataSource(cluster + "2");
+		JDBCDataSource ds3 = createDataSource(cluster + "3");
+		
+		try (DataSource ds = new DataSource())
+		{
+			ds.setCluster(cluster);
+			
+			DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+			builder.addDatabase("db1").dataSource(ds1);
+			builder.addDatabase("db2").dataSource(ds2);
+			builder.addDatabase("db3").dataSource(ds3);
+			builder.addSynchronizationStrategy(strategy);
+			builder.defaultSynchronizationStrategy(strategy).dialect("hsqldb").metaDataCache("none").durability("none").state("simple");
+			
+			DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> databaseCluster = getDatabaseCluster(ds);
+			databaseCluster.deactivate("db2");
+			databaseCluster.deactivate("db3");
+			
+			insert(ds);
+			
+			ProgressListener listener = new ProgressListener(databaseCluster);
+			databaseCluster.addSynchronizationListener(listener);
+			
+			databaseCluster.activate(new String[] { "db2", "db3" });
+			
+			assertEquals(new HashSet<>(Arrays.asList("db1", "db2", "db3")), databaseCluster.getActiveDatabases());
+			assertTrue(databaseCluster.getSynchronizationProgress().isEmpty());
+			
+			assertEquals(Arrays.asList("db2", "db3"), listener.before);
+			assertEquals(Arrays.asList("db2", "db3"), listener.after);
+			
+			assertEquals(ROWS, count(ds2));
+			assertEquals(ROWS, count(ds3));
+			
+			return listener;
+		}
+	}
+	
+	private static JDBCDataSource createDataSource(String name) throws SQLException
+	{
+		JDBCDataSource ds = new JDBCDataSource();
+		ds.setUrl(String.format("jdbc:hsqldb:mem:%s", name));
+		
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				s.execute("CREATE TABLE test (id INTEGER NOT NULL, name VARCHAR(10) NOT NULL, PRIMARY KEY (id))");
+			}
+		}
+		return ds;
+	}
+	
+	private static void insert(DataSource ds) throws SQLException
+	{
+		try (Connection c = ds.getConnection())
+		{
+			try (PreparedStatement ps = c.prepareStatement("INSERT INTO test (id, name) VALUES (?, ?)"))
+			{
+				for (int i = 0; i < ROWS; ++i)
+				{
+					ps.setInt(1, i);
+					ps.setString(2, String.format("row-%d", i));
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+		}
+	}
+	
+	private static int count(JDBCDataSource ds) throws SQLException
+	{
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				try (ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM test"))
+				{
+					assertTrue(rs.next());
+					return rs.getInt(1);
+				}
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> getDatabaseCluster(DataSource ds) throws SQLException
+	{
+		AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?> handler = (AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?>) Proxy.getInvocationHandler(ds.getProxy());
+		return (DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase>) handler.getProxyFactory().getDatabaseCluster();
+	}
+	
+	/**
+	 * Records the synchronized databases, and the progress of each, as reported by the cluster.
+	 */
+	private static class ProgressListener implements SynchronizationProgressListener
+	{
+		final DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> cluster;
+		final List<String> before = new CopyOnWriteArrayList<>();
+		final List<String> after = new CopyOnWriteArrayList<>();
+		final Map<String, Map<String, Object>> progress = new ConcurrentHashMap<>();
+		
+		ProgressListener(DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> cluster)
+		{
+			this.cluster = cluster;
+		}
+		
+		@Override
+		public void beforeSynchronization(DatabaseEvent event)
+		{
+			this.before.add(event.getSource());
+		}
+		
+		@Override
+		public void afterSynchronization(DatabaseEvent event)
+		{
+			this.after.add(event.getSource());
+		}
+		
+		@Override
+		public void synchronizationProgress(SynchronizationProgressEvent event)
+		{
+			this.progress.put(event.getSource(), this.cluster.getSynchronizationProgress(event.getSource()));
+		}
+	}
+}
@@ -23,6 +23,7 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.DatabaseCluster;
@@ -30,8 +31,11 @@ import net.sf.hajdbc.DatabaseClusterConfigurationFactory;
 import net.sf.hajdbc.DatabaseClusterFactory;
 import net.sf.hajdbc.MockDriver;
 import net.sf.hajdbc.balancer.Balancer;
+import net.sf.hajdbc.balancer.Topology;
 import net.sf.hajdbc.durability.Durability;
+import net.sf.hajdbc.invocation.InvocationLatencies;
 import net.sf.hajdbc.lock.LockManager;
+import net.sf.hajdbc.metrics.MetricRegistryImpl;
 import net.sf.hajdbc.tx.TransactionIdentifierFactory;
 
 import org.junit.After;
@@ -115,11 +119,14 @@ public class DriverTest
 			when(balancer.size()).thenReturn(1);
 			when(balancer.iterator()).thenReturn(Collections.singleton(database).iterator());
 			when(balancer.next()).thenReturn(database);
+			when(balancer.topology()).thenReturn(new Topology<>(Collections.singleton(database)));
 			when(cluster.getExecutor()).thenReturn(Executors.newCachedThreadPool());
 			when(cluster.getLockManager()).thenReturn(lockManager);
 			when(lockManager.readLock(null)).thenReturn(mock(Lock.class));
 			when(cluster.getDurability()).thenReturn(mock(Durability.class));
 			when(cluster.getTransactionIdentifierFactory()).thenReturn(mock(TransactionIdentifierFactory.class));
+			when(cluster.getMetricRegistry()).thenReturn(new MetricRegistryImpl());
+			when(cluster.getInvocationLatencies()).thenReturn(new InvocationLatencies(100, TimeUnit.MICROSECONDS));
 			
 			try (Connection result = driver.connect(url, null))
 			{
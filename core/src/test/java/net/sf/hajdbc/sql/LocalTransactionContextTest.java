@@ -0,0 +1,269 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.TransactionCompletion;
+import net.sf.hajdbc.TransactionMode;
+import net.sf.hajdbc.balancer.simple.SimpleBalancer;
+import net.sf.hajdbc.durability.Durability;
+import net.sf.hajdbc.invocation.InvocationStrategy;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.invocation.LockingInvocationStrategy;
+import net.sf.hajdbc.lock.LockManager;
+import net.sf.hajdbc.replay.ReplayLog;
+import net.sf.hajdbc.state.StateManager;
+import net.sf.hajdbc.tx.TransactionIdentifierFactory;
+import net.sf.hajdbc.util.concurrent.PartitionedTask;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link LocalTransactionContext}.
+ * @author Paul Ferraro
+ */
+public class LocalTransactionContextTest
+{
+	private final MockDatabase primary = new MockDatabase("db1");
+	private final MockDatabase backup = new MockDatabase("db2");
+	
+	@SuppressWarnings("unchecked")
+	private final DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+	private final LockManager lockManager = mock(LockManager.class);
+	@SuppressWarnings("unchecked")
+	private final Durability<Void, MockDatabase> durability = mock(Durability.class);
+	private final ReplayLog<Void, MockDatabase> replayLog = new ReplayLog<>(0);
+	private final StateManager stateManager = mock(StateManager.class);
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	
+	private LocalTransactionContext<Void, MockDatabase> context;
+	
+	@Before
+	public void init()
+	{
+		when(this.cluster.getLockManager()).thenReturn(this.lockManager);
+		when(this.lockManager.readLock(null)).thenReturn(new ReentrantLock());
+		when(this.cluster.getDurability()).thenReturn(this.durability);
+		when(this.cluster.getTransactionIdentifierFactory()).thenReturn(mock(TransactionIdentifierFactory.class));
+		when(this.cluster.getReplayLog()).thenReturn(this.replayLog);
+		when(this.cluster.getTransactionMode()).thenReturn(TransactionModeEnum.ORDERED);
+		when(this.cluster.getTransactionCompletion()).thenReturn(TransactionCompletion.PRIMARY);
+		when(this.cluster.getExecutor()).thenReturn(this.executor);
+		when(this.cluster.getBalancer()).thenReturn(new SimpleBalancer<>(new TreeSet<>(Arrays.asList(this.primary, this.backup))));
+		when(this.cluster.getStateManager()).thenReturn(this.stateManager);
+		when(this.cluster.deactivate(this.backup, this.stateManager)).thenReturn(true);
+		
+		this.context = new LocalTransactionContext<>(this.cluster);
+	}
+	
+	@After
+	public void destroy()
+	{
+		this.context.close();
+		this.executor.shutdownNow();
+	}
+	
+	@Test
+	public void await() throws InterruptedException
+	{
+		Future<Integer> future = this.context.getTransactionExecutor(false).invokeAll(Arrays.asList(new Write(this.primary, 1), new Write(this.backup, null))).get(1);
+		
+		// Waits for the pending write, and deactivates the database against which it failed
+		this.context.await();
+		
+		assertTrue(future.isDone());
+		verify(this.cluster).deactivate(this.backup, this.stateManager);
+		verify(this.cluster, never()).deactivate(this.primary, this.stateManager);
+		
+		// Failures are only reported once
+		this.context.await();
+		
+		verify(this.cluster).deactivate(this.backup, this.stateManager);
+	}
+	
+	@Test
+	public void legacyTransactionMode()
+	{
+		final ExecutorService executor = mock(ExecutorService.class);
+		TransactionMode mode = new TransactionMode()
+		{
+			@Override
+			public ExecutorService getTransactionExecutor(ExecutorService clusterExecutor, boolean end)
+			{
+				return executor;
+			}
+		};
+		when(this.cluster.getTransactionMode()).thenReturn(mode);
+		
+		// A transaction mode that predates transaction lanes never leaves writes pending
+		assertSame(executor, this.context.getTransactionExecutor(false));
+	}
+	
+	@Test
+	public void lanesPerContext() throws InterruptedException
+	{
+		this.context.getTransactionExecutor(false).invokeAll(Arrays.asList(new Write(this.primary, 1), new Write(this.backup, null)));
+		
+		// Another connection does not observe the pending writes of this connection
+		new LocalTransactionContext<>(this.cluster).await();
+		
+		verify(this.cluster, never()).deactivate(this.backup, this.stateManager);
+		
+		this.context.await();
+		
+		verify(this.cluster).deactivate(this.backup, this.stateManager);
+	}
+	
+	@Test
+	public void transaction() throws SQLException
+	{
+		WriteStrategy strategy = new WriteStrategy();
+		
+		this.context.start(strategy, this.connection(false)).invoke(null, null);
+		
+		// Writes within a transaction return once complete against the primary database
+		assertFalse(strategy.completed);
+	}
+	
+	@Test
+	public void autoCommit() throws SQLException
+	{
+		WriteStrategy strategy = new WriteStrategy();
+		
+		when(this.durability.getInvocationStrategy(strategy, Durability.Phase.COMMIT, null)).thenReturn(strategy);
+		
+		this.context.start(strategy, this.connection(true)).invoke(null, null);
+		
+		// Auto-committed writes must complete against every database before their commit is recorded
+		assertTrue(strategy.completed);
+	}
+	
+	@Test
+	public void locking() throws SQLException
+	{
+		WriteStrategy strategy = new WriteStrategy();
+		List<Lock> locks = Collections.<Lock>singletonList(new ReentrantLock());
+		
+		this.context.start(new LockingInvocationStrategy(strategy, locks), this.connection(false)).invoke(null, null);
+		
+		// Writes holding locks must complete against every database before releasing them
+		assertTrue(strategy.completed);
+		
+		this.context.start(new LockingInvocationStrategy(strategy, Collections.<Lock>emptyList()), this.connection(false)).invoke(null, null);
+		
+		assertFalse(strategy.completed);
+	}
+	
+	private Connection connection(boolean autoCommit) throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		
+		when(connection.getAutoCommit()).thenReturn(autoCommit);
+		
+		return connection;
+	}
+	
+	/**
+	 * Invocation strategy that executes a slow write against the backup database via the transaction executor of the context.
+	 */
+	class WriteStrategy implements InvocationStrategy
+	{
+		volatile boolean completed;
+		
+		@Override
+		public <Z, D extends Database<Z>, T, R, E extends Exception> SortedMap<D, R> invoke(ProxyFactory<Z, D, T, E> proxy, Invoker<Z, D, T, R, E> invoker)
+		{
+			LocalTransactionContext<Void, MockDatabase> context = LocalTransactionContextTest.this.context;
+			
+			try
+			{
+				List<Future<Integer>> futures = context.getTransactionExecutor(false).invokeAll(Arrays.asList(new Write(LocalTransactionContextTest.this.primary, 1), new Write(LocalTransactionContextTest.this.backup, 1, 500)));
+				
+				this.completed = futures.get(1).isDone();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * A write against a single database, which fails if it has no result.
+	 */
+	static class Write implements Callable<Integer>, PartitionedTask
+	{
+		private final MockDatabase database;
+		private final Integer result;
+		private final long delay;
+		
+		Write(MockDatabase database, Integer result)
+		{
+			this(database, result, 0);
+		}
+		
+		Write(MockDatabase database, Integer result, long delay)
+		{
+			this.database = database;
+			this.result = result;
+			this.delay = delay;
+		}
+		
+		@Override
+		public Object getPartition()
+		{
+			return this.database;
+		}
+		
+		@Override
+		public Integer call() throws SQLException, InterruptedException
+		{
+			Thread.sleep(this.delay);
+			
+			if (this.result == null)
+			{
+				throw new SQLException(this.database.getId());
+			}
+			
+			return this.result;
+		}
+	}
+}
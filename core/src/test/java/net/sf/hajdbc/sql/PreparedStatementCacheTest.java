@@ -0,0 +1,134 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import net.sf.hajdbc.DatabaseCluster;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class PreparedStatementCacheTest
+{
+	@Test
+	public void test() throws Exception
+	{
+		JDBCDataSource ds1 = new JDBCDataSource();
+		ds1.setUrl("jdbc:hsqldb:mem:cache1");
+
+		JDBCDataSource ds2 = new JDBCDataSource();
+		ds2.setUrl("jdbc:hsqldb:mem:cache2");
+		
+		try (DataSource ds = new DataSource())
+		{
+			ds.setCluster("cache");
+
+			DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+			builder.addDatabase("db1").dataSource(ds1);
+			builder.addDatabase("db2").dataSource(ds2);
+			builder.addSynchronizationStrategy("passive");
+			builder.defaultSynchronizationStrategy("passive").dialect("hsqldb").metaDataCache("none").durability("none").state("simple");
+			builder.statementCacheSize(1);
+			
+			try (Connection c = ds.getConnection())
+			{
+				try (Statement s = c.createStatement())
+				{
+					s.execute("CREATE TABLE test (id INTEGER NOT NULL, PRIMARY KEY (id))");
+				}
+				
+				PreparedStatement ps = c.prepareStatement("INSERT INTO test (id) VALUES (?)");
+				PreparedStatementProxyFactory<javax.sql.DataSource, DataSourceDatabase> factory = getProxyFactory(ps);
+				DataSourceDatabase db1 = factory.getDatabaseCluster().getDatabase("db1");
+				PreparedStatement ps1 = factory.get(db1);
+				
+				ps.setInt(1, 1);
+				ps.executeUpdate();
+				ps.close();
+				
+				assertTrue(ps.isClosed());
+				assertFalse(ps1.isClosed());
+				
+				try
+				{
+					ps.setInt(1, 2);
+					fail();
+				}
+				catch (SQLException e)
+				{
+					// Expected
+				}
+				
+				// Same statement is reused, with cleared parameters
+				ps = c.prepareStatement("INSERT INTO test (id) VALUES (?)");
+				assertSame(factory, getProxyFactory(ps));
+				assertSame(ps1, factory.get(db1));
+				
+				try
+				{
+					ps.executeUpdate();
+					fail();
+				}
+				catch (SQLException e)
+				{
+					// Expected, since parameter was cleared
+				}
+				
+				ps.setInt(1, 2);
+				ps.executeUpdate();
+				ps.close();
+				
+				// Evicts least recently used statement
+				c.prepareStatement("DELETE FROM test").close();
+				
+				assertTrue(ps1.isClosed());
+				
+				ps = c.prepareStatement("DELETE FROM test");
+				factory = getProxyFactory(ps);
+				ps1 = factory.get(db1);
+				ps.close();
+				
+				// Deactivation empties the cache
+				DatabaseCluster<javax.sql.DataSource, DataSourceDatabase> cluster = factory.getDatabaseCluster();
+				cluster.deactivate(cluster.getDatabase("db2"), cluster.getStateManager());
+				
+				assertTrue(ps1.isClosed());
+				
+				ps = c.prepareStatement("DELETE FROM test");
+				assertNotSame(factory, getProxyFactory(ps));
+				ps.close();
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static PreparedStatementProxyFactory<javax.sql.DataSource, DataSourceDatabase> getProxyFactory(PreparedStatement statement)
+	{
+		return ((PreparedStatementInvocationHandler<javax.sql.DataSource, DataSourceDatabase>) Proxy.getInvocationHandler(statement)).getProxyFactory();
+	}
+}
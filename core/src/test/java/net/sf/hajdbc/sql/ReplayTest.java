@@ -0,0 +1,213 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+
+/**
+ * Verifies which writes are replayed against a briefly inactive database.
+ * Databases are reactivated using passive synchronization, such that only replayed writes are visible to the reactivated database.
+ * @author Paul Ferraro
+ */
+public class ReplayTest
+{
+	@Test
+	public void replay() throws Exception
+	{
+		assertEquals(2, this.replay("replay", "derby", 0, "INSERT INTO test (id, name) VALUES (1, 'a')", "INSERT INTO test (id, name) VALUES (2, 'b')"));
+	}
+	
+	@Test
+	public void sequence() throws Exception
+	{
+		// A replayed sequence expression would generate a different value on the inactive database
+		assertEquals(0, this.replay("replay-sequence", "derby", 0, "INSERT INTO test (id, name) VALUES (1, 'a')", "INSERT INTO test (id, name) VALUES (NEXT VALUE FOR test_seq, 'b')"));
+	}
+	
+	@Test
+	public void allocatedSequence() throws Exception
+	{
+		// Derby can neither enumerate nor restart sequences, and so cannot pre-allocate sequence values
+		assertEquals(2, this.replay("replay-allocated-sequence", "h2", 10, "INSERT INTO test (id, name) VALUES (1, 'a')", "INSERT INTO test (id, name) VALUES (NEXT VALUE FOR test_seq, 'b')"));
+	}
+	
+	@Test
+	public void identity() throws Exception
+	{
+		assertEquals(0, this.replay("replay-identity", "derby", 0, "INSERT INTO test (id, name) VALUES (1, 'a')", "INSERT INTO test_identity (name) VALUES ('b')"));
+	}
+	
+	@Test
+	public void allocatedIdentity() throws Exception
+	{
+		assertEquals(2, this.replay("replay-allocated-identity", "derby", 10, "INSERT INTO test (id, name) VALUES (1, 'a')", "INSERT INTO test_identity (name) VALUES ('b')"));
+	}
+	
+	@Test
+	public void explicitIdentity() throws Exception
+	{
+		assertEquals(2, this.replay("replay-explicit-identity", "derby", 0, "INSERT INTO test (id, name) VALUES (1, 'a')", "INSERT INTO test_identity (id, name) VALUES (1, 'b')"));
+	}
+	
+	@Test
+	public void preparedSequence() throws Exception
+	{
+		javax.sql.DataSource ds2 = createDataSource("derby", "replay-prepared2");
+		
+		try (DataSource ds = createCluster("replay-prepared", "derby", createDataSource("derby", "replay-prepared1"), ds2, 0))
+		{
+			try (Connection c = ds.getConnection())
+			{
+				getDatabaseCluster(c).deactivate("db2");
+				
+				try (PreparedStatement ps = c.prepareStatement("INSERT INTO test (id, name) VALUES (NEXT VALUE FOR test_seq, ?)"))
+				{
+					ps.setString(1, "a");
+					ps.executeUpdate();
+				}
+				
+				getDatabaseCluster(c).activate("db2");
+			}
+		}
+		
+		assertEquals(0, count(ds2));
+	}
+	
+	/**
+	 * Executes the specified statements, within a single transaction, while the second database is inactive, then reactivates it.
+	 * @param dialect the dialect of both databases
+	 * @param blockSize the number of sequence and identity values to pre-allocate
+	 * @return the number of rows, across both tables, of the second database
+	 */
+	private int replay(String cluster, String dialect, int blockSize, String... statements) throws Exception
+	{
+		javax.sql.DataSource ds2 = createDataSource(dialect, cluster + "2");
+		
+		try (DataSource ds = createCluster(cluster, dialect, createDataSource(dialect, cluster + "1"), ds2, blockSize))
+		{
+			try (Connection c = ds.getConnection())
+			{
+				getDatabaseCluster(c).deactivate("db2");
+				
+				c.setAutoCommit(false);
+				
+				try (Statement s = c.createStatement())
+				{
+					for (String statement: statements)
+					{
+						s.executeUpdate(statement);
+					}
+				}
+				
+				c.commit();
+				c.setAutoCommit(true);
+				
+				getDatabaseCluster(c).activate("db2");
+				
+				assertTrue(getDatabaseCluster(c).getActiveDatabases().contains("db2"));
+			}
+		}
+		
+		return count(ds2);
+	}
+	
+	private static javax.sql.DataSource createDataSource(String dialect, String name) throws SQLException
+	{
+		boolean h2 = dialect.equals("h2");
+		javax.sql.DataSource ds = h2 ? createH2DataSource(name) : createDerbyDataSource(name);
+		// H2 backs identity columns with system sequences whose names differ per database, which cannot be synchronized
+		String identity = h2 ? "" : " GENERATED BY DEFAULT AS IDENTITY";
+		
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				s.execute("CREATE TABLE test (id INTEGER NOT NULL, name VARCHAR(10) NOT NULL, PRIMARY KEY (id))");
+				s.execute(String.format("CREATE TABLE test_identity (id INTEGER NOT NULL%s, name VARCHAR(10) NOT NULL, PRIMARY KEY (id))", identity));
+				s.execute("CREATE SEQUENCE test_seq START WITH 100");
+			}
+		}
+		return ds;
+	}
+	
+	private static javax.sql.DataSource createDerbyDataSource(String name)
+	{
+		EmbeddedDataSource ds = new EmbeddedDataSource();
+		ds.setDatabaseName(String.format("memory:%s", name));
+		ds.setCreateDatabase("create");
+		return ds;
+	}
+	
+	private static javax.sql.DataSource createH2DataSource(String name)
+	{
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL(String.format("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1", name));
+		return ds;
+	}
+	
+	private static DataSource createCluster(String cluster, String dialect, javax.sql.DataSource ds1, javax.sql.DataSource ds2, int blockSize)
+	{
+		DataSource ds = new DataSource();
+		ds.setCluster(cluster);
+		
+		DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+		builder.addDatabase("db1").dataSource(ds1);
+		builder.addDatabase("db2").dataSource(ds2);
+		builder.addSynchronizationStrategy("passive");
+		builder.defaultSynchronizationStrategy("passive").dialect(dialect).metaDataCache("none").durability("none").state("simple");
+		builder.replayLogSize(100).detectSequences(true).sequenceBlockSize(blockSize).detectIdentityColumns(true).identityBlockSize(blockSize);
+		return ds;
+	}
+	
+	private static int count(javax.sql.DataSource ds) throws SQLException
+	{
+		int count = 0;
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				for (String table: new String[] { "test", "test_identity" })
+				{
+					try (ResultSet rs = s.executeQuery(String.format("SELECT COUNT(*) FROM %s", table)))
+					{
+						assertTrue(rs.next());
+						count += rs.getInt(1);
+					}
+				}
+			}
+		}
+		return count;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> getDatabaseCluster(Connection connection)
+	{
+		return (DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase>) ((ConnectionInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?>) Proxy.getInvocationHandler(connection)).getProxyFactory().getDatabaseCluster();
+	}
+}
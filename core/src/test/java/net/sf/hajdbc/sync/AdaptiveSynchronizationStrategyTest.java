@@ -0,0 +1,142 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import net.sf.hajdbc.sql.AbstractInvocationHandler;
+import net.sf.hajdbc.sql.DataSource;
+import net.sf.hajdbc.sql.DataSourceDatabase;
+import net.sf.hajdbc.sql.DataSourceDatabaseClusterConfigurationBuilder;
+import net.sf.hajdbc.sql.DatabaseClusterImpl;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AdaptiveSynchronizationStrategy}.
+ * @author Paul Ferraro
+ */
+public class AdaptiveSynchronizationStrategyTest
+{
+	private static final int ROWS = 200;
+	// Beyond the default sample size
+	private static final int LATE_ROW = 150;
+	
+	@Test
+	public void synchronizeLateRow() throws Exception
+	{
+		AdaptiveSynchronizationStrategy strategy = new AdaptiveSynchronizationStrategy();
+		
+		assertFalse(strategy.isSkipUnchanged());
+		assertEquals("updated", this.synchronize("adaptive", strategy));
+	}
+	
+	@Test
+	public void skipUnchanged() throws Exception
+	{
+		AdaptiveSynchronizationStrategy strategy = new AdaptiveSynchronizationStrategy();
+		strategy.setSkipUnchanged(true);
+		
+		// Leading rows, row count, and key range are identical, so the table is skipped
+		assertEquals("original", this.synchronize("adaptive-skip", strategy));
+	}
+	
+	/**
+	 * Updates a row beyond the sample while the second database is inactive, then reactivates it using the specified strategy.
+	 * @return the value of the updated row in the second database
+	 */
+	private String synchronize(String cluster, AdaptiveSynchronizationStrategy strategy) throws Exception
+	{
+		JDBCDataSource ds1 = new JDBCDataSource();
+		ds1.setUrl(String.format("jdbc:hsqldb:mem:%s1", cluster));
+
+		JDBCDataSource ds2 = new JDBCDataSource();
+		ds2.setUrl(String.format("jdbc:hsqldb:mem:%s2", cluster));
+		
+		try (DataSource ds = new DataSource())
+		{
+			ds.setCluster(cluster);
+
+			DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+			builder.addDatabase("db1").dataSource(ds1);
+			builder.addDatabase("db2").dataSource(ds2);
+			builder.addSynchronizationStrategy(strategy);
+			builder.defaultSynchronizationStrategy(strategy.getId()).dialect("hsqldb").metaDataCache("none").durability("none").state("simple");
+			
+			try (Connection c = ds.getConnection())
+			{
+				try (Statement s = c.createStatement())
+				{
+					s.execute("CREATE TABLE test (id INTEGER NOT NULL, name VARCHAR(10) NOT NULL, PRIMARY KEY (id))");
+				}
+				try (PreparedStatement ps = c.prepareStatement("INSERT INTO test (id, name) VALUES (?, ?)"))
+				{
+					for (int i = 0; i < ROWS; ++i)
+					{
+						ps.setInt(1, i);
+						ps.setString(2, "original");
+						ps.addBatch();
+					}
+					ps.executeBatch();
+				}
+				
+				DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> databaseCluster = getDatabaseCluster(ds);
+				databaseCluster.deactivate("db2");
+				
+				try (PreparedStatement ps = c.prepareStatement("UPDATE test SET name = ? WHERE id = ?"))
+				{
+					ps.setString(1, "updated");
+					ps.setInt(2, LATE_ROW);
+					assertEquals(1, ps.executeUpdate());
+				}
+				
+				databaseCluster.activate("db2");
+				
+				assertTrue(databaseCluster.getActiveDatabases().contains("db2"));
+			}
+		}
+		
+		try (Connection c = ds2.getConnection())
+		{
+			try (PreparedStatement ps = c.prepareStatement("SELECT name FROM test WHERE id = ?"))
+			{
+				ps.setInt(1, LATE_ROW);
+				try (ResultSet rs = ps.executeQuery())
+				{
+					assertTrue(rs.next());
+					return rs.getString(1);
+				}
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> getDatabaseCluster(DataSource ds) throws SQLException
+	{
+		AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?> handler = (AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?>) Proxy.getInvocationHandler(ds.getProxy());
+		return (DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase>) handler.getProxyFactory().getDatabaseCluster();
+	}
+}
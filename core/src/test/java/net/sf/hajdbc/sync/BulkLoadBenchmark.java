@@ -0,0 +1,263 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.mockito.Mockito.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.hajdbc.BulkLoadSupport;
+import net.sf.hajdbc.ColumnProperties;
+import net.sf.hajdbc.QualifiedName;
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.dialect.Dialect;
+import net.sf.hajdbc.dialect.derby.DerbyDialectFactory;
+import net.sf.hajdbc.dialect.h2.H2DialectFactory;
+import net.sf.hajdbc.dialect.hsqldb.HSQLDBDialectFactory;
+import net.sf.hajdbc.util.Strings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the time to load a table of an embedded database, as performed by {@link FullSynchronizationStrategy},
+ * comparing batches of single row inserts (the default), multi-row inserts, and native loading of a delimited file, via {@link BulkLoadSupport}.
+ * Not run as part of the test suite; run via {@link #main(String[])}, from the test classpath.
+ * @author Paul Ferraro
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkLoadBenchmark
+{
+	private static final int ROWS = 10000;
+	private static final int BATCH_SIZE = 100;
+	private static final List<String> COLUMNS = Arrays.asList("ID", "NAME", "AMOUNT", "CREATED");
+	private static final int[] TYPES = new int[] { Types.BIGINT, Types.VARCHAR, Types.DECIMAL, Types.DATE };
+	
+	@Param({ "h2", "hsqldb", "derby" })
+	String database;
+	
+	@Param({ "batch", "multi-row", "file" })
+	String method;
+	
+	Dialect dialect;
+	BulkLoadSupport support;
+	Connection connection;
+	TableProperties table;
+	RowCodec codec;
+	Row[] rows;
+	
+	@Setup
+	public void setup() throws SQLException
+	{
+		// Required by HSQLDB to attach a text table to a file outside of the database directory
+		System.setProperty("textdb.allow_full_path", Boolean.TRUE.toString());
+		
+		switch (this.database)
+		{
+			case "h2":
+			{
+				this.dialect = new H2DialectFactory().createDialect();
+				this.connection = DriverManager.getConnection("jdbc:h2:mem:bulk");
+				break;
+			}
+			case "hsqldb":
+			{
+				this.dialect = new HSQLDBDialectFactory().createDialect();
+				this.connection = DriverManager.getConnection("jdbc:hsqldb:mem:bulk", "SA", "");
+				break;
+			}
+			default:
+			{
+				this.dialect = new DerbyDialectFactory().createDialect();
+				this.connection = DriverManager.getConnection("jdbc:derby:memory:bulk;create=true");
+			}
+		}
+		this.support = this.dialect.getBulkLoadSupport();
+		
+		try (Statement statement = this.connection.createStatement())
+		{
+			statement.execute("CREATE TABLE bulk (id BIGINT NOT NULL, name VARCHAR(50), amount DECIMAL(10, 2), created DATE, PRIMARY KEY (id))");
+		}
+		
+		this.table = mock(TableProperties.class);
+		QualifiedName name = mock(QualifiedName.class);
+		when(this.table.getName()).thenReturn(name);
+		when(name.getName()).thenReturn("BULK");
+		when(name.getDMLName()).thenReturn("bulk");
+		when(name.getDDLName()).thenReturn("bulk");
+		for (int i = 0; i < TYPES.length; ++i)
+		{
+			ColumnProperties column = mock(ColumnProperties.class);
+			when(column.getType()).thenReturn(TYPES[i]);
+			when(this.table.getColumnProperties(COLUMNS.get(i))).thenReturn(column);
+		}
+		
+		this.codec = new RowCodec(this.dialect, this.table, COLUMNS);
+		this.rows = new Row[ROWS];
+		for (int i = 0; i < ROWS; ++i)
+		{
+			Row row = this.codec.createRow();
+			row.values[0] = i;
+			row.objects[1] = "name-" + i;
+			row.objects[2] = BigDecimal.valueOf(i, 2);
+			row.objects[3] = new java.sql.Date(86400000L * (i % 10000));
+			row.nulls[3] = (i % 10) == 0;
+			this.rows[i] = row;
+		}
+		
+		this.connection.setAutoCommit(false);
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException
+	{
+		try (Statement statement = this.connection.createStatement())
+		{
+			statement.execute("DROP TABLE bulk");
+		}
+		this.connection.commit();
+		this.connection.close();
+	}
+	
+	@Benchmark
+	public void load() throws Exception
+	{
+		try (Statement statement = this.connection.createStatement())
+		{
+			statement.executeUpdate(this.dialect.getTruncateTableSQL(this.table));
+		}
+		
+		switch (this.method)
+		{
+			case "batch":
+			{
+				this.insert(String.format("INSERT INTO bulk (%s) VALUES (%s)", Strings.join(COLUMNS, Strings.PADDED_COMMA), Strings.join(Collections.nCopies(COLUMNS.size(), Strings.QUESTION), Strings.PADDED_COMMA)), 1);
+				break;
+			}
+			case "multi-row":
+			{
+				this.insert(this.support.getMultiRowInsertSQL(this.table, COLUMNS, BATCH_SIZE), BATCH_SIZE);
+				break;
+			}
+			default:
+			{
+				this.loadFile();
+			}
+		}
+		
+		this.connection.commit();
+	}
+	
+	private void insert(String sql, int rowsPerStatement) throws SQLException
+	{
+		int columns = COLUMNS.size();
+		int statements = 0;
+		
+		try (PreparedStatement statement = this.connection.prepareStatement(sql))
+		{
+			for (int i = 0; i < ROWS; i += rowsPerStatement)
+			{
+				for (int j = 0; j < rowsPerStatement; ++j)
+				{
+					this.codec.write(this.rows[i + j], 0, columns, statement, (j * columns) + 1);
+				}
+				statement.addBatch();
+				
+				if (((++statements * rowsPerStatement) % BATCH_SIZE) == 0)
+				{
+					statement.executeBatch();
+					statement.clearBatch();
+				}
+			}
+		}
+	}
+	
+	private void loadFile() throws Exception
+	{
+		File file = File.createTempFile("bulk", ".csv");
+		try
+		{
+			StringBuilder builder = new StringBuilder();
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))
+			{
+				for (int i = 0; i < ROWS; ++i)
+				{
+					this.codec.format(this.rows[i], builder);
+					
+					if (((i + 1) % BATCH_SIZE) == 0)
+					{
+						writer.append(builder);
+						builder.setLength(0);
+					}
+				}
+				writer.append(builder);
+			}
+			
+			try (Statement statement = this.connection.createStatement())
+			{
+				for (String sql: this.support.getLoadFileSQL(this.table, COLUMNS, file))
+				{
+					statement.execute(sql);
+				}
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+	
+	public static void main(String... args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder().include(BulkLoadBenchmark.class.getSimpleName()).build()).run();
+	}
+}
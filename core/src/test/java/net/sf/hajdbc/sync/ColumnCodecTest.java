@@ -0,0 +1,181 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ColumnCodec}.
+ * @author Paul Ferraro
+ */
+public class ColumnCodecTest
+{
+	@Test
+	public void copyLong() throws SQLException
+	{
+		ColumnCodec codec = ColumnCodec.forType(Types.INTEGER);
+		ResultSet resultSet = mock(ResultSet.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		Row row = new Row(1);
+		
+		when(resultSet.getLong(1)).thenReturn(10L);
+		when(resultSet.wasNull()).thenReturn(false);
+		
+		codec.read(resultSet, 1, row, 0);
+		
+		assertFalse(row.isNull(0));
+		assertEquals(8L, codec.write(row, 0, statement, 2));
+		
+		verify(statement).setLong(2, 10L);
+		verify(resultSet, never()).getObject(1);
+		
+		when(resultSet.getLong(1)).thenReturn(0L);
+		when(resultSet.wasNull()).thenReturn(true);
+		
+		codec.read(resultSet, 1, row, 0);
+		
+		assertTrue(row.isNull(0));
+		assertEquals(0L, codec.write(row, 0, statement, 2));
+		
+		verify(statement).setNull(2, Types.INTEGER);
+	}
+	
+	@Test
+	public void copyDouble() throws SQLException
+	{
+		ColumnCodec codec = ColumnCodec.forType(Types.DOUBLE);
+		ResultSet resultSet = mock(ResultSet.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		Row row = new Row(1);
+		
+		when(resultSet.getDouble(1)).thenReturn(-1.5d);
+		
+		codec.read(resultSet, 1, row, 0);
+		codec.write(row, 0, statement, 1);
+		
+		verify(statement).setDouble(1, -1.5d);
+	}
+	
+	@Test
+	public void copyString() throws SQLException
+	{
+		ColumnCodec codec = ColumnCodec.forType(Types.VARCHAR);
+		ResultSet resultSet = mock(ResultSet.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		Row row = new Row(1);
+		
+		when(resultSet.getString(1)).thenReturn("abc");
+		
+		codec.read(resultSet, 1, row, 0);
+		
+		assertEquals(6L, codec.write(row, 0, statement, 1));
+		
+		verify(statement).setString(1, "abc");
+	}
+	
+	@Test
+	public void format() throws SQLException
+	{
+		Row row = new Row(1);
+		StringBuilder builder = new StringBuilder();
+		
+		ColumnCodec codec = ColumnCodec.forType(Types.VARCHAR);
+		row.objects[0] = "a \"b\", c";
+		codec.format(row, 0, builder);
+		
+		assertEquals("\"a \"\"b\"\", c\"", builder.toString());
+		
+		// Nulls are empty fields, whereas empty strings are quoted
+		builder.setLength(0);
+		row.nulls[0] = true;
+		
+		assertEquals(0L, codec.format(row, 0, builder));
+		assertEquals("", builder.toString());
+		
+		row.nulls[0] = false;
+		row.objects[0] = "";
+		codec.format(row, 0, builder);
+		
+		assertEquals("\"\"", builder.toString());
+		
+		builder.setLength(0);
+		codec = ColumnCodec.forType(Types.DECIMAL);
+		row.objects[0] = new BigDecimal("1E+3");
+		codec.format(row, 0, builder);
+		
+		assertEquals("1000", builder.toString());
+		
+		builder.setLength(0);
+		codec = ColumnCodec.forType(Types.VARBINARY);
+		row.objects[0] = new byte[] { 0x0A, (byte) 0xFF };
+		codec.format(row, 0, builder);
+		
+		assertEquals("0aff", builder.toString());
+		
+		assertFalse(ColumnCodec.forType(Types.BLOB).isFormattable());
+	}
+	
+	@Test
+	public void compare()
+	{
+		Row row1 = new Row(1);
+		Row row2 = new Row(1);
+		
+		ColumnCodec codec = ColumnCodec.forType(Types.BIGINT);
+		row1.values[0] = -1L;
+		row2.values[0] = 1L;
+		
+		assertTrue(codec.compare(row1, row2, 0) < 0);
+		assertTrue(codec.compare(row2, row1, 0) > 0);
+		assertFalse(codec.equals(row1, row2, 0));
+		
+		row2.values[0] = -1L;
+		
+		assertEquals(0, codec.compare(row1, row2, 0));
+		assertTrue(codec.equals(row1, row2, 0));
+		
+		// Nulls are ordered first
+		row1.nulls[0] = true;
+		
+		assertTrue(codec.compare(row1, row2, 0) < 0);
+		assertFalse(codec.equals(row1, row2, 0));
+		
+		codec = ColumnCodec.forType(Types.VARBINARY);
+		row1.nulls[0] = false;
+		row1.objects[0] = new byte[] { 1, 2 };
+		row2.objects[0] = new byte[] { 1, (byte) 0xFF };
+		
+		// Bytes are compared as unsigned values
+		assertTrue(codec.compare(row1, row2, 0) < 0);
+		assertFalse(codec.equals(row1, row2, 0));
+		
+		row2.objects[0] = new byte[] { 1, 2 };
+		
+		assertEquals(0, codec.compare(row1, row2, 0));
+		assertTrue(codec.equals(row1, row2, 0));
+	}
+}
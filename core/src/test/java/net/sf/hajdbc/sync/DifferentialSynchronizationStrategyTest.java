@@ -0,0 +1,195 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.hajdbc.sql.AbstractInvocationHandler;
+import net.sf.hajdbc.sql.DataSource;
+import net.sf.hajdbc.sql.DataSourceDatabase;
+import net.sf.hajdbc.sql.DataSourceDatabaseClusterConfigurationBuilder;
+import net.sf.hajdbc.sql.DatabaseClusterImpl;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+
+/**
+ * Unit test for the version-based synchronization of {@link DifferentialSynchronizationStrategy}.
+ * @author Paul Ferraro
+ */
+public class DifferentialSynchronizationStrategyTest
+{
+	private static final int ROWS = 10;
+	
+	@Test
+	public void update() throws Exception
+	{
+		List<String> rows = this.synchronize("diff-update", new String[] { "UPDATE test SET version = 11, name = 'updated' WHERE id = 5" }, "UPDATE test SET name = 'stale' WHERE id = 1");
+		
+		assertEquals(ROWS, rows.size());
+		assertTrue(rows.contains("5:11:updated"));
+		// Rows with the same version are not compared
+		assertTrue(rows.contains("1:1:stale"));
+	}
+	
+	@Test
+	public void insert() throws Exception
+	{
+		List<String> rows = this.synchronize("diff-insert", new String[] { "INSERT INTO test (id, version, name) VALUES (11, 11, 'inserted')" }, "UPDATE test SET name = 'stale' WHERE id = 1");
+		
+		assertEquals(ROWS + 1, rows.size());
+		assertTrue(rows.contains("11:11:inserted"));
+		assertTrue(rows.contains("1:1:stale"));
+	}
+	
+	@Test
+	public void delete() throws Exception
+	{
+		List<String> rows = this.synchronize("diff-delete", new String[] { "DELETE FROM test WHERE id = 3" }, "UPDATE test SET name = 'stale' WHERE id = 1");
+		
+		assertEquals(ROWS - 1, rows.size());
+		assertFalse(rows.contains("3:3:original"));
+		assertTrue(rows.contains("1:1:stale"));
+	}
+	
+	@Test
+	public void deleteAndInsert() throws Exception
+	{
+		List<String> rows = this.synchronize("diff-replace", new String[] { "DELETE FROM test WHERE id = 3", "INSERT INTO test (id, version, name) VALUES (11, 11, 'inserted')" }, "UPDATE test SET name = 'stale' WHERE id = 1");
+		
+		assertEquals(ROWS, rows.size());
+		assertFalse(rows.contains("3:3:original"));
+		assertTrue(rows.contains("11:11:inserted"));
+		assertTrue(rows.contains("1:1:stale"));
+	}
+	
+	@Test
+	public void deleteAndMissingRow() throws Exception
+	{
+		// The target is also missing a row, such that the row counts of both tables are equal
+		List<String> rows = this.synchronize("diff-missing", new String[] { "DELETE FROM test WHERE id = 3" }, "DELETE FROM test WHERE id = 2");
+		
+		assertEquals(ROWS - 1, rows.size());
+		assertFalse(rows.contains("3:3:original"));
+		assertTrue(rows.contains("2:2:original"));
+	}
+	
+	/**
+	 * Executes the specified statements against the cluster while the second database is inactive, then reactivates it using version-based synchronization.
+	 * The target statements are executed directly against the second database, e.g. to modify a row without changing its version, which should not be compared.
+	 * @return the rows of the second database, formatted as id:version:name
+	 */
+	private List<String> synchronize(String cluster, String[] statements, String... targetStatements) throws Exception
+	{
+		JDBCDataSource ds1 = new JDBCDataSource();
+		ds1.setUrl(String.format("jdbc:hsqldb:mem:%s1", cluster));
+
+		JDBCDataSource ds2 = new JDBCDataSource();
+		ds2.setUrl(String.format("jdbc:hsqldb:mem:%s2", cluster));
+		
+		DifferentialSynchronizationStrategy strategy = new DifferentialSynchronizationStrategy();
+		strategy.setVersionPattern("version");
+		
+		try (DataSource ds = new DataSource())
+		{
+			ds.setCluster(cluster);
+
+			DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+			builder.addDatabase("db1").dataSource(ds1);
+			builder.addDatabase("db2").dataSource(ds2);
+			builder.addSynchronizationStrategy(strategy);
+			builder.defaultSynchronizationStrategy(strategy.getId()).dialect("hsqldb").metaDataCache("none").durability("none").state("simple");
+			
+			try (Connection c = ds.getConnection())
+			{
+				try (Statement s = c.createStatement())
+				{
+					s.execute("CREATE TABLE test (id INTEGER NOT NULL, version INTEGER NOT NULL, name VARCHAR(10) NOT NULL, PRIMARY KEY (id))");
+				}
+				try (PreparedStatement ps = c.prepareStatement("INSERT INTO test (id, version, name) VALUES (?, ?, 'original')"))
+				{
+					for (int i = 1; i <= ROWS; ++i)
+					{
+						ps.setInt(1, i);
+						ps.setInt(2, i);
+						ps.addBatch();
+					}
+					ps.executeBatch();
+				}
+				
+				DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> databaseCluster = getDatabaseCluster(ds);
+				databaseCluster.deactivate("db2");
+				
+				try (Statement s = c.createStatement())
+				{
+					for (String statement: statements)
+					{
+						s.executeUpdate(statement);
+					}
+				}
+				
+				try (Connection c2 = ds2.getConnection())
+				{
+					try (Statement s = c2.createStatement())
+					{
+						for (String statement: targetStatements)
+						{
+							s.executeUpdate(statement);
+						}
+					}
+				}
+				
+				databaseCluster.activate("db2");
+				
+				assertTrue(databaseCluster.getActiveDatabases().contains("db2"));
+			}
+		}
+		
+		List<String> rows = new ArrayList<>(ROWS + 1);
+		try (Connection c = ds2.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				try (ResultSet rs = s.executeQuery("SELECT id, version, name FROM test ORDER BY id"))
+				{
+					while (rs.next())
+					{
+						rows.add(String.format("%d:%d:%s", rs.getInt(1), rs.getInt(2), rs.getString(3)));
+					}
+				}
+			}
+		}
+		return rows;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> getDatabaseCluster(DataSource ds) throws SQLException
+	{
+		AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?> handler = (AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?>) Proxy.getInvocationHandler(ds.getProxy());
+		return (DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase>) handler.getProxyFactory().getDatabaseCluster();
+	}
+}
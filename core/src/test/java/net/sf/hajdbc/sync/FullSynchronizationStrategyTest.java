@@ -0,0 +1,658 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.hajdbc.SynchronizationListener;
+import net.sf.hajdbc.sql.AbstractInvocationHandler;
+import net.sf.hajdbc.sql.DataSource;
+import net.sf.hajdbc.sql.DataSourceDatabase;
+import net.sf.hajdbc.sql.DataSourceDatabaseClusterConfigurationBuilder;
+import net.sf.hajdbc.sql.DatabaseClusterImpl;
+
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+
+/**
+ * Unit test for the multiple target, pipelined, and bulk load synchronization of {@link FullSynchronizationStrategy}.
+ * @author Paul Ferraro
+ */
+public class FullSynchronizationStrategyTest
+{
+	private static final int ROWS = 250;
+	// Such that the last chunk is partial
+	private static final int MAX_BATCH_SIZE = 100;
+	// Timeout of tests that would otherwise deadlock
+	private static final long TIMEOUT = 60000;
+	private static final String READ_FAILURE = "Simulated read failure";
+	// Such that the last statement of a multi-row insert is partial
+	private static final int ROWS_PER_INSERT = 8;
+	private static final String BULK_TABLE = "CREATE TABLE test (id INTEGER NOT NULL, name VARCHAR(40), data %s, PRIMARY KEY (id))";
+	
+	@Test
+	public void synchronize() throws Exception
+	{
+		JDBCDataSource ds1 = createDataSource("full1", 10);
+		JDBCDataSource ds2 = createDataSource("full2", 10);
+		JDBCDataSource ds3 = createDataSource("full3", 10);
+		
+		populate(ds1, 0, ROWS);
+		// Stale targets, containing a mix of obsolete and missing rows
+		populate(ds2, ROWS / 2, ROWS);
+		populate(ds3, ROWS, ROWS * 2);
+		
+		List<SynchronizationProgress> progressList = this.synchronize("full", ds1, ds2, ds3);
+		
+		assertEquals(ROWS, count(ds2));
+		assertEquals(ROWS, count(ds3));
+		assertEquals(ROWS - 1, max(ds2));
+		assertEquals(ROWS - 1, max(ds3));
+		
+		// Progress is tracked per target
+		assertEquals(2, progressList.size());
+		for (SynchronizationProgress progress: progressList)
+		{
+			assertEquals(1, progress.getTables());
+			assertEquals(1, progress.getCompletedTables());
+			assertEquals(ROWS, progress.getRows());
+		}
+		assertEquals("db2", progressList.get(0).getDatabase().getId());
+		assertEquals("db3", progressList.get(1).getDatabase().getId());
+	}
+	
+	@Test
+	public void synchronizeFailure() throws Exception
+	{
+		JDBCDataSource ds1 = createDataSource("full-failure1", 10);
+		JDBCDataSource ds2 = createDataSource("full-failure2", 10);
+		// Too narrow for the rows of the source database
+		JDBCDataSource ds3 = createDataSource("full-failure3", 1);
+		
+		populate(ds1, 0, ROWS);
+		populate(ds2, 0, 1);
+		
+		try
+		{
+			this.synchronize("full-failure", ds1, ds2, ds3);
+			fail();
+		}
+		catch (SQLException e)
+		{
+			// Expected
+		}
+		
+		// A failure of any target rolls back every target
+		assertEquals(1, count(ds2));
+		assertEquals(0, count(ds3));
+	}
+	
+	@Test(timeout = TIMEOUT)
+	public void pipeline() throws Exception
+	{
+		JDBCDataSource ds1 = createDataSource("pipeline1", 10);
+		JDBCDataSource ds2 = createDataSource("pipeline2", 10);
+		
+		populate(ds1, 0, ROWS);
+		populate(ds2, ROWS / 2, ROWS * 2);
+		
+		this.synchronize("pipeline", 16, ds1, ds2);
+		
+		assertEquals(ROWS, count(ds2));
+		assertEquals(ROWS - 1, max(ds2));
+	}
+	
+	@Test(timeout = TIMEOUT)
+	public void pipelineWriterFailure() throws Exception
+	{
+		JDBCDataSource ds1 = createDataSource("pipeline-writer1", 10);
+		// Too narrow for the rows of the source database
+		JDBCDataSource ds2 = createDataSource("pipeline-writer2", 1);
+		
+		populate(ds1, 0, ROWS);
+		
+		// A single row buffer, such that the reader awaits the row held by the failing writer
+		try
+		{
+			this.synchronize("pipeline-writer", 1, ds1, ds2);
+			fail();
+		}
+		catch (SQLException e)
+		{
+			// Expected
+		}
+		
+		assertEquals(0, count(ds2));
+	}
+	
+	@Test(timeout = TIMEOUT)
+	public void pipelineReaderFailure() throws Exception
+	{
+		JDBCDataSource ds1 = createDataSource("pipeline-reader1", 10);
+		JDBCDataSource ds2 = createDataSource("pipeline-reader2", 10);
+		
+		populate(ds1, 0, ROWS);
+		populate(ds2, 0, 1);
+		
+		try
+		{
+			this.synchronize("pipeline-reader", 16, failingDataSource(ds1, ROWS / 2), ds2);
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertEquals(READ_FAILURE, e.getMessage());
+		}
+		
+		// Target is rolled back
+		assertEquals(1, count(ds2));
+	}
+	
+	@Test
+	public void multiRowInsertH2() throws Exception
+	{
+		this.multiRowInsert("h2", h2DataSource("multi-row-h2-1"), h2DataSource("multi-row-h2-2"));
+	}
+	
+	@Test
+	public void multiRowInsertHSQLDB() throws Exception
+	{
+		this.multiRowInsert("hsqldb", hsqldbDataSource("multi-row-hsqldb1"), hsqldbDataSource("multi-row-hsqldb2"));
+	}
+	
+	@Test
+	public void multiRowInsertDerby() throws Exception
+	{
+		this.multiRowInsert("derby", derbyDataSource("multi-row-derby1"), derbyDataSource("multi-row-derby2"));
+	}
+	
+	@Test
+	public void loadFileH2() throws Exception
+	{
+		this.loadFile("h2", h2DataSource("load-file-h2-1"), h2DataSource("load-file-h2-2"));
+	}
+	
+	@Test
+	public void loadFileHSQLDB() throws Exception
+	{
+		// Text table sources must otherwise reside within the database directory
+		String property = "textdb.allow_full_path";
+		String value = System.setProperty(property, Boolean.TRUE.toString());
+		try
+		{
+			this.loadFile("hsqldb", hsqldbDataSource("load-file-hsqldb1"), hsqldbDataSource("load-file-hsqldb2"));
+		}
+		finally
+		{
+			if (value != null)
+			{
+				System.setProperty(property, value);
+			}
+			else
+			{
+				System.clearProperty(property);
+			}
+		}
+	}
+	
+	@Test
+	public void loadFileDerby() throws Exception
+	{
+		this.loadFile("derby", derbyDataSource("load-file-derby1"), derbyDataSource("load-file-derby2"));
+	}
+	
+	/**
+	 * Verifies that rows are inserted via full multi-row statements, followed by a partial statement for the remaining rows.
+	 */
+	private void multiRowInsert(String dialect, javax.sql.DataSource ds1, javax.sql.DataSource ds2) throws Exception
+	{
+		populateBulk(ds1, 0, ROWS);
+		populateBulk(ds2, ROWS / 2, ROWS * 2);
+		
+		FullSynchronizationStrategy strategy = new FullSynchronizationStrategy();
+		strategy.setMaxBatchSize(MAX_BATCH_SIZE);
+		strategy.setRowsPerInsert(ROWS_PER_INSERT);
+		
+		List<String> statements = new ArrayList<>();
+		this.synchronize(dialect, strategy, ds1, recordingDataSource(ds2, statements));
+		
+		assertBulkEquals(ds1, ds2);
+		
+		List<Integer> rows = new ArrayList<>();
+		for (String sql: statements)
+		{
+			if (sql.startsWith("INSERT"))
+			{
+				rows.add(count(sql, '?') / 3);
+			}
+		}
+		// A full statement, prepared once, and a partial statement for the remainder
+		assertEquals(Arrays.asList(ROWS_PER_INSERT, ROWS % ROWS_PER_INSERT), rows);
+	}
+	
+	/**
+	 * Verifies that rows are loaded from a delimited file, rather than inserted.
+	 */
+	private void loadFile(String dialect, javax.sql.DataSource ds1, javax.sql.DataSource ds2) throws Exception
+	{
+		populateBulk(ds1, 0, ROWS);
+		populateBulk(ds2, ROWS / 2, ROWS * 2);
+		
+		FullSynchronizationStrategy strategy = new FullSynchronizationStrategy();
+		strategy.setMaxBatchSize(MAX_BATCH_SIZE);
+		strategy.setLoadFile(true);
+		
+		List<String> statements = new ArrayList<>();
+		this.synchronize(dialect, strategy, ds1, recordingDataSource(ds2, statements));
+		
+		assertBulkEquals(ds1, ds2);
+		
+		boolean loaded = false;
+		for (String sql: statements)
+		{
+			assertFalse(sql, sql.contains("VALUES"));
+			loaded |= sql.contains(".csv");
+		}
+		assertTrue(loaded);
+	}
+	
+	/**
+	 * Synchronizes the second database from the first, via a pipeline of the specified depth.
+	 */
+	private void synchronize(String cluster, int pipelineDepth, javax.sql.DataSource ds1, javax.sql.DataSource ds2) throws Exception
+	{
+		FullSynchronizationStrategy strategy = new FullSynchronizationStrategy();
+		strategy.setMaxBatchSize(MAX_BATCH_SIZE / 10);
+		strategy.setPipelineDepth(pipelineDepth);
+		
+		this.synchronize(cluster, "hsqldb", strategy, ds1, ds2);
+	}
+	
+	private void synchronize(String dialect, FullSynchronizationStrategy strategy, javax.sql.DataSource ds1, javax.sql.DataSource ds2) throws Exception
+	{
+		this.synchronize(dialect + "-bulk", dialect, strategy, ds1, ds2);
+	}
+	
+	/**
+	 * Synchronizes the second database from the first, using the specified dialect and strategy.
+	 */
+	private void synchronize(String cluster, String dialect, FullSynchronizationStrategy strategy, javax.sql.DataSource ds1, javax.sql.DataSource ds2) throws Exception
+	{
+		try (DataSource ds = new DataSource())
+		{
+			ds.setCluster(cluster);
+			
+			DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+			builder.addDatabase("db1").dataSource(ds1);
+			builder.addDatabase("db2").dataSource(ds2);
+			builder.addSynchronizationStrategy(strategy);
+			builder.defaultSynchronizationStrategy(strategy.getId()).dialect(dialect).metaDataCache("none").durability("none").state("simple");
+			
+			DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> databaseCluster = getDatabaseCluster(ds);
+			databaseCluster.deactivate("db2");
+			
+			DataSourceDatabase target = databaseCluster.getDatabase("db2");
+			SynchronizationProgress progress = new SynchronizationProgress(target, new SynchronizationThrottle(0, 0), Collections.<SynchronizationListener>emptyList());
+			
+			try (SynchronizationContext<javax.sql.DataSource, DataSourceDatabase> context = new SynchronizationContextImpl<>(databaseCluster, databaseCluster.getDatabase("db1"), target, progress))
+			{
+				strategy.synchronize(context);
+			}
+		}
+	}
+	
+	/**
+	 * Synchronizes the second and third databases from the first, via a single pass over the first database.
+	 * @return the progress of each target database
+	 */
+	private List<SynchronizationProgress> synchronize(String cluster, JDBCDataSource ds1, JDBCDataSource ds2, JDBCDataSource ds3) throws Exception
+	{
+		FullSynchronizationStrategy strategy = new FullSynchronizationStrategy();
+		strategy.setMaxBatchSize(MAX_BATCH_SIZE);
+		
+		try (DataSource ds = new DataSource())
+		{
+			ds.setCluster(cluster);
+			
+			DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+			builder.addDatabase("db1").dataSource(ds1);
+			builder.addDatabase("db2").dataSource(ds2);
+			builder.addDatabase("db3").dataSource(ds3);
+			builder.addSynchronizationStrategy(strategy);
+			builder.defaultSynchronizationStrategy(strategy.getId()).dialect("hsqldb").metaDataCache("none").durability("none").state("simple");
+			
+			DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> databaseCluster = getDatabaseCluster(ds);
+			databaseCluster.deactivate("db2");
+			databaseCluster.deactivate("db3");
+			
+			DataSourceDatabase source = databaseCluster.getDatabase("db1");
+			List<SynchronizationProgress> progressList = new ArrayList<>(2);
+			List<SynchronizationContext<javax.sql.DataSource, DataSourceDatabase>> contexts = new ArrayList<>(2);
+			
+			try
+			{
+				for (String id: new String[] { "db2", "db3" })
+				{
+					DataSourceDatabase target = databaseCluster.getDatabase(id);
+					SynchronizationProgress progress = new SynchronizationProgress(target, new SynchronizationThrottle(0, 0), Collections.<SynchronizationListener>emptyList());
+					progressList.add(progress);
+					contexts.add(new SynchronizationContextImpl<>(databaseCluster, source, target, progress));
+				}
+				
+				strategy.synchronize(contexts);
+			}
+			finally
+			{
+				for (SynchronizationContext<javax.sql.DataSource, DataSourceDatabase> context: contexts)
+				{
+					context.close();
+				}
+			}
+			
+			return progressList;
+		}
+	}
+	
+	private static JDBCDataSource createDataSource(String name, int nameLength) throws SQLException
+	{
+		JDBCDataSource ds = new JDBCDataSource();
+		ds.setUrl(String.format("jdbc:hsqldb:mem:%s", name));
+		
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				s.execute(String.format("CREATE TABLE test (id INTEGER NOT NULL, name VARCHAR(%d) NOT NULL, PRIMARY KEY (id))", nameLength));
+			}
+		}
+		return ds;
+	}
+	
+	private static javax.sql.DataSource h2DataSource(String name) throws SQLException
+	{
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL(String.format("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1", name));
+		return createBulkTable(ds, "VARBINARY(8)");
+	}
+	
+	private static javax.sql.DataSource hsqldbDataSource(String name) throws SQLException
+	{
+		JDBCDataSource ds = new JDBCDataSource();
+		ds.setUrl(String.format("jdbc:hsqldb:mem:%s", name));
+		return createBulkTable(ds, "VARBINARY(8)");
+	}
+	
+	private static javax.sql.DataSource derbyDataSource(String name) throws SQLException
+	{
+		EmbeddedDataSource ds = new EmbeddedDataSource();
+		ds.setDatabaseName(String.format("memory:%s", name));
+		ds.setCreateDatabase("create");
+		return createBulkTable(ds, "VARCHAR(8) FOR BIT DATA");
+	}
+	
+	private static javax.sql.DataSource createBulkTable(javax.sql.DataSource ds, String binaryType) throws SQLException
+	{
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				s.execute(String.format(BULK_TABLE, binaryType));
+			}
+		}
+		return ds;
+	}
+	
+	/**
+	 * Decorates the specified data source such that the SQL of every statement prepared or executed is recorded.
+	 */
+	private static javax.sql.DataSource recordingDataSource(final javax.sql.DataSource ds, final List<String> statements)
+	{
+		return proxy(javax.sql.DataSource.class, ds, new Decorator()
+		{
+			@Override
+			public Object decorate(Method method, Object[] args, Object result)
+			{
+				if (result instanceof Connection)
+				{
+					return proxy(Connection.class, result, this);
+				}
+				if (result instanceof Statement)
+				{
+					if (method.getName().equals("prepareStatement"))
+					{
+						statements.add((String) args[0]);
+						return result;
+					}
+					return proxy(Statement.class, result, this);
+				}
+				if (method.getName().startsWith("execute") && (args != null) && (args[0] instanceof String))
+				{
+					statements.add((String) args[0]);
+				}
+				return result;
+			}
+		});
+	}
+	
+	/**
+	 * Decorates the specified data source such that scans of the test table fail after the specified number of rows.
+	 */
+	private static javax.sql.DataSource failingDataSource(final javax.sql.DataSource ds, final int rows)
+	{
+		return proxy(javax.sql.DataSource.class, ds, new Decorator()
+		{
+			@Override
+			public Object decorate(Method method, Object[] args, Object result)
+			{
+				if (result instanceof Connection)
+				{
+					return proxy(Connection.class, result, this);
+				}
+				if (result instanceof Statement)
+				{
+					return proxy(Statement.class, result, this);
+				}
+				if ((result instanceof ResultSet) && method.getName().equals("executeQuery") && ((String) args[0]).endsWith(" FROM PUBLIC.TEST"))
+				{
+					return proxy(ResultSet.class, result, new Decorator()
+					{
+						private int count = 0;
+						
+						@Override
+						public Object decorate(Method method, Object[] args, Object result) throws SQLException
+						{
+							if (method.getName().equals("next") && (++this.count > rows))
+							{
+								throw new SQLException(READ_FAILURE);
+							}
+							return result;
+						}
+					});
+				}
+				return result;
+			}
+		});
+	}
+	
+	private interface Decorator
+	{
+		Object decorate(Method method, Object[] args, Object result) throws SQLException;
+	}
+	
+	private static <T> T proxy(Class<T> targetClass, final Object object, final Decorator decorator)
+	{
+		InvocationHandler handler = new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+			{
+				try
+				{
+					return decorator.decorate(method, args, method.invoke(object, args));
+				}
+				catch (InvocationTargetException e)
+				{
+					throw e.getTargetException();
+				}
+			}
+		};
+		return targetClass.cast(Proxy.newProxyInstance(targetClass.getClassLoader(), new Class<?>[] { targetClass }, handler));
+	}
+	
+	private static void populate(JDBCDataSource ds, int first, int last) throws SQLException
+	{
+		try (Connection c = ds.getConnection())
+		{
+			try (PreparedStatement ps = c.prepareStatement("INSERT INTO test (id, name) VALUES (?, ?)"))
+			{
+				for (int i = first; i < last; ++i)
+				{
+					ps.setInt(1, i);
+					ps.setString(2, String.format("row-%d", i));
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+		}
+	}
+	
+	/**
+	 * Populates the bulk test table with rows containing nulls, delimiters, quotes, and arbitrary bytes.
+	 */
+	private static void populateBulk(javax.sql.DataSource ds, int first, int last) throws SQLException
+	{
+		try (Connection c = ds.getConnection())
+		{
+			try (PreparedStatement ps = c.prepareStatement("INSERT INTO test (id, name, data) VALUES (?, ?, ?)"))
+			{
+				for (int i = first; i < last; ++i)
+				{
+					ps.setInt(1, i);
+					if ((i % 5) == 0)
+					{
+						ps.setNull(2, Types.VARCHAR);
+					}
+					else
+					{
+						ps.setString(2, String.format("\"row\", %d 'quoted'", i));
+					}
+					if ((i % 7) == 0)
+					{
+						ps.setNull(3, Types.VARBINARY);
+					}
+					else
+					{
+						ps.setBytes(3, new byte[] { (byte) i, 0, (byte) 0xFF, ',', '"', '\n' });
+					}
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+		}
+	}
+	
+	/**
+	 * Asserts that the bulk test tables of the specified databases contain identical rows.
+	 */
+	private static void assertBulkEquals(javax.sql.DataSource ds1, javax.sql.DataSource ds2) throws SQLException
+	{
+		String sql = "SELECT id, name, data FROM test ORDER BY id";
+		try (Connection c1 = ds1.getConnection(); Connection c2 = ds2.getConnection())
+		{
+			try (Statement s1 = c1.createStatement(); Statement s2 = c2.createStatement())
+			{
+				try (ResultSet rs1 = s1.executeQuery(sql); ResultSet rs2 = s2.executeQuery(sql))
+				{
+					int rows = 0;
+					while (rs1.next())
+					{
+						assertTrue(rs2.next());
+						assertEquals(rs1.getInt(1), rs2.getInt(1));
+						assertEquals(rs1.getString(2), rs2.getString(2));
+						assertArrayEquals(rs1.getBytes(3), rs2.getBytes(3));
+						rows += 1;
+					}
+					assertFalse(rs2.next());
+					assertEquals(ROWS, rows);
+				}
+			}
+		}
+	}
+	
+	private static int count(String value, char c)
+	{
+		int count = 0;
+		for (int i = 0; i < value.length(); ++i)
+		{
+			if (value.charAt(i) == c)
+			{
+				count += 1;
+			}
+		}
+		return count;
+	}
+	
+	private static int count(JDBCDataSource ds) throws SQLException
+	{
+		return query(ds, "SELECT COUNT(*) FROM test");
+	}
+	
+	private static int max(JDBCDataSource ds) throws SQLException
+	{
+		return query(ds, "SELECT MAX(id) FROM test");
+	}
+	
+	private static int query(JDBCDataSource ds, String sql) throws SQLException
+	{
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				try (ResultSet rs = s.executeQuery(sql))
+				{
+					assertTrue(rs.next());
+					return rs.getInt(1);
+				}
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> getDatabaseCluster(DataSource ds) throws SQLException
+	{
+		AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?> handler = (AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?>) Proxy.getInvocationHandler(ds.getProxy());
+		return (DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase>) handler.getProxyFactory().getDatabaseCluster();
+	}
+}
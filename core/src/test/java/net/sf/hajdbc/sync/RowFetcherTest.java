@@ -0,0 +1,280 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.hajdbc.ColumnProperties;
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.dialect.Dialect;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link RowFetcher}.
+ * @author Paul Ferraro
+ */
+public class RowFetcherTest
+{
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	private final List<Row> rows = new ArrayList<>();
+	private final List<Integer> contexts = new ArrayList<>();
+	private final RowFetcher.Handler<Integer> handler = new RowFetcher.Handler<Integer>()
+	{
+		@Override
+		public void handle(Row row, Integer context)
+		{
+			RowFetcherTest.this.rows.add(row);
+			RowFetcherTest.this.contexts.add(context);
+		}
+	};
+	
+	@After
+	public void after()
+	{
+		this.executor.shutdownNow();
+	}
+	
+	@Test
+	public void batches() throws SQLException
+	{
+		Connection connection = createTable("fetch-batches", 25);
+		
+		try (RowFetcher<Integer> fetcher = this.createFetcher(connection, 10, "id"))
+		{
+			for (int i = 0; i < 20; ++i)
+			{
+				fetcher.fetch(key(i), i);
+			}
+			
+			// The first batch is handled once the second batch is fetched
+			assertEquals(10, this.rows.size());
+			
+			for (int i = 20; i < 25; ++i)
+			{
+				fetcher.fetch(key(i), i);
+			}
+			
+			assertEquals(10, this.rows.size());
+			
+			fetcher.flush();
+		}
+		
+		assertEquals(25, this.rows.size());
+		for (int i = 0; i < 25; ++i)
+		{
+			Row row = this.rows.get(i);
+			assertEquals(i, this.contexts.get(i).intValue());
+			assertEquals(i, row.values[0]);
+			assertEquals(i * 10, row.values[1]);
+		}
+	}
+	
+	@Test
+	public void partialBatch() throws SQLException
+	{
+		Connection connection = createTable("fetch-partial", 25);
+		
+		try (RowFetcher<Integer> fetcher = this.createFetcher(connection, 10, "id"))
+		{
+			for (int i: new int[] { 1, 5, 7 })
+			{
+				fetcher.fetch(key(i), i);
+			}
+			
+			assertTrue(this.rows.isEmpty());
+			
+			fetcher.flush();
+			
+			// Subsequent flush is a no-op
+			fetcher.flush();
+		}
+		
+		assertEquals(Arrays.asList(1, 5, 7), this.contexts);
+		assertEquals(50, this.rows.get(1).values[1]);
+		assertEquals(70, this.rows.get(2).values[1]);
+	}
+	
+	@Test
+	public void compositeKey() throws SQLException
+	{
+		Connection connection = createCompositeTable("fetch-composite", 3);
+		
+		try (RowFetcher<Integer> fetcher = this.createFetcher(connection, 4, "a", "b"))
+		{
+			for (int a = 0; a < 3; ++a)
+			{
+				for (int b = 0; b < 3; ++b)
+				{
+					fetcher.fetch(key(a, b), (a * 100) + b);
+				}
+			}
+			
+			fetcher.flush();
+		}
+		
+		assertEquals(9, this.rows.size());
+		for (int i = 0; i < 9; ++i)
+		{
+			Row row = this.rows.get(i);
+			int value = this.contexts.get(i);
+			assertEquals(value / 100, row.values[0]);
+			assertEquals(value % 100, row.values[1]);
+			assertEquals(value, row.values[2]);
+		}
+	}
+	
+	@Test
+	public void missingRow() throws SQLException
+	{
+		Connection connection = createTable("fetch-missing", 5);
+		
+		try (Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("DELETE FROM test WHERE id = 2");
+		}
+		
+		// A full batch, fetched asynchronously, whose missing row is followed by the row of a subsequent key
+		try (RowFetcher<Integer> fetcher = this.createFetcher(connection, 2, "id"))
+		{
+			fetcher.fetch(key(2), 2);
+			fetcher.fetch(key(3), 3);
+			fetcher.flush();
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().contains("(2)"));
+			assertTrue(e.getMessage(), e.getMessage().contains("test"));
+		}
+		
+		assertTrue(this.rows.isEmpty());
+	}
+	
+	@Test
+	public void missingCompositeRow() throws SQLException
+	{
+		Connection connection = createCompositeTable("fetch-missing-composite", 3);
+		
+		// A partial batch, whose missing row is last
+		try (RowFetcher<Integer> fetcher = this.createFetcher(connection, 10, "a", "b"))
+		{
+			fetcher.fetch(key(0, 0), 0);
+			fetcher.fetch(key(2, 5), 205);
+			fetcher.flush();
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().contains("(2, 5)"));
+			assertTrue(e.getMessage(), e.getMessage().contains("test"));
+		}
+		
+		assertTrue(this.rows.isEmpty());
+	}
+	
+	/**
+	 * Creates a fetcher of all integer columns of the test table, i.e. the specified primary key columns followed by a value column.
+	 */
+	private RowFetcher<Integer> createFetcher(Connection connection, int batchSize, String... primaryKeyColumns) throws SQLException
+	{
+		List<String> columns = new ArrayList<>(Arrays.asList(primaryKeyColumns));
+		columns.add("value");
+		
+		TableProperties table = mock(TableProperties.class);
+		Dialect dialect = mock(Dialect.class);
+		
+		for (String column: columns)
+		{
+			ColumnProperties properties = mock(ColumnProperties.class);
+			when(table.getColumnProperties(column)).thenReturn(properties);
+			when(dialect.getColumnType(properties)).thenReturn(Types.INTEGER);
+		}
+		
+		RowCodec codec = new RowCodec(dialect, table, columns);
+		
+		return new RowFetcher<>(connection, this.executor, "test", Arrays.asList(primaryKeyColumns), columns, codec, batchSize, this.handler);
+	}
+	
+	private static Row key(long... values)
+	{
+		Row row = new Row(values.length);
+		System.arraycopy(values, 0, row.values, 0, values.length);
+		return row;
+	}
+	
+	private static Connection createTable(String name, int rows) throws SQLException
+	{
+		Connection connection = DriverManager.getConnection(String.format("jdbc:hsqldb:mem:%s", name));
+		
+		try (Statement statement = connection.createStatement())
+		{
+			statement.execute("CREATE TABLE test (id INTEGER NOT NULL, value INTEGER NOT NULL, PRIMARY KEY (id))");
+		}
+		try (PreparedStatement statement = connection.prepareStatement("INSERT INTO test (id, value) VALUES (?, ?)"))
+		{
+			for (int i = 0; i < rows; ++i)
+			{
+				statement.setInt(1, i);
+				statement.setInt(2, i * 10);
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+		return connection;
+	}
+	
+	private static Connection createCompositeTable(String name, int size) throws SQLException
+	{
+		Connection connection = DriverManager.getConnection(String.format("jdbc:hsqldb:mem:%s", name));
+		
+		try (Statement statement = connection.createStatement())
+		{
+			statement.execute("CREATE TABLE test (a INTEGER NOT NULL, b INTEGER NOT NULL, value INTEGER NOT NULL, PRIMARY KEY (a, b))");
+		}
+		try (PreparedStatement statement = connection.prepareStatement("INSERT INTO test (a, b, value) VALUES (?, ?, ?)"))
+		{
+			for (int a = 0; a < size; ++a)
+			{
+				for (int b = 0; b < size; ++b)
+				{
+					statement.setInt(1, a);
+					statement.setInt(2, b);
+					statement.setInt(3, (a * 100) + b);
+					statement.addBatch();
+				}
+			}
+			statement.executeBatch();
+		}
+		return connection;
+	}
+}
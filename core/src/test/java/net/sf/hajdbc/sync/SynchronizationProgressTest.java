@@ -0,0 +1,158 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.QualifiedName;
+import net.sf.hajdbc.SynchronizationListener;
+import net.sf.hajdbc.SynchronizationProgressListener;
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.state.DatabaseEvent;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SynchronizationProgress}.
+ * @author Paul Ferraro
+ */
+public class SynchronizationProgressTest
+{
+	private final MockDatabase database = new MockDatabase("db1");
+	private final List<SynchronizationProgressEvent> events = new ArrayList<>();
+	private final SynchronizationListener listener = new SynchronizationProgressListener()
+	{
+		@Override
+		public void beforeSynchronization(DatabaseEvent event)
+		{
+		}
+
+		@Override
+		public void afterSynchronization(DatabaseEvent event)
+		{
+		}
+
+		@Override
+		public void synchronizationProgress(SynchronizationProgressEvent event)
+		{
+			SynchronizationProgressTest.this.events.add(event);
+		}
+	};
+	
+	@Test
+	public void completeTable()
+	{
+		// Listeners that do not track progress are ignored
+		SynchronizationListener otherListener = mock(SynchronizationListener.class);
+		SynchronizationProgress progress = new SynchronizationProgress(this.database, new SynchronizationThrottle(0, 0), Arrays.asList(otherListener, this.listener));
+		TableProperties table = mock(TableProperties.class);
+		QualifiedName name = mock(QualifiedName.class);
+		
+		when(table.getName()).thenReturn(name);
+		when(name.getDMLName()).thenReturn("schema.table");
+		
+		progress.start(2);
+		
+		assertEquals(-1L, progress.getEstimatedTimeRemaining());
+		
+		progress.startTable(table);
+		
+		assertEquals("schema.table", progress.getCurrentTable());
+		assertTrue(this.events.isEmpty());
+		
+		progress.completeTable(table);
+		
+		// Completion of each table is always reported
+		assertEquals(1, this.events.size());
+		SynchronizationProgressEvent event = this.events.get(0);
+		assertEquals(this.database.getId(), event.getSource());
+		assertNull(event.getTable());
+		assertEquals(2, event.getTables());
+		assertEquals(1, event.getCompletedTables());
+		assertTrue(event.getEstimatedTimeRemaining() >= 0);
+		
+		progress.startTable(table);
+		progress.completeTable(table);
+		
+		assertEquals(2, this.events.size());
+		assertEquals(2, this.events.get(1).getCompletedTables());
+		assertEquals(0L, this.events.get(1).getEstimatedTimeRemaining());
+	}
+	
+	@Test
+	public void transfer() throws SQLException, InterruptedException
+	{
+		SynchronizationProgress progress = new SynchronizationProgress(this.database, new SynchronizationThrottle(0, 0), Collections.singletonList(this.listener));
+		
+		progress.start(1);
+		progress.transfer(10, 100);
+		progress.transfer(5, 50);
+		
+		assertEquals(15L, progress.getRows());
+		assertEquals(150L, progress.getBytes());
+		
+		// Transfers are reported at most once per second
+		assertTrue(this.events.isEmpty());
+		
+		Thread.sleep(1100);
+		
+		progress.transfer(1, 10);
+		progress.transfer(1, 10);
+		
+		assertEquals(1, this.events.size());
+		SynchronizationProgressEvent event = this.events.get(0);
+		assertEquals(16L, event.getRows());
+		assertEquals(160L, event.getBytes());
+		assertEquals(0, event.getCompletedTables());
+		assertTrue(event.getRowsPerSecond() > 0);
+		assertTrue(event.getBytesPerSecond() > 0);
+	}
+	
+	@Test
+	public void queueDepth()
+	{
+		SynchronizationProgress progress = new SynchronizationProgress(this.database, new SynchronizationThrottle(0, 0), Collections.<SynchronizationListener>emptyList());
+		
+		assertEquals(0, progress.getQueueDepth());
+		
+		progress.setQueue(Arrays.asList(1, 2, 3));
+		
+		assertEquals(3, progress.getQueueDepth());
+		
+		progress.setQueue(null);
+		
+		assertEquals(0, progress.getQueueDepth());
+	}
+	
+	@Test
+	public void sizeOf() throws SQLException
+	{
+		assertEquals(0L, SynchronizationProgress.sizeOf(null));
+		assertEquals(3L, SynchronizationProgress.sizeOf(new byte[3]));
+		assertEquals(6L, SynchronizationProgress.sizeOf("abc"));
+		assertEquals(8L, SynchronizationProgress.sizeOf(Integer.valueOf(1)));
+	}
+}
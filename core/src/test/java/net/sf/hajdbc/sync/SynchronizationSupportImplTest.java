@@ -0,0 +1,202 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.hajdbc.ForeignKeyConstraint;
+import net.sf.hajdbc.QualifiedName;
+import net.sf.hajdbc.SynchronizationListener;
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.sql.AbstractInvocationHandler;
+import net.sf.hajdbc.sql.DataSource;
+import net.sf.hajdbc.sql.DataSourceDatabase;
+import net.sf.hajdbc.sql.DataSourceDatabaseClusterConfigurationBuilder;
+import net.sf.hajdbc.sql.DatabaseClusterImpl;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+
+/**
+ * Unit test for the concurrent constraint phases of {@link SynchronizationSupportImpl}.
+ * @author Paul Ferraro
+ */
+public class SynchronizationSupportImplTest
+{
+	@Test
+	public void componentsWithCycle() throws SQLException
+	{
+		List<TableProperties> tables = new ArrayList<>();
+		tables.add(createTable("a", "b"));
+		tables.add(createTable("b", "c"));
+		tables.add(createTable("c", "a"));
+		
+		Map<String, String> components = SynchronizationSupportImpl.components(tables);
+		
+		assertEquals(3, components.size());
+		assertEquals(1, new HashSet<>(components.values()).size());
+		assertEquals(components.get("a"), components.get("b"));
+		assertEquals(components.get("a"), components.get("c"));
+	}
+	
+	@Test
+	public void componentsWithIndependentTables() throws SQLException
+	{
+		List<TableProperties> tables = new ArrayList<>();
+		tables.add(createTable("a", "b"));
+		tables.add(createTable("b"));
+		tables.add(createTable("c", "d"));
+		tables.add(createTable("d"));
+		tables.add(createTable("e"));
+		
+		Map<String, String> components = SynchronizationSupportImpl.components(tables);
+		
+		assertEquals(5, components.size());
+		assertEquals(3, new HashSet<>(components.values()).size());
+		assertEquals(components.get("a"), components.get("b"));
+		assertEquals(components.get("c"), components.get("d"));
+		assertNotEquals(components.get("a"), components.get("c"));
+		assertNotEquals(components.get("a"), components.get("e"));
+		assertNotEquals(components.get("c"), components.get("e"));
+		assertEquals("e", components.get("e"));
+	}
+	
+	@Test
+	public void dropAndRestoreForeignKeys() throws Exception
+	{
+		JDBCDataSource ds1 = createDataSource("constraints1");
+		JDBCDataSource ds2 = createDataSource("constraints2");
+		
+		assertEquals(3, countForeignKeys(ds2));
+		
+		try (DataSource ds = new DataSource())
+		{
+			ds.setCluster("constraints");
+			
+			DataSourceDatabaseClusterConfigurationBuilder builder = ds.getConfigurationBuilder();
+			builder.addDatabase("db1").dataSource(ds1);
+			builder.addDatabase("db2").dataSource(ds2);
+			builder.addSynchronizationStrategy(new FullSynchronizationStrategy());
+			builder.defaultSynchronizationStrategy("full").dialect("hsqldb").metaDataCache("none").durability("none").state("simple");
+			
+			DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> cluster = getDatabaseCluster(ds);
+			cluster.deactivate("db2");
+			
+			DataSourceDatabase target = cluster.getDatabase("db2");
+			SynchronizationProgress progress = new SynchronizationProgress(target, new SynchronizationThrottle(0, 0), Collections.<SynchronizationListener>emptyList());
+			
+			// More connections than independent groups of tables
+			try (SynchronizationContext<javax.sql.DataSource, DataSourceDatabase> context = new SynchronizationContextImpl<>(cluster, cluster.getDatabase("db1"), target, progress, 4))
+			{
+				SynchronizationSupport support = context.getSynchronizationSupport();
+				
+				support.dropForeignKeys();
+				
+				assertEquals(0, countForeignKeys(ds2));
+				
+				support.restoreForeignKeys();
+				
+				assertEquals(3, countForeignKeys(ds2));
+				
+				// Constraint phases run on the executor of the context, which outlives them
+				assertFalse(context.getExecutor().isShutdown());
+			}
+		}
+	}
+	
+	private static TableProperties createTable(String name, String... foreignTables) throws SQLException
+	{
+		TableProperties table = mock(TableProperties.class);
+		QualifiedName tableName = mock(QualifiedName.class);
+		List<ForeignKeyConstraint> constraints = new ArrayList<>(foreignTables.length);
+		
+		for (String foreignTable: foreignTables)
+		{
+			ForeignKeyConstraint constraint = mock(ForeignKeyConstraint.class);
+			QualifiedName foreignTableName = mock(QualifiedName.class);
+			when(foreignTableName.getDMLName()).thenReturn(foreignTable);
+			when(constraint.getForeignTable()).thenReturn(foreignTableName);
+			constraints.add(constraint);
+		}
+		
+		when(tableName.getDMLName()).thenReturn(name);
+		when(table.getName()).thenReturn(tableName);
+		when(table.getForeignKeyConstraints()).thenReturn(constraints);
+		
+		return table;
+	}
+	
+	/**
+	 * Creates a cycle of foreign keys between tables a and b, a foreign key from c to d, and an unrelated table e.
+	 */
+	private static JDBCDataSource createDataSource(String name) throws SQLException
+	{
+		JDBCDataSource ds = new JDBCDataSource();
+		ds.setUrl(String.format("jdbc:hsqldb:mem:%s", name));
+		
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				for (String table: Arrays.asList("a", "b", "c", "d", "e"))
+				{
+					s.execute(String.format("CREATE TABLE %s (id INTEGER NOT NULL, ref INTEGER, PRIMARY KEY (id))", table));
+				}
+				s.execute("ALTER TABLE a ADD CONSTRAINT a_b FOREIGN KEY (ref) REFERENCES b (id)");
+				s.execute("ALTER TABLE b ADD CONSTRAINT b_a FOREIGN KEY (ref) REFERENCES a (id)");
+				s.execute("ALTER TABLE c ADD CONSTRAINT c_d FOREIGN KEY (ref) REFERENCES d (id)");
+			}
+		}
+		return ds;
+	}
+	
+	private static int countForeignKeys(JDBCDataSource ds) throws SQLException
+	{
+		try (Connection c = ds.getConnection())
+		{
+			try (Statement s = c.createStatement())
+			{
+				try (ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE CONSTRAINT_TYPE = 'FOREIGN KEY' AND TABLE_SCHEMA = 'PUBLIC'"))
+				{
+					assertTrue(rs.next());
+					return rs.getInt(1);
+				}
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase> getDatabaseCluster(DataSource ds) throws SQLException
+	{
+		AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?> handler = (AbstractInvocationHandler<javax.sql.DataSource, DataSourceDatabase, ?, ?, ?>) Proxy.getInvocationHandler(ds.getProxy());
+		return (DatabaseClusterImpl<javax.sql.DataSource, DataSourceDatabase>) handler.getProxyFactory().getDatabaseCluster();
+	}
+}
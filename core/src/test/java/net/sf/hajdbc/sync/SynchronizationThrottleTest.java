@@ -0,0 +1,129 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SynchronizationThrottle}.
+ * @author Paul Ferraro
+ */
+public class SynchronizationThrottleTest
+{
+	@Test
+	public void unlimited() throws InterruptedException
+	{
+		SynchronizationThrottle throttle = new SynchronizationThrottle(0, 0);
+		long start = System.nanoTime();
+		
+		for (int i = 0; i < 1000; ++i)
+		{
+			throttle.acquire(1000, 1000000);
+		}
+		
+		assertTrue(elapsedMillis(start) < 1000);
+	}
+	
+	@Test
+	public void maxRowsPerSecond() throws InterruptedException
+	{
+		SynchronizationThrottle throttle = new SynchronizationThrottle(100, 0);
+		long start = System.nanoTime();
+		
+		// The first acquisition is free, each of the remaining 20 costs 10ms
+		for (int i = 0; i <= 20; ++i)
+		{
+			throttle.acquire(1, 1000000);
+		}
+		
+		long elapsed = elapsedMillis(start);
+		assertTrue(String.valueOf(elapsed), elapsed >= 190);
+		assertTrue(String.valueOf(elapsed), elapsed < 2000);
+	}
+	
+	@Test
+	public void maxBytesPerSecond() throws InterruptedException
+	{
+		SynchronizationThrottle throttle = new SynchronizationThrottle(0, 1000);
+		long start = System.nanoTime();
+		
+		// The first acquisition is free, the second waits for 100 bytes worth, i.e. 100ms
+		throttle.acquire(1, 100);
+		throttle.acquire(1, 100);
+		
+		long elapsed = elapsedMillis(start);
+		assertTrue(String.valueOf(elapsed), elapsed >= 90);
+		assertTrue(String.valueOf(elapsed), elapsed < 2000);
+	}
+	
+	@Test
+	public void idleCreditIsNotAccumulated() throws InterruptedException
+	{
+		SynchronizationThrottle throttle = new SynchronizationThrottle(100, 0);
+		
+		Thread.sleep(200);
+		
+		long start = System.nanoTime();
+		
+		// Idle time does not allow a burst
+		throttle.acquire(10, 0);
+		throttle.acquire(10, 0);
+		
+		long elapsed = elapsedMillis(start);
+		assertTrue(String.valueOf(elapsed), elapsed >= 90);
+	}
+	
+	@Test
+	public void adjust() throws InterruptedException
+	{
+		SynchronizationThrottle throttle = new SynchronizationThrottle(1, 0);
+		
+		assertEquals(1L, throttle.getMaxRowsPerSecond());
+		
+		throttle.setMaxRowsPerSecond(0);
+		throttle.setMaxBytesPerSecond(0);
+		
+		long start = System.nanoTime();
+		
+		throttle.acquire(1000, 1000);
+		throttle.acquire(1000, 1000);
+		
+		assertTrue(elapsedMillis(start) < 1000);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeMaxRowsPerSecond()
+	{
+		new SynchronizationThrottle(-1, 0);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeMaxBytesPerSecond()
+	{
+		new SynchronizationThrottle(0, 0).setMaxBytesPerSecond(-1);
+	}
+	
+	private static long elapsedMillis(long start)
+	{
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+}
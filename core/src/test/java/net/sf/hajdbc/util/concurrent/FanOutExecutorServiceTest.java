@@ -0,0 +1,111 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.concurrent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class FanOutExecutorServiceTest
+{
+	@Test
+	public void invokeAll() throws InterruptedException, ExecutionException
+	{
+		ExecutorService executor = new FanOutExecutorService(Executors.newCachedThreadPool(), 1);
+		try
+		{
+			Thread caller = Thread.currentThread();
+			List<Future<Thread>> futures = executor.invokeAll(Arrays.asList(new Task("primary"), new Task("backup1"), new Task("backup2")));
+			
+			Assert.assertEquals(3, futures.size());
+			// First task runs in the caller thread
+			Assert.assertSame(caller, futures.get(0).get());
+			Assert.assertNotSame(caller, futures.get(1).get());
+			Assert.assertNotSame(caller, futures.get(2).get());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void backpressure() throws InterruptedException, ExecutionException
+	{
+		ExecutorService executor = new FanOutExecutorService(Executors.newCachedThreadPool(), 1);
+		try
+		{
+			final CountDownLatch latch = new CountDownLatch(1);
+			Future<Thread> blocked = executor.submit(new Task("backup")
+			{
+				@Override
+				public Thread call() throws InterruptedException
+				{
+					latch.await(10, TimeUnit.SECONDS);
+					return super.call();
+				}
+			});
+			
+			// Partition is full, so task runs in the caller thread
+			Assert.assertSame(Thread.currentThread(), executor.submit(new Task("backup")).get());
+			// Other partitions are unaffected
+			Assert.assertNotSame(Thread.currentThread(), executor.submit(new Task("other")).get());
+			
+			latch.countDown();
+			Assert.assertNotSame(Thread.currentThread(), blocked.get());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	static class Task implements Callable<Thread>, PartitionedTask
+	{
+		private final String partition;
+		
+		Task(String partition)
+		{
+			this.partition = partition;
+		}
+		
+		@Override
+		public Object getPartition()
+		{
+			return this.partition;
+		}
+
+		@Override
+		public Thread call() throws InterruptedException
+		{
+			return Thread.currentThread();
+		}
+	}
+}
@@ -0,0 +1,251 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.concurrent;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.hajdbc.TransactionCompletion;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class OrderedExecutorTest
+{
+	@Test
+	public void primaryCompletion() throws InterruptedException, ExecutionException
+	{
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try
+		{
+			Lanes lanes = new Lanes();
+			List<String> log = new ArrayList<>();
+			CountDownLatch latch = new CountDownLatch(1);
+			
+			List<Future<Integer>> futures = new OrderedExecutor(executor, lanes, TransactionCompletion.PRIMARY, false).invokeAll(Arrays.asList(new Task("primary", 1, log), new Task("backup", 1, log, latch)));
+			
+			// Only the primary is awaited
+			Assert.assertTrue(futures.get(0).isDone());
+			Assert.assertFalse(futures.get(1).isDone());
+			
+			futures = new OrderedExecutor(executor, lanes, TransactionCompletion.PRIMARY, false).invokeAll(Arrays.asList(new Task("primary", 2, log), new Task("backup", 2, log)));
+			
+			Assert.assertTrue(futures.get(0).isDone());
+			Assert.assertFalse(futures.get(1).isDone());
+			
+			latch.countDown();
+			
+			// Ending the transaction drains every lane, then executes against the primary last
+			futures = new OrderedExecutor(executor, lanes, TransactionCompletion.PRIMARY, true).invokeAll(Arrays.asList(new Task("primary", 3, log), new Task("backup", 3, log)));
+			
+			Assert.assertTrue(futures.get(0).isDone());
+			Assert.assertTrue(futures.get(1).isDone());
+			Assert.assertEquals(Arrays.asList("primary:1", "primary:2", "backup:1", "backup:2", "backup:3", "primary:3"), log);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void allCompletion() throws InterruptedException
+	{
+		ExecutorService executor = Executors.newCachedThreadPool();
+		Lanes lanes = new Lanes();
+		try
+		{
+			List<Future<Integer>> futures = new OrderedExecutor(executor, lanes, TransactionCompletion.ALL, false).invokeAll(Arrays.asList(new Task("primary", 1), new Task("backup", 1)));
+			
+			Assert.assertTrue(futures.get(0).isDone());
+			Assert.assertTrue(futures.get(1).isDone());
+		}
+		finally
+		{
+			lanes.await();
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void failure() throws InterruptedException
+	{
+		ExecutorService executor = Executors.newCachedThreadPool();
+		Lanes lanes = new Lanes();
+		try
+		{
+			List<Future<Integer>> futures = new OrderedExecutor(executor, lanes, TransactionCompletion.PRIMARY, false).invokeAll(Arrays.asList(new Task("primary", 1), new Task("backup", null)));
+			
+			// Wait for the pending task, without discarding its lane
+			while (!futures.get(1).isDone())
+			{
+				Thread.sleep(10);
+			}
+			
+			// Subsequent tasks of a failed lane fail without executing
+			futures = new OrderedExecutor(executor, lanes, TransactionCompletion.PRIMARY, true).invokeAll(Arrays.asList(new Task("primary", 2), new Task("backup", 2)));
+			
+			try
+			{
+				futures.get(1).get();
+				Assert.fail();
+			}
+			catch (ExecutionException e)
+			{
+				Assert.assertTrue(e.getCause() instanceof SQLException);
+			}
+			
+			// Lanes are discarded once the transaction ends
+			futures = new OrderedExecutor(executor, lanes, TransactionCompletion.ALL, false).invokeAll(Arrays.asList(new Task("primary", 3), new Task("backup", 3)));
+			
+			Assert.assertEquals(Integer.valueOf(3), futures.get(1).get());
+		}
+		catch (ExecutionException e)
+		{
+			Assert.fail(e.getMessage());
+		}
+		finally
+		{
+			lanes.await();
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void await() throws InterruptedException
+	{
+		ExecutorService executor = Executors.newCachedThreadPool();
+		Lanes lanes = new Lanes();
+		try
+		{
+			CountDownLatch latch = new CountDownLatch(1);
+			List<String> log = new ArrayList<>();
+			
+			new OrderedExecutor(executor, lanes, TransactionCompletion.PRIMARY, false).invokeAll(Arrays.asList(new Task("primary", 1, log), new Task("backup", 1, log, latch), new Task("failed", null, log, latch)));
+			
+			latch.countDown();
+			
+			// Awaiting the lanes reports each failed partition
+			Map<Object, Throwable> failures = lanes.await();
+			
+			Assert.assertEquals(Arrays.asList("primary:1", "backup:1"), log);
+			Assert.assertEquals(1, failures.size());
+			Assert.assertTrue(failures.get("failed") instanceof SQLException);
+			
+			// Lanes are discarded once awaited
+			Assert.assertTrue(lanes.await().isEmpty());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void independentLanes() throws InterruptedException, ExecutionException
+	{
+		ExecutorService executor = Executors.newCachedThreadPool();
+		Lanes blocked = new Lanes();
+		Lanes lanes = new Lanes();
+		CountDownLatch latch = new CountDownLatch(1);
+		try
+		{
+			List<Future<Integer>> futures = new OrderedExecutor(executor, blocked, TransactionCompletion.PRIMARY, false).invokeAll(Arrays.asList(new Task("primary", 1), new Task("backup", 1, new ArrayList<String>(), latch)));
+			
+			Assert.assertFalse(futures.get(1).isDone());
+			
+			// The lanes of one transaction never delay, nor observe, another transaction against the same partitions
+			futures = new OrderedExecutor(executor, lanes, TransactionCompletion.PRIMARY, true).invokeAll(Arrays.asList(new Task("primary", 2), new Task("backup", 2)));
+			
+			Assert.assertEquals(Integer.valueOf(2), futures.get(1).get());
+			Assert.assertTrue(lanes.await().isEmpty());
+			
+			latch.countDown();
+			
+			Assert.assertTrue(blocked.await().isEmpty());
+		}
+		finally
+		{
+			latch.countDown();
+			executor.shutdownNow();
+		}
+	}
+	
+	static class Task implements Callable<Integer>, PartitionedTask
+	{
+		private final String partition;
+		private final Integer result;
+		private final List<String> log;
+		private final CountDownLatch latch;
+		
+		Task(String partition, Integer result)
+		{
+			this(partition, result, new ArrayList<String>());
+		}
+		
+		Task(String partition, Integer result, List<String> log)
+		{
+			this(partition, result, log, new CountDownLatch(0));
+		}
+		
+		Task(String partition, Integer result, List<String> log, CountDownLatch latch)
+		{
+			this.partition = partition;
+			this.result = result;
+			this.log = log;
+			this.latch = latch;
+		}
+		
+		@Override
+		public Object getPartition()
+		{
+			return this.partition;
+		}
+
+		@Override
+		public Integer call() throws InterruptedException, SQLException
+		{
+			this.latch.await(10, TimeUnit.SECONDS);
+			
+			if (this.result == null)
+			{
+				throw new SQLException(this.partition);
+			}
+			
+			synchronized (this.log)
+			{
+				this.log.add(this.partition + ":" + this.result);
+			}
+			
+			return this.result;
+		}
+	}
+}
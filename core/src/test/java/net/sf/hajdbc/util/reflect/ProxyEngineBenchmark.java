@@ -0,0 +1,119 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.reflect;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of proxy creation and per-database dispatch for each {@link ProxyEngine}.
+ * Run with the GC profiler, so that the allocation rate per operation (gc.alloc.rate.norm) is reported alongside the latency.
+ * Not run as part of the test suite; run via {@link #main(String[])}, from the test classpath.
+ * @author Paul Ferraro
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyEngineBenchmark
+{
+	@Param({ "reflection", "method-handle" })
+	String engineId;
+	
+	ProxyEngine engine;
+	InvocationHandler handler;
+	Savepoint target;
+	Savepoint proxy;
+	Method getSavepointId;
+	
+	@Setup
+	public void setup() throws NoSuchMethodException
+	{
+		this.engine = ProxyEngine.forId(this.engineId);
+		this.target = new Savepoint()
+		{
+			@Override
+			public int getSavepointId()
+			{
+				return 1;
+			}
+
+			@Override
+			public String getSavepointName()
+			{
+				return "savepoint";
+			}
+		};
+		final ProxyEngine engine = this.engine;
+		final Savepoint target = this.target;
+		this.handler = new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] parameters) throws Throwable
+			{
+				return engine.invoke(method, target, parameters);
+			}
+		};
+		this.proxy = this.engine.createProxy(Savepoint.class, this.handler);
+		this.getSavepointId = Savepoint.class.getMethod("getSavepointId");
+	}
+	
+	@Benchmark
+	public Savepoint createProxy()
+	{
+		return this.engine.createProxy(Savepoint.class, this.handler);
+	}
+	
+	@Benchmark
+	public Object dispatch() throws Throwable
+	{
+		return this.engine.invoke(this.getSavepointId, this.target);
+	}
+	
+	@Benchmark
+	public int proxy() throws SQLException
+	{
+		return this.proxy.getSavepointId();
+	}
+	
+	public static void main(String... args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder().include(ProxyEngineBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+	}
+}
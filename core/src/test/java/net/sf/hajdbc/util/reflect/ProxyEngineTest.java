@@ -0,0 +1,83 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.reflect;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class ProxyEngineTest
+{
+	@Test
+	public void forId()
+	{
+		assertSame(ProxyEngine.REFLECTION, ProxyEngine.forId("reflection"));
+		assertSame(ProxyEngine.METHOD_HANDLE, ProxyEngine.forId("method-handle"));
+	}
+	
+	@Test
+	public void reflection() throws Throwable
+	{
+		this.test(ProxyEngine.REFLECTION);
+	}
+	
+	@Test
+	public void methodHandle() throws Throwable
+	{
+		this.test(ProxyEngine.METHOD_HANDLE);
+	}
+	
+	private void test(ProxyEngine engine) throws Throwable
+	{
+		Statement statement = mock(Statement.class);
+		SQLException exception = new SQLException();
+		
+		when(statement.getMaxRows()).thenReturn(10);
+		when(statement.execute("SELECT")).thenThrow(exception);
+		
+		Statement proxy = engine.createProxy(Statement.class, new SimpleInvocationHandler(statement));
+		
+		proxy.setMaxRows(5);
+		
+		verify(statement).setMaxRows(5);
+		
+		assertEquals(10, proxy.getMaxRows());
+		assertEquals(10, engine.invoke(Statement.class.getMethod("getMaxRows"), statement, (Object[]) null));
+		
+		engine.invoke(Statement.class.getMethod("setFetchSize", int.class), statement, 20);
+		
+		verify(statement).setFetchSize(20);
+		
+		try
+		{
+			engine.invoke(Statement.class.getMethod("execute", String.class), statement, "SELECT");
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertSame(exception, e);
+		}
+	}
+}
@@ -20,6 +20,8 @@ package net.sf.hajdbc.lock.distributed;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -35,6 +37,7 @@ import net.sf.hajdbc.DatabaseCluster;
 import net.sf.hajdbc.distributed.CommandDispatcherFactory;
 import net.sf.hajdbc.distributed.jgroups.JGroupsCommandDispatcherFactory;
 import net.sf.hajdbc.lock.LockManager;
+import net.sf.hajdbc.lock.MultiLockManager;
 import net.sf.hajdbc.lock.semaphore.SemaphoreLockManager;
 
 /**
@@ -169,6 +172,33 @@ public class DistributedLockManagerTest
 		}
 	}
 	
+	@Test
+	public void multiple()
+	{
+		Lock lock1 = ((MultiLockManager) this.manager1).writeLock(new TreeSet<>(Arrays.asList("1", "2", "3")));
+		Lock lock2 = this.manager2.writeLock("2");
+		Lock lock3 = ((MultiLockManager) this.manager2).writeLock(new TreeSet<>(Arrays.asList("3", "4")));
+		
+		assertTrue(lock1.tryLock());
+		
+		try
+		{
+			// Validate that each named lock is held by a remote member
+			assertFalse(lock2.tryLock());
+			
+			// Validate that partial acquisition is rolled back
+			assertFalse(lock3.tryLock());
+			test(this.manager2.writeLock("4"));
+		}
+		finally
+		{
+			lock1.unlock();
+		}
+		
+		test(lock2);
+		test(lock3);
+	}
+	
 	@Test
 	public void failover() throws Exception
 	{
@@ -216,4 +246,123 @@ public class DistributedLockManagerTest
 			executor.shutdownNow();
 		}
 	}
+	
+	@Test
+	public void lease() throws Exception
+	{
+		String id = "lease";
+		DatabaseCluster<?, ?> cluster1 = mock(DatabaseCluster.class);
+		DatabaseCluster<?, ?> cluster2 = mock(DatabaseCluster.class);
+		LockManager lockManager1 = new SemaphoreLockManager(false);
+		LockManager lockManager2 = new SemaphoreLockManager(false);
+
+		when(cluster1.getId()).thenReturn(id);
+		when(cluster1.getLockManager()).thenReturn(lockManager1);
+		when(cluster1.getThreadFactory()).thenReturn(Executors.defaultThreadFactory());
+		when(cluster2.getId()).thenReturn(id);
+		when(cluster2.getLockManager()).thenReturn(lockManager2);
+		when(cluster2.getThreadFactory()).thenReturn(Executors.defaultThreadFactory());
+
+		LockManager manager1 = new DistributedLockManager(cluster1, createCommandDispatcherFactory("lease1"), TimeUnit.MINUTES.toMillis(1), false);
+		manager1.start();
+		try
+		{
+			LockManager manager2 = new DistributedLockManager(cluster2, createCommandDispatcherFactory("lease2"), TimeUnit.MINUTES.toMillis(1), false);
+			manager2.start();
+			try
+			{
+				Lock lock1 = manager1.writeLock("1");
+				Lock lock2 = manager2.writeLock("1");
+				
+				// Lease is retained after unlock, and re-granted locally
+				test(lock1);
+				test(lock1);
+				
+				// Remote member only acquires the lock once the lease is revoked
+				assertTrue(lock2.tryLock(10, TimeUnit.SECONDS));
+				
+				try
+				{
+					// Local use of a lease still excludes other members
+					assertFalse(lock1.tryLock());
+				}
+				finally
+				{
+					lock2.unlock();
+				}
+				
+				// Global write lock revokes all leases
+				Lock globalLock = manager1.writeLock(null);
+				assertTrue(globalLock.tryLock(10, TimeUnit.SECONDS));
+				globalLock.unlock();
+			}
+			finally
+			{
+				manager2.stop();
+			}
+		}
+		finally
+		{
+			manager1.stop();
+		}
+	}
+
+	@Test
+	public void hashing() throws Exception
+	{
+		String id = "hashing";
+		DatabaseCluster<?, ?> cluster1 = mock(DatabaseCluster.class);
+		DatabaseCluster<?, ?> cluster2 = mock(DatabaseCluster.class);
+		LockManager lockManager1 = new SemaphoreLockManager(false);
+		LockManager lockManager2 = new SemaphoreLockManager(false);
+
+		when(cluster1.getId()).thenReturn(id);
+		when(cluster1.getLockManager()).thenReturn(lockManager1);
+		when(cluster1.getThreadFactory()).thenReturn(Executors.defaultThreadFactory());
+		when(cluster2.getId()).thenReturn(id);
+		when(cluster2.getLockManager()).thenReturn(lockManager2);
+		when(cluster2.getThreadFactory()).thenReturn(Executors.defaultThreadFactory());
+
+		LockManager manager1 = new DistributedLockManager(cluster1, createCommandDispatcherFactory("hashing1"), 0, true);
+		manager1.start();
+		try
+		{
+			LockManager manager2 = new DistributedLockManager(cluster2, createCommandDispatcherFactory("hashing2"), 0, true);
+			manager2.start();
+			try
+			{
+				// Lock identifiers are owned by either member
+				for (int i = 0; i < 10; ++i)
+				{
+					String lockId = String.valueOf(i);
+					Lock lock1 = manager1.writeLock(lockId);
+					Lock lock2 = manager2.writeLock(lockId);
+					
+					assertTrue(lock1.tryLock());
+					try
+					{
+						assertFalse(lock2.tryLock());
+						
+						// Global write lock is excluded by named locks owned by any member
+						Lock globalLock = manager2.writeLock(null);
+						assertFalse(globalLock.tryLock());
+					}
+					finally
+					{
+						lock1.unlock();
+					}
+					
+					test(lock2);
+				}
+			}
+			finally
+			{
+				manager2.stop();
+			}
+		}
+		finally
+		{
+			manager1.stop();
+		}
+	}
 }